@@ -32,7 +32,9 @@ public abstract class OjAlgoUtils {
 
     /**
      * This is set for you, but you may want to set it to something different/better. Create a
-     * {@linkplain Hardware} instance and then call {@linkplain Hardware#virtualise()}.
+     * {@linkplain Hardware} instance and then call {@linkplain Hardware#virtualise()}. When possible the
+     * actual cache hierarchy is detected (see {@linkplain Hardware#detect()}), otherwise one of the
+     * predefined hardware profiles is used.
      */
     public static VirtualMachine ENVIRONMENT = null;
 
@@ -42,9 +44,15 @@ public abstract class OjAlgoUtils {
         final long tmpMemory = VirtualMachine.getMemory();
         final int tmpThreads = VirtualMachine.getThreads();
 
-        for (final Hardware hw : Hardware.PREDEFINED) {
-            if (hw.architecture.equals(tmpArchitecture) && (hw.threads <= tmpThreads) && (hw.memory >= tmpMemory)) {
-                ENVIRONMENT = hw.virtualise();
+        final Hardware tmpDetected = Hardware.detect();
+
+        if (tmpDetected != null) {
+            ENVIRONMENT = tmpDetected.virtualise();
+        } else {
+            for (final Hardware hw : Hardware.PREDEFINED) {
+                if (hw.architecture.equals(tmpArchitecture) && (hw.threads <= tmpThreads) && (hw.memory >= tmpMemory)) {
+                    ENVIRONMENT = hw.virtualise();
+                }
             }
         }
 
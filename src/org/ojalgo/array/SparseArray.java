@@ -26,6 +26,7 @@ import java.util.Arrays;
 import java.util.function.Consumer;
 import java.util.stream.LongStream;
 
+import org.ojalgo.OjAlgoUtils;
 import org.ojalgo.access.Access1D;
 import org.ojalgo.access.ElementView1D;
 import org.ojalgo.access.Mutate1D;
@@ -49,6 +50,147 @@ import org.ojalgo.type.context.NumberContext;
  */
 public final class SparseArray<N extends Number> extends BasicArray<N> {
 
+    /**
+     * Collects (index, value) pairs in any order, and possibly from several threads at the same time, and
+     * then fills a {@link SparseArray} with all of them at once. The pairs are sorted (radix sort) and
+     * duplicates summed only once, instead of inserting into the sorted arrays of the {@link SparseArray}
+     * one element at the time.
+     */
+    public static final class Loader {
+
+        private static final class Buffer {
+
+            long[] indices = new long[0];
+            int length = 0;
+            double[] values = new double[0];
+
+            synchronized void add(final long index, final double value) {
+                if (length == indices.length) {
+                    final int tmpCapacity = Math.max(INITIAL, length + length);
+                    indices = Arrays.copyOf(indices, tmpCapacity);
+                    values = Arrays.copyOf(values, tmpCapacity);
+                }
+                indices[length] = index;
+                values[length] = value;
+                length++;
+            }
+
+            synchronized int copyTo(final long[] destinationIndices, final double[] destinationValues, final int first) {
+                System.arraycopy(indices, 0, destinationIndices, first, length);
+                System.arraycopy(values, 0, destinationValues, first, length);
+                return first + length;
+            }
+
+            synchronized int length() {
+                return length;
+            }
+
+        }
+
+        private static final int BITS = 11;
+        private static final int INITIAL = 1024;
+
+        /**
+         * Threads are spread over the buffers by id - unlike a {@link ThreadLocal} nothing is left behind on
+         * the (pool) threads that added, and there is only contention when two threads share a buffer.
+         */
+        private final Buffer[] myBuffers = new Buffer[1 << PrimitiveMath.powerOf2Larger(2 * OjAlgoUtils.ENVIRONMENT.threads)];
+
+        public Loader() {
+
+            super();
+
+            for (int b = 0; b < myBuffers.length; b++) {
+                myBuffers[b] = new Buffer();
+            }
+        }
+
+        /**
+         * Thread safe. Duplicate indices are summed.
+         */
+        public void add(final long index, final double value) {
+            if (index < 0L) {
+                throw new ArrayIndexOutOfBoundsException("Index " + index + " is negative!");
+            }
+            myBuffers[(int) Thread.currentThread().getId() & (myBuffers.length - 1)].add(index, value);
+        }
+
+        /**
+         * Resets the destination array and then fills it with everything added so far. Make sure any other
+         * threads have finished adding before calling this.
+         *
+         * @exception ArrayIndexOutOfBoundsException If an added index is not less than the destination's
+         *            count - the destination is then left unchanged.
+         */
+        public void supplyTo(final SparseArray<?> destination) {
+
+            int tmpLength = 0;
+            for (final Buffer tmpBuffer : myBuffers) {
+                tmpLength += tmpBuffer.length();
+            }
+
+            long[] tmpIndices = new long[tmpLength];
+            double[] tmpValues = new double[tmpLength];
+            long tmpMax = 0L;
+
+            int tmpPosition = 0;
+            for (final Buffer tmpBuffer : myBuffers) {
+                tmpPosition = tmpBuffer.copyTo(tmpIndices, tmpValues, tmpPosition);
+            }
+            for (int i = 0; i < tmpLength; i++) {
+                tmpMax = Math.max(tmpMax, tmpIndices[i]);
+            }
+            if ((tmpLength > 0) && (tmpMax >= destination.count())) {
+                throw new ArrayIndexOutOfBoundsException("Index " + tmpMax + " is not less than the count " + destination.count() + "!");
+            }
+
+            // LSD radix sort, BITS at the time, only as many passes as the largest index requires
+            long[] tmpSortedIndices = new long[tmpLength];
+            double[] tmpSortedValues = new double[tmpLength];
+            final int[] tmpCounts = new int[1 << BITS];
+            final long tmpMask = (1L << BITS) - 1L;
+            for (int tmpShift = 0; (tmpMax >>> tmpShift) != 0L; tmpShift += BITS) {
+
+                Arrays.fill(tmpCounts, 0);
+                for (int i = 0; i < tmpLength; i++) {
+                    tmpCounts[(int) ((tmpIndices[i] >>> tmpShift) & tmpMask)]++;
+                }
+                for (int d = 0, tmpSum = 0; d < tmpCounts.length; d++) {
+                    final int tmpCount = tmpCounts[d];
+                    tmpCounts[d] = tmpSum;
+                    tmpSum += tmpCount;
+                }
+                for (int i = 0; i < tmpLength; i++) {
+                    final int tmpTo = tmpCounts[(int) ((tmpIndices[i] >>> tmpShift) & tmpMask)]++;
+                    tmpSortedIndices[tmpTo] = tmpIndices[i];
+                    tmpSortedValues[tmpTo] = tmpValues[i];
+                }
+
+                final long[] tmpSwapIndices = tmpIndices;
+                tmpIndices = tmpSortedIndices;
+                tmpSortedIndices = tmpSwapIndices;
+                final double[] tmpSwapValues = tmpValues;
+                tmpValues = tmpSortedValues;
+                tmpSortedValues = tmpSwapValues;
+            }
+
+            // Sum duplicates, in place
+            int tmpCount = 0;
+            for (int i = 0; i < tmpLength; i++) {
+                if ((tmpCount > 0) && (tmpIndices[tmpCount - 1] == tmpIndices[i])) {
+                    tmpValues[tmpCount - 1] += tmpValues[i];
+                } else {
+                    tmpIndices[tmpCount] = tmpIndices[i];
+                    tmpValues[tmpCount] = tmpValues[i];
+                    tmpCount++;
+                }
+            }
+
+            destination.load(tmpIndices, tmpValues, tmpCount);
+        }
+
+    }
+
     public static final class NonzeroView<N extends Number> implements ElementView1D<N, NonzeroView<N>> {
 
         private int myCursor = -1;
@@ -826,6 +968,39 @@ public final class SparseArray<N extends Number> extends BasicArray<N> {
         return myIndices[myActualLength - 1];
     }
 
+    /**
+     * Replaces everything with these sorted, unique, indices and their values. Zeros are not stored.
+     */
+    void load(final long[] indices, final double[] values, final int length) {
+
+        int tmpNonzeros = 0;
+        for (int i = 0; i < length; i++) {
+            if (NumberContext.compare(values[i], PrimitiveMath.ZERO) != 0) {
+                tmpNonzeros++;
+            }
+        }
+
+        final int tmpCapacity = Math.max(tmpNonzeros, myStrategy.initial());
+        final long[] tmpIndices = new long[tmpCapacity];
+        final DenseArray<N> tmpValues = myStrategy.make(tmpCapacity);
+
+        int tmpCount = 0;
+        for (int i = 0; i < length; i++) {
+            if (NumberContext.compare(values[i], PrimitiveMath.ZERO) != 0) {
+                tmpIndices[tmpCount] = indices[i];
+                tmpValues.set(tmpCount, values[i]);
+                tmpCount++;
+            }
+        }
+        for (int i = tmpCount; i < tmpCapacity; i++) {
+            tmpIndices[i] = Long.MAX_VALUE;
+        }
+
+        myIndices = tmpIndices;
+        myValues = tmpValues;
+        myActualLength = tmpCount;
+    }
+
     void put(final long key, final int index, final double value) {
         this.update(key, index, value, true);
     }
@@ -50,6 +50,18 @@ public abstract class AXPY implements BLAS1 {
         }
     }
 
+    public static void invoke(final float[] y, final int basey, final double a, final double[] x, final int basex, final int first, final int limit) {
+        for (int i = first; i < limit; i++) {
+            y[basey + i] += a * x[basex + i];
+        }
+    }
+
+    public static void invoke(final float[] y, final int basey, final float a, final float[] x, final int basex, final int first, final int limit) {
+        for (int i = first; i < limit; i++) {
+            y[basey + i] += a * x[basex + i];
+        }
+    }
+
     public static void invoke(final Mutate1D y, final double a, final BigDecimal[] x) {
         final BigDecimal tmpA = new BigDecimal(a);
         for (int i = 0; i < x.length; i++) {
@@ -62,6 +62,22 @@ public abstract class DOT implements BLAS1 {
         return retVal;
     }
 
+    public static double invoke(final float[] array1, final int offset1, final double[] array2, final int offset2, final int first, final int limit) {
+        double retVal = PrimitiveMath.ZERO;
+        for (int i = first; i < limit; i++) {
+            retVal += array1[offset1 + i] * array2[offset2 + i];
+        }
+        return retVal;
+    }
+
+    public static float invoke(final float[] array1, final int offset1, final float[] array2, final int offset2, final int first, final int limit) {
+        float retVal = 0F;
+        for (int i = first; i < limit; i++) {
+            retVal += array1[offset1 + i] * array2[offset2 + i];
+        }
+        return retVal;
+    }
+
     public static double invoke2(final double[] array1, final int offset1, final double[] array2, final int offset2, final int first, final int limit) {
 
         double retVal = PrimitiveMath.ZERO;
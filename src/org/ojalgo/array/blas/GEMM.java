@@ -0,0 +1,368 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array.blas;
+
+import org.ojalgo.OjAlgoUtils;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.constant.PrimitiveMath;
+
+/**
+ * The ?gemm routines compute a scalar-matrix-matrix product and add the result to a scalar-matrix product,
+ * with general matrices. The operation is defined as <code>C := alpha*op(A)*op(B) + beta*C</code> where
+ * op(X) is either X or X<sup>T</sup>. All matrices are stored in column-major order.
+ * <p>
+ * The implementation is cache-blocked: Panels of A and B are packed into contiguous buffers sized to fit
+ * the L2 and L1 caches respectively (as described by {@linkplain OjAlgoUtils#ENVIRONMENT}), and the
+ * innermost work is done by a register-tiled {@value #MR}x{@value #NR} micro-kernel. The largest of the
+ * row/column dimensions of C is split between the available workers.
+ * </p>
+ *
+ * @author apete
+ */
+public abstract class GEMM implements BLAS3 {
+
+    /**
+     * Matrices with all of m, n and k (rows, columns and the common dimension) larger than this should be
+     * multiplied using the blocked algorithm. Also the min number of rows/columns handed to each worker.
+     */
+    public static int THRESHOLD = 64;
+
+    static final int KC;
+    static final int MC;
+    static final int MR = 4;
+    static final int NC = 4096;
+    static final int NR = 4;
+
+    static {
+
+        // A KC x NR panel of B and a MR x KC panel of A should fit in (half) the L1 cache
+        final long tmpKC = (OjAlgoUtils.ENVIRONMENT.cacheL1 / 2L) / (8L * (MR + NR));
+        KC = (int) Math.max(64L, Math.min(512L, (tmpKC / 8L) * 8L));
+
+        // A MC x KC block of A should fit in (half) the L2 cache
+        final long tmpMC = (OjAlgoUtils.ENVIRONMENT.cacheL2 / 2L) / (8L * KC);
+        MC = (int) Math.max(4L * MR, Math.min(1024L, (tmpMC / MR) * MR));
+    }
+
+    /**
+     * <code>C := alpha*op(A)*op(B) + beta*C</code>
+     *
+     * @param m Number of rows in op(A) and C
+     * @param n Number of columns in op(B) and C
+     * @param k Number of columns in op(A) and rows in op(B)
+     * @param alpha Scalar multiplier of the product
+     * @param a The elements of A
+     * @param offsetA Index of the first element of A
+     * @param lda Leading dimension of A (column length of the array A is stored in)
+     * @param transposeA If true op(A) is A<sup>T</sup>
+     * @param b The elements of B
+     * @param offsetB Index of the first element of B
+     * @param ldb Leading dimension of B
+     * @param transposeB If true op(B) is B<sup>T</sup>
+     * @param beta Scalar multiplier of C before the product is added. If it is 0 C does not need to be
+     *        initialised.
+     * @param c The elements of C
+     * @param offsetC Index of the first element of C
+     * @param ldc Leading dimension of C
+     */
+    public static void invoke(final int m, final int n, final int k, final double alpha, final double[] a, final int offsetA, final int lda,
+            final boolean transposeA, final double[] b, final int offsetB, final int ldb, final boolean transposeB, final double beta, final double[] c,
+            final int offsetC, final int ldc) {
+
+        if ((m <= 0) || (n <= 0)) {
+            return;
+        }
+
+        if (n >= m) {
+
+            final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    final int tmpOffsetB = offsetB + (transposeB ? first : first * ldb);
+                    GEMM.invoke(m, limit - first, k, alpha, a, offsetA, lda, transposeA, b, tmpOffsetB, ldb, transposeB, beta, c, offsetC + (first * ldc), ldc,
+                            GEMM.makePackedA(m, k), GEMM.makePackedB(k, limit - first));
+                }
+
+            };
+
+            tmpConquerer.invoke(0, n, Math.max(THRESHOLD, NR));
+
+        } else {
+
+            final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    final int tmpOffsetA = offsetA + (transposeA ? first * lda : first);
+                    GEMM.invoke(limit - first, n, k, alpha, a, tmpOffsetA, lda, transposeA, b, offsetB, ldb, transposeB, beta, c, offsetC + first, ldc,
+                            GEMM.makePackedA(limit - first, k), GEMM.makePackedB(k, n));
+                }
+
+            };
+
+            tmpConquerer.invoke(0, m, Math.max(THRESHOLD, MR));
+        }
+    }
+
+    /**
+     * <code>product := left * right</code> with all three matrices stored densely (leading dimension equal
+     * to the number of rows).
+     */
+    public static void invoke(final double[] product, final int m, final int n, final int k, final double[] left, final double[] right) {
+        GEMM.invoke(m, n, k, PrimitiveMath.ONE, left, 0, m, false, right, 0, k, false, PrimitiveMath.ZERO, product, 0, m);
+    }
+
+    static void invoke(final int m, final int n, final int k, final double alpha, final double[] a, final int offsetA, final int lda, final boolean transposeA,
+            final double[] b, final int offsetB, final int ldb, final boolean transposeB, final double beta, final double[] c, final int offsetC, final int ldc,
+            final double[] packedA, final double[] packedB) {
+
+        GEMM.scale(m, n, beta, c, offsetC, ldc);
+
+        if ((k <= 0) || (alpha == PrimitiveMath.ZERO)) {
+            return;
+        }
+
+        for (int jc = 0; jc < n; jc += NC) {
+            final int nc = Math.min(NC, n - jc);
+
+            for (int pc = 0; pc < k; pc += KC) {
+                final int kc = Math.min(KC, k - pc);
+
+                GEMM.packB(kc, nc, b, offsetB, ldb, transposeB, pc, jc, packedB);
+
+                for (int ic = 0; ic < m; ic += MC) {
+                    final int mc = Math.min(MC, m - ic);
+
+                    GEMM.packA(mc, kc, a, offsetA, lda, transposeA, ic, pc, packedA);
+
+                    GEMM.macro(mc, nc, kc, alpha, packedA, packedB, c, offsetC + ic + (jc * ldc), ldc);
+                }
+            }
+        }
+    }
+
+    /**
+     * Loops over the packed micro-panels of one MC x KC block of A and one KC x NC panel of B.
+     */
+    static void macro(final int mc, final int nc, final int kc, final double alpha, final double[] packedA, final double[] packedB, final double[] c,
+            final int offsetC, final int ldc) {
+
+        for (int jr = 0; jr < nc; jr += NR) {
+            final int nr = Math.min(NR, nc - jr);
+            final int tmpOffsetB = jr * kc;
+
+            for (int ir = 0; ir < mc; ir += MR) {
+                final int mr = Math.min(MR, mc - ir);
+
+                GEMM.micro(kc, alpha, packedA, ir * kc, packedB, tmpOffsetB, c, offsetC + ir + (jr * ldc), ldc, mr, nr);
+            }
+        }
+    }
+
+    /**
+     * Multiplies one packed MR x kc micro-panel of A with one packed kc x NR micro-panel of B, and adds alpha
+     * times the result to the (mr x nr, at most MR x NR) block of C.
+     */
+    static void micro(final int kc, final double alpha, final double[] packedA, final int offsetA, final double[] packedB, final int offsetB,
+            final double[] c, final int offsetC, final int ldc, final int mr, final int nr) {
+
+        double c00 = PrimitiveMath.ZERO, c01 = PrimitiveMath.ZERO, c02 = PrimitiveMath.ZERO, c03 = PrimitiveMath.ZERO;
+        double c10 = PrimitiveMath.ZERO, c11 = PrimitiveMath.ZERO, c12 = PrimitiveMath.ZERO, c13 = PrimitiveMath.ZERO;
+        double c20 = PrimitiveMath.ZERO, c21 = PrimitiveMath.ZERO, c22 = PrimitiveMath.ZERO, c23 = PrimitiveMath.ZERO;
+        double c30 = PrimitiveMath.ZERO, c31 = PrimitiveMath.ZERO, c32 = PrimitiveMath.ZERO, c33 = PrimitiveMath.ZERO;
+
+        int ia = offsetA;
+        int ib = offsetB;
+        for (int p = 0; p < kc; p++) {
+
+            final double a0 = packedA[ia];
+            final double a1 = packedA[ia + 1];
+            final double a2 = packedA[ia + 2];
+            final double a3 = packedA[ia + 3];
+
+            double bj = packedB[ib];
+            c00 += a0 * bj;
+            c10 += a1 * bj;
+            c20 += a2 * bj;
+            c30 += a3 * bj;
+
+            bj = packedB[ib + 1];
+            c01 += a0 * bj;
+            c11 += a1 * bj;
+            c21 += a2 * bj;
+            c31 += a3 * bj;
+
+            bj = packedB[ib + 2];
+            c02 += a0 * bj;
+            c12 += a1 * bj;
+            c22 += a2 * bj;
+            c32 += a3 * bj;
+
+            bj = packedB[ib + 3];
+            c03 += a0 * bj;
+            c13 += a1 * bj;
+            c23 += a2 * bj;
+            c33 += a3 * bj;
+
+            ia += MR;
+            ib += NR;
+        }
+
+        if ((mr == MR) && (nr == NR)) {
+
+            int ic = offsetC;
+            c[ic] += alpha * c00;
+            c[ic + 1] += alpha * c10;
+            c[ic + 2] += alpha * c20;
+            c[ic + 3] += alpha * c30;
+
+            ic += ldc;
+            c[ic] += alpha * c01;
+            c[ic + 1] += alpha * c11;
+            c[ic + 2] += alpha * c21;
+            c[ic + 3] += alpha * c31;
+
+            ic += ldc;
+            c[ic] += alpha * c02;
+            c[ic + 1] += alpha * c12;
+            c[ic + 2] += alpha * c22;
+            c[ic + 3] += alpha * c32;
+
+            ic += ldc;
+            c[ic] += alpha * c03;
+            c[ic + 1] += alpha * c13;
+            c[ic + 2] += alpha * c23;
+            c[ic + 3] += alpha * c33;
+
+        } else {
+
+            final double[] tmpBlock = { c00, c10, c20, c30, c01, c11, c21, c31, c02, c12, c22, c32, c03, c13, c23, c33 };
+
+            for (int j = 0; j < nr; j++) {
+                for (int i = 0; i < mr; i++) {
+                    c[offsetC + i + (j * ldc)] += alpha * tmpBlock[i + (j * MR)];
+                }
+            }
+        }
+    }
+
+    static double[] makePackedA(final int m, final int k) {
+        return new double[Math.min(KC, k) * Math.min(MC, GEMM.roundUp(m, MR))];
+    }
+
+    static double[] makePackedB(final int k, final int n) {
+        return new double[Math.min(KC, k) * Math.min(NC, GEMM.roundUp(n, NR))];
+    }
+
+    /**
+     * Packs the mc x kc block of op(A), starting at (ic,pc), into MR-row micro-panels. Each micro-panel is
+     * stored "column by column" (MR consecutive elements per column), and incomplete panels are padded with
+     * zeros.
+     */
+    static void packA(final int mc, final int kc, final double[] a, final int offsetA, final int lda, final boolean transposeA, final int ic, final int pc,
+            final double[] packedA) {
+
+        int index = 0;
+
+        for (int ir = 0; ir < mc; ir += MR) {
+            final int mr = Math.min(MR, mc - ir);
+
+            for (int p = 0; p < kc; p++) {
+
+                if (transposeA) {
+                    final int tmpBase = offsetA + (pc + p) + ((ic + ir) * lda);
+                    for (int r = 0; r < mr; r++) {
+                        packedA[index + r] = a[tmpBase + (r * lda)];
+                    }
+                } else {
+                    final int tmpBase = offsetA + (ic + ir) + ((pc + p) * lda);
+                    for (int r = 0; r < mr; r++) {
+                        packedA[index + r] = a[tmpBase + r];
+                    }
+                }
+                for (int r = mr; r < MR; r++) {
+                    packedA[index + r] = PrimitiveMath.ZERO;
+                }
+
+                index += MR;
+            }
+        }
+    }
+
+    /**
+     * Packs the kc x nc panel of op(B), starting at (pc,jc), into NR-column micro-panels. Each micro-panel
+     * is stored "row by row" (NR consecutive elements per row), and incomplete panels are padded with zeros.
+     */
+    static void packB(final int kc, final int nc, final double[] b, final int offsetB, final int ldb, final boolean transposeB, final int pc, final int jc,
+            final double[] packedB) {
+
+        int index = 0;
+
+        for (int jr = 0; jr < nc; jr += NR) {
+            final int nr = Math.min(NR, nc - jr);
+
+            for (int p = 0; p < kc; p++) {
+
+                if (transposeB) {
+                    final int tmpBase = offsetB + (jc + jr) + ((pc + p) * ldb);
+                    for (int s = 0; s < nr; s++) {
+                        packedB[index + s] = b[tmpBase + s];
+                    }
+                } else {
+                    final int tmpBase = offsetB + (pc + p) + ((jc + jr) * ldb);
+                    for (int s = 0; s < nr; s++) {
+                        packedB[index + s] = b[tmpBase + (s * ldb)];
+                    }
+                }
+                for (int s = nr; s < NR; s++) {
+                    packedB[index + s] = PrimitiveMath.ZERO;
+                }
+
+                index += NR;
+            }
+        }
+    }
+
+    static int roundUp(final int value, final int multiple) {
+        return ((value + multiple) - 1) / multiple * multiple;
+    }
+
+    static void scale(final int m, final int n, final double beta, final double[] c, final int offsetC, final int ldc) {
+        if (beta == PrimitiveMath.ZERO) {
+            for (int j = 0; j < n; j++) {
+                final int tmpBase = offsetC + (j * ldc);
+                for (int i = 0; i < m; i++) {
+                    c[tmpBase + i] = PrimitiveMath.ZERO;
+                }
+            }
+        } else if (beta != PrimitiveMath.ONE) {
+            for (int j = 0; j < n; j++) {
+                final int tmpBase = offsetC + (j * ldc);
+                for (int i = 0; i < m; i++) {
+                    c[tmpBase + i] *= beta;
+                }
+            }
+        }
+    }
+
+}
@@ -21,17 +21,115 @@
  */
 package org.ojalgo.concurrent;
 
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.ojalgo.OjAlgoUtils;
-import org.ojalgo.ProgrammingError;
 
 /**
+ * Recursively splits an index range in halves until either the range is no longer larger than the threshold
+ * or there are no more workers to hand out. All instances share one work-stealing {@link ForkJoinPool} - one
+ * half is computed inline while the other is forked, and a thread waiting to join a subtask helps execute
+ * other pending subtasks instead of parking. Regardless of how many threads call ojAlgo concurrently the
+ * number of worker threads is bounded by {@link #getParallelism()}. The {@link ParallelismContext} in effect
+ * for the calling thread may further limit the number of workers, or select a different pool.
+ *
  * @author apete
  */
 public abstract class DivideAndConquer extends Object {
 
+    final class Divider extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ParallelismContext myContext;
+        private final int myFirst;
+        private final int myLimit;
+        private final int myThreshold;
+        private final int myWorkers;
+
+        Divider(final ParallelismContext context, final int first, final int limit, final int threshold, final int workers) {
+
+            super();
+
+            myContext = context;
+            myFirst = first;
+            myLimit = limit;
+            myThreshold = threshold;
+            myWorkers = workers;
+        }
+
+        @Override
+        protected void compute() {
+
+            final int count = myLimit - myFirst;
+
+            if ((count > myThreshold) && (myWorkers > 1)) {
+
+                final int split = myFirst + (count / 2);
+                final int nextWorkers = myWorkers / 2;
+
+                final Divider secondPart = new Divider(myContext, split, myLimit, myThreshold, nextWorkers);
+                secondPart.fork();
+
+                new Divider(myContext, myFirst, split, myThreshold, nextWorkers).compute();
+
+                secondPart.join();
+
+            } else {
+
+                // Any nested invocation may only use this task's share of the workers
+                final ParallelismContext tmpPrevious = ParallelismContext.enter(myContext.share(myWorkers));
+                try {
+                    DivideAndConquer.this.conquer(myFirst, myLimit);
+                } finally {
+                    ParallelismContext.exit(tmpPrevious);
+                }
+            }
+        }
+
+    }
+
+    private static int PARALLELISM = OjAlgoUtils.ENVIRONMENT.threads;
+    private static ForkJoinPool POOL = null;
+
+    /**
+     * @return The max number of worker threads used to execute divide-and-conquer tasks
+     */
+    public static synchronized int getParallelism() {
+        return PARALLELISM;
+    }
+
+    /**
+     * Changes the max number of worker threads used to execute divide-and-conquer tasks. The default is
+     * {@link OjAlgoUtils#ENVIRONMENT}.threads. Tasks already running complete using the previous pool.
+     *
+     * @param parallelism The max number of worker threads (must be at least 1)
+     */
+    public static synchronized void setParallelism(final int parallelism) {
+
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, was " + parallelism);
+        }
+
+        if (parallelism != PARALLELISM) {
+            PARALLELISM = parallelism;
+            if (POOL != null) {
+                POOL.shutdown();
+                POOL = null;
+            }
+        }
+    }
+
+    static synchronized ForkJoinPool getPool() {
+        if (POOL == null) {
+            POOL = new ForkJoinPool(PARALLELISM, DaemonFactory.INSTANCE, null, false);
+        }
+        return POOL;
+    }
+
     public DivideAndConquer() {
         super();
     }
@@ -45,31 +143,32 @@ public abstract class DivideAndConquer extends Object {
      */
     public final void invoke(final int first, final int limit, final int threshold) {
 
-        final int availableWorkers = OjAlgoUtils.ENVIRONMENT.threads - (DaemonPoolExecutor.INSTANCE.getActiveCount() / 2);
+        final ParallelismContext context = ParallelismContext.current();
 
-        this.divide(first, limit, threshold, availableWorkers);
+        this.divide(context, first, limit, threshold, context.workers());
     }
 
     protected abstract void conquer(final int first, final int limit);
 
-    final void divide(final int first, final int limit, final int threshold, final int workers) {
+    final void divide(final ParallelismContext context, final int first, final int limit, final int threshold, final int workers) {
 
         final int count = limit - first;
 
         if ((count > threshold) && (workers > 1)) {
 
-            final int split = first + (count / 2);
-            final int nextWorkers = workers / 2;
-
-            final Future<?> firstPart = DaemonPoolExecutor.INSTANCE.submit(() -> this.divide(first, split, threshold, nextWorkers));
-            final Future<?> secondPart = DaemonPoolExecutor.INSTANCE.submit(() -> this.divide(split, limit, threshold, nextWorkers));
-
-            try {
-                firstPart.get();
-                secondPart.get();
-            } catch (final InterruptedException | ExecutionException exception) {
-                exception.printStackTrace();
-                throw new ProgrammingError(exception);
+            final ForkJoinPool pool = context.pool();
+            final Divider task = new Divider(context, first, limit, threshold, workers);
+
+            if (ForkJoinTask.getPool() == pool) {
+                // Already running as (part of) a task in this pool - continue inline
+                task.invoke();
+            } else {
+                try {
+                    pool.invoke(task);
+                } catch (final RejectedExecutionException exception) {
+                    // The pool was replaced (parallelism changed) after it was fetched
+                    context.pool().invoke(task);
+                }
             }
 
         } else {
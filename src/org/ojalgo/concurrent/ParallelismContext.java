@@ -0,0 +1,225 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A scoped (per thread) limit on how much parallelism ojAlgo may use. Open a context with one of the static
+ * factory methods, preferably in a try-with-resources statement, and everything ojAlgo does on that thread -
+ * {@link DivideAndConquer} and thereby all the parallel matrix operations, as well as the parallel
+ * branch&amp;bound integer solver - is limited to what the context allows until it is closed.
+ *
+ * <pre>
+ * try (ParallelismContext context = ParallelismContext.limit(2)) {
+ *     product = left.multiply(right);
+ * }
+ * </pre>
+ *
+ * Contexts nest. An inner context can never allow more workers than the enclosing one, and unless it
+ * specifies its own pool it uses the pool of the enclosing context. The context is propagated to the worker
+ * threads executing the tasks it spawns, each of which only gets its share of the workers - nested parallel
+ * operations cannot together exceed the limit.
+ *
+ * @author apete
+ */
+public final class ParallelismContext implements AutoCloseable {
+
+    private static final ThreadLocal<ParallelismContext> ACTIVE = new ThreadLocal<>();
+    private static final ParallelismContext DEFAULT = new ParallelismContext(null, null, Integer.MAX_VALUE);
+
+    /**
+     * @return The context currently in effect for the calling thread - never null.
+     */
+    public static ParallelismContext current() {
+        final ParallelismContext retVal = ACTIVE.get();
+        return retVal != null ? retVal : DEFAULT;
+    }
+
+    /**
+     * Open a context that allows at most the specified number of workers.
+     */
+    public static ParallelismContext limit(final int workers) {
+        return ParallelismContext.open(null, workers);
+    }
+
+    /**
+     * Open a context that forces single-threaded execution - everything is done on the calling thread.
+     */
+    public static ParallelismContext single() {
+        return ParallelismContext.open(null, 1);
+    }
+
+    /**
+     * Open a context that executes parallel tasks using the specified pool rather than the shared one.
+     */
+    public static ParallelismContext using(final ForkJoinPool pool) {
+        return ParallelismContext.open(pool, pool.getParallelism());
+    }
+
+    /**
+     * Open a context that executes parallel tasks using the specified pool, and at most the specified number
+     * of workers.
+     */
+    public static ParallelismContext using(final ForkJoinPool pool, final int workers) {
+        return ParallelismContext.open(pool, workers);
+    }
+
+    static ParallelismContext enter(final ParallelismContext context) {
+        final ParallelismContext retVal = ACTIVE.get();
+        ACTIVE.set(context);
+        return retVal;
+    }
+
+    static void exit(final ParallelismContext previous) {
+        if (previous != null) {
+            ACTIVE.set(previous);
+        } else {
+            ACTIVE.remove();
+        }
+    }
+
+    private static ParallelismContext open(final ForkJoinPool pool, final int workers) {
+
+        if (workers < 1) {
+            throw new IllegalArgumentException("Workers must be at least 1, was " + workers);
+        }
+
+        final ParallelismContext tmpEnclosing = ACTIVE.get();
+
+        final ParallelismContext retVal;
+        if (tmpEnclosing != null) {
+            retVal = new ParallelismContext(tmpEnclosing, pool != null ? pool : tmpEnclosing.getPoolOrNull(), Math.min(workers, tmpEnclosing.workers()));
+        } else {
+            retVal = new ParallelismContext(null, pool, workers);
+        }
+
+        ACTIVE.set(retVal);
+
+        return retVal;
+    }
+
+    private final ParallelismContext myEnclosing;
+    private final ForkJoinPool myPool;
+    private final int myWorkers;
+
+    private ParallelismContext(final ParallelismContext enclosing, final ForkJoinPool pool, final int workers) {
+
+        super();
+
+        myEnclosing = enclosing;
+        myPool = pool;
+        myWorkers = workers;
+    }
+
+    /**
+     * Restores whatever context was in effect when this one was opened. Closing the default context, or a
+     * context that is not the current one for the calling thread, is a no-op.
+     */
+    public void close() {
+        if ((this != DEFAULT) && (ACTIVE.get() == this)) {
+            ParallelismContext.exit(myEnclosing);
+        }
+    }
+
+    public boolean isSingleThreaded() {
+        return this.workers() <= 1;
+    }
+
+    /**
+     * @return The pool to execute parallel tasks in
+     */
+    public ForkJoinPool pool() {
+        return myPool != null ? myPool : DivideAndConquer.getPool();
+    }
+
+    /**
+     * @return A task that, when called on some other thread, executes the input task with this context in
+     *         effect.
+     */
+    public <T> Callable<T> propagate(final Callable<T> task) {
+        return () -> {
+            final ParallelismContext tmpPrevious = ParallelismContext.enter(this);
+            try {
+                return task.call();
+            } finally {
+                ParallelismContext.exit(tmpPrevious);
+            }
+        };
+    }
+
+    /**
+     * Asynchronous execution of a (possibly long running and blocking) task with this context in effect. If
+     * this context specifies a pool the task is submitted to that pool, otherwise it is submitted to the
+     * {@link DaemonPoolExecutor}. It is the caller's responsibility to not submit more tasks than
+     * {@link #workers()} allows.
+     */
+    public <T> Future<T> submit(final Callable<T> task) {
+
+        final ForkJoinPool tmpPool = this.getPoolOrNull();
+
+        if (tmpPool != null) {
+            return tmpPool.submit(this.propagate(task));
+        } else {
+            return DaemonPoolExecutor.invoke(this.propagate(task));
+        }
+    }
+
+    /**
+     * Same as {@link #submit(Callable)} but the task only gets (at most) the specified share of this
+     * context's workers, so that several concurrently submitted tasks together stay within the limit.
+     */
+    public <T> Future<T> submit(final Callable<T> task, final int workers) {
+        return this.share(workers).submit(task);
+    }
+
+    @Override
+    public String toString() {
+        return "ParallelismContext [workers=" + this.workers() + ", pool=" + this.pool() + "]";
+    }
+
+    /**
+     * @return The max number of workers (threads) allowed
+     */
+    public int workers() {
+        return Math.min(myWorkers, this.pool().getParallelism());
+    }
+
+    /**
+     * @return A context with the same pool but (at most) the specified number of workers, to be used by a
+     *         subtask
+     */
+    ParallelismContext share(final int workers) {
+        if (workers >= myWorkers) {
+            return this;
+        } else {
+            return new ParallelismContext(myEnclosing, myPool, Math.max(1, workers));
+        }
+    }
+
+    ForkJoinPool getPoolOrNull() {
+        return myPool;
+    }
+
+}
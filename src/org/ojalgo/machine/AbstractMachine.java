@@ -38,6 +38,14 @@ abstract class AbstractMachine extends BasicMachine {
      * The size of one top level (L3 or L2) cache unit in bytes.
      */
     public final long cache;
+    /**
+     * The size of one L1 (data) cache unit in bytes.
+     */
+    public final long cacheL1;
+    /**
+     * The size of one L2 cache unit in bytes. If no L2 cache is specified, this is the same as the L1 size.
+     */
+    public final long cacheL2;
     /**
      * The total number of processor cores.
      */
@@ -61,6 +69,8 @@ abstract class AbstractMachine extends BasicMachine {
         architecture = hardware.architecture;
 
         cache = hardware.cache;
+        cacheL1 = hardware.cacheL1;
+        cacheL2 = hardware.cacheL2;
 
         cores = hardware.cores;
         units = hardware.units;
@@ -79,6 +89,9 @@ abstract class AbstractMachine extends BasicMachine {
 
         cores = threads / levels[levels.length - 1].threads;
 
+        cacheL1 = levels[levels.length - 1].memory;
+        cacheL2 = levels.length > 2 ? levels[levels.length - 2].memory : cacheL1;
+
         if (levels.length > 3) { // L3 specified
             cache = levels[levels.length - 3].memory;
             units = threads / levels[levels.length - 3].threads;
@@ -125,6 +138,12 @@ abstract class AbstractMachine extends BasicMachine {
         if (cache != other.cache) {
             return false;
         }
+        if (cacheL1 != other.cacheL1) {
+            return false;
+        }
+        if (cacheL2 != other.cacheL2) {
+            return false;
+        }
         if (units != other.units) {
             return false;
         }
@@ -138,6 +157,20 @@ abstract class AbstractMachine extends BasicMachine {
         return AbstractMachine.elements(cache, elementSize);
     }
 
+    /**
+     * @return The number of elements of the specified size that fit in one L1 (data) cache unit
+     */
+    public long getL1CacheElements(final long elementSize) {
+        return AbstractMachine.elements(cacheL1, elementSize);
+    }
+
+    /**
+     * @return The number of elements of the specified size that fit in one L2 cache unit
+     */
+    public long getL2CacheElements(final long elementSize) {
+        return AbstractMachine.elements(cacheL2, elementSize);
+    }
+
     public long getMemoryElements(final long elementSize) {
         return AbstractMachine.elements(memory, elementSize);
     }
@@ -148,6 +181,8 @@ abstract class AbstractMachine extends BasicMachine {
         int result = super.hashCode();
         result = (prime * result) + ((architecture == null) ? 0 : architecture.hashCode());
         result = (prime * result) + (int) (cache ^ (cache >>> 32));
+        result = (prime * result) + (int) (cacheL1 ^ (cacheL1 >>> 32));
+        result = (prime * result) + (int) (cacheL2 ^ (cacheL2 >>> 32));
         result = (prime * result) + units;
         return result;
     }
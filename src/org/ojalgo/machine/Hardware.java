@@ -21,8 +21,13 @@
  */
 package org.ojalgo.machine;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
 import org.ojalgo.ProgrammingError;
@@ -397,6 +402,22 @@ public final class Hardware extends AbstractMachine implements Comparable<Hardwa
         PREDEFINED.add(X86_64__96);
     }
 
+    /**
+     * Where Linux describes the caches of the first cpu
+     */
+    static final File CPU0_CACHE = new File("/sys/devices/system/cpu/cpu0/cache");
+
+    /**
+     * Attempts to detect the actual cache hierarchy (the sizes of the L1 data, L2 and L3 caches and how many
+     * threads share each of them) of the current machine. Currently only Linux, via
+     * <code>/sys/devices/system/cpu</code>, is supported.
+     *
+     * @return The detected hardware, or null if detection was not possible
+     */
+    public static Hardware detect() {
+        return Hardware.detect(CPU0_CACHE, VirtualMachine.getArchitecture(), VirtualMachine.getMemory(), VirtualMachine.getThreads());
+    }
+
     public static Hardware makeSimple() {
         return Hardware.makeSimple(VirtualMachine.getArchitecture(), VirtualMachine.getMemory(), VirtualMachine.getThreads());
     }
@@ -442,6 +463,99 @@ public final class Hardware extends AbstractMachine implements Comparable<Hardwa
         }
     }
 
+    static Hardware detect(final File cacheDirectory, final String systemArchitecture, final long systemMemory, final int systemThreads) {
+
+        final File[] tmpIndices = cacheDirectory.listFiles((dir, name) -> name.startsWith("index"));
+        if ((tmpIndices == null) || (tmpIndices.length == 0)) {
+            return null;
+        }
+
+        // level -> one cache unit at that level
+        final TreeMap<Integer, BasicMachine> tmpCaches = new TreeMap<>();
+
+        try {
+
+            for (final File tmpIndex : tmpIndices) {
+
+                final String tmpType = Hardware.read(tmpIndex, "type");
+                if (tmpType.equalsIgnoreCase("Instruction")) {
+                    continue;
+                }
+
+                final int tmpLevel = Integer.parseInt(Hardware.read(tmpIndex, "level"));
+                final long tmpSize = Hardware.parseSize(Hardware.read(tmpIndex, "size"));
+                final int tmpShared = Hardware.countCpus(Hardware.read(tmpIndex, "shared_cpu_list"));
+
+                if (tmpSize > 0L) {
+                    tmpCaches.put(tmpLevel, new BasicMachine(tmpSize, Math.max(1, Math.min(tmpShared, systemThreads))));
+                }
+            }
+
+        } catch (final IOException | RuntimeException exception) {
+            return null;
+        }
+
+        if (!tmpCaches.containsKey(1)) {
+            return null;
+        }
+
+        final BasicMachine[] tmpLevels = new BasicMachine[Math.min(tmpCaches.size(), 3) + 1];
+        tmpLevels[0] = new BasicMachine(systemMemory, systemThreads);
+        int tmpNext = tmpLevels.length - 1;
+        for (final BasicMachine tmpCache : tmpCaches.headMap(4).values()) {
+            tmpLevels[tmpNext--] = tmpCache;
+        }
+
+        return new Hardware(systemArchitecture, tmpLevels);
+    }
+
+    /**
+     * @param cpuList Something like "0", "0-3" or "0,4,8-11"
+     */
+    static int countCpus(final String cpuList) {
+
+        int retVal = 0;
+
+        for (final String tmpPart : cpuList.split(",")) {
+            final String tmpRange = tmpPart.trim();
+            if (tmpRange.length() > 0) {
+                final int tmpDash = tmpRange.indexOf('-');
+                if (tmpDash > 0) {
+                    retVal += (Integer.parseInt(tmpRange.substring(tmpDash + 1)) - Integer.parseInt(tmpRange.substring(0, tmpDash))) + 1;
+                } else {
+                    retVal++;
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * @param size Something like "32K", "8192K" or "12M"
+     */
+    static long parseSize(final String size) {
+
+        final String tmpSize = size.trim().toUpperCase();
+
+        final char tmpUnit = tmpSize.charAt(tmpSize.length() - 1);
+
+        switch (tmpUnit) {
+        case 'K':
+            return Long.parseLong(tmpSize.substring(0, tmpSize.length() - 1)) * K;
+        case 'M':
+            return Long.parseLong(tmpSize.substring(0, tmpSize.length() - 1)) * K * K;
+        case 'G':
+            return Long.parseLong(tmpSize.substring(0, tmpSize.length() - 1)) * K * K * K;
+        default:
+            return Long.parseLong(tmpSize);
+        }
+    }
+
+    private static String read(final File directory, final String name) throws IOException {
+        return new String(Files.readAllBytes(new File(directory, name).toPath()), StandardCharsets.US_ASCII).trim();
+    }
+
     private final BasicMachine[] myLevels;
 
     /**
@@ -0,0 +1,381 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+import static org.ojalgo.function.PrimitiveFunction.*;
+
+import org.ojalgo.OjAlgoUtils;
+import org.ojalgo.concurrent.DivideAndConquer;
+
+/**
+ * Cholesky and LU decompositions, and equation system solving, for large batches of small equally sized
+ * matrices. All the matrices (and right hand sides) are stored in one packed buffer, structure-of-arrays
+ * style: element (row, col) of matrix number m is at {@link #index(int, int, int, int, int)} = ((row + col *
+ * dim) * count) + m. The same element of all the matrices is contiguous, and all inner loops run over the
+ * batch. Nothing is allocated, and the work is divided between threads, across the batch.
+ *
+ * @author apete
+ */
+public final class BatchDecomposition {
+
+    /**
+     * The min number of matrices handed to each worker
+     */
+    public static int THRESHOLD = 256;
+
+    /**
+     * Cholesky decomposes all the matrices, in place. Only the lower triangular part is referenced, and on
+     * return it contains L.
+     *
+     * @param dim The number of rows/columns of each (square) matrix
+     * @param count The number of matrices
+     * @param data The packed matrices
+     * @param spd Set to true for those matrices that were symmetric positive definite (and successfully
+     *        decomposed), false for the others.
+     */
+    public static void cholesky(final int dim, final int count, final double[] data, final boolean[] spd) {
+
+        final int tmpBlock = BatchDecomposition.block(dim);
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                for (int tmpFirst = first; tmpFirst < limit; tmpFirst += tmpBlock) {
+                    BatchDecomposition.cholesky(dim, count, data, spd, tmpFirst, Math.min(tmpFirst + tmpBlock, limit));
+                }
+            }
+
+        };
+
+        tmpConquerer.invoke(0, count, THRESHOLD);
+    }
+
+    /**
+     * @return The index of element (row, col) of matrix number m
+     */
+    public static int index(final int dim, final int count, final int row, final int col, final int m) {
+        return ((row + (col * dim)) * count) + m;
+    }
+
+    /**
+     * LU decomposes all the matrices, in place, using partial (row) pivoting. On return the strictly lower
+     * triangular part contains L (with an implied unit diagonal), and the upper triangular part contains U.
+     *
+     * @param dim The number of rows/columns of each (square) matrix
+     * @param count The number of matrices
+     * @param data The packed matrices
+     * @param pivots Packed the same way as a dim-by-1 matrix. At step k row k was exchanged with row
+     *        pivots[index(dim, count, k, 0, m)].
+     * @param nonsingular Set to true for those matrices that were nonsingular, false for the others.
+     */
+    public static void lu(final int dim, final int count, final double[] data, final int[] pivots, final boolean[] nonsingular) {
+
+        final int tmpBlock = BatchDecomposition.block(dim);
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                for (int tmpFirst = first; tmpFirst < limit; tmpFirst += tmpBlock) {
+                    BatchDecomposition.lu(dim, count, data, pivots, nonsingular, tmpFirst, Math.min(tmpFirst + tmpBlock, limit));
+                }
+            }
+
+        };
+
+        tmpConquerer.invoke(0, count, THRESHOLD);
+    }
+
+    /**
+     * Solves [A][X] = [B], for all the matrices, using the Cholesky decompositions calculated by
+     * {@link #cholesky(int, int, double[], boolean[])}.
+     *
+     * @param dim The number of rows/columns of each (square) matrix
+     * @param count The number of matrices
+     * @param factors The packed Cholesky decompositions
+     * @param columns The number of columns of each right hand side
+     * @param rhs The packed dim-by-columns right hand sides, overwritten with the solutions
+     */
+    public static void solveCholesky(final int dim, final int count, final double[] factors, final int columns, final double[] rhs) {
+
+        final int tmpBlock = BatchDecomposition.block(dim);
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                for (int tmpFirst = first; tmpFirst < limit; tmpFirst += tmpBlock) {
+                    BatchDecomposition.solveCholesky(dim, count, factors, columns, rhs, tmpFirst, Math.min(tmpFirst + tmpBlock, limit));
+                }
+            }
+
+        };
+
+        tmpConquerer.invoke(0, count, THRESHOLD);
+    }
+
+    /**
+     * Solves [A][X] = [B], for all the matrices, using the LU decompositions calculated by
+     * {@link #lu(int, int, double[], int[], boolean[])}.
+     *
+     * @param dim The number of rows/columns of each (square) matrix
+     * @param count The number of matrices
+     * @param factors The packed LU decompositions
+     * @param pivots The packed pivots
+     * @param columns The number of columns of each right hand side
+     * @param rhs The packed dim-by-columns right hand sides, overwritten with the solutions
+     */
+    public static void solveLU(final int dim, final int count, final double[] factors, final int[] pivots, final int columns, final double[] rhs) {
+
+        final int tmpBlock = BatchDecomposition.block(dim);
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                for (int tmpFirst = first; tmpFirst < limit; tmpFirst += tmpBlock) {
+                    BatchDecomposition.solveLU(dim, count, factors, pivots, columns, rhs, tmpFirst, Math.min(tmpFirst + tmpBlock, limit));
+                }
+            }
+
+        };
+
+        tmpConquerer.invoke(0, count, THRESHOLD);
+    }
+
+    /**
+     * The number of matrices to process together - the same elements of consecutive matrices are
+     * contiguous, but the block should still fit in the cache.
+     */
+    static int block(final int dim) {
+        return (int) Math.max(8L, (OjAlgoUtils.ENVIRONMENT.cacheL1 / 2L) / (8L * dim * dim));
+    }
+
+    static void cholesky(final int dim, final int count, final double[] data, final boolean[] spd, final int first, final int limit) {
+
+        for (int m = first; m < limit; m++) {
+            spd[m] = true;
+        }
+
+        for (int j = 0; j < dim; j++) {
+
+            final int tmpColJ = j * dim * count;
+
+            // Subtract the contributions of the previous columns
+            for (int k = 0; k < j; k++) {
+                final int tmpColK = k * dim * count;
+                final int tmpJK = tmpColK + (j * count);
+                for (int i = j; i < dim; i++) {
+                    final int tmpIJ = tmpColJ + (i * count);
+                    final int tmpIK = tmpColK + (i * count);
+                    for (int m = first; m < limit; m++) {
+                        data[tmpIJ + m] -= data[tmpIK + m] * data[tmpJK + m];
+                    }
+                }
+            }
+
+            final int tmpJJ = tmpColJ + (j * count);
+            for (int m = first; m < limit; m++) {
+                final double tmpDiagonal = data[tmpJJ + m];
+                if (tmpDiagonal > ZERO) {
+                    data[tmpJJ + m] = SQRT.invoke(tmpDiagonal);
+                } else {
+                    spd[m] = false;
+                    data[tmpJJ + m] = ONE;
+                }
+            }
+
+            for (int i = j + 1; i < dim; i++) {
+                final int tmpIJ = tmpColJ + (i * count);
+                for (int m = first; m < limit; m++) {
+                    data[tmpIJ + m] /= data[tmpJJ + m];
+                }
+            }
+        }
+    }
+
+    static void lu(final int dim, final int count, final double[] data, final int[] pivots, final boolean[] nonsingular, final int first,
+            final int limit) {
+
+        for (int m = first; m < limit; m++) {
+            nonsingular[m] = true;
+        }
+
+        for (int k = 0; k < dim; k++) {
+
+            final int tmpColK = k * dim * count;
+            final int tmpKK = tmpColK + (k * count);
+
+            // Find and exchange pivot rows - individually for each matrix
+            for (int m = first; m < limit; m++) {
+
+                int tmpPivot = k;
+                double tmpLargest = ABS.invoke(data[tmpKK + m]);
+                for (int i = k + 1; i < dim; i++) {
+                    final double tmpValue = ABS.invoke(data[tmpColK + (i * count) + m]);
+                    if (tmpValue > tmpLargest) {
+                        tmpLargest = tmpValue;
+                        tmpPivot = i;
+                    }
+                }
+                pivots[(k * count) + m] = tmpPivot;
+
+                if (tmpPivot != k) {
+                    for (int j = 0; j < dim; j++) {
+                        final int tmpA = ((k + (j * dim)) * count) + m;
+                        final int tmpB = ((tmpPivot + (j * dim)) * count) + m;
+                        final double tmpValue = data[tmpA];
+                        data[tmpA] = data[tmpB];
+                        data[tmpB] = tmpValue;
+                    }
+                }
+
+                if (tmpLargest == ZERO) {
+                    nonsingular[m] = false;
+                    data[tmpKK + m] = ONE;
+                }
+            }
+
+            // Multipliers
+            for (int i = k + 1; i < dim; i++) {
+                final int tmpIK = tmpColK + (i * count);
+                for (int m = first; m < limit; m++) {
+                    data[tmpIK + m] /= data[tmpKK + m];
+                }
+            }
+
+            // Update the trailing submatrix
+            for (int j = k + 1; j < dim; j++) {
+                final int tmpColJ = j * dim * count;
+                final int tmpKJ = tmpColJ + (k * count);
+                for (int i = k + 1; i < dim; i++) {
+                    final int tmpIJ = tmpColJ + (i * count);
+                    final int tmpIK = tmpColK + (i * count);
+                    for (int m = first; m < limit; m++) {
+                        data[tmpIJ + m] -= data[tmpIK + m] * data[tmpKJ + m];
+                    }
+                }
+            }
+        }
+    }
+
+    static void solveCholesky(final int dim, final int count, final double[] factors, final int columns, final double[] rhs, final int first,
+            final int limit) {
+
+        for (int c = 0; c < columns; c++) {
+
+            final int tmpColC = c * dim * count;
+
+            // [L][Y] = [B]
+            for (int i = 0; i < dim; i++) {
+                final int tmpI = tmpColC + (i * count);
+                for (int k = 0; k < i; k++) {
+                    final int tmpIK = ((i + (k * dim)) * count);
+                    final int tmpK = tmpColC + (k * count);
+                    for (int m = first; m < limit; m++) {
+                        rhs[tmpI + m] -= factors[tmpIK + m] * rhs[tmpK + m];
+                    }
+                }
+                final int tmpII = ((i + (i * dim)) * count);
+                for (int m = first; m < limit; m++) {
+                    rhs[tmpI + m] /= factors[tmpII + m];
+                }
+            }
+
+            // [L]^T[X] = [Y]
+            for (int i = dim - 1; i >= 0; i--) {
+                final int tmpI = tmpColC + (i * count);
+                for (int k = i + 1; k < dim; k++) {
+                    final int tmpKI = ((k + (i * dim)) * count);
+                    final int tmpK = tmpColC + (k * count);
+                    for (int m = first; m < limit; m++) {
+                        rhs[tmpI + m] -= factors[tmpKI + m] * rhs[tmpK + m];
+                    }
+                }
+                final int tmpII = ((i + (i * dim)) * count);
+                for (int m = first; m < limit; m++) {
+                    rhs[tmpI + m] /= factors[tmpII + m];
+                }
+            }
+        }
+    }
+
+    static void solveLU(final int dim, final int count, final double[] factors, final int[] pivots, final int columns, final double[] rhs,
+            final int first, final int limit) {
+
+        // Apply the row exchanges
+        for (int k = 0; k < dim; k++) {
+            for (int m = first; m < limit; m++) {
+                final int tmpPivot = pivots[(k * count) + m];
+                if (tmpPivot != k) {
+                    for (int c = 0; c < columns; c++) {
+                        final int tmpA = ((k + (c * dim)) * count) + m;
+                        final int tmpB = ((tmpPivot + (c * dim)) * count) + m;
+                        final double tmpValue = rhs[tmpA];
+                        rhs[tmpA] = rhs[tmpB];
+                        rhs[tmpB] = tmpValue;
+                    }
+                }
+            }
+        }
+
+        for (int c = 0; c < columns; c++) {
+
+            final int tmpColC = c * dim * count;
+
+            // [L][Y] = [B], with unit diagonal
+            for (int i = 0; i < dim; i++) {
+                final int tmpI = tmpColC + (i * count);
+                for (int k = 0; k < i; k++) {
+                    final int tmpIK = ((i + (k * dim)) * count);
+                    final int tmpK = tmpColC + (k * count);
+                    for (int m = first; m < limit; m++) {
+                        rhs[tmpI + m] -= factors[tmpIK + m] * rhs[tmpK + m];
+                    }
+                }
+            }
+
+            // [U][X] = [Y]
+            for (int i = dim - 1; i >= 0; i--) {
+                final int tmpI = tmpColC + (i * count);
+                for (int k = i + 1; k < dim; k++) {
+                    final int tmpIK = ((i + (k * dim)) * count);
+                    final int tmpK = tmpColC + (k * count);
+                    for (int m = first; m < limit; m++) {
+                        rhs[tmpI + m] -= factors[tmpIK + m] * rhs[tmpK + m];
+                    }
+                }
+                final int tmpII = ((i + (i * dim)) * count);
+                for (int m = first; m < limit; m++) {
+                    rhs[tmpI + m] /= factors[tmpII + m];
+                }
+            }
+        }
+    }
+
+    private BatchDecomposition() {
+        super();
+    }
+
+}
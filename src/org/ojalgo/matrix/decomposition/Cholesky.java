@@ -23,9 +23,11 @@ package org.ojalgo.matrix.decomposition;
 
 import java.math.BigDecimal;
 
+import org.ojalgo.access.Access1D;
 import org.ojalgo.access.Access2D;
 import org.ojalgo.array.DenseArray;
 import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.Primitive32DenseStore;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quaternion;
 import org.ojalgo.scalar.RationalNumber;
@@ -55,6 +57,42 @@ public interface Cholesky<N extends Number> extends LDU<N>, MatrixDecomposition.
 
     }
 
+    /**
+     * A computed (positive definite) decomposition that can be modified, in O(n<sup>2</sup>), to be the
+     * decomposition of a slightly different matrix - without recomputing it from scratch. If a modification
+     * would make the matrix not positive definite it is rejected (false is returned) and the decomposition
+     * is left unchanged.
+     */
+    interface Updatable<N extends Number> extends Cholesky<N> {
+
+        /**
+         * [A] is expanded by inserting a row and a column (at the same index).
+         *
+         * @param index The index of the new row/column
+         * @param values The new column, including the diagonal element. Its length is the new dimension.
+         * @return true if the expanded matrix is positive definite
+         */
+        boolean addRowAndColumn(int index, Access1D<?> values);
+
+        /**
+         * [A] = [A] - [x][x]<sup>T</sup>
+         *
+         * @return true if the downdated matrix is positive definite
+         */
+        boolean downdate(Access1D<?> vector);
+
+        /**
+         * [A] is reduced by removing a row and a column (with the same index).
+         */
+        void removeRowAndColumn(int index);
+
+        /**
+         * [A] = [A] + [x][x]<sup>T</sup>
+         */
+        void update(Access1D<?> vector);
+
+    }
+
     /**
      * @deprecated v45 Use {@link #RATIONAL} instead.
      */
@@ -71,10 +109,25 @@ public interface Cholesky<N extends Number> extends LDU<N>, MatrixDecomposition.
         }
     };
 
+    /**
+     * Works with {@link Primitive32DenseStore} (float) internally - half the memory of {@link #PRIMITIVE}, at
+     * the cost of precision.
+     */
+    public static final Factory<Double> PRIMITIVE32 = typical -> new CholeskyDecomposition.Primitive32();
+
     public static final Factory<Quaternion> QUATERNION = typical -> new CholeskyDecomposition.Quat();
 
     public static final Factory<RationalNumber> RATIONAL = typical -> new CholeskyDecomposition.Rational();
 
+    /**
+     * Sparse decomposition with a fill-reducing (approximate minimum degree) ordering - [P][A][P]<sup>T</sup>
+     * = [L][L]<sup>T</sup>. Only used when explicitly asked for - {@link #getL()} is the (sparse) factor of
+     * the permuted matrix, not of [A], while {@link #reconstruct()} and the solve methods undo the
+     * permutation. The symbolic analysis is reused when decomposing another matrix with the same nonzero
+     * pattern.
+     */
+    public static final Factory<Double> SPARSE = typical -> new SparseCholesky();
+
     @SuppressWarnings("unchecked")
     public static <N extends Number> Cholesky<N> make(final Access2D<N> typical) {
 
@@ -84,6 +137,8 @@ public interface Cholesky<N extends Number> extends LDU<N>, MatrixDecomposition.
             return (Cholesky<N>) BIG.make(typical);
         } else if (tmpNumber instanceof ComplexNumber) {
             return (Cholesky<N>) COMPLEX.make(typical);
+        } else if (typical instanceof Primitive32DenseStore) {
+            return (Cholesky<N>) PRIMITIVE32.make(typical);
         } else if (tmpNumber instanceof Double) {
             return (Cholesky<N>) PRIMITIVE.make(typical);
         } else {
@@ -91,6 +146,13 @@ public interface Cholesky<N extends Number> extends LDU<N>, MatrixDecomposition.
         }
     }
 
+    /**
+     * @return A double precision decomposition that, once computed, can be updated/downdated
+     */
+    public static Cholesky.Updatable<Double> makeUpdatable() {
+        return new CholeskyDecomposition.Primitive();
+    }
+
     static <N extends Number> boolean equals(final MatrixStore<N> matrix, final Cholesky<N> decomposition, final NumberContext context) {
 
         boolean retVal = false;
@@ -117,6 +179,16 @@ public interface Cholesky<N extends Number> extends LDU<N>, MatrixDecomposition.
      */
     public boolean isSPD();
 
+    /**
+     * An estimate of the 1-norm condition number of the decomposed matrix, calculated from [L] in
+     * O(n<sup>2</sup>) without forming the inverse.
+     *
+     * @return The estimated condition number, or infinity if the matrix was not positive definite
+     */
+    default double estimateCondition() {
+        return ConditionEstimator.cholesky(this);
+    }
+
     /**
      * Must implement either {@link #getL()} or {@link #getR()}.
      */
@@ -26,7 +26,9 @@ import static org.ojalgo.function.PrimitiveFunction.*;
 
 import java.math.BigDecimal;
 
+import org.ojalgo.ProgrammingError;
 import org.ojalgo.RecoverableCondition;
+import org.ojalgo.access.Access1D;
 import org.ojalgo.access.Access2D;
 import org.ojalgo.access.Access2D.Collectable;
 import org.ojalgo.access.Structure2D;
@@ -39,7 +41,10 @@ import org.ojalgo.matrix.store.BigDenseStore;
 import org.ojalgo.matrix.store.GenericDenseStore;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.Primitive32DenseStore;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.operation.ApplyCholesky;
+import org.ojalgo.matrix.store.operation.HermitianRankKUpdate;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quaternion;
 import org.ojalgo.scalar.RationalNumber;
@@ -70,12 +75,237 @@ abstract class CholeskyDecomposition<N extends Number> extends InPlaceDecomposit
 
     }
 
-    static final class Primitive extends CholeskyDecomposition<Double> {
+    static final class Primitive extends CholeskyDecomposition<Double> implements Cholesky.Updatable<Double> {
+
+        /**
+         * Downdate, in place, the trailing part (starting at "first") of the lower triangular factor - the
+         * LINPACK (dchdd) algorithm. First checks that the result is positive definite, and if not returns
+         * false without modifying anything.
+         */
+        static boolean downdate(final double[] data, final int structure, final int first, final double[] vector) {
+
+            final int tmpDim = structure - first;
+
+            // Solve [L][p] = [x]
+            final double[] tmpSolution = new double[tmpDim];
+            double tmpNorm2 = ZERO;
+            for (int j = 0; j < tmpDim; j++) {
+                double tmpVal = vector[j];
+                for (int k = 0; k < j; k++) {
+                    tmpVal -= data[(first + j) + ((first + k) * structure)] * tmpSolution[k];
+                }
+                tmpVal /= data[(first + j) + ((first + j) * structure)];
+                tmpSolution[j] = tmpVal;
+                tmpNorm2 += tmpVal * tmpVal;
+            }
+
+            if (!(tmpNorm2 < ONE)) {
+                return false;
+            }
+
+            // Rotations that reduce [p] to zero, bottom up
+            final double[] tmpCos = new double[tmpDim];
+            final double[] tmpSin = new double[tmpDim];
+            double tmpAlpha = SQRT.invoke(ONE - tmpNorm2);
+            for (int i = tmpDim - 1; i >= 0; i--) {
+                final double tmpHypot = HYPOT.invoke(tmpAlpha, tmpSolution[i]);
+                tmpCos[i] = tmpAlpha / tmpHypot;
+                tmpSin[i] = tmpSolution[i] / tmpHypot;
+                tmpAlpha = tmpHypot;
+            }
+
+            // Apply them to the factor, one row at the time
+            for (int j = 0; j < tmpDim; j++) {
+                double tmpCarry = ZERO;
+                for (int i = j; i >= 0; i--) {
+                    final int tmpIndex = (first + j) + ((first + i) * structure);
+                    final double tmpVal = data[tmpIndex];
+                    data[tmpIndex] = (tmpCos[i] * tmpVal) - (tmpSin[i] * tmpCarry);
+                    tmpCarry = (tmpCos[i] * tmpCarry) + (tmpSin[i] * tmpVal);
+                }
+            }
+
+            // Make the diagonal positive
+            for (int j = 0; j < tmpDim; j++) {
+                final int tmpColumn = (first + j) * structure;
+                if (data[(first + j) + tmpColumn] < ZERO) {
+                    for (int i = first + j; i < structure; i++) {
+                        data[i + tmpColumn] = -data[i + tmpColumn];
+                    }
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Update, in place, the trailing part (starting at "first") of the lower triangular factor using a
+         * sequence of Givens rotations. The vector is used as work space (will be overwritten).
+         */
+        static void update(final double[] data, final int structure, final int first, final double[] vector) {
+            for (int k = first; k < structure; k++) {
+
+                final int tmpColumn = k * structure;
+
+                final double tmpDiag = data[k + tmpColumn];
+                final double tmpVal = vector[k - first];
+                final double tmpHypot = HYPOT.invoke(tmpDiag, tmpVal);
+                final double tmpCos = tmpHypot / tmpDiag;
+                final double tmpSin = tmpVal / tmpDiag;
+
+                data[k + tmpColumn] = tmpHypot;
+                for (int i = k + 1; i < structure; i++) {
+                    final double tmpElement = (data[i + tmpColumn] + (tmpSin * vector[i - first])) / tmpCos;
+                    data[i + tmpColumn] = tmpElement;
+                    vector[i - first] = (tmpCos * vector[i - first]) - (tmpSin * tmpElement);
+                }
+            }
+        }
 
         Primitive() {
             super(PrimitiveDenseStore.FACTORY);
         }
 
+        public boolean addRowAndColumn(final int index, final Access1D<?> values) {
+
+            final double[] tmpData = this.getFactor();
+            final int tmpDim = this.getMinDim();
+            final int tmpNewDim = tmpDim + 1;
+
+            if ((index < 0) || (index > tmpDim) || (values.count() != tmpNewDim)) {
+                throw new IllegalArgumentException();
+            }
+
+            final PrimitiveDenseStore tmpNewFactor = PrimitiveDenseStore.FACTORY.makeZero(tmpNewDim, tmpNewDim);
+            final double[] tmpNewData = tmpNewFactor.data;
+
+            // Copy the old factor, leaving the new row/column empty
+            for (int j = 0; j < tmpDim; j++) {
+                final int tmpNewColumn = (j < index ? j : j + 1) * tmpNewDim;
+                for (int i = j; i < tmpDim; i++) {
+                    tmpNewData[(i < index ? i : i + 1) + tmpNewColumn] = tmpData[i + (j * tmpDim)];
+                }
+            }
+
+            // Solve [L11][l12] = [a12] - the new row
+            for (int j = 0; j < index; j++) {
+                double tmpVal = values.doubleValue(j);
+                for (int k = 0; k < j; k++) {
+                    tmpVal -= tmpNewData[j + (k * tmpNewDim)] * tmpNewData[index + (k * tmpNewDim)];
+                }
+                tmpNewData[index + (j * tmpNewDim)] = tmpVal / tmpNewData[j + (j * tmpNewDim)];
+            }
+
+            // The new diagonal element
+            double tmpDiag = values.doubleValue(index);
+            for (int k = 0; k < index; k++) {
+                final double tmpVal = tmpNewData[index + (k * tmpNewDim)];
+                tmpDiag -= tmpVal * tmpVal;
+            }
+            if (!(tmpDiag > ZERO)) {
+                return false;
+            }
+            tmpDiag = SQRT.invoke(tmpDiag);
+            tmpNewData[index + (index * tmpNewDim)] = tmpDiag;
+
+            // [l32] = ([a32] - [L31][l12]) / l22 - the new column
+            final double[] tmpColumn = new double[tmpNewDim - index - 1];
+            for (int i = index + 1; i < tmpNewDim; i++) {
+                double tmpVal = values.doubleValue(i);
+                for (int k = 0; k < index; k++) {
+                    tmpVal -= tmpNewData[i + (k * tmpNewDim)] * tmpNewData[index + (k * tmpNewDim)];
+                }
+                tmpColumn[i - index - 1] = tmpNewData[i + (index * tmpNewDim)] = tmpVal / tmpDiag;
+            }
+
+            // [L33][L33]^T = [L33][L33]^T - [l32][l32]^T
+            if (Primitive.downdate(tmpNewData, tmpNewDim, index + 1, tmpColumn)) {
+                return this.modified(tmpNewFactor);
+            } else {
+                return false;
+            }
+        }
+
+        public boolean downdate(final Access1D<?> vector) {
+
+            final double[] tmpData = this.getFactor();
+            final int tmpDim = this.getMinDim();
+
+            if (Primitive.downdate(tmpData, tmpDim, 0, this.copy(vector, tmpDim))) {
+                return this.modified(null);
+            } else {
+                return false;
+            }
+        }
+
+        public void removeRowAndColumn(final int index) {
+
+            final double[] tmpData = this.getFactor();
+            final int tmpDim = this.getMinDim();
+            final int tmpNewDim = tmpDim - 1;
+
+            if ((index < 0) || (index >= tmpDim)) {
+                throw new IllegalArgumentException();
+            }
+
+            final PrimitiveDenseStore tmpNewFactor = PrimitiveDenseStore.FACTORY.makeZero(tmpNewDim, tmpNewDim);
+            final double[] tmpNewData = tmpNewFactor.data;
+
+            for (int j = 0; j < tmpNewDim; j++) {
+                final int tmpColumn = (j < index ? j : j + 1) * tmpDim;
+                for (int i = j; i < tmpNewDim; i++) {
+                    tmpNewData[i + (j * tmpNewDim)] = tmpData[(i < index ? i : i + 1) + tmpColumn];
+                }
+            }
+
+            // [L33][L33]^T = [L33][L33]^T + [l32][l32]^T
+            final double[] tmpColumn = new double[tmpNewDim - index];
+            System.arraycopy(tmpData, (index + 1) + (index * tmpDim), tmpColumn, 0, tmpColumn.length);
+            Primitive.update(tmpNewData, tmpNewDim, index, tmpColumn);
+
+            this.modified(tmpNewFactor);
+        }
+
+        public void update(final Access1D<?> vector) {
+
+            final double[] tmpData = this.getFactor();
+            final int tmpDim = this.getMinDim();
+
+            Primitive.update(tmpData, tmpDim, 0, this.copy(vector, tmpDim));
+
+            this.modified(null);
+        }
+
+        private double[] copy(final Access1D<?> vector, final int dim) {
+
+            if (vector.count() != dim) {
+                throw new IllegalArgumentException();
+            }
+
+            final double[] retVal = new double[dim];
+            for (int i = 0; i < dim; i++) {
+                retVal[i] = vector.doubleValue(i);
+            }
+            return retVal;
+        }
+
+        private double[] getFactor() {
+
+            if (!this.isComputed() || !this.isSPD() || !(this.getInPlace() instanceof PrimitiveDenseStore)) {
+                throw new ProgrammingError("Only a computed positive definite decomposition can be updated!");
+            }
+
+            return ((PrimitiveDenseStore) this.getInPlace()).data;
+        }
+
+    }
+
+    static final class Primitive32 extends CholeskyDecomposition<Double> {
+
+        Primitive32() {
+            super(Primitive32DenseStore.FACTORY);
+        }
+
     }
 
     static final class Rational extends CholeskyDecomposition<RationalNumber> {
@@ -86,6 +316,13 @@ abstract class CholeskyDecomposition<N extends Number> extends InPlaceDecomposit
 
     }
 
+    /**
+     * Square {@link PrimitiveDenseStore} matrices larger than this are decomposed using the blocked (right
+     * looking) algorithm - panels of {@link HermitianRankKUpdate#BLOCK} columns are factorised, and then
+     * the trailing part of the matrix is updated (in parallel) using a matrix-matrix multiplication.
+     */
+    static int BLOCKED = 256;
+
     private double myMaxDiag = ONE;
     private double myMinDiag = ZERO;
     private boolean mySPD = false;
@@ -282,6 +519,10 @@ abstract class CholeskyDecomposition<N extends Number> extends InPlaceDecomposit
             tmpPositiveDefinite &= MatrixUtils.isHermitian(tmpInPlace);
         }
 
+        if (tmpPositiveDefinite && (tmpInPlace instanceof PrimitiveDenseStore) && (tmpMinDim > BLOCKED)) {
+            return this.computed(mySPD = this.computeBlocked(((PrimitiveDenseStore) tmpInPlace).data, tmpMinDim));
+        }
+
         final UnaryFunction<N> tmpSqrtFunc = this.function().sqrt();
 
         // Main loop - along the diagonal
@@ -311,6 +552,79 @@ abstract class CholeskyDecomposition<N extends Number> extends InPlaceDecomposit
         return this.computed(mySPD = tmpPositiveDefinite);
     }
 
+    /**
+     * Blocked right looking variant of the main loop in {@link #compute(Collectable, boolean)}
+     */
+    private boolean computeBlocked(final double[] data, final int dim) {
+
+        final double[] tmpMultipliers = new double[dim];
+
+        final int tmpBlock = HermitianRankKUpdate.BLOCK;
+
+        for (int k = 0; k < dim; k += tmpBlock) {
+
+            final int tmpPanelLimit = Math.min(k + tmpBlock, dim);
+
+            // Factorise the panel
+            for (int ij = k; ij < tmpPanelLimit; ij++) {
+
+                final int tmpColumn = ij * dim;
+
+                final double tmpVal = data[ij + tmpColumn];
+                myMaxDiag = MAX.invoke(myMaxDiag, tmpVal);
+                myMinDiag = MIN.invoke(myMinDiag, tmpVal);
+                if (tmpVal > PrimitiveMath.ZERO) {
+
+                    final double tmpDiag = SQRT.invoke(tmpVal);
+                    data[ij + tmpColumn] = tmpDiag;
+
+                    // Current column, below the diagonal
+                    for (int i = ij + 1; i < dim; i++) {
+                        tmpMultipliers[i] = data[i + tmpColumn] /= tmpDiag;
+                    }
+
+                    // Remaining columns of the panel
+                    ApplyCholesky.invoke(data, dim, ij + 1, tmpPanelLimit, tmpMultipliers);
+
+                } else {
+
+                    return false;
+                }
+            }
+
+            // Update everything to the right of (and below) the panel
+            if (tmpPanelLimit < dim) {
+                HermitianRankKUpdate.invoke(data, dim, k, tmpPanelLimit);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * To be called when the factor has been modified directly, rather than computed.
+     *
+     * @param factor A new (differently sized) factor, or null if the current one was modified in place
+     */
+    final boolean modified(final Access2D.Collectable<N, ? super DecompositionStore<N>> factor) {
+
+        this.reset();
+
+        final DecompositionStore<N> tmpInPlace = factor != null ? this.setInPlace(factor) : this.getInPlace();
+
+        myMaxDiag = ZERO;
+        myMinDiag = POSITIVE_INFINITY;
+
+        final int tmpMinDim = this.getMinDim();
+        for (int ij = 0; ij < tmpMinDim; ij++) {
+            final double tmpVal = tmpInPlace.doubleValue(ij, ij);
+            myMaxDiag = MAX.invoke(myMaxDiag, tmpVal * tmpVal);
+            myMinDiag = MIN.invoke(myMinDiag, tmpVal * tmpVal);
+        }
+
+        return this.computed(mySPD = true);
+    }
+
     double getAlgorithmEpsilon() {
         return myMaxDiag * TEN * this.getDimensionalEpsilon();
     }
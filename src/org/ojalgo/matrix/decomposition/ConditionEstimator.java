@@ -0,0 +1,303 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+import static org.ojalgo.function.PrimitiveFunction.*;
+
+import java.util.function.Consumer;
+
+import org.ojalgo.access.Access2D;
+
+/**
+ * Estimates 1-norm condition numbers, ||A||<sub>1</sub> ||A<sup>-1</sup>||<sub>1</sub>, from the factors of a
+ * decomposition - O(n<sup>2</sup>) and without forming the inverse. Both norms are estimated using Hager's
+ * method, as refined by Higham (LAPACK's xLACON), that only requires a few products with the matrix (or
+ * solves with the factors) and its transpose. The estimates are lower bounds, but rarely off by more than a
+ * factor 3.
+ *
+ * @author apete
+ */
+final class ConditionEstimator {
+
+    /**
+     * A square triangular matrix (factor) - the elements are read directly from the factor (typically a
+     * logical view of the decomposition's in-place store) without copying them.
+     */
+    static final class Triangular {
+
+        final int dim;
+
+        private final Access2D<?> myFactor;
+        private final boolean myLower;
+        private final boolean myUnit;
+
+        Triangular(final Access2D<?> factor, final boolean lower, final boolean unit) {
+
+            super();
+
+            dim = (int) Math.min(factor.countRows(), factor.countColumns());
+            myFactor = factor;
+            myLower = lower;
+            myUnit = unit;
+        }
+
+        /**
+         * x := [T]x or x := [T]<sup>T</sup>x
+         */
+        void multiply(final boolean transposed, final double[] x) {
+            if (myLower != transposed) {
+                for (int i = dim - 1; i >= 0; i--) {
+                    double tmpSum = myUnit ? x[i] : this.get(i, i, transposed) * x[i];
+                    for (int j = 0; j < i; j++) {
+                        tmpSum += this.get(i, j, transposed) * x[j];
+                    }
+                    x[i] = tmpSum;
+                }
+            } else {
+                for (int i = 0; i < dim; i++) {
+                    double tmpSum = myUnit ? x[i] : this.get(i, i, transposed) * x[i];
+                    for (int j = i + 1; j < dim; j++) {
+                        tmpSum += this.get(i, j, transposed) * x[j];
+                    }
+                    x[i] = tmpSum;
+                }
+            }
+        }
+
+        /**
+         * x := [T]<sup>-1</sup>x or x := [T]<sup>-T</sup>x
+         */
+        void solve(final boolean transposed, final double[] x) {
+            if (myLower != transposed) {
+                for (int i = 0; i < dim; i++) {
+                    double tmpSum = x[i];
+                    for (int j = 0; j < i; j++) {
+                        tmpSum -= this.get(i, j, transposed) * x[j];
+                    }
+                    x[i] = myUnit ? tmpSum : tmpSum / this.get(i, i, transposed);
+                }
+            } else {
+                for (int i = dim - 1; i >= 0; i--) {
+                    double tmpSum = x[i];
+                    for (int j = i + 1; j < dim; j++) {
+                        tmpSum -= this.get(i, j, transposed) * x[j];
+                    }
+                    x[i] = myUnit ? tmpSum : tmpSum / this.get(i, i, transposed);
+                }
+            }
+        }
+
+        private double get(final int row, final int col, final boolean transposed) {
+            return transposed ? myFactor.doubleValue(col, row) : myFactor.doubleValue(row, col);
+        }
+
+    }
+
+    private static final int ITERATIONS = 5;
+
+    static double cholesky(final Cholesky<?> decomposition) {
+
+        if (!decomposition.isSolvable()) {
+            return POSITIVE_INFINITY;
+        }
+
+        final Triangular tmpL = new Triangular(decomposition.getL(), true, false);
+        final int tmpDim = tmpL.dim;
+
+        // [A] = [L][L]^T
+        final Consumer<double[]> tmpMultiply = x -> {
+            tmpL.multiply(true, x);
+            tmpL.multiply(false, x);
+        };
+        final Consumer<double[]> tmpSolve = x -> {
+            tmpL.solve(false, x);
+            tmpL.solve(true, x);
+        };
+
+        return ConditionEstimator.estimate(tmpDim, tmpMultiply, tmpMultiply) * ConditionEstimator.estimate(tmpDim, tmpSolve, tmpSolve);
+    }
+
+    /**
+     * Estimates ||B||<sub>1</sub> using only the products Bx and B<sup>T</sup>x
+     *
+     * @param dim The size of the (square) matrix B
+     * @param operator Replaces x with Bx
+     * @param transposed Replaces x with B<sup>T</sup>x
+     */
+    static double estimate(final int dim, final Consumer<double[]> operator, final Consumer<double[]> transposed) {
+
+        final double[] x = new double[dim];
+        final double[] xi = new double[dim];
+
+        for (int i = 0; i < dim; i++) {
+            x[i] = ONE / dim;
+        }
+        operator.accept(x);
+
+        double retVal = ConditionEstimator.norm(x);
+        if (dim == 1) {
+            return retVal;
+        }
+
+        for (int i = 0; i < dim; i++) {
+            xi[i] = x[i] >= ZERO ? ONE : NEG;
+        }
+        System.arraycopy(xi, 0, x, 0, dim);
+        transposed.accept(x);
+
+        int j = ConditionEstimator.largest(x);
+
+        for (int iter = 1; iter < ITERATIONS; iter++) {
+
+            for (int i = 0; i < dim; i++) {
+                x[i] = i == j ? ONE : ZERO;
+            }
+            operator.accept(x);
+
+            final double tmpPrevious = retVal;
+            retVal = ConditionEstimator.norm(x);
+
+            boolean tmpRepeated = true;
+            for (int i = 0; tmpRepeated && (i < dim); i++) {
+                tmpRepeated = (x[i] >= ZERO ? ONE : NEG) == xi[i];
+            }
+            if (tmpRepeated || (retVal <= tmpPrevious)) {
+                retVal = MAX.invoke(retVal, tmpPrevious);
+                break;
+            }
+
+            for (int i = 0; i < dim; i++) {
+                xi[i] = x[i] >= ZERO ? ONE : NEG;
+            }
+            System.arraycopy(xi, 0, x, 0, dim);
+            transposed.accept(x);
+
+            final int tmpLast = j;
+            j = ConditionEstimator.largest(x);
+            if (ABS.invoke(x[tmpLast]) == ABS.invoke(x[j])) {
+                break;
+            }
+        }
+
+        // Alternative estimate, to guard against special cases where the above fails badly
+        for (int i = 0; i < dim; i++) {
+            x[i] = ((i % 2) == 0 ? ONE : NEG) * (ONE + ((double) i / (dim - 1)));
+        }
+        operator.accept(x);
+
+        return MAX.invoke(retVal, (TWO * ConditionEstimator.norm(x)) / (THREE * dim));
+    }
+
+    static double lu(final LU<?> decomposition) {
+
+        if (!decomposition.isSolvable()) {
+            return POSITIVE_INFINITY;
+        }
+
+        final Triangular tmpL = new Triangular(decomposition.getL(), true, true);
+        final Triangular tmpU = new Triangular(decomposition.getU(), false, false);
+        final int[] tmpOrder = decomposition.getPivotOrder();
+        final int tmpDim = tmpL.dim;
+        final double[] tmpWork = new double[tmpDim];
+
+        // [A] = [P]^T[L][U]
+        final Consumer<double[]> tmpMultiply = x -> {
+            tmpU.multiply(false, x);
+            tmpL.multiply(false, x);
+            ConditionEstimator.permute(tmpOrder, x, tmpWork, false);
+        };
+        final Consumer<double[]> tmpMultiplyTransposed = x -> {
+            ConditionEstimator.permute(tmpOrder, x, tmpWork, true);
+            tmpL.multiply(true, x);
+            tmpU.multiply(true, x);
+        };
+        final Consumer<double[]> tmpSolve = x -> {
+            ConditionEstimator.permute(tmpOrder, x, tmpWork, true);
+            tmpL.solve(false, x);
+            tmpU.solve(false, x);
+        };
+        final Consumer<double[]> tmpSolveTransposed = x -> {
+            tmpU.solve(true, x);
+            tmpL.solve(true, x);
+            ConditionEstimator.permute(tmpOrder, x, tmpWork, false);
+        };
+
+        return ConditionEstimator.estimate(tmpDim, tmpMultiply, tmpMultiplyTransposed)
+                * ConditionEstimator.estimate(tmpDim, tmpSolve, tmpSolveTransposed);
+    }
+
+    static double qr(final QR<?> decomposition) {
+
+        if (!decomposition.isFullRank()) {
+            return POSITIVE_INFINITY;
+        }
+
+        final Triangular tmpR = new Triangular(decomposition.getR(), false, false);
+        final int tmpDim = tmpR.dim;
+
+        final Consumer<double[]> tmpMultiply = x -> tmpR.multiply(false, x);
+        final Consumer<double[]> tmpMultiplyTransposed = x -> tmpR.multiply(true, x);
+        final Consumer<double[]> tmpSolve = x -> tmpR.solve(false, x);
+        final Consumer<double[]> tmpSolveTransposed = x -> tmpR.solve(true, x);
+
+        return ConditionEstimator.estimate(tmpDim, tmpMultiply, tmpMultiplyTransposed)
+                * ConditionEstimator.estimate(tmpDim, tmpSolve, tmpSolveTransposed);
+    }
+
+    private static int largest(final double[] x) {
+        int retVal = 0;
+        for (int i = 1; i < x.length; i++) {
+            if (ABS.invoke(x[i]) > ABS.invoke(x[retVal])) {
+                retVal = i;
+            }
+        }
+        return retVal;
+    }
+
+    private static double norm(final double[] x) {
+        double retVal = ZERO;
+        for (int i = 0; i < x.length; i++) {
+            retVal += ABS.invoke(x[i]);
+        }
+        return retVal;
+    }
+
+    /**
+     * x := [P]x, where ([P]x)[i] = x[order[i]], or x := [P]<sup>T</sup>x
+     */
+    private static void permute(final int[] order, final double[] x, final double[] work, final boolean forward) {
+        System.arraycopy(x, 0, work, 0, x.length);
+        for (int i = 0; i < order.length; i++) {
+            if (forward) {
+                x[i] = work[order[i]];
+            } else {
+                x[order[i]] = work[i];
+            }
+        }
+    }
+
+    private ConditionEstimator() {
+        super();
+    }
+
+}
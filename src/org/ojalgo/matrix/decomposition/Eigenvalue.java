@@ -30,6 +30,7 @@ import org.ojalgo.access.Access2D;
 import org.ojalgo.access.Structure2D;
 import org.ojalgo.array.Array1D;
 import org.ojalgo.array.DenseArray;
+import org.ojalgo.concurrent.ParallelismContext;
 import org.ojalgo.matrix.MatrixUtils;
 import org.ojalgo.matrix.store.GenericDenseStore;
 import org.ojalgo.matrix.store.MatrixStore;
@@ -167,9 +168,10 @@ public interface Eigenvalue<N extends Number>
         public Eigenvalue<Double> make(final Structure2D typical, final boolean hermitian) {
             if (hermitian) {
                 if ((8192L < typical.countColumns()) && (typical.count() <= DenseArray.MAX_ARRAY_SIZE)) {
-                    return new HermitianEvD.SimultaneousPrimitive();
+                    return new HermitianEvD.DivideAndConquerPrimitive();
                 } else {
-                    return new RawEigenvalue.Symmetric();
+                    // Divide-and-conquer pays off when its subproblems (and matrix multiplications) can run in parallel
+                    return new RawEigenvalue.Symmetric((256L < typical.countColumns()) && !ParallelismContext.current().isSingleThreaded());
                 }
             } else {
                 if ((8192L < typical.countColumns()) && (typical.count() <= DenseArray.MAX_ARRAY_SIZE)) {
@@ -190,6 +192,18 @@ public interface Eigenvalue<N extends Number>
         return Eigenvalue.make(typical, MatrixUtils.isHermitian(typical));
     }
 
+    /**
+     * Partial decomposition of a symmetric matrix - only the k largest (algebraic) eigenvalues, and their
+     * eigenvectors, are calculated. The matrix is only used to perform matrix-vector multiplications, and
+     * can be any {@link MatrixStore} (a SparseStore for instance). [V] will have k columns and [D] will be
+     * k-by-k.
+     *
+     * @param numberOfEigenpairs The number of eigenpairs, k
+     */
+    public static Eigenvalue<Double> makePartial(final int numberOfEigenpairs) {
+        return new LanczosEvD(numberOfEigenpairs);
+    }
+
     @SuppressWarnings("unchecked")
     public static <N extends Number> Eigenvalue<N> make(final Access2D<N> typical, final boolean hermitian) {
 
@@ -34,6 +34,7 @@ import org.ojalgo.access.Access2D.Collectable;
 import org.ojalgo.access.Structure2D;
 import org.ojalgo.array.Array1D;
 import org.ojalgo.array.Primitive64Array;
+import org.ojalgo.array.blas.GEMM;
 import org.ojalgo.constant.PrimitiveMath;
 import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.aggregator.AggregatorFunction;
@@ -88,6 +89,30 @@ public abstract class HermitianEvD<N extends Number> extends EigenvalueDecomposi
 
     }
 
+    static final class DivideAndConquerPrimitive extends HermitianEvD<Double> {
+
+        DivideAndConquerPrimitive() {
+            super(PrimitiveDenseStore.FACTORY, new SimultaneousTridiagonal());
+        }
+
+        /**
+         * Solves the tridiagonal problem using {@link TridiagonalDivideAndConquer}, and then multiplies the
+         * (explicit) Q of the tridiagonalisation with its eigenvectors.
+         */
+        @Override
+        void diagonalise(final double[] d, final double[] e, final DecompositionStore<Double> mtrxQ) {
+            if (mtrxQ instanceof PrimitiveDenseStore) {
+                final int size = d.length;
+                final double[] tmpData = ((PrimitiveDenseStore) mtrxQ).data;
+                final double[] tmpVectors = TridiagonalDivideAndConquer.invoke(d, e);
+                GEMM.invoke(tmpData, size, size, size, tmpData.clone(), tmpVectors);
+            } else {
+                super.diagonalise(d, e, mtrxQ);
+            }
+        }
+
+    }
+
     static final class Quat extends HermitianEvD<Quaternion> {
 
         Quat() {
@@ -405,8 +430,11 @@ public abstract class HermitianEvD<N extends Number> extends EigenvalueDecomposi
 
         myTridiagonal.supplyDiagonalTo(d, e);
 
-        final RotateRight tmpRotateRight = valuesOnly ? RotateRight.NULL : myTridiagonal.getDecompositionQ();
-        HermitianEvD.tql2(d, e, tmpRotateRight);
+        if (valuesOnly) {
+            HermitianEvD.tql2(d, e, RotateRight.NULL);
+        } else {
+            this.diagonalise(d, e, myTridiagonal.getDecompositionQ());
+        }
 
         if (this.isOrdered()) {
             final ExchangeColumns tmpExchangeColumns = valuesOnly ? ExchangeColumns.NULL : myTridiagonal.getDecompositionQ();
@@ -450,4 +478,12 @@ public abstract class HermitianEvD<N extends Number> extends EigenvalueDecomposi
         return myTridiagonal.getQ();
     }
 
+    /**
+     * Calculates the eigenvalues and eigenvectors of the tridiagonal matrix, d and e, and accumulates the
+     * eigenvectors in the (already calculated) Q of the tridiagonalisation.
+     */
+    void diagonalise(final double[] d, final double[] e, final DecompositionStore<N> mtrxQ) {
+        HermitianEvD.tql2(d, e, mtrxQ);
+    }
+
 }
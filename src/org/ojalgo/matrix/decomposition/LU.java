@@ -27,6 +27,7 @@ import org.ojalgo.access.Access2D;
 import org.ojalgo.array.DenseArray;
 import org.ojalgo.matrix.store.ElementsSupplier;
 import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.Primitive32DenseStore;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quaternion;
 import org.ojalgo.scalar.RationalNumber;
@@ -72,6 +73,12 @@ public interface LU<N extends Number> extends LDU<N> {
         }
     };
 
+    /**
+     * Works with {@link Primitive32DenseStore} (float) internally - half the memory of {@link #PRIMITIVE}, at
+     * the cost of precision.
+     */
+    public static final Factory<Double> PRIMITIVE32 = typical -> new LUDecomposition.Primitive32();
+
     public static final Factory<Quaternion> QUATERNION = typical -> new LUDecomposition.Quat();
 
     public static final Factory<RationalNumber> RATIONAL = typical -> new LUDecomposition.Rational();
@@ -85,6 +92,8 @@ public interface LU<N extends Number> extends LDU<N> {
             return (LU<N>) BIG.make(typical);
         } else if (tmpNumber instanceof ComplexNumber) {
             return (LU<N>) COMPLEX.make(typical);
+        } else if (typical instanceof Primitive32DenseStore) {
+            return (LU<N>) PRIMITIVE32.make(typical);
         } else if (tmpNumber instanceof Double) {
             return (LU<N>) PRIMITIVE.make(typical);
         } else {
@@ -113,6 +122,17 @@ public interface LU<N extends Number> extends LDU<N> {
      */
     boolean computeWithoutPivoting(ElementsSupplier<N> matrix);
 
+    /**
+     * An estimate of the 1-norm condition number of the decomposed (square) matrix, ||A||<sub>1</sub>
+     * ||A<sup>-1</sup>||<sub>1</sub>, calculated from the [L] and [U] factors in O(n<sup>2</sup>). Use this
+     * rather than calculating the inverse to check if a matrix is ill-conditioned.
+     *
+     * @return The estimated condition number, or infinity if the matrix is singular
+     */
+    default double estimateCondition() {
+        return ConditionEstimator.lu(this);
+    }
+
     MatrixStore<N> getL();
 
     /**
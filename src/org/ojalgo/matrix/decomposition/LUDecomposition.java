@@ -30,6 +30,7 @@ import org.ojalgo.access.Access2D;
 import org.ojalgo.access.Access2D.Collectable;
 import org.ojalgo.access.Structure2D;
 import org.ojalgo.array.BasicArray;
+import org.ojalgo.array.blas.AMAX;
 import org.ojalgo.constant.PrimitiveMath;
 import org.ojalgo.function.aggregator.AggregatorFunction;
 import org.ojalgo.matrix.store.BigDenseStore;
@@ -37,7 +38,10 @@ import org.ojalgo.matrix.store.ElementsSupplier;
 import org.ojalgo.matrix.store.GenericDenseStore;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.Primitive32DenseStore;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.operation.ApplyLU;
+import org.ojalgo.matrix.store.operation.SchurComplementUpdate;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quaternion;
 import org.ojalgo.scalar.RationalNumber;
@@ -69,6 +73,14 @@ abstract class LUDecomposition<N extends Number> extends InPlaceDecomposition<N>
 
     }
 
+    static final class Primitive32 extends LUDecomposition<Double> {
+
+        Primitive32() {
+            super(Primitive32DenseStore.FACTORY);
+        }
+
+    }
+
     static final class Quat extends LUDecomposition<Quaternion> {
 
         Quat() {
@@ -85,6 +97,14 @@ abstract class LUDecomposition<N extends Number> extends InPlaceDecomposition<N>
 
     }
 
+    /**
+     * {@link PrimitiveDenseStore} matrices with more than this number of rows and columns are decomposed
+     * using the blocked (right looking) algorithm - panels of {@link SchurComplementUpdate#BLOCK} columns
+     * are factorised, and then the row exchanges are applied in bulk and the trailing part of the matrix is
+     * updated (in parallel) using a matrix-matrix multiplication.
+     */
+    static int BLOCKED = 256;
+
     private Pivot myPivot;
 
     protected LUDecomposition(final DecompositionStore.Factory<N, ? extends DecompositionStore<N>> aFactory) {
@@ -285,6 +305,11 @@ abstract class LUDecomposition<N extends Number> extends InPlaceDecomposition<N>
 
         myPivot = new Pivot(tmpRowDim);
 
+        if ((tmpInPlace instanceof PrimitiveDenseStore) && (tmpMinDim > BLOCKED)) {
+            this.computeBlocked(((PrimitiveDenseStore) tmpInPlace).data, tmpRowDim, this.getColDim(), assumeNoPivotingRequired);
+            return this.computed(true);
+        }
+
         final BasicArray<N> tmpMultipliers = this.makeArray(tmpRowDim);
 
         // Main loop - along the diagonal
@@ -339,6 +364,71 @@ abstract class LUDecomposition<N extends Number> extends InPlaceDecomposition<N>
         return retVal;
     }
 
+    /**
+     * Blocked right looking variant of the main loop in {@link #compute(Collectable, boolean)}. Within a
+     * panel the rows are only exchanged in the panel columns - the exchanges are applied to the other columns
+     * when the panel is done.
+     */
+    private void computeBlocked(final double[] data, final int rows, final int columns, final boolean assumeNoPivotingRequired) {
+
+        final int tmpMinDim = Math.min(rows, columns);
+
+        final double[] tmpMultipliers = new double[rows];
+        final int[] tmpExchanges = new int[tmpMinDim];
+
+        final int tmpBlock = SchurComplementUpdate.BLOCK;
+
+        for (int k = 0; k < tmpMinDim; k += tmpBlock) {
+
+            final int tmpPanelLimit = Math.min(k + tmpBlock, tmpMinDim);
+
+            // Factorise the panel
+            for (int ij = k; ij < tmpPanelLimit; ij++) {
+
+                final int tmpColumn = ij * rows;
+
+                tmpExchanges[ij] = ij;
+
+                if (!assumeNoPivotingRequired) {
+                    // Find next pivot row
+                    final int tmpPivotRow = AMAX.invoke(data, ij + tmpColumn, rows + tmpColumn, 1) - tmpColumn;
+
+                    // Pivot? Only the panel columns for now
+                    if (tmpPivotRow != ij) {
+                        for (int j = k; j < tmpPanelLimit; j++) {
+                            final int tmpIndex = j * rows;
+                            final double tmpVal = data[ij + tmpIndex];
+                            data[ij + tmpIndex] = data[tmpPivotRow + tmpIndex];
+                            data[tmpPivotRow + tmpIndex] = tmpVal;
+                        }
+                        myPivot.change(tmpPivotRow, ij);
+                        tmpExchanges[ij] = tmpPivotRow;
+                    }
+                }
+
+                final double tmpDenominator = data[ij + tmpColumn];
+
+                if (NumberContext.compare(tmpDenominator, PrimitiveMath.ZERO) != 0) {
+
+                    // Current column, below the diagonal
+                    for (int i = ij + 1; i < rows; i++) {
+                        tmpMultipliers[i] = data[i + tmpColumn] /= tmpDenominator;
+                    }
+
+                    // Remaining columns of the panel
+                    ApplyLU.invoke(data, rows, ij + 1, tmpPanelLimit, tmpMultipliers, ij);
+
+                } else {
+
+                    data[ij + tmpColumn] = ZERO;
+                }
+            }
+
+            // Row exchanges, [U12] and [A22] (everything to the right of the panel)
+            SchurComplementUpdate.invoke(data, rows, columns, k, tmpPanelLimit, tmpExchanges);
+        }
+    }
+
     int[] getReducedPivots() {
 
         final int[] retVal = new int[this.getRank()];
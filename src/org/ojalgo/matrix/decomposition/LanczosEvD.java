@@ -0,0 +1,342 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.access.Access2D;
+import org.ojalgo.access.Access2D.Collectable;
+import org.ojalgo.array.Array1D;
+import org.ojalgo.array.blas.AXPY;
+import org.ojalgo.array.blas.DOT;
+import org.ojalgo.array.blas.GEMM;
+import org.ojalgo.matrix.store.GenericDenseStore;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.random.Normal;
+import org.ojalgo.scalar.ComplexNumber;
+
+/**
+ * Partial eigenvalue decomposition of a symmetric matrix - only the k largest (algebraic) eigenvalues, and
+ * their eigenvectors, are calculated. Uses the thick restart variant of the implicitly restarted Lanczos
+ * method (Wu & Simon) with full reorthogonalisation. The matrix is only accessed through matrix-vector
+ * multiplications, so it can be any {@link MatrixStore} - sparse or logical stores are not copied.
+ * <p>
+ * [V] has k columns and [D] is k-by-k, [A][V] = [V][D]. The determinant and the trace are not available.
+ * </p>
+ *
+ * @author apete
+ */
+final class LanczosEvD extends GenericDecomposition<Double> implements Eigenvalue<Double> {
+
+    /**
+     * Relative accuracy of the Ritz pairs - the residual norm compared to the largest (absolute) Ritz value
+     */
+    static double ACCURACY = 1E-10;
+
+    /**
+     * Max number of restarts
+     */
+    static int RESTARTS = 1000;
+
+    private static void orthogonalise(final double[] vector, final double[] basis, final int dim, final int columns) {
+        for (int pass = 0; pass < 2; pass++) {
+            for (int j = 0; j < columns; j++) {
+                AXPY.invoke(vector, 0, -DOT.invoke(basis, j * dim, vector, 0, 0, dim), basis, j * dim, 0, dim);
+            }
+        }
+    }
+
+    private final int myNumberOfPairs;
+    private double[] myValues = null;
+    private PrimitiveDenseStore myVectors = null;
+
+    LanczosEvD(final int numberOfEigenpairs) {
+
+        super(PrimitiveDenseStore.FACTORY);
+
+        if (numberOfEigenpairs <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        myNumberOfPairs = numberOfEigenpairs;
+    }
+
+    public Double calculateDeterminant(final Access2D<?> matrix) {
+        ProgrammingError.throwForUnsupportedOptionalOperation();
+        return null;
+    }
+
+    public boolean computeValuesOnly(final Collectable<Double, ? super PhysicalStore<Double>> matrix) {
+        return this.decompose(matrix);
+    }
+
+    public boolean decompose(final Collectable<Double, ? super PhysicalStore<Double>> matrix) {
+
+        this.reset();
+
+        return this.computed(this.compute(this.collect(matrix)));
+    }
+
+    public MatrixStore<Double> getD() {
+
+        final int tmpDim = myValues.length;
+
+        final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, tmpDim);
+        for (int ij = 0; ij < tmpDim; ij++) {
+            retVal.set(ij, ij, myValues[ij]);
+        }
+
+        return retVal;
+    }
+
+    public Double getDeterminant() {
+        ProgrammingError.throwForUnsupportedOptionalOperation();
+        return null;
+    }
+
+    @Override
+    public Eigenpair getEigenpair(final int index) {
+
+        final int tmpDim = (int) myVectors.countRows();
+
+        final GenericDenseStore<ComplexNumber> tmpVector = GenericDenseStore.COMPLEX.makeZero(tmpDim, 1L);
+        for (int i = 0; i < tmpDim; i++) {
+            tmpVector.set(i, 0, myVectors.doubleValue(i, index));
+        }
+
+        return new Eigenpair(ComplexNumber.valueOf(myValues[index]), tmpVector);
+    }
+
+    public Array1D<ComplexNumber> getEigenvalues() {
+
+        final Array1D<ComplexNumber> retVal = Array1D.COMPLEX.makeZero(myValues.length);
+
+        for (int i = 0; i < myValues.length; i++) {
+            retVal.set(i, ComplexNumber.valueOf(myValues[i]));
+        }
+
+        return retVal;
+    }
+
+    @Override
+    public void getEigenvalues(final double[] realParts, final Optional<double[]> imaginaryParts) {
+
+        System.arraycopy(myValues, 0, realParts, 0, realParts.length);
+
+        if (imaginaryParts.isPresent()) {
+            Arrays.fill(imaginaryParts.get(), 0, realParts.length, ZERO);
+        }
+    }
+
+    @Override
+    public MatrixStore<ComplexNumber> getEigenvectors() {
+        return GenericDenseStore.COMPLEX.copy(myVectors);
+    }
+
+    public ComplexNumber getTrace() {
+        ProgrammingError.throwForUnsupportedOptionalOperation();
+        return null;
+    }
+
+    public MatrixStore<Double> getV() {
+        return myVectors;
+    }
+
+    public boolean isHermitian() {
+        return true;
+    }
+
+    public boolean isOrdered() {
+        return true;
+    }
+
+    @Override
+    public void reset() {
+
+        super.reset();
+
+        myValues = null;
+        myVectors = null;
+    }
+
+    private boolean compute(final MatrixStore<Double> matrix) {
+
+        final int tmpDim = (int) matrix.countRows();
+        final int tmpPairs = Math.min(myNumberOfPairs, tmpDim);
+        final int tmpSubspace = Math.min(tmpDim, Math.max((2 * tmpPairs) + 1, tmpPairs + 20));
+
+        // The Lanczos vectors, and (in the last column) the next/residual vector
+        final double[] tmpBasis = new double[tmpDim * (tmpSubspace + 1)];
+        // The projected matrix, tridiagonal except for the "arrow" created by a restart
+        final PrimitiveDenseStore tmpProjected = PrimitiveDenseStore.FACTORY.makeZero(tmpSubspace, tmpSubspace);
+        final double[] tmpT = tmpProjected.data;
+
+        final PrimitiveDenseStore tmpColumn = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, 1L);
+        final PrimitiveDenseStore tmpProduct = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, 1L);
+        final double[] tmpW = tmpProduct.data;
+
+        final double[] tmpRitzValues = new double[tmpSubspace];
+        final double[] tmpRitzVectors = new double[tmpSubspace * tmpSubspace];
+        final Integer[] tmpOrder = new Integer[tmpSubspace];
+        final double[] tmpRealParts = new double[tmpSubspace];
+        final Eigenvalue<Double> tmpProjectedEvD = new RawEigenvalue.Symmetric();
+
+        this.randomise(tmpBasis, tmpDim, 0);
+
+        double tmpNorm = ZERO;
+        int tmpFirst = 0;
+        boolean tmpConverged = false;
+
+        for (int r = 0; !tmpConverged && (r < RESTARTS); r++) {
+
+            double tmpBeta = ZERO;
+
+            // Extend the Lanczos factorisation
+            for (int j = tmpFirst; j < tmpSubspace; j++) {
+
+                System.arraycopy(tmpBasis, j * tmpDim, tmpColumn.data, 0, tmpDim);
+                matrix.multiply(tmpColumn, tmpProduct);
+
+                final double tmpAlpha = DOT.invoke(tmpBasis, j * tmpDim, tmpW, 0, 0, tmpDim);
+                tmpT[j + (j * tmpSubspace)] = tmpAlpha;
+                tmpNorm = Math.max(tmpNorm, Math.abs(tmpAlpha));
+
+                // Full reorthogonalisation - covers the 3-term recurrence as well as the restart "arrow"
+                LanczosEvD.orthogonalise(tmpW, tmpBasis, tmpDim, j + 1);
+
+                tmpBeta = Math.sqrt(DOT.invoke(tmpW, 0, tmpW, 0, 0, tmpDim));
+
+                if (tmpBeta > (MACHINE_EPSILON * tmpNorm)) {
+                    for (int i = 0; i < tmpDim; i++) {
+                        tmpBasis[i + ((j + 1) * tmpDim)] = tmpW[i] / tmpBeta;
+                    }
+                } else {
+                    // Invariant subspace found - continue with some other (orthogonal) vector
+                    tmpBeta = ZERO;
+                    if ((j + 1) < tmpSubspace) {
+                        this.randomise(tmpBasis, tmpDim, j + 1);
+                    } else {
+                        Arrays.fill(tmpBasis, (j + 1) * tmpDim, (j + 2) * tmpDim, ZERO);
+                    }
+                }
+
+                if ((j + 1) < tmpSubspace) {
+                    tmpT[(j + 1) + (j * tmpSubspace)] = tmpBeta;
+                    tmpT[j + ((j + 1) * tmpSubspace)] = tmpBeta;
+                }
+            }
+
+            // Ritz pairs, largest first
+            tmpProjectedEvD.decompose(tmpProjected);
+            tmpProjectedEvD.getEigenvalues(tmpRealParts, Optional.empty());
+            final MatrixStore<Double> tmpV = tmpProjectedEvD.getV();
+
+            for (int i = 0; i < tmpSubspace; i++) {
+                tmpOrder[i] = i;
+            }
+            Arrays.sort(tmpOrder, (i1, i2) -> Double.compare(tmpRealParts[i2], tmpRealParts[i1]));
+
+            for (int j = 0; j < tmpSubspace; j++) {
+                final int tmpIndex = tmpOrder[j];
+                tmpRitzValues[j] = tmpRealParts[tmpIndex];
+                for (int i = 0; i < tmpSubspace; i++) {
+                    tmpRitzVectors[i + (j * tmpSubspace)] = tmpV.doubleValue(i, tmpIndex);
+                }
+                tmpNorm = Math.max(tmpNorm, Math.abs(tmpRitzValues[j]));
+            }
+
+            // The residual norm of Ritz pair j is |beta * (last element of Ritz vector j)|
+            tmpConverged = true;
+            for (int j = 0; tmpConverged && (j < tmpPairs); j++) {
+                tmpConverged = Math.abs(tmpBeta * tmpRitzVectors[(tmpSubspace - 1) + (j * tmpSubspace)]) <= (ACCURACY * tmpNorm);
+            }
+
+            if (!tmpConverged) {
+
+                // Thick restart - keep the best Ritz vectors, and continue from the residual vector
+                final int tmpKeep = Math.max(1, Math.min(tmpSubspace - 1, tmpPairs + ((tmpSubspace - tmpPairs) / 2)));
+
+                final double[] tmpKept = new double[tmpDim * tmpKeep];
+                GEMM.invoke(tmpDim, tmpKeep, tmpSubspace, ONE, tmpBasis, 0, tmpDim, false, tmpRitzVectors, 0, tmpSubspace, false, ZERO, tmpKept, 0,
+                        tmpDim);
+
+                System.arraycopy(tmpBasis, tmpSubspace * tmpDim, tmpBasis, tmpKeep * tmpDim, tmpDim);
+                System.arraycopy(tmpKept, 0, tmpBasis, 0, tmpKept.length);
+
+                Arrays.fill(tmpT, ZERO);
+                for (int j = 0; j < tmpKeep; j++) {
+                    tmpT[j + (j * tmpSubspace)] = tmpRitzValues[j];
+                    final double tmpCoupling = tmpBeta * tmpRitzVectors[(tmpSubspace - 1) + (j * tmpSubspace)];
+                    tmpT[tmpKeep + (j * tmpSubspace)] = tmpCoupling;
+                    tmpT[j + (tmpKeep * tmpSubspace)] = tmpCoupling;
+                }
+
+                tmpFirst = tmpKeep;
+            }
+        }
+
+        if (tmpConverged) {
+
+            myValues = Arrays.copyOf(tmpRitzValues, tmpPairs);
+
+            myVectors = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, tmpPairs);
+            GEMM.invoke(tmpDim, tmpPairs, tmpSubspace, ONE, tmpBasis, 0, tmpDim, false, tmpRitzVectors, 0, tmpSubspace, false, ZERO, myVectors.data, 0,
+                    tmpDim);
+        }
+
+        return tmpConverged;
+    }
+
+    /**
+     * Random unit vector, orthogonal to the previous columns, in the specified column of the basis
+     */
+    private void randomise(final double[] basis, final int dim, final int column) {
+
+        final Normal tmpRandom = new Normal();
+
+        final double[] tmpVector = new double[dim];
+        double tmpNorm = ZERO;
+        while (tmpNorm == ZERO) {
+            for (int i = 0; i < dim; i++) {
+                tmpVector[i] = tmpRandom.doubleValue();
+            }
+            LanczosEvD.orthogonalise(tmpVector, basis, dim, column);
+            tmpNorm = Math.sqrt(DOT.invoke(tmpVector, 0, tmpVector, 0, 0, dim));
+        }
+
+        for (int i = 0; i < dim; i++) {
+            basis[i + (column * dim)] = tmpVector[i] / tmpNorm;
+        }
+    }
+
+    @Override
+    protected double getDimensionalEpsilon() {
+        return myVectors != null ? myVectors.countRows() * MACHINE_EPSILON : MACHINE_EPSILON;
+    }
+
+}
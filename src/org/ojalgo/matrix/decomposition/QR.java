@@ -23,9 +23,11 @@ package org.ojalgo.matrix.decomposition;
 
 import java.math.BigDecimal;
 
+import org.ojalgo.access.Access1D;
 import org.ojalgo.access.Access2D;
 import org.ojalgo.array.DenseArray;
 import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.Primitive32DenseStore;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Quaternion;
 import org.ojalgo.scalar.RationalNumber;
@@ -59,6 +61,49 @@ public interface QR<N extends Number> extends MatrixDecomposition<N>, MatrixDeco
 
     }
 
+    /**
+     * A computed decomposition that can be modified to be the decomposition of a slightly different matrix -
+     * without recomputing it from scratch. This is done using Givens rotations on an explicit thin (m x
+     * min(m,n)) [Q], that is formed the first time the decomposition is modified, and on [R]. When [Q] needs
+     * another column it is orthogonalised (Gram-Schmidt) against the existing ones - the full m x m [Q] is
+     * never formed unless asked for. Each modification is O((m+n)min(m,n)) rather than the
+     * O(mn<sup>2</sup>) of a new decomposition.
+     */
+    interface Updatable<N extends Number> extends QR<N> {
+
+        /**
+         * Insert a column in [A]
+         *
+         * @param index The index of the new column
+         * @param values The new column
+         */
+        void addColumn(int index, Access1D<?> values);
+
+        /**
+         * Insert a row in [A]
+         *
+         * @param index The index of the new row
+         * @param values The new row
+         */
+        void addRow(int index, Access1D<?> values);
+
+        /**
+         * Remove a column from [A]
+         */
+        void removeColumn(int index);
+
+        /**
+         * Remove a row from [A]
+         */
+        void removeRow(int index);
+
+        /**
+         * [A] = [A] + [u][v]<sup>T</sup>
+         */
+        void update(Access1D<?> u, Access1D<?> v);
+
+    }
+
     public static final Factory<BigDecimal> BIG = typical -> new QRDecomposition.Big();
 
     public static final Factory<ComplexNumber> COMPLEX = typical -> new QRDecomposition.Complex();
@@ -71,6 +116,27 @@ public interface QR<N extends Number> extends MatrixDecomposition<N>, MatrixDeco
         }
     };
 
+    /**
+     * Works with {@link Primitive32DenseStore} (float) internally - half the memory of {@link #PRIMITIVE}, at
+     * the cost of precision.
+     */
+    public static final Factory<Double> PRIMITIVE32 = typical -> new QRDecomposition.Primitive32();
+
+    /**
+     * For (very) tall matrices, with enough rows to be split in several blocks, this returns a tall-skinny QR
+     * (TSQR) decomposition - the row blocks are decomposed in parallel and the R factors combined in a
+     * reduction tree. Only the economy sized decomposition is available, and [Q] is not formed unless asked
+     * for. Primarily intended for least squares solves. Other matrices get the same decomposition as with
+     * {@link #PRIMITIVE}.
+     */
+    public static final Factory<Double> PRIMITIVE_TALL = typical -> {
+        if (TallSkinnyQR.isTallSkinny(typical)) {
+            return new TallSkinnyQR();
+        } else {
+            return PRIMITIVE.make(typical);
+        }
+    };
+
     public static final Factory<Quaternion> QUATERNION = typical -> new QRDecomposition.Quat();
 
     public static final Factory<RationalNumber> RATIONAL = typical -> new QRDecomposition.Rational();
@@ -84,6 +150,8 @@ public interface QR<N extends Number> extends MatrixDecomposition<N>, MatrixDeco
             return (QR<N>) BIG.make(typical);
         } else if (tmpNumber instanceof ComplexNumber) {
             return (QR<N>) COMPLEX.make(typical);
+        } else if (typical instanceof Primitive32DenseStore) {
+            return (QR<N>) PRIMITIVE32.make(typical);
         } else if (tmpNumber instanceof Double) {
             return (QR<N>) PRIMITIVE.make(typical);
         } else {
@@ -91,6 +159,13 @@ public interface QR<N extends Number> extends MatrixDecomposition<N>, MatrixDeco
         }
     }
 
+    /**
+     * @return A double precision decomposition that, once computed, can be updated
+     */
+    public static QR.Updatable<Double> makeUpdatable() {
+        return new QRDecomposition.Primitive();
+    }
+
     static <N extends Number> boolean equals(final MatrixStore<N> matrix, final QR<N> decomposition, final NumberContext context) {
 
         final MatrixStore<N> tmpQ = decomposition.getQ();
@@ -105,6 +180,17 @@ public interface QR<N extends Number> extends MatrixDecomposition<N>, MatrixDeco
         return decomposition.getQ().multiply(decomposition.getR());
     }
 
+    /**
+     * An estimate of the 1-norm condition number of [R], calculated in O(n<sup>2</sup>). [Q] is orthogonal,
+     * so in the 2-norm [A] and [R] have the same condition number - in the 1-norm they differ by at most a
+     * factor m (the number of rows).
+     *
+     * @return The estimated condition number, or infinity if [A] does not have full column rank
+     */
+    default double estimateCondition() {
+        return ConditionEstimator.qr(this);
+    }
+
     MatrixStore<N> getQ();
 
     MatrixStore<N> getR();
@@ -21,18 +21,32 @@
  */
 package org.ojalgo.matrix.decomposition;
 
+import static org.ojalgo.constant.PrimitiveMath.*;
+import static org.ojalgo.function.PrimitiveFunction.*;
+
 import java.math.BigDecimal;
+import java.util.Arrays;
 
+import org.ojalgo.ProgrammingError;
 import org.ojalgo.RecoverableCondition;
+import org.ojalgo.access.Access1D;
 import org.ojalgo.access.Access2D;
 import org.ojalgo.access.Access2D.Collectable;
 import org.ojalgo.access.Structure2D;
+import org.ojalgo.array.blas.AXPY;
+import org.ojalgo.array.blas.DOT;
 import org.ojalgo.function.aggregator.AggregatorFunction;
 import org.ojalgo.matrix.store.BigDenseStore;
 import org.ojalgo.matrix.store.GenericDenseStore;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.Primitive32DenseStore;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.operation.GenerateApplyAndCopyHouseholderColumn;
+import org.ojalgo.matrix.store.operation.HouseholderBlockLeft;
+import org.ojalgo.matrix.store.operation.HouseholderLeft;
+import org.ojalgo.matrix.store.operation.RotateLeft;
+import org.ojalgo.matrix.store.operation.RotateRight;
 import org.ojalgo.matrix.transformation.Householder;
 import org.ojalgo.matrix.transformation.HouseholderReference;
 import org.ojalgo.scalar.ComplexNumber;
@@ -57,12 +71,367 @@ abstract class QRDecomposition<N extends Number> extends InPlaceDecomposition<N>
 
     }
 
-    static final class Primitive extends QRDecomposition<Double> {
+    static final class Primitive extends QRDecomposition<Double> implements QR.Updatable<Double> {
+
+        /**
+         * Makes [vector] orthogonal to [Q], and then normalises it, so that it can be appended to [Q] as a new
+         * column. [Q]<sup>T</sup>[vector] is stored in "coefficients". Should [vector] (numerically) be in
+         * the span of [Q] it is replaced by the unit vector with the largest part orthogonal to [Q].
+         *
+         * @return The norm of the orthogonal part of [vector], before it was normalised - zero if it was
+         *         replaced
+         */
+        private static double extend(final double[] factorQ, final int rows, final int columns, final double[] vector, final double[] coefficients) {
+
+            final double tmpOriginal = SQRT.invoke(DOT.invoke(vector, 0, vector, 0, 0, rows));
+
+            Arrays.fill(coefficients, 0, columns, ZERO);
+            Primitive.orthogonalise(factorQ, rows, columns, vector, coefficients);
+
+            double retVal = SQRT.invoke(DOT.invoke(vector, 0, vector, 0, 0, rows));
+            double tmpNorm = retVal;
+
+            if (retVal <= (rows * MACHINE_EPSILON * tmpOriginal)) {
+
+                retVal = ZERO;
+
+                int tmpRow = 0;
+                double tmpSmallest = POSITIVE_INFINITY;
+                for (int i = 0; i < rows; i++) {
+                    double tmpSquared = ZERO;
+                    for (int j = 0; j < columns; j++) {
+                        final double tmpValue = factorQ[i + (j * rows)];
+                        tmpSquared += tmpValue * tmpValue;
+                    }
+                    if (tmpSquared < tmpSmallest) {
+                        tmpSmallest = tmpSquared;
+                        tmpRow = i;
+                    }
+                }
+
+                Arrays.fill(vector, 0, rows, ZERO);
+                vector[tmpRow] = ONE;
+                Primitive.orthogonalise(factorQ, rows, columns, vector, new double[columns]);
+
+                tmpNorm = SQRT.invoke(DOT.invoke(vector, 0, vector, 0, 0, rows));
+            }
+
+            for (int i = 0; i < rows; i++) {
+                vector[i] /= tmpNorm;
+            }
+
+            return retVal;
+        }
+
+        /**
+         * [vector] = [vector] - [Q][Q]<sup>T</sup>[vector], with modified Gram-Schmidt done twice to retain
+         * orthogonality. [Q]<sup>T</sup>[vector] is added to "coefficients".
+         */
+        private static void orthogonalise(final double[] factorQ, final int rows, final int columns, final double[] vector, final double[] coefficients) {
+            for (int tmpPass = 0; tmpPass < 2; tmpPass++) {
+                for (int j = 0; j < columns; j++) {
+                    final double tmpCoefficient = DOT.invoke(factorQ, j * rows, vector, 0, 0, rows);
+                    AXPY.invoke(vector, 0, -tmpCoefficient, factorQ, j * rows, 0, rows);
+                    coefficients[j] += tmpCoefficient;
+                }
+            }
+        }
+
+        /**
+         * [coefficients] = [Q]<sup>T</sup>[vector]
+         */
+        private static void project(final double[] factorQ, final int rows, final int columns, final double[] vector, final double[] coefficients) {
+            for (int j = 0; j < columns; j++) {
+                coefficients[j] = DOT.invoke(factorQ, j * rows, vector, 0, 0, rows);
+            }
+        }
+
+        /**
+         * @return A copy of the first "columns" columns of [Q], with "extra" (if not null) appended as the last
+         *         column
+         */
+        private static PrimitiveDenseStore resize(final double[] factorQ, final int rows, final int columns, final double[] extra) {
+
+            final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.makeZero(rows, extra != null ? columns + 1 : columns);
+
+            System.arraycopy(factorQ, 0, retVal.data, 0, rows * columns);
+            if (extra != null) {
+                System.arraycopy(extra, 0, retVal.data, rows * columns, rows);
+            }
+
+            return retVal;
+        }
+
+        /**
+         * Rotates rows "low" and "high" of [R], and the corresponding columns of [Q], so that the element
+         * "valueHigh" (in the high row) becomes zero.
+         *
+         * @return The new value at the position of "valueLow" (in the low row)
+         */
+        private static double rotate(final double[] factorQ, final double[] factorR, final int rows, final int low, final int high, final double valueLow,
+                final double valueHigh) {
+
+            if (valueHigh == ZERO) {
+                return valueLow;
+            }
+
+            final double retVal = HYPOT.invoke(valueLow, valueHigh);
+            final double tmpCos = valueLow / retVal;
+            final double tmpSin = valueHigh / retVal;
+
+            RotateLeft.invoke(factorR, rows, low, high, tmpCos, tmpSin);
+            RotateRight.invoke(factorQ, rows, low, high, tmpCos, -tmpSin);
+
+            return retVal;
+        }
+
+        private static double[] toArray(final Access1D<?> values) {
+            final double[] retVal = new double[(int) values.count()];
+            for (int i = 0; i < retVal.length; i++) {
+                retVal[i] = values.doubleValue(i);
+            }
+            return retVal;
+        }
 
         Primitive() {
             super(PrimitiveDenseStore.FACTORY);
         }
 
+        public void addColumn(final int index, final Access1D<?> values) {
+
+            final int tmpRowDim = this.getRowDim();
+            final int tmpColDim = this.getColDim();
+
+            if ((index < 0) || (index > tmpColDim) || (values.count() != tmpRowDim)) {
+                throw new IllegalArgumentException();
+            }
+
+            final PrimitiveDenseStore tmpThinQ = (PrimitiveDenseStore) this.getUpdatableQ();
+            final int tmpColumns = (int) tmpThinQ.countColumns();
+            final double[] tmpOldR = ((PrimitiveDenseStore) this.getInPlace()).data;
+
+            final PrimitiveDenseStore tmpR = PrimitiveDenseStore.FACTORY.makeZero(tmpRowDim, tmpColDim + 1);
+            final double[] tmpNewR = tmpR.data;
+
+            System.arraycopy(tmpOldR, 0, tmpNewR, 0, index * tmpRowDim);
+            System.arraycopy(tmpOldR, index * tmpRowDim, tmpNewR, (index + 1) * tmpRowDim, (tmpColDim - index) * tmpRowDim);
+
+            // The new column is [Q]^T[a], and when [Q] has to grow the norm of the part of [a] orthogonal to [Q]
+            final double[] tmpA = Primitive.toArray(values);
+            final double[] tmpW = new double[tmpColumns + 1];
+            PrimitiveDenseStore tmpQ = tmpThinQ;
+            int tmpLength = tmpColumns;
+            if (tmpColumns < Math.min(tmpRowDim, tmpColDim + 1)) {
+                tmpW[tmpColumns] = Primitive.extend(tmpThinQ.data, tmpRowDim, tmpColumns, tmpA, tmpW);
+                tmpQ = Primitive.resize(tmpThinQ.data, tmpRowDim, tmpColumns, tmpA);
+                tmpLength++;
+            } else {
+                Primitive.project(tmpThinQ.data, tmpRowDim, tmpColumns, tmpA, tmpW);
+            }
+
+            final int tmpColumn = index * tmpRowDim;
+            System.arraycopy(tmpW, 0, tmpNewR, tmpColumn, tmpLength);
+
+            // Zero it below the diagonal, bottom up
+            for (int k = tmpLength - 2; k >= index; k--) {
+                tmpNewR[k + tmpColumn] = Primitive.rotate(tmpQ.data, tmpNewR, tmpRowDim, k, k + 1, tmpNewR[k + tmpColumn], tmpNewR[k + 1 + tmpColumn]);
+                tmpNewR[k + 1 + tmpColumn] = ZERO;
+            }
+
+            this.updated(tmpQ, tmpR);
+        }
+
+        public void addRow(final int index, final Access1D<?> values) {
+
+            final int tmpRowDim = this.getRowDim();
+            final int tmpColDim = this.getColDim();
+
+            if ((index < 0) || (index > tmpRowDim) || (values.count() != tmpColDim)) {
+                throw new IllegalArgumentException();
+            }
+
+            final PrimitiveDenseStore tmpThinQ = (PrimitiveDenseStore) this.getUpdatableQ();
+            final int tmpColumns = (int) tmpThinQ.countColumns();
+            final double[] tmpOldQ = tmpThinQ.data;
+            final double[] tmpOldR = ((PrimitiveDenseStore) this.getInPlace()).data;
+
+            final int tmpNewDim = tmpRowDim + 1;
+
+            // [Q] gets a unit first column that picks out the new row of [A], that is put first in [R]
+            final PrimitiveDenseStore tmpQ = PrimitiveDenseStore.FACTORY.makeZero(tmpNewDim, tmpColumns + 1);
+            final double[] tmpNewQ = tmpQ.data;
+            tmpNewQ[index] = ONE;
+            for (int j = 0; j < tmpColumns; j++) {
+                for (int i = 0; i < tmpRowDim; i++) {
+                    tmpNewQ[(i < index ? i : i + 1) + ((j + 1) * tmpNewDim)] = tmpOldQ[i + (j * tmpRowDim)];
+                }
+            }
+
+            final PrimitiveDenseStore tmpR = PrimitiveDenseStore.FACTORY.makeZero(tmpNewDim, tmpColDim);
+            final double[] tmpNewR = tmpR.data;
+            for (int j = 0; j < tmpColDim; j++) {
+                tmpNewR[j * tmpNewDim] = values.doubleValue(j);
+                System.arraycopy(tmpOldR, j * tmpRowDim, tmpNewR, 1 + (j * tmpNewDim), Math.min(j + 1, tmpColumns));
+            }
+
+            // [R] is now upper Hessenberg
+            this.triangularise(tmpNewQ, tmpNewR, tmpNewDim, tmpColDim, 0);
+
+            if (tmpColumns < Math.min(tmpNewDim, tmpColDim)) {
+                this.updated(tmpQ, tmpR);
+            } else {
+                // The last row of [R] is now zero, and the last column of [Q] not needed
+                this.updated(Primitive.resize(tmpNewQ, tmpNewDim, tmpColumns, null), tmpR);
+            }
+        }
+
+        public void removeColumn(final int index) {
+
+            final int tmpRowDim = this.getRowDim();
+            final int tmpColDim = this.getColDim();
+
+            if ((index < 0) || (index >= tmpColDim)) {
+                throw new IllegalArgumentException();
+            }
+
+            final PrimitiveDenseStore tmpQ = (PrimitiveDenseStore) this.getUpdatableQ();
+            final int tmpColumns = (int) tmpQ.countColumns();
+            final double[] tmpOldR = ((PrimitiveDenseStore) this.getInPlace()).data;
+
+            final PrimitiveDenseStore tmpR = PrimitiveDenseStore.FACTORY.makeZero(tmpRowDim, tmpColDim - 1);
+            final double[] tmpNewR = tmpR.data;
+
+            System.arraycopy(tmpOldR, 0, tmpNewR, 0, index * tmpRowDim);
+            System.arraycopy(tmpOldR, (index + 1) * tmpRowDim, tmpNewR, index * tmpRowDim, (tmpColDim - index - 1) * tmpRowDim);
+
+            // [R] is now upper Hessenberg to the right of the removed column
+            this.triangularise(tmpQ.data, tmpNewR, tmpRowDim, tmpColDim - 1, index);
+
+            if (tmpColumns > Math.min(tmpRowDim, tmpColDim - 1)) {
+                // The last row of [R] is now zero, and the last column of [Q] not needed
+                this.updated(Primitive.resize(tmpQ.data, tmpRowDim, tmpColumns - 1, null), tmpR);
+            } else {
+                this.updated(tmpQ, tmpR);
+            }
+        }
+
+        public void removeRow(final int index) {
+
+            final int tmpRowDim = this.getRowDim();
+            final int tmpColDim = this.getColDim();
+
+            if ((index < 0) || (index >= tmpRowDim)) {
+                throw new IllegalArgumentException();
+            }
+
+            final PrimitiveDenseStore tmpThinQ = (PrimitiveDenseStore) this.getUpdatableQ();
+            final double[] tmpOldR = ((PrimitiveDenseStore) this.getInPlace()).data;
+
+            double[] tmpOldQ = tmpThinQ.data;
+            int tmpColumns = (int) tmpThinQ.countColumns();
+
+            if (tmpColumns < tmpRowDim) {
+                // The row of a thin [Q] is not of unit length - extend [Q] with a last column so that it is ([R] gets a zero last row)
+                final double[] tmpUnit = new double[tmpRowDim];
+                tmpUnit[index] = ONE;
+                Primitive.extend(tmpOldQ, tmpRowDim, tmpColumns, tmpUnit, new double[tmpColumns]);
+                tmpOldQ = Primitive.resize(tmpOldQ, tmpRowDim, tmpColumns, tmpUnit).data;
+                tmpColumns++;
+            }
+
+            // Rotate the row of [Q] to a unit vector, bottom up, making [R] upper Hessenberg
+            for (int k = tmpColumns - 2; k >= 0; k--) {
+                Primitive.rotate(tmpOldQ, tmpOldR, tmpRowDim, k, k + 1, tmpOldQ[index + (k * tmpRowDim)], tmpOldQ[index + ((k + 1) * tmpRowDim)]);
+            }
+
+            // Drop that row and the first column of [Q], and the first row of [R]
+            final int tmpNewDim = tmpRowDim - 1;
+
+            final PrimitiveDenseStore tmpQ = PrimitiveDenseStore.FACTORY.makeZero(tmpNewDim, tmpColumns - 1);
+            final double[] tmpNewQ = tmpQ.data;
+            for (int j = 0; j < (tmpColumns - 1); j++) {
+                for (int i = 0; i < tmpNewDim; i++) {
+                    tmpNewQ[i + (j * tmpNewDim)] = tmpOldQ[(i < index ? i : i + 1) + ((j + 1) * tmpRowDim)];
+                }
+            }
+
+            final PrimitiveDenseStore tmpR = PrimitiveDenseStore.FACTORY.makeZero(tmpNewDim, tmpColDim);
+            final double[] tmpNewR = tmpR.data;
+            for (int j = 0; j < tmpColDim; j++) {
+                System.arraycopy(tmpOldR, 1 + (j * tmpRowDim), tmpNewR, j * tmpNewDim, Math.min(j + 1, tmpNewDim));
+            }
+
+            this.updated(tmpQ, tmpR);
+        }
+
+        public void update(final Access1D<?> u, final Access1D<?> v) {
+
+            final int tmpRowDim = this.getRowDim();
+            final int tmpColDim = this.getColDim();
+
+            if ((u.count() != tmpRowDim) || (v.count() != tmpColDim)) {
+                throw new IllegalArgumentException();
+            }
+
+            final PrimitiveDenseStore tmpThinQ = (PrimitiveDenseStore) this.getUpdatableQ();
+            final int tmpColumns = (int) tmpThinQ.countColumns();
+            final double[] tmpR = ((PrimitiveDenseStore) this.getInPlace()).data;
+
+            // [u] = [Q][w], or with a thin [Q] [u] = [Q q][w], where [q] is the normalised part of [u] orthogonal to [Q]
+            final double[] tmpU = Primitive.toArray(u);
+            final double[] tmpW = new double[tmpColumns + 1];
+            PrimitiveDenseStore tmpQ = tmpThinQ;
+            int tmpLength = tmpColumns;
+            if (tmpColumns < tmpRowDim) {
+                tmpW[tmpColumns] = Primitive.extend(tmpThinQ.data, tmpRowDim, tmpColumns, tmpU, tmpW);
+                tmpQ = Primitive.resize(tmpThinQ.data, tmpRowDim, tmpColumns, tmpU);
+                tmpLength++;
+            } else {
+                Primitive.project(tmpThinQ.data, tmpRowDim, tmpColumns, tmpU, tmpW);
+            }
+
+            // Rotate [w] to a multiple of the first unit vector, bottom up, making [R] upper Hessenberg
+            for (int k = tmpLength - 2; k >= 0; k--) {
+                tmpW[k] = Primitive.rotate(tmpQ.data, tmpR, tmpRowDim, k, k + 1, tmpW[k], tmpW[k + 1]);
+                tmpW[k + 1] = ZERO;
+            }
+
+            for (int j = 0; j < tmpColDim; j++) {
+                tmpR[j * tmpRowDim] += tmpW[0] * v.doubleValue(j);
+            }
+
+            this.triangularise(tmpQ.data, tmpR, tmpRowDim, tmpColDim, 0);
+
+            if (tmpLength > tmpColumns) {
+                // The extra row of [R] is now zero, and the extra column of [Q] not needed
+                tmpQ = Primitive.resize(tmpQ.data, tmpRowDim, tmpColumns, null);
+            }
+
+            this.updated(tmpQ, null);
+        }
+
+        /**
+         * Zero the subdiagonal of an upper Hessenberg [R], starting at column "first".
+         */
+        private void triangularise(final double[] factorQ, final double[] factorR, final int rows, final int columns, final int first) {
+
+            final int tmpLimit = Math.min(rows - 1, columns);
+
+            for (int k = first; k < tmpLimit; k++) {
+                final int tmpColumn = k * rows;
+                factorR[k + tmpColumn] = Primitive.rotate(factorQ, factorR, rows, k, k + 1, factorR[k + tmpColumn], factorR[k + 1 + tmpColumn]);
+                factorR[k + 1 + tmpColumn] = ZERO;
+            }
+        }
+
+    }
+
+    static final class Primitive32 extends QRDecomposition<Double> {
+
+        Primitive32() {
+            super(Primitive32DenseStore.FACTORY);
+        }
+
     }
 
     static final class Quat extends QRDecomposition<Quaternion> {
@@ -81,7 +450,29 @@ abstract class QRDecomposition<N extends Number> extends InPlaceDecomposition<N>
 
     }
 
+    /**
+     * {@link PrimitiveDenseStore} matrices with more than this number of rows and columns are decomposed
+     * using the blocked algorithm - panels of {@link HouseholderBlockLeft#THRESHOLD} reflectors are
+     * accumulated in the compact WY representation, and applied to the trailing columns using matrix-matrix
+     * multiplications. The same block representation is then used in {@link #getQ()}, and in
+     * {@link #getSolution(Collectable, PhysicalStore)} when there are many right hand side columns.
+     */
+    static int BLOCKED = 128;
+
+    /**
+     * The [T] factors of the compact WY representation, one per panel, if the blocked algorithm was used.
+     */
+    private double[][] myBlockFactors = null;
+    /**
+     * The panel width (number of reflectors per [T] factor) used when {@link #myBlockFactors} were computed
+     */
+    private int myBlockSize = 0;
     private boolean myFullSize = false;
+    /**
+     * An explicit thin (m x min(m,n)) [Q], only present if the decomposition has been updated. The in-place
+     * store then only contains [R] - there are no reflectors below the diagonal.
+     */
+    private DecompositionStore<N> myQ = null;
 
     protected QRDecomposition(final DecompositionStore.Factory<N, ? extends DecompositionStore<N>> aFactory) {
         super(aFactory);
@@ -101,10 +492,16 @@ abstract class QRDecomposition<N extends Number> extends InPlaceDecomposition<N>
         final int tmpRowDim = this.getRowDim();
         final int tmpColDim = this.getColDim();
 
-        final Householder<N> tmpHouseholder = this.makeHouseholder(tmpRowDim);
-
         final int tmpLimit = Math.min(tmpRowDim, tmpColDim);
 
+        if ((tmpStore instanceof PrimitiveDenseStore) && (tmpLimit > BLOCKED)) {
+            myBlockSize = Math.max(1, HouseholderBlockLeft.THRESHOLD);
+            myBlockFactors = this.computeBlocked(((PrimitiveDenseStore) tmpStore).data, tmpRowDim, tmpColDim, myBlockSize);
+            return this.computed(true);
+        }
+
+        final Householder<N> tmpHouseholder = this.makeHouseholder(tmpRowDim);
+
         for (int ij = 0; ij < tmpLimit; ij++) {
             if (((ij + 1) < tmpRowDim) && tmpStore.generateApplyAndCopyHouseholderColumn(ij, ij, tmpHouseholder)) {
                 tmpStore.transformLeft(tmpHouseholder, ij + 1);
@@ -130,20 +527,11 @@ abstract class QRDecomposition<N extends Number> extends InPlaceDecomposition<N>
 
     public MatrixStore<N> getQ() {
 
-        final DecompositionStore<N> retVal = this.makeEye(this.getRowDim(), myFullSize ? this.getRowDim() : this.getMinDim());
-
-        final HouseholderReference<N> tmpReference = HouseholderReference.makeColumn(this.getInPlace());
-
-        for (int j = this.getMinDim() - 1; j >= 0; j--) {
-
-            tmpReference.point(j, j);
-
-            if (!tmpReference.isZero()) {
-                retVal.transformLeft(tmpReference, j);
-            }
+        if (myQ != null) {
+            return (myFullSize && (myQ.countColumns() < this.getRowDim())) ? this.makeFullQ() : myQ.copy();
         }
 
-        return retVal;
+        return this.makeQ(myFullSize ? this.getRowDim() : this.getMinDim());
     }
 
     public MatrixStore<N> getR() {
@@ -201,17 +589,7 @@ abstract class QRDecomposition<N extends Number> extends InPlaceDecomposition<N>
         final int tmpRowDim = this.getRowDim();
         final int tmpColDim = this.getColDim();
 
-        final HouseholderReference<N> tmpReference = HouseholderReference.makeColumn(tmpStore);
-
-        final int tmpLimit = this.getMinDim();
-        for (int j = 0; j < tmpLimit; j++) {
-
-            tmpReference.point(j, j);
-
-            if (!tmpReference.isZero()) {
-                preallocated.transformLeft(tmpReference, 0);
-            }
-        }
+        this.applyTransposedQ(preallocated);
 
         preallocated.substituteBackwards(tmpStore, false, false, false);
 
@@ -270,6 +648,15 @@ abstract class QRDecomposition<N extends Number> extends InPlaceDecomposition<N>
         myFullSize = fullSize;
     }
 
+    @Override
+    public void reset() {
+
+        super.reset();
+
+        myBlockFactors = null;
+        myQ = null;
+    }
+
     public MatrixStore<N> solve(final Access2D<?> body, final Access2D<?> rhs) throws RecoverableCondition {
 
         this.decompose(this.wrap(body));
@@ -297,6 +684,206 @@ abstract class QRDecomposition<N extends Number> extends InPlaceDecomposition<N>
         return this.isComputed() && this.isFullColumnRank();
     }
 
+    /**
+     * [target] = [Q]<sup>T</sup>[target]
+     */
+    void applyTransposedQ(final PhysicalStore<N> target) {
+
+        final int tmpRowDim = this.getRowDim();
+
+        if (myQ != null) {
+
+            // With a thin [Q] only the first min(m,n) rows are set, the back substitution doesn't use the others
+            final MatrixStore<N> tmpProduct = myQ.transpose().multiply(target);
+            target.regionByLimits((int) tmpProduct.countRows(), (int) tmpProduct.countColumns()).fillMatching(tmpProduct);
+
+        } else if ((myBlockFactors != null) && (target instanceof PrimitiveDenseStore) && (target.countRows() == tmpRowDim)
+                && (target.countColumns() >= HouseholderBlockLeft.THRESHOLD)) {
+
+            // With only a few right hand side columns it's faster to apply the reflectors one at the time
+
+            this.applyBlocked(((PrimitiveDenseStore) target).data, tmpRowDim, (int) target.countColumns(), true);
+
+        } else {
+
+            final HouseholderReference<N> tmpReference = HouseholderReference.makeColumn(this.getInPlace());
+
+            final int tmpLimit = this.getMinDim();
+            for (int j = 0; j < tmpLimit; j++) {
+
+                tmpReference.point(j, j);
+
+                if (!tmpReference.isZero()) {
+                    target.transformLeft(tmpReference, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * The explicit thin [Q] used when the decomposition is updated - never the full m x m matrix. The first
+     * time this is called [Q] is formed from the reflectors, and then the reflectors are cleared from the
+     * in-place store.
+     */
+    final DecompositionStore<N> getUpdatableQ() {
+
+        if (!this.isComputed()) {
+            throw new ProgrammingError("Only a computed decomposition can be updated!");
+        }
+
+        if (myQ == null) {
+
+            myQ = this.makeQ(this.getMinDim());
+
+            final DecompositionStore<N> tmpInPlace = this.getInPlace();
+            final N tmpZero = this.scalar().zero().get();
+            final int tmpLimit = Math.min(this.getRowDim() - 1, this.getColDim());
+            for (int j = 0; j < tmpLimit; j++) {
+                tmpInPlace.fillColumn(j + 1, j, tmpZero);
+            }
+
+            myBlockFactors = null;
+        }
+
+        return myQ;
+    }
+
+    final DecompositionStore<N> makeQ(final int columns) {
+
+        final DecompositionStore<N> retVal = this.makeEye(this.getRowDim(), columns);
+
+        if ((myBlockFactors != null) && (retVal instanceof PrimitiveDenseStore)) {
+            this.applyBlocked(((PrimitiveDenseStore) retVal).data, this.getRowDim(), (int) retVal.countColumns(), false);
+            return retVal;
+        }
+
+        final HouseholderReference<N> tmpReference = HouseholderReference.makeColumn(this.getInPlace());
+
+        for (int j = this.getMinDim() - 1; j >= 0; j--) {
+
+            tmpReference.point(j, j);
+
+            if (!tmpReference.isZero()) {
+                retVal.transformLeft(tmpReference, j);
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * To be called when [Q] and [R] have been modified directly, rather than computed.
+     *
+     * @param factorR A new (differently sized) [R], or null if the current one was modified in place
+     */
+    final void updated(final DecompositionStore<N> factorQ, final Access2D.Collectable<N, ? super DecompositionStore<N>> factorR) {
+
+        this.reset();
+
+        if (factorR != null) {
+            this.setInPlace(factorR);
+        }
+
+        myQ = factorQ;
+
+        this.computed(true);
+    }
+
+    /**
+     * Applies [Q] (transpose == false) or [Q]<sup>T</sup> (transpose == true) to the target, using the block
+     * factors from {@link #computeBlocked(double[], int, int, int)}.
+     */
+    private void applyBlocked(final double[] target, final int rows, final int columns, final boolean transpose) {
+
+        final double[] tmpReflectors = ((PrimitiveDenseStore) this.getInPlace()).data;
+        final double[][] tmpFactors = myBlockFactors;
+        final int tmpLimit = this.getMinDim();
+        final int tmpBlock = myBlockSize;
+
+        if (transpose) {
+            for (int b = 0; b < tmpFactors.length; b++) {
+                final int tmpFirst = b * tmpBlock;
+                HouseholderBlockLeft.invoke(target, rows, 0, columns, tmpReflectors, tmpFirst, Math.min(tmpFirst + tmpBlock, tmpLimit), tmpFactors[b], true);
+            }
+        } else {
+            for (int b = tmpFactors.length - 1; b >= 0; b--) {
+                final int tmpFirst = b * tmpBlock;
+                // The columns to the left of the panel are (still) unit vectors that are not affected
+                HouseholderBlockLeft.invoke(target, rows, Math.min(tmpFirst, columns), columns, tmpReflectors, tmpFirst,
+                        Math.min(tmpFirst + tmpBlock, tmpLimit), tmpFactors[b], false);
+            }
+        }
+    }
+
+    /**
+     * Blocked variant of the main loop in {@link #decompose(Collectable)}. The reflectors are stored the same
+     * way, below the diagonal, but the [T] factors of the compact WY representation are also returned.
+     */
+    private double[][] computeBlocked(final double[] data, final int rows, final int columns, final int block) {
+
+        final int tmpLimit = Math.min(rows, columns);
+
+        final double[][] retVal = new double[(tmpLimit + block - 1) / block][];
+
+        final Householder.Primitive tmpHouseholder = new Householder.Primitive(rows);
+        final double[] tmpBetas = new double[tmpLimit];
+
+        for (int b = 0, k = 0; k < tmpLimit; b++, k += block) {
+
+            final int tmpPanelLimit = Math.min(k + block, tmpLimit);
+
+            // Factorise the panel
+            for (int ij = k; ij < tmpPanelLimit; ij++) {
+                if (((ij + 1) < rows) && GenerateApplyAndCopyHouseholderColumn.invoke(data, rows, ij, ij, tmpHouseholder)) {
+                    HouseholderLeft.invoke(data, rows, ij + 1, tmpPanelLimit, tmpHouseholder);
+                    tmpBetas[ij] = tmpHouseholder.beta;
+                }
+            }
+
+            retVal[b] = HouseholderBlockLeft.makeFactorT(data, rows, k, tmpPanelLimit, tmpBetas);
+
+            // Apply the panel's reflectors to everything to the right of it
+            HouseholderBlockLeft.invoke(data, rows, tmpPanelLimit, columns, data, k, tmpPanelLimit, retVal[b], true);
+        }
+
+        return retVal;
+    }
+
+    /**
+     * The full size [Q] of an updated decomposition. The thin [Q] is completed with an orthonormal basis for
+     * its complement, formed from the Householder reflectors that triangularise it.
+     */
+    private MatrixStore<N> makeFullQ() {
+
+        final int tmpRowDim = this.getRowDim();
+        final int tmpColumns = (int) myQ.countColumns();
+
+        final DecompositionStore<N> tmpReflectors = this.makeZero(tmpRowDim, tmpColumns);
+        tmpReflectors.fillMatching(myQ);
+
+        final Householder<N> tmpHouseholder = this.makeHouseholder(tmpRowDim);
+        for (int ij = 0; ij < tmpColumns; ij++) {
+            if (((ij + 1) < tmpRowDim) && tmpReflectors.generateApplyAndCopyHouseholderColumn(ij, ij, tmpHouseholder)) {
+                tmpReflectors.transformLeft(tmpHouseholder, ij + 1);
+            }
+        }
+
+        final DecompositionStore<N> retVal = this.makeEye(tmpRowDim, tmpRowDim);
+
+        final HouseholderReference<N> tmpReference = HouseholderReference.makeColumn(tmpReflectors);
+        for (int j = tmpColumns - 1; j >= 0; j--) {
+            tmpReference.point(j, j);
+            if (!tmpReference.isZero()) {
+                retVal.transformLeft(tmpReference, j);
+            }
+        }
+
+        // The first columns are the same as those of the thin [Q], apart from their signs
+        retVal.regionByLimits(tmpRowDim, tmpColumns).fillMatching(myQ);
+
+        return retVal;
+    }
+
     /**
      * @return L as in R<sup>T</sup>.
      */
@@ -0,0 +1,371 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+import static org.ojalgo.function.PrimitiveFunction.*;
+
+import org.ojalgo.RecoverableCondition;
+import org.ojalgo.access.Access2D;
+import org.ojalgo.access.Access2D.Collectable;
+import org.ojalgo.access.Structure2D;
+import org.ojalgo.array.Array1D;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.random.Normal;
+import org.ojalgo.scalar.PrimitiveScalar;
+
+/**
+ * Truncated singular value decomposition using a randomised range finder (Halko, Martinsson & Tropp). The
+ * range of [A] is sampled by multiplying with a Gaussian random matrix, the sample is refined with a few
+ * power iterations, and then the (small) projection of [A] onto that range is decomposed. [A] is only
+ * accessed through matrix multiplications (any {@link MatrixStore} will do) and that's where (in parallel)
+ * almost all the work is done.
+ * <p>
+ * Only the k largest singular values, and their singular vectors, are calculated - [Q1] is m-by-k, [D] is
+ * k-by-k and [Q2] is n-by-k. The norms, the condition number and the (pseudo) inverse are those of that
+ * rank-k approximation.
+ * </p>
+ *
+ * @author apete
+ */
+final class RandomisedSVD extends GenericDecomposition<Double> implements SingularValue<Double> {
+
+    /**
+     * The number of extra columns sampled, in addition to the k requested
+     */
+    static int OVERSAMPLING = 10;
+
+    /**
+     * The number of power iterations - improves the accuracy when the singular values decay slowly
+     */
+    static int POWER_ITERATIONS = 2;
+
+    private static PrimitiveDenseStore orthonormalise(final MatrixStore<Double> columns) {
+
+        final QR<Double> tmpQR = QR.PRIMITIVE.make(columns);
+        tmpQR.decompose(columns);
+
+        return PrimitiveDenseStore.FACTORY.copy(tmpQR.getQ());
+    }
+
+    private int myColDim = 0;
+    private PhysicalStore<Double> myPseudoinverse = null;
+    private PrimitiveDenseStore myQ1 = null;
+    private PrimitiveDenseStore myQ2 = null;
+    private final int myRank;
+    private int myRowDim = 0;
+    private double[] mySingularValues = null;
+
+    RandomisedSVD(final int rank) {
+
+        super(PrimitiveDenseStore.FACTORY);
+
+        if (rank <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        myRank = rank;
+    }
+
+    public boolean computeValuesOnly(final Collectable<Double, ? super PhysicalStore<Double>> matrix) {
+        return this.decompose(matrix);
+    }
+
+    public boolean decompose(final Collectable<Double, ? super PhysicalStore<Double>> matrix) {
+
+        this.reset();
+
+        final MatrixStore<Double> tmpMatrix = this.collect(matrix);
+
+        myRowDim = (int) tmpMatrix.countRows();
+        myColDim = (int) tmpMatrix.countColumns();
+
+        final int tmpMinDim = Math.min(myRowDim, myColDim);
+        final int tmpRank = Math.min(myRank, tmpMinDim);
+        final int tmpSamples = Math.min(tmpRank + OVERSAMPLING, tmpMinDim);
+
+        // Sample the range of [A], and refine the sample using power iterations
+        final PrimitiveDenseStore tmpRandom = PrimitiveDenseStore.FACTORY.makeFilled(myColDim, tmpSamples, new Normal());
+        PrimitiveDenseStore tmpQ = RandomisedSVD.orthonormalise(this.multiply(tmpMatrix, tmpRandom));
+        for (int p = 0; p < POWER_ITERATIONS; p++) {
+            final PrimitiveDenseStore tmpZ = RandomisedSVD.orthonormalise(PrimitiveDenseStore.FACTORY.transpose(this.premultiply(tmpMatrix, tmpQ)));
+            tmpQ = RandomisedSVD.orthonormalise(this.multiply(tmpMatrix, tmpZ));
+        }
+
+        // [B] = [Q]^T[A] is small - decompose it
+        final PrimitiveDenseStore tmpB = this.premultiply(tmpMatrix, tmpQ);
+        final SingularValue<Double> tmpSVD = new RawSingularValue();
+        if (!tmpSVD.decompose(tmpB)) {
+            return this.computed(false);
+        }
+
+        mySingularValues = new double[tmpRank];
+        tmpSVD.getSingularValues(mySingularValues);
+
+        myQ1 = PrimitiveDenseStore.FACTORY.makeZero(myRowDim, tmpRank);
+        myQ1.fillByMultiplying(tmpQ, PrimitiveDenseStore.FACTORY.copy(tmpSVD.getQ1().logical().limits(tmpSamples, tmpRank).get()));
+
+        myQ2 = PrimitiveDenseStore.FACTORY.copy(tmpSVD.getQ2().logical().limits(myColDim, tmpRank).get());
+
+        return this.computed(true);
+    }
+
+    public double getCondition() {
+        return mySingularValues[0] / mySingularValues[mySingularValues.length - 1];
+    }
+
+    public MatrixStore<Double> getD() {
+        final DiagonalArray1D<Double> tmpDiagonal = new DiagonalArray1D<>(this.getSingularValues(), null, null, ZERO);
+        return MatrixStore.PRIMITIVE.makeWrapper(tmpDiagonal).get();
+    }
+
+    public double getFrobeniusNorm() {
+
+        double retVal = ZERO;
+
+        for (int i = mySingularValues.length - 1; i >= 0; i--) {
+            final double tmpVal = mySingularValues[i];
+            retVal += tmpVal * tmpVal;
+        }
+
+        return SQRT.invoke(retVal);
+    }
+
+    public MatrixStore<Double> getInverse() {
+        return this.getInverse(this.allocate(myColDim, myRowDim));
+    }
+
+    public MatrixStore<Double> getInverse(final PhysicalStore<Double> preallocated) {
+
+        if (myPseudoinverse == null) {
+            preallocated.fillByMultiplying(this.getScaledQ2(), PrimitiveDenseStore.FACTORY.transpose(myQ1));
+            myPseudoinverse = preallocated;
+        }
+
+        return myPseudoinverse;
+    }
+
+    public double getKyFanNorm(final int k) {
+
+        double retVal = ZERO;
+
+        for (int i = Math.min(mySingularValues.length, k) - 1; i >= 0; i--) {
+            retVal += mySingularValues[i];
+        }
+
+        return retVal;
+    }
+
+    public double getOperatorNorm() {
+        return mySingularValues[0];
+    }
+
+    public MatrixStore<Double> getQ1() {
+        return myQ1;
+    }
+
+    public MatrixStore<Double> getQ2() {
+        return myQ2;
+    }
+
+    public int getRank() {
+        final double tolerance = mySingularValues[0] * this.getDimensionalEpsilon();
+        int rank = 0;
+        for (int i = 0; i < mySingularValues.length; i++) {
+            if (mySingularValues[i] > tolerance) {
+                rank++;
+            }
+        }
+        return rank;
+    }
+
+    public Array1D<Double> getSingularValues() {
+        return Array1D.PRIMITIVE64.copy(mySingularValues);
+    }
+
+    @Override
+    public void getSingularValues(final double[] values) {
+        System.arraycopy(mySingularValues, 0, values, 0, Math.min(mySingularValues.length, values.length));
+    }
+
+    public MatrixStore<Double> getSolution(final Collectable<Double, ? super PhysicalStore<Double>> rhs) {
+        return this.getSolution(rhs, this.allocate(myColDim, rhs.countColumns()));
+    }
+
+    /**
+     * [X] = [Q2][D]<sup>-1</sup>[Q1]<sup>T</sup>[B] - the pseudoinverse is not formed.
+     */
+    @Override
+    public MatrixStore<Double> getSolution(final Collectable<Double, ? super PhysicalStore<Double>> rhs, final PhysicalStore<Double> preallocated) {
+
+        final PrimitiveDenseStore tmpProjected = this.premultiply(this.collect(rhs), myQ1);
+
+        preallocated.fillByMultiplying(this.getScaledQ2(), tmpProjected);
+
+        return preallocated;
+    }
+
+    public double getTraceNorm() {
+        return this.getKyFanNorm(mySingularValues.length);
+    }
+
+    public MatrixStore<Double> invert(final Access2D<?> original) throws RecoverableCondition {
+
+        this.decompose(this.wrap(original));
+
+        if (this.isSolvable()) {
+            return this.getInverse();
+        } else {
+            throw RecoverableCondition.newMatrixNotInvertible();
+        }
+    }
+
+    public MatrixStore<Double> invert(final Access2D<?> original, final PhysicalStore<Double> preallocated) throws RecoverableCondition {
+
+        this.decompose(this.wrap(original));
+
+        if (this.isSolvable()) {
+            return this.getInverse(preallocated);
+        } else {
+            throw RecoverableCondition.newMatrixNotInvertible();
+        }
+    }
+
+    /**
+     * @return true if none of the (k) calculated singular values are zero
+     */
+    public boolean isFullRank() {
+        return this.getRank() == mySingularValues.length;
+    }
+
+    /**
+     * @return Always false - only economy sized decompositions are available
+     */
+    public boolean isFullSize() {
+        return false;
+    }
+
+    public boolean isOrdered() {
+        return true;
+    }
+
+    public PhysicalStore<Double> preallocate(final Structure2D template) {
+        return this.allocate(template.countColumns(), template.countRows());
+    }
+
+    public PhysicalStore<Double> preallocate(final Structure2D templateBody, final Structure2D templateRHS) {
+        return this.allocate(templateBody.countColumns(), templateRHS.countColumns());
+    }
+
+    @Override
+    public void reset() {
+
+        super.reset();
+
+        myRowDim = 0;
+        myColDim = 0;
+        myPseudoinverse = null;
+        myQ1 = null;
+        myQ2 = null;
+        mySingularValues = null;
+    }
+
+    /**
+     * Does nothing - only economy sized decompositions are available
+     */
+    public void setFullSize(final boolean fullSize) {
+        // Only economy size
+    }
+
+    public MatrixStore<Double> solve(final Access2D<?> body, final Access2D<?> rhs) throws RecoverableCondition {
+
+        this.decompose(this.wrap(body));
+
+        if (this.isSolvable()) {
+            return this.getSolution(this.wrap(rhs));
+        } else {
+            throw RecoverableCondition.newEquationSystemNotSolvable();
+        }
+    }
+
+    public MatrixStore<Double> solve(final Access2D<?> body, final Access2D<?> rhs, final PhysicalStore<Double> preallocated) throws RecoverableCondition {
+
+        this.decompose(this.wrap(body));
+
+        if (this.isSolvable()) {
+            return this.getSolution(this.wrap(rhs), preallocated);
+        } else {
+            throw RecoverableCondition.newEquationSystemNotSolvable();
+        }
+    }
+
+    /**
+     * [Q2][D]<sup>-1</sup>, with the columns corresponding to (numerically) zero singular values set to zero
+     */
+    private PrimitiveDenseStore getScaledQ2() {
+
+        final PrimitiveDenseStore retVal = myQ2.copy();
+
+        final double tmpEps = mySingularValues[0] * MACHINE_EPSILON * mySingularValues.length;
+
+        for (int j = 0; j < mySingularValues.length; j++) {
+            final double tmpVal = mySingularValues[j];
+            final double tmpFactor = PrimitiveScalar.isSmall(tmpEps, tmpVal) ? ZERO : ONE / tmpVal;
+            for (int i = 0; i < myColDim; i++) {
+                retVal.data[i + (j * myColDim)] *= tmpFactor;
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * [A][right]
+     */
+    private PrimitiveDenseStore multiply(final MatrixStore<Double> matrix, final PrimitiveDenseStore right) {
+        final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.makeZero(matrix.countRows(), right.countColumns());
+        matrix.multiply(right, retVal);
+        return retVal;
+    }
+
+    /**
+     * [left]<sup>T</sup>[A]
+     */
+    private PrimitiveDenseStore premultiply(final MatrixStore<Double> matrix, final PrimitiveDenseStore left) {
+        final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.makeZero(left.countColumns(), matrix.countColumns());
+        matrix.premultiply(PrimitiveDenseStore.FACTORY.transpose(left)).supplyTo(retVal);
+        return retVal;
+    }
+
+    @Override
+    protected boolean checkSolvability() {
+        return true;
+    }
+
+    @Override
+    protected double getDimensionalEpsilon() {
+        return Math.max(myRowDim, myColDim) * MACHINE_EPSILON;
+    }
+
+}
@@ -35,6 +35,7 @@ import org.ojalgo.array.Array1D;
 import org.ojalgo.array.blas.AXPY;
 import org.ojalgo.array.blas.COPY;
 import org.ojalgo.array.blas.DOT;
+import org.ojalgo.array.blas.GEMM;
 import org.ojalgo.function.aggregator.AggregatorFunction;
 import org.ojalgo.function.aggregator.ComplexAggregator;
 import org.ojalgo.matrix.decomposition.function.ExchangeColumns;
@@ -122,7 +123,15 @@ abstract class RawEigenvalue extends RawDecomposition implements Eigenvalue<Doub
     static final class Symmetric extends RawEigenvalue implements MatrixDecomposition.Solver<Double> {
 
         Symmetric() {
-            super();
+            this(false);
+        }
+
+        /**
+         * @param divideAndConquer Use {@link TridiagonalDivideAndConquer}, rather than the QL algorithm, to
+         *        diagonalise the tridiagonal matrix (when eigenvectors are requested)
+         */
+        Symmetric(final boolean divideAndConquer) {
+            super(divideAndConquer);
         }
 
         public MatrixStore<Double> getSolution(final Collectable<Double, ? super PhysicalStore<Double>> rhs) {
@@ -164,6 +173,7 @@ abstract class RawEigenvalue extends RawDecomposition implements Eigenvalue<Doub
      * @serial internal storage of eigenvalues.
      */
     private double[] d = null, e = null;
+    private final boolean myDivideAndConquer;
     private transient MatrixStore<Double> myInverse = null;
     /**
      * Array for internal storage of eigenvectors.
@@ -173,7 +183,14 @@ abstract class RawEigenvalue extends RawDecomposition implements Eigenvalue<Doub
     private double[][] myTransposedV = null;
 
     protected RawEigenvalue() {
+        this(false);
+    }
+
+    RawEigenvalue(final boolean divideAndConquer) {
+
         super();
+
+        myDivideAndConquer = divideAndConquer;
     }
 
     public Double calculateDeterminant(final Access2D<?> matrix) {
@@ -536,26 +553,46 @@ abstract class RawEigenvalue extends RawDecomposition implements Eigenvalue<Doub
 
         // Tridiagonalize > Diagonalize
 
-        final RotateRight tmpRotateRight = valuesOnly ? RotateRight.NULL : new RotateRight() {
+        if (myDivideAndConquer && !valuesOnly) {
 
-            public void rotateRight(final int low, final int high, final double cos, final double sin) {
-                final double[] tmpVi0 = data[low];
-                double tmpVi0k;
-                final double[] tmpVi1 = data[high];
-                double tmpVi1k;
+            // The rows of data are the columns of Q
+            final double[] tmpQ = new double[size * size];
+            for (int j = 0; j < size; j++) {
+                System.arraycopy(data[j], 0, tmpQ, j * size, size);
+            }
 
-                for (int k = 0; k < size; k++) {
+            final double[] tmpZ = TridiagonalDivideAndConquer.invoke(d, e);
 
-                    tmpVi0k = tmpVi0[k];
-                    tmpVi1k = tmpVi1[k];
-
-                    tmpVi0[k] = (cos * tmpVi0k) - (sin * tmpVi1k);
-                    tmpVi1[k] = (sin * tmpVi0k) + (cos * tmpVi1k);
-                }
+            final double[] tmpV = new double[size * size];
+            GEMM.invoke(tmpV, size, size, size, tmpQ, tmpZ);
 
+            for (int j = 0; j < size; j++) {
+                System.arraycopy(tmpV, j * size, data[j], 0, size);
             }
-        };
-        HermitianEvD.tql2(d, e, tmpRotateRight);
+
+        } else {
+
+            final RotateRight tmpRotateRight = valuesOnly ? RotateRight.NULL : new RotateRight() {
+
+                public void rotateRight(final int low, final int high, final double cos, final double sin) {
+                    final double[] tmpVi0 = data[low];
+                    double tmpVi0k;
+                    final double[] tmpVi1 = data[high];
+                    double tmpVi1k;
+
+                    for (int k = 0; k < size; k++) {
+
+                        tmpVi0k = tmpVi0[k];
+                        tmpVi1k = tmpVi1[k];
+
+                        tmpVi0[k] = (cos * tmpVi0k) - (sin * tmpVi1k);
+                        tmpVi1[k] = (sin * tmpVi0k) + (cos * tmpVi1k);
+                    }
+
+                }
+            };
+            HermitianEvD.tql2(d, e, tmpRotateRight);
+        }
 
         // Diagonalize > Sort
 
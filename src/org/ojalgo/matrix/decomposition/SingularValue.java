@@ -74,6 +74,17 @@ public interface SingularValue<N extends Number> extends MatrixDecomposition<N>,
 
     public static final Factory<RationalNumber> RATIONAL = typical -> new SingularValueDecomposition.Rational();
 
+    /**
+     * Truncated decomposition - only the k largest singular values, and their singular vectors, are
+     * calculated. Uses a randomised range finder, and the matrix is only used to perform matrix
+     * multiplications. It can be any {@link MatrixStore}.
+     *
+     * @param rank The number of singular values, k
+     */
+    public static SingularValue<Double> makeTruncated(final int rank) {
+        return new RandomisedSVD(rank);
+    }
+
     @SuppressWarnings("unchecked")
     public static <N extends Number> SingularValue<N> make(final Access2D<N> typical) {
 
@@ -0,0 +1,863 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+import static org.ojalgo.function.PrimitiveFunction.*;
+
+import java.util.Arrays;
+
+import org.ojalgo.RecoverableCondition;
+import org.ojalgo.access.Access2D;
+import org.ojalgo.access.Access2D.Collectable;
+import org.ojalgo.access.Structure2D;
+import org.ojalgo.matrix.MatrixUtils;
+import org.ojalgo.matrix.store.CompressedStore;
+import org.ojalgo.matrix.store.CompressedStore.NonzeroView;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.SparseStore;
+import org.ojalgo.scalar.PrimitiveScalar;
+
+/**
+ * Cholesky decomposition of sparse symmetric positive definite matrices: [P][A][P]<sup>T</sup> =
+ * [L][L]<sup>T</sup>. Only the lower triangular part of [A] is used.
+ * <ol>
+ * <li>The symbolic analysis calculates a fill-reducing (approximate minimum degree) permutation [P], the
+ * elimination tree and the nonzero structure of [L]. It only depends on the nonzero pattern of [A] and is
+ * reused when a matrix with the same pattern is decomposed.</li>
+ * <li>The numeric factorisation is up-looking - row k of [L] is calculated by a sparse triangular solve
+ * following the row subtree of the elimination tree.</li>
+ * </ol>
+ * {@link #getL()} returns [L] of the permuted matrix, as a (CSC) {@link CompressedStore}, while
+ * {@link #reconstruct()} undoes the permutation. Solving is done with sparse forward/backward substitution.
+ * The inverse, if requested, is dense.
+ *
+ * @author apete
+ */
+final class SparseCholesky extends AbstractDecomposition<Double> implements Cholesky<Double> {
+
+    /**
+     * Approximate minimum degree ordering using a quotient graph. Eliminated variables become elements,
+     * elements adjacent to the pivot are absorbed and the degree of a variable is bounded by the sizes of
+     * its adjacent elements excluding the pivot element ([L<sub>e</sub>]\[L<sub>p</sub>]). There is no
+     * detection of indistinguishable (super) variables.
+     *
+     * @param dim The size of the matrix
+     * @param pointers Column pointers of the lower triangular pattern (CSC)
+     * @param indices Row indices of the lower triangular pattern (CSC)
+     * @return The pivot order, order[k] is the (original) index of the k:th pivot
+     */
+    static int[] order(final int dim, final int[] pointers, final int[] indices) {
+
+        final int[] retVal = new int[dim];
+
+        final int[] tmpDegree = new int[dim];
+        for (int j = 0; j < dim; j++) {
+            for (int p = pointers[j]; p < pointers[j + 1]; p++) {
+                final int i = indices[p];
+                if (i != j) {
+                    tmpDegree[i]++;
+                    tmpDegree[j]++;
+                }
+            }
+        }
+
+        final int[][] tmpVariables = new int[dim][];
+        final int[] tmpVariablesCount = new int[dim];
+        final int[][] tmpElements = new int[dim][];
+        final int[] tmpElementsCount = new int[dim];
+        for (int j = 0; j < dim; j++) {
+            tmpVariables[j] = new int[tmpDegree[j]];
+            tmpElements[j] = new int[2];
+        }
+        for (int j = 0; j < dim; j++) {
+            for (int p = pointers[j]; p < pointers[j + 1]; p++) {
+                final int i = indices[p];
+                if (i != j) {
+                    tmpVariables[i][tmpVariablesCount[i]++] = j;
+                    tmpVariables[j][tmpVariablesCount[j]++] = i;
+                }
+            }
+        }
+
+        final int[][] tmpMembers = new int[dim][];
+        final boolean[] tmpAbsorbed = new boolean[dim];
+        final boolean[] tmpEliminated = new boolean[dim];
+
+        // Degree lists
+        final int[] tmpHead = new int[dim];
+        final int[] tmpNext = new int[dim];
+        final int[] tmpPrevious = new int[dim];
+        Arrays.fill(tmpHead, -1);
+        for (int j = 0; j < dim; j++) {
+            SparseCholesky.insert(j, tmpDegree[j], tmpHead, tmpNext, tmpPrevious);
+        }
+
+        final int[] tmpMark = new int[dim];
+        final int[] tmpStamp = new int[dim];
+        final int[] tmpExternal = new int[dim];
+        Arrays.fill(tmpMark, -1);
+        Arrays.fill(tmpStamp, -1);
+
+        final int[] tmpPivotElement = new int[dim];
+
+        int tmpMinDegree = 0;
+
+        for (int k = 0; k < dim; k++) {
+
+            while (tmpHead[tmpMinDegree] == -1) {
+                tmpMinDegree++;
+            }
+            final int tmpPivot = tmpHead[tmpMinDegree];
+            SparseCholesky.remove(tmpPivot, tmpDegree[tmpPivot], tmpHead, tmpNext, tmpPrevious);
+
+            retVal[k] = tmpPivot;
+            tmpEliminated[tmpPivot] = true;
+            tmpMark[tmpPivot] = k;
+
+            // The new element: all variables reachable through adjacent elements and variables
+            int tmpSize = 0;
+            final int[] tmpPivotElements = tmpElements[tmpPivot];
+            for (int a = 0, limit = tmpElementsCount[tmpPivot]; a < limit; a++) {
+                final int e = tmpPivotElements[a];
+                if (!tmpAbsorbed[e]) {
+                    final int[] tmpElementMembers = tmpMembers[e];
+                    for (int b = 0; b < tmpElementMembers.length; b++) {
+                        final int v = tmpElementMembers[b];
+                        if (!tmpEliminated[v] && (tmpMark[v] != k)) {
+                            tmpMark[v] = k;
+                            tmpPivotElement[tmpSize++] = v;
+                        }
+                    }
+                    tmpAbsorbed[e] = true;
+                    tmpMembers[e] = null;
+                }
+            }
+            final int[] tmpPivotVariables = tmpVariables[tmpPivot];
+            for (int a = 0, limit = tmpVariablesCount[tmpPivot]; a < limit; a++) {
+                final int v = tmpPivotVariables[a];
+                if (!tmpEliminated[v] && (tmpMark[v] != k)) {
+                    tmpMark[v] = k;
+                    tmpPivotElement[tmpSize++] = v;
+                }
+            }
+            tmpVariables[tmpPivot] = null;
+            tmpElements[tmpPivot] = null;
+            tmpMembers[tmpPivot] = Arrays.copyOf(tmpPivotElement, tmpSize);
+
+            // |Le\Lp| for all elements adjacent to the variables in Lp
+            for (int a = 0; a < tmpSize; a++) {
+                final int v = tmpPivotElement[a];
+                SparseCholesky.remove(v, tmpDegree[v], tmpHead, tmpNext, tmpPrevious);
+                final int[] tmpVariableElements = tmpElements[v];
+                for (int b = 0, limit = tmpElementsCount[v]; b < limit; b++) {
+                    final int e = tmpVariableElements[b];
+                    if (!tmpAbsorbed[e]) {
+                        if (tmpStamp[e] != k) {
+                            tmpStamp[e] = k;
+                            tmpExternal[e] = tmpMembers[e].length;
+                        }
+                        tmpExternal[e]--;
+                    }
+                }
+            }
+
+            // Prune the adjacency of the variables in Lp and update their (approximate) degrees
+            for (int a = 0; a < tmpSize; a++) {
+                final int v = tmpPivotElement[a];
+
+                long tmpBound = tmpSize - 1;
+
+                int[] tmpVariableElements = tmpElements[v];
+                int tmpCount = 0;
+                for (int b = 0, limit = tmpElementsCount[v]; b < limit; b++) {
+                    final int e = tmpVariableElements[b];
+                    if (!tmpAbsorbed[e]) {
+                        if (tmpExternal[e] == 0) {
+                            // Le is a subset of Lp
+                            tmpAbsorbed[e] = true;
+                            tmpMembers[e] = null;
+                        } else {
+                            tmpVariableElements[tmpCount++] = e;
+                            tmpBound += tmpExternal[e];
+                        }
+                    }
+                }
+                if (tmpCount == tmpVariableElements.length) {
+                    tmpElements[v] = tmpVariableElements = Arrays.copyOf(tmpVariableElements, 2 * tmpCount);
+                }
+                tmpVariableElements[tmpCount++] = tmpPivot;
+                tmpElementsCount[v] = tmpCount;
+
+                final int[] tmpVariableVariables = tmpVariables[v];
+                tmpCount = 0;
+                for (int b = 0, limit = tmpVariablesCount[v]; b < limit; b++) {
+                    final int u = tmpVariableVariables[b];
+                    if (!tmpEliminated[u] && (tmpMark[u] != k)) {
+                        tmpVariableVariables[tmpCount++] = u;
+                    }
+                }
+                tmpVariablesCount[v] = tmpCount;
+                tmpBound += tmpCount;
+
+                final int tmpNewDegree = (int) Math.min(dim - k - 1, Math.min(tmpDegree[v] + tmpSize - 1, tmpBound));
+                tmpDegree[v] = tmpNewDegree;
+                SparseCholesky.insert(v, tmpNewDegree, tmpHead, tmpNext, tmpPrevious);
+                tmpMinDegree = Math.min(tmpMinDegree, tmpNewDegree);
+            }
+        }
+
+        return retVal;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompressedStore columns(final Access2D<?> matrix) {
+        if (matrix instanceof CompressedStore) {
+            return ((CompressedStore) matrix).toColumns();
+        } else {
+            return CompressedStore.columns((SparseStore<Double>) matrix);
+        }
+    }
+
+    private static void insert(final int variable, final int degree, final int[] head, final int[] next, final int[] previous) {
+        final int tmpFirst = head[degree];
+        next[variable] = tmpFirst;
+        previous[variable] = -1;
+        if (tmpFirst != -1) {
+            previous[tmpFirst] = variable;
+        }
+        head[degree] = variable;
+    }
+
+    private static void remove(final int variable, final int degree, final int[] head, final int[] next, final int[] previous) {
+        if (previous[variable] != -1) {
+            next[previous[variable]] = next[variable];
+        } else {
+            head[degree] = next[variable];
+        }
+        if (next[variable] != -1) {
+            previous[next[variable]] = previous[variable];
+        }
+    }
+
+    private int myCompleted = 0;
+    private int myDim = 0;
+    /**
+     * [L] row indices (CSC)
+     */
+    private int[] myIndices = null;
+    /**
+     * The inverse of {@link #myOrder}
+     */
+    private int[] myInverse = null;
+    private transient CompressedStore myL = null;
+    /**
+     * Where each column of [L] currently ends (same as the next pointer when fully computed)
+     */
+    private int[] myLimits = null;
+    /**
+     * The lower triangular input pattern (CSC) that the symbolic analysis was done for
+     */
+    private int[] myLowerIndices = null;
+    private int[] myLowerPointers = null;
+    /**
+     * Input (lower triangular) position to upper triangular permuted position
+     */
+    private int[] myMap = null;
+    private double myMaxDiag = ONE;
+    private double myMinDiag = ZERO;
+    private double myNorm = ZERO;
+    private int[] myOrder = null;
+    /**
+     * Elimination tree
+     */
+    private int[] myParent = null;
+    /**
+     * [L] column pointers (CSC)
+     */
+    private int[] myPointers = null;
+    private boolean mySPD = false;
+    /**
+     * The upper triangular part of [P][A][P]<sup>T</sup> (CSC)
+     */
+    private int[] myUpperIndices = null;
+    private int[] myUpperPointers = null;
+    private double[] myUpperValues = null;
+    /**
+     * [L] values (CSC)
+     */
+    private double[] myValues = null;
+
+    /**
+     * Not recommended to use this constructor directly. Consider using the static factory
+     * {@linkplain org.ojalgo.matrix.decomposition.Cholesky#SPARSE} instead.
+     */
+    SparseCholesky() {
+        super();
+    }
+
+    public Double calculateDeterminant(final Access2D<?> matrix) {
+
+        this.doDecompose(matrix);
+
+        return this.getDeterminant();
+    }
+
+    @Override
+    public boolean checkAndCompute(final MatrixStore<Double> matrix) {
+
+        boolean tmpSymmetric = matrix.countRows() == matrix.countColumns();
+
+        if (tmpSymmetric && ((matrix instanceof CompressedStore) || (matrix instanceof SparseStore))) {
+            final CompressedStore tmpColumns = SparseCholesky.columns(matrix);
+            final NonzeroView tmpNonzero = tmpColumns.nonzeros();
+            while (tmpSymmetric && tmpNonzero.hasNext()) {
+                tmpNonzero.next();
+                final double tmpValue = tmpNonzero.doubleValue();
+                final double tmpTransposed = tmpColumns.doubleValue(tmpNonzero.column(), tmpNonzero.row());
+                tmpSymmetric = PrimitiveScalar.isSmall(ONE, tmpValue - tmpTransposed);
+            }
+        } else {
+            tmpSymmetric = tmpSymmetric && MatrixUtils.isHermitian(matrix);
+        }
+
+        if (tmpSymmetric) {
+            return this.doDecompose(matrix);
+        } else {
+            mySPD = false;
+            return this.computed(false);
+        }
+    }
+
+    public boolean decompose(final Access2D.Collectable<Double, ? super PhysicalStore<Double>> matrix) {
+
+        if (matrix instanceof Access2D) {
+            return this.doDecompose((Access2D<?>) matrix);
+        } else {
+            final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.makeZero(matrix.countRows(), matrix.countColumns());
+            matrix.supplyTo(tmpDense);
+            return this.doDecompose(tmpDense);
+        }
+    }
+
+    /**
+     * @return The exact 1-norm of [A] times an estimate of the 1-norm of its inverse, calculated using the
+     *         sparse factor (solves) only.
+     */
+    @Override
+    public double estimateCondition() {
+
+        if (!this.isSolvable()) {
+            return POSITIVE_INFINITY;
+        }
+
+        return myNorm * ConditionEstimator.estimate(myDim, this::solve, this::solve);
+    }
+
+    public Double getDeterminant() {
+
+        if (myCompleted < myDim) {
+            return ZERO;
+        }
+
+        double retVal = ONE;
+        for (int j = 0; j < myDim; j++) {
+            final double tmpVal = myValues[myPointers[j]];
+            retVal *= tmpVal * tmpVal;
+        }
+        return retVal;
+    }
+
+    public MatrixStore<Double> getInverse() {
+        return this.getInverse(this.allocate(myDim, myDim));
+    }
+
+    public MatrixStore<Double> getInverse(final PhysicalStore<Double> preallocated) {
+
+        final double[] tmpColumn = new double[myDim];
+
+        for (int j = 0; j < myDim; j++) {
+            Arrays.fill(tmpColumn, ZERO);
+            tmpColumn[myInverse[j]] = ONE;
+            this.solve(tmpColumn);
+            for (int k = 0; k < myDim; k++) {
+                preallocated.set(myOrder[k], j, tmpColumn[k]);
+            }
+        }
+
+        return preallocated;
+    }
+
+    /**
+     * @return [L] of the permuted matrix, [P][A][P]<sup>T</sup> = [L][L]<sup>T</sup>, as a (CSC)
+     *         {@link CompressedStore}
+     */
+    public MatrixStore<Double> getL() {
+
+        if (myL == null) {
+
+            int tmpCount = 0;
+            for (int j = 0; j < myDim; j++) {
+                tmpCount += myLimits[j] - myPointers[j];
+            }
+
+            final int[] tmpRows = new int[tmpCount];
+            final int[] tmpColumns = new int[tmpCount];
+            final double[] tmpValues = new double[tmpCount];
+
+            int t = 0;
+            for (int j = 0; j < myDim; j++) {
+                for (int p = myPointers[j]; p < myLimits[j]; p++) {
+                    tmpRows[t] = myIndices[p];
+                    tmpColumns[t] = j;
+                    tmpValues[t] = myValues[p];
+                    t++;
+                }
+            }
+
+            myL = CompressedStore.columns(myDim, myDim, tmpRows, tmpColumns, tmpValues);
+        }
+
+        return myL;
+    }
+
+    public int getRank() {
+
+        final double tolerance = SQRT.invoke(this.getAlgorithmEpsilon());
+        int rank = 0;
+
+        for (int j = 0; j < myCompleted; j++) {
+            if (myValues[myPointers[j]] > tolerance) {
+                rank++;
+            }
+        }
+        return rank;
+    }
+
+    public MatrixStore<Double> getSolution(final Collectable<Double, ? super PhysicalStore<Double>> rhs) {
+        final DecompositionStore<Double> tmpPreallocated = this.allocate(rhs.countRows(), rhs.countColumns());
+        return this.getSolution(rhs, tmpPreallocated);
+    }
+
+    @Override
+    public MatrixStore<Double> getSolution(final Collectable<Double, ? super PhysicalStore<Double>> rhs, final PhysicalStore<Double> preallocated) {
+
+        rhs.supplyTo(preallocated);
+
+        return this.doSolve(preallocated);
+    }
+
+    @Override
+    public MatrixStore<Double> invert(final Access2D<?> original, final PhysicalStore<Double> preallocated) throws RecoverableCondition {
+
+        this.doDecompose(original);
+
+        if (this.isSolvable()) {
+            return this.getInverse(preallocated);
+        } else {
+            throw RecoverableCondition.newMatrixNotInvertible();
+        }
+    }
+
+    public boolean isFullRank() {
+        return this.isSolvable();
+    }
+
+    public boolean isSPD() {
+        return mySPD;
+    }
+
+    public PhysicalStore<Double> preallocate(final Structure2D template) {
+        return this.allocate(template.countRows(), template.countRows());
+    }
+
+    public PhysicalStore<Double> preallocate(final Structure2D templateBody, final Structure2D templateRHS) {
+        return this.allocate(templateBody.countRows(), templateRHS.countColumns());
+    }
+
+    /**
+     * @return [A] = [P]<sup>T</sup>[L][L]<sup>T</sup>[P] as a (CSR) {@link CompressedStore}
+     */
+    @Override
+    public MatrixStore<Double> reconstruct() {
+
+        final CompressedStore tmpL = (CompressedStore) this.getL();
+        final CompressedStore tmpProduct = tmpL.multiply(tmpL.transpose());
+
+        final int tmpCount = tmpProduct.countNonzeros();
+        final int[] tmpRows = new int[tmpCount];
+        final int[] tmpColumns = new int[tmpCount];
+        final double[] tmpValues = new double[tmpCount];
+
+        final NonzeroView tmpNonzero = tmpProduct.nonzeros();
+        for (int t = 0; tmpNonzero.hasNext(); t++) {
+            tmpNonzero.next();
+            tmpRows[t] = myOrder[(int) tmpNonzero.row()];
+            tmpColumns[t] = myOrder[(int) tmpNonzero.column()];
+            tmpValues[t] = tmpNonzero.doubleValue();
+        }
+
+        return CompressedStore.rows(myDim, myDim, tmpRows, tmpColumns, tmpValues);
+    }
+
+    @Override
+    public void reset() {
+
+        super.reset();
+
+        mySPD = false;
+        myCompleted = 0;
+        myL = null;
+    }
+
+    @Override
+    public MatrixStore<Double> solve(final Access2D<?> body, final Access2D<?> rhs, final PhysicalStore<Double> preallocated) throws RecoverableCondition {
+
+        this.doDecompose(body);
+
+        if (this.isSolvable()) {
+
+            preallocated.fillMatching(rhs);
+
+            return this.doSolve(preallocated);
+
+        } else {
+            throw RecoverableCondition.newEquationSystemNotSolvable();
+        }
+    }
+
+    /**
+     * Symbolic analysis: ordering, elimination tree and the structure of [L]
+     */
+    private void analyse(final int dim, final int[] pointers, final int[] indices) {
+
+        myDim = dim;
+        myLowerPointers = pointers;
+        myLowerIndices = indices;
+
+        myOrder = SparseCholesky.order(dim, pointers, indices);
+        myInverse = new int[dim];
+        for (int k = 0; k < dim; k++) {
+            myInverse[myOrder[k]] = k;
+        }
+
+        // The upper triangular part of [P][A][P]^T, with a map from the input positions
+        final int tmpNonzeros = pointers[dim];
+        myUpperPointers = new int[dim + 1];
+        for (int j = 0; j < dim; j++) {
+            for (int p = pointers[j]; p < pointers[j + 1]; p++) {
+                myUpperPointers[Math.max(myInverse[indices[p]], myInverse[j]) + 1]++;
+            }
+        }
+        for (int j = 0; j < dim; j++) {
+            myUpperPointers[j + 1] += myUpperPointers[j];
+        }
+        final int[] tmpNext = Arrays.copyOf(myUpperPointers, dim);
+        myUpperIndices = new int[tmpNonzeros];
+        myUpperValues = new double[tmpNonzeros];
+        myMap = new int[tmpNonzeros];
+        for (int j = 0; j < dim; j++) {
+            for (int p = pointers[j]; p < pointers[j + 1]; p++) {
+                final int tmpRow = myInverse[indices[p]];
+                final int tmpCol = myInverse[j];
+                final int q = tmpNext[Math.max(tmpRow, tmpCol)]++;
+                myUpperIndices[q] = Math.min(tmpRow, tmpCol);
+                myMap[p] = q;
+            }
+        }
+
+        // Elimination tree
+        myParent = new int[dim];
+        final int[] tmpAncestor = new int[dim];
+        for (int k = 0; k < dim; k++) {
+            myParent[k] = -1;
+            tmpAncestor[k] = -1;
+            for (int p = myUpperPointers[k]; p < myUpperPointers[k + 1]; p++) {
+                int i = myUpperIndices[p];
+                while ((i != -1) && (i < k)) {
+                    final int tmpNextAncestor = tmpAncestor[i];
+                    tmpAncestor[i] = k;
+                    if (tmpNextAncestor == -1) {
+                        myParent[i] = k;
+                    }
+                    i = tmpNextAncestor;
+                }
+            }
+        }
+
+        // Column counts of [L], from the row subtrees
+        final int[] tmpStack = new int[dim];
+        final int[] tmpMark = new int[dim];
+        Arrays.fill(tmpMark, -1);
+        myPointers = new int[dim + 1];
+        for (int k = 0; k < dim; k++) {
+            myPointers[k + 1]++;
+            for (int t = this.reach(k, tmpStack, tmpMark); t < dim; t++) {
+                myPointers[tmpStack[t] + 1]++;
+            }
+        }
+        for (int j = 0; j < dim; j++) {
+            myPointers[j + 1] += myPointers[j];
+        }
+
+        myIndices = new int[myPointers[dim]];
+        myValues = new double[myPointers[dim]];
+        myLimits = new int[dim];
+    }
+
+    private boolean doDecompose(final Access2D<?> matrix) {
+
+        this.reset();
+
+        final int tmpDim = (int) matrix.countRows();
+
+        if (matrix.countColumns() != tmpDim) {
+            return this.computed(true);
+        }
+
+        // The lower triangular part (CSC) and the column sums (1-norm) of the full matrix
+
+        int[] tmpPointers = new int[tmpDim + 1];
+        int[] tmpIndices;
+        double[] tmpValues;
+        final double[] tmpSums = new double[tmpDim];
+        int tmpCount = 0;
+
+        if ((matrix instanceof CompressedStore) || (matrix instanceof SparseStore)) {
+
+            final CompressedStore tmpColumns = SparseCholesky.columns(matrix);
+            tmpIndices = new int[tmpColumns.countNonzeros()];
+            tmpValues = new double[tmpIndices.length];
+
+            final NonzeroView tmpNonzero = tmpColumns.nonzeros();
+            while (tmpNonzero.hasNext()) {
+                tmpNonzero.next();
+                final int i = (int) tmpNonzero.row();
+                final int j = (int) tmpNonzero.column();
+                if (i >= j) {
+                    final double tmpValue = tmpNonzero.doubleValue();
+                    tmpIndices[tmpCount] = i;
+                    tmpValues[tmpCount++] = tmpValue;
+                    tmpPointers[j + 1]++;
+                    tmpSums[j] += ABS.invoke(tmpValue);
+                    if (i != j) {
+                        tmpSums[i] += ABS.invoke(tmpValue);
+                    }
+                }
+            }
+            for (int j = 0; j < tmpDim; j++) {
+                tmpPointers[j + 1] += tmpPointers[j];
+            }
+
+        } else {
+
+            tmpIndices = new int[tmpDim];
+            tmpValues = new double[tmpDim];
+
+            for (int j = 0; j < tmpDim; j++) {
+                for (int i = j; i < tmpDim; i++) {
+                    final double tmpValue = matrix.doubleValue(i, j);
+                    if (tmpValue != ZERO) {
+                        if (tmpCount == tmpIndices.length) {
+                            tmpIndices = Arrays.copyOf(tmpIndices, 2 * tmpCount);
+                            tmpValues = Arrays.copyOf(tmpValues, 2 * tmpCount);
+                        }
+                        tmpIndices[tmpCount] = i;
+                        tmpValues[tmpCount++] = tmpValue;
+                        tmpSums[j] += ABS.invoke(tmpValue);
+                        if (i != j) {
+                            tmpSums[i] += ABS.invoke(tmpValue);
+                        }
+                    }
+                }
+                tmpPointers[j + 1] = tmpCount;
+            }
+        }
+
+        tmpIndices = Arrays.copyOf(tmpIndices, tmpCount);
+
+        myNorm = ZERO;
+        for (int j = 0; j < tmpDim; j++) {
+            myNorm = MAX.invoke(myNorm, tmpSums[j]);
+        }
+
+        if ((tmpDim != myDim) || !Arrays.equals(tmpPointers, myLowerPointers) || !Arrays.equals(tmpIndices, myLowerIndices)) {
+            this.analyse(tmpDim, tmpPointers, tmpIndices);
+        }
+
+        for (int p = 0; p < tmpCount; p++) {
+            myUpperValues[myMap[p]] = tmpValues[p];
+        }
+
+        this.factorise();
+
+        return this.computed(true);
+    }
+
+    private MatrixStore<Double> doSolve(final PhysicalStore<Double> preallocated) {
+
+        final double[] tmpColumn = new double[myDim];
+
+        for (long j = 0L, limit = preallocated.countColumns(); j < limit; j++) {
+            for (int k = 0; k < myDim; k++) {
+                tmpColumn[k] = preallocated.doubleValue(myOrder[k], j);
+            }
+            this.solve(tmpColumn);
+            for (int k = 0; k < myDim; k++) {
+                preallocated.set(myOrder[k], j, tmpColumn[k]);
+            }
+        }
+
+        return preallocated;
+    }
+
+    /**
+     * Up-looking numeric factorisation, stops at the first non-positive pivot.
+     */
+    private void factorise() {
+
+        final int tmpDim = myDim;
+
+        final double[] x = new double[tmpDim];
+        final int[] tmpStack = new int[tmpDim];
+        final int[] tmpMark = new int[tmpDim];
+        Arrays.fill(tmpMark, -1);
+        System.arraycopy(myPointers, 0, myLimits, 0, tmpDim);
+
+        mySPD = true;
+        myMaxDiag = ZERO;
+        myMinDiag = POSITIVE_INFINITY;
+
+        for (int k = 0; mySPD && (k < tmpDim); k++) {
+
+            int t = this.reach(k, tmpStack, tmpMark);
+
+            for (int p = myUpperPointers[k]; p < myUpperPointers[k + 1]; p++) {
+                x[myUpperIndices[p]] += myUpperValues[p];
+            }
+            double d = x[k];
+            x[k] = ZERO;
+
+            // Sparse triangular solve for row k of [L]
+            for (; t < tmpDim; t++) {
+                final int i = tmpStack[t];
+                final double tmpLki = x[i] / myValues[myPointers[i]];
+                x[i] = ZERO;
+                for (int p = myPointers[i] + 1; p < myLimits[i]; p++) {
+                    x[myIndices[p]] -= myValues[p] * tmpLki;
+                }
+                d -= tmpLki * tmpLki;
+                final int p = myLimits[i]++;
+                myIndices[p] = k;
+                myValues[p] = tmpLki;
+            }
+
+            myMaxDiag = MAX.invoke(myMaxDiag, d);
+            myMinDiag = MIN.invoke(myMinDiag, d);
+
+            if (d > ZERO) {
+                final int p = myLimits[k]++;
+                myIndices[p] = k;
+                myValues[p] = SQRT.invoke(d);
+                myCompleted = k + 1;
+            } else {
+                mySPD = false;
+            }
+        }
+    }
+
+    /**
+     * The nonzero pattern of row k of [L] (excluding the diagonal) - the row subtree of the elimination
+     * tree, in topological order.
+     *
+     * @return The first position in stack, the pattern is stack[top..dim)
+     */
+    private int reach(final int k, final int[] stack, final int[] mark) {
+
+        int retVal = myDim;
+        mark[k] = k;
+
+        for (int p = myUpperPointers[k]; p < myUpperPointers[k + 1]; p++) {
+            int i = myUpperIndices[p];
+            int tmpLength = 0;
+            for (; mark[i] != k; i = myParent[i]) {
+                stack[tmpLength++] = i;
+                mark[i] = k;
+            }
+            while (tmpLength > 0) {
+                stack[--retVal] = stack[--tmpLength];
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * [L][L]<sup>T</sup>x = b, in place, with x and b permuted
+     */
+    private void solve(final double[] x) {
+
+        for (int j = 0; j < myDim; j++) {
+            final double tmpVal = x[j] /= myValues[myPointers[j]];
+            for (int p = myPointers[j] + 1, limit = myPointers[j + 1]; p < limit; p++) {
+                x[myIndices[p]] -= myValues[p] * tmpVal;
+            }
+        }
+
+        for (int j = myDim - 1; j >= 0; j--) {
+            double tmpSum = x[j];
+            for (int p = myPointers[j] + 1, limit = myPointers[j + 1]; p < limit; p++) {
+                tmpSum -= myValues[p] * x[myIndices[p]];
+            }
+            x[j] = tmpSum / myValues[myPointers[j]];
+        }
+    }
+
+    @Override
+    protected DecompositionStore<Double> allocate(final long numberOfRows, final long numberOfColumns) {
+        return PrimitiveDenseStore.FACTORY.makeZero(numberOfRows, numberOfColumns);
+    }
+
+    @Override
+    protected boolean checkSolvability() {
+        return mySPD && (myMinDiag > this.getAlgorithmEpsilon());
+    }
+
+    @Override
+    protected double getDimensionalEpsilon() {
+        return myDim * MACHINE_EPSILON;
+    }
+
+    double getAlgorithmEpsilon() {
+        return myMaxDiag * TEN * this.getDimensionalEpsilon();
+    }
+
+    /**
+     * The pivot order, order[k] is the (original) index of the k:th pivot
+     */
+    int[] getOrder() {
+        return myOrder;
+    }
+
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import org.ojalgo.OjAlgoUtils;
+import org.ojalgo.RecoverableCondition;
+import org.ojalgo.access.Access2D;
+import org.ojalgo.access.Access2D.Collectable;
+import org.ojalgo.access.Structure2D;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.constant.PrimitiveMath;
+import org.ojalgo.function.aggregator.AggregatorFunction;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+
+/**
+ * Tall-skinny QR (TSQR). The rows are split in blocks that are decomposed independently (in parallel), and
+ * then the R factors are combined pairwise, in a binary reduction tree, by decomposing the stacked pairs
+ * [R<sub>a</sub>;R<sub>b</sub>]. [Q] is never formed explicitly (unless you call {@link #getQ()}) - it is
+ * the product of the block and tree node Q factors. Only the economy sized decomposition is available.
+ * Intended for least squares problems with many more rows than columns.
+ *
+ * @author apete
+ */
+final class TallSkinnyQR extends GenericDecomposition<Double> implements QR<Double> {
+
+    /**
+     * The number of rows in each block, at least twice the number of columns, and otherwise enough rows
+     * to fill the L2 cache.
+     */
+    static int blockRows(final long columns) {
+        final long tmpCacheRows = OjAlgoUtils.ENVIRONMENT.cacheL2 / (8L * Math.max(1L, columns));
+        return (int) Math.max(2L * columns, Math.min(Integer.MAX_VALUE, tmpCacheRows));
+    }
+
+    /**
+     * @return true if the matrix has enough rows to be split in at least 2 blocks
+     */
+    static boolean isTallSkinny(final Structure2D matrix) {
+        return matrix.countRows() >= (2L * TallSkinnyQR.blockRows(matrix.countColumns()));
+    }
+
+    private int[] myBoundaries = null;
+    private int myColDim = 0;
+    /**
+     * The tree nodes, level by level. Level 0 are the row blocks, and the last level the root. Node i of a
+     * level combines nodes 2i and 2i+1 of the level below. A null node passes its only child through.
+     */
+    private QRDecomposition.Primitive[][] myNodes = null;
+    private PrimitiveDenseStore myR = null;
+    private int myRowDim = 0;
+
+    TallSkinnyQR() {
+        super(PrimitiveDenseStore.FACTORY);
+    }
+
+    public Double calculateDeterminant(final Access2D<?> matrix) {
+        this.decompose(this.wrap(matrix));
+        return this.getDeterminant();
+    }
+
+    public boolean decompose(final Access2D.Collectable<Double, ? super PhysicalStore<Double>> matrix) {
+
+        this.reset();
+
+        final MatrixStore<Double> tmpMatrix = this.collect(matrix);
+
+        myRowDim = (int) tmpMatrix.countRows();
+        myColDim = (int) tmpMatrix.countColumns();
+
+        final int tmpBlocks = Math.max(1, myRowDim / TallSkinnyQR.blockRows(myColDim));
+        myBoundaries = new int[tmpBlocks + 1];
+        for (int b = 0; b <= tmpBlocks; b++) {
+            myBoundaries[b] = (int) (((long) b * myRowDim) / tmpBlocks);
+        }
+
+        int tmpLevels = 1;
+        for (int tmpCount = tmpBlocks; tmpCount > 1; tmpCount = (tmpCount + 1) / 2) {
+            tmpLevels++;
+        }
+        myNodes = new QRDecomposition.Primitive[tmpLevels][];
+
+        // The row blocks
+
+        final QRDecomposition.Primitive[] tmpLeaves = myNodes[0] = new QRDecomposition.Primitive[tmpBlocks];
+        final PrimitiveDenseStore[] tmpFactors = new PrimitiveDenseStore[tmpBlocks];
+
+        final DivideAndConquer tmpBlockConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                for (int b = first; b < limit; b++) {
+                    final int tmpFirstRow = myBoundaries[b];
+                    final int tmpRowLimit = myBoundaries[b + 1];
+                    tmpLeaves[b] = new QRDecomposition.Primitive();
+                    tmpLeaves[b].decompose(tmpMatrix.logical().offsets(tmpFirstRow, 0).limits(tmpRowLimit - tmpFirstRow, myColDim));
+                    tmpFactors[b] = TallSkinnyQR.this.getR(tmpLeaves[b]);
+                }
+            }
+        };
+
+        tmpBlockConquerer.invoke(0, tmpBlocks, 1);
+
+        // The reduction tree
+
+        PrimitiveDenseStore[] tmpChildren = tmpFactors;
+
+        for (int l = 1; l < tmpLevels; l++) {
+
+            final PrimitiveDenseStore[] tmpLower = tmpChildren;
+            final int tmpCount = (tmpLower.length + 1) / 2;
+
+            final QRDecomposition.Primitive[] tmpLevel = myNodes[l] = new QRDecomposition.Primitive[tmpCount];
+            final PrimitiveDenseStore[] tmpUpper = new PrimitiveDenseStore[tmpCount];
+
+            final DivideAndConquer tmpLevelConquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    for (int i = first; i < limit; i++) {
+                        if (((2 * i) + 1) < tmpLower.length) {
+                            tmpLevel[i] = new QRDecomposition.Primitive();
+                            tmpLevel[i].decompose(tmpLower[2 * i].logical().below(tmpLower[(2 * i) + 1]));
+                            tmpUpper[i] = TallSkinnyQR.this.getR(tmpLevel[i]);
+                        } else {
+                            tmpUpper[i] = tmpLower[2 * i];
+                        }
+                    }
+                }
+            };
+
+            tmpLevelConquerer.invoke(0, tmpCount, 1);
+
+            tmpChildren = tmpUpper;
+        }
+
+        myR = tmpChildren[0];
+
+        return this.computed(true);
+    }
+
+    public Double getDeterminant() {
+
+        final AggregatorFunction<Double> tmpAggrFunc = this.aggregator().product();
+
+        myR.visitDiagonal(0, 0, tmpAggrFunc);
+
+        return tmpAggrFunc.get();
+    }
+
+    public MatrixStore<Double> getInverse() {
+        return this.getInverse(this.preallocate(this.getRowDim(), this.getRowDim()));
+    }
+
+    public MatrixStore<Double> getInverse(final PhysicalStore<Double> preallocated) {
+        return this.getSolution(this.makeIdentity(myRowDim), preallocated);
+    }
+
+    /**
+     * Forms the (economy sized) [Q] by multiplying the tree node Q factors, top down.
+     */
+    public MatrixStore<Double> getQ() {
+
+        final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.makeZero(myRowDim, myColDim);
+
+        MatrixStore<Double>[] tmpCoefficients = this.makeCoefficients(1);
+        tmpCoefficients[0] = this.makeIdentity(myColDim).get();
+
+        for (int l = myNodes.length - 1; l > 0; l--) {
+
+            final QRDecomposition.Primitive[] tmpLevel = myNodes[l];
+            final MatrixStore<Double>[] tmpLower = this.makeCoefficients(myNodes[l - 1].length);
+
+            for (int i = 0; i < tmpLevel.length; i++) {
+                if (tmpLevel[i] != null) {
+                    final MatrixStore<Double> tmpProduct = tmpLevel[i].getQ().multiply(tmpCoefficients[i]);
+                    tmpLower[2 * i] = tmpProduct.logical().limits(myColDim, myColDim).get();
+                    tmpLower[(2 * i) + 1] = tmpProduct.logical().offsets(myColDim, 0).get();
+                } else {
+                    tmpLower[2 * i] = tmpCoefficients[i];
+                }
+            }
+
+            tmpCoefficients = tmpLower;
+        }
+
+        final QRDecomposition.Primitive[] tmpLeaves = myNodes[0];
+        final MatrixStore<Double>[] tmpLeafCoefficients = tmpCoefficients;
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                for (int b = first; b < limit; b++) {
+                    final MatrixStore<Double> tmpBlockQ = tmpLeaves[b].getQ().multiply(tmpLeafCoefficients[b]);
+                    final int tmpFirstRow = myBoundaries[b];
+                    final int tmpRows = myBoundaries[b + 1] - tmpFirstRow;
+                    for (int j = 0; j < myColDim; j++) {
+                        for (int i = 0; i < tmpRows; i++) {
+                            retVal.set(tmpFirstRow + i, j, tmpBlockQ.doubleValue(i, j));
+                        }
+                    }
+                }
+            }
+        };
+
+        tmpConquerer.invoke(0, tmpLeaves.length, 1);
+
+        return retVal;
+    }
+
+    public MatrixStore<Double> getR() {
+        return myR.logical().triangular(true, false).get();
+    }
+
+    public int getRank() {
+
+        int retVal = 0;
+
+        final AggregatorFunction<Double> tmpLargest = this.aggregator().largest();
+        myR.visitDiagonal(0L, 0L, tmpLargest);
+        final double tmpLargestValue = tmpLargest.doubleValue();
+
+        for (int ij = 0; ij < myColDim; ij++) {
+            if (!myR.isSmall(ij, ij, tmpLargestValue)) {
+                retVal++;
+            }
+        }
+
+        return retVal;
+    }
+
+    public MatrixStore<Double> getSolution(final Collectable<Double, ? super PhysicalStore<Double>> rhs) {
+        return this.getSolution(rhs, this.preallocate(myRowDim, rhs.countColumns()));
+    }
+
+    /**
+     * Solve [A]*[X]=[B] by first forming [Q]<sup>T</sup>[B] - applying the block Q factors to the
+     * corresponding rows of [B], and then the tree node Q factors to the stacked top parts - and then solving
+     * [R]*[X]=[Q]<sup>T</sup>[B].
+     */
+    @Override
+    public MatrixStore<Double> getSolution(final Collectable<Double, ? super PhysicalStore<Double>> rhs, final PhysicalStore<Double> preallocated) {
+
+        rhs.supplyTo(preallocated);
+
+        final int tmpRHSDim = (int) preallocated.countColumns();
+
+        final QRDecomposition.Primitive[] tmpLeaves = myNodes[0];
+        final PrimitiveDenseStore[] tmpTops = new PrimitiveDenseStore[tmpLeaves.length];
+
+        final DivideAndConquer tmpBlockConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                for (int b = first; b < limit; b++) {
+                    final PrimitiveDenseStore tmpPart = PrimitiveDenseStore.FACTORY
+                            .copy(preallocated.logical().offsets(myBoundaries[b], 0).limits(myBoundaries[b + 1] - myBoundaries[b], tmpRHSDim).get());
+                    tmpLeaves[b].applyTransposedQ(tmpPart);
+                    tmpTops[b] = PrimitiveDenseStore.FACTORY.copy(tmpPart.logical().limits(myColDim, tmpRHSDim).get());
+                }
+            }
+        };
+
+        tmpBlockConquerer.invoke(0, tmpLeaves.length, 1);
+
+        PrimitiveDenseStore[] tmpChildren = tmpTops;
+
+        for (int l = 1; l < myNodes.length; l++) {
+
+            final QRDecomposition.Primitive[] tmpLevel = myNodes[l];
+            final PrimitiveDenseStore[] tmpLower = tmpChildren;
+            final PrimitiveDenseStore[] tmpUpper = new PrimitiveDenseStore[tmpLevel.length];
+
+            for (int i = 0; i < tmpLevel.length; i++) {
+                if (tmpLevel[i] != null) {
+                    final PrimitiveDenseStore tmpStacked = PrimitiveDenseStore.FACTORY.copy(tmpLower[2 * i].logical().below(tmpLower[(2 * i) + 1]).get());
+                    tmpLevel[i].applyTransposedQ(tmpStacked);
+                    tmpUpper[i] = PrimitiveDenseStore.FACTORY.copy(tmpStacked.logical().limits(myColDim, tmpRHSDim).get());
+                } else {
+                    tmpUpper[i] = tmpLower[2 * i];
+                }
+            }
+
+            tmpChildren = tmpUpper;
+        }
+
+        final PrimitiveDenseStore tmpSolution = tmpChildren[0];
+        tmpSolution.substituteBackwards(myR, false, false, false);
+
+        for (int j = 0; j < tmpRHSDim; j++) {
+            for (int i = 0; i < myColDim; i++) {
+                preallocated.set(i, j, tmpSolution.doubleValue(i, j));
+            }
+        }
+
+        return preallocated.logical().limits(myColDim, tmpRHSDim).get();
+    }
+
+    public MatrixStore<Double> invert(final Access2D<?> original) throws RecoverableCondition {
+
+        this.decompose(this.wrap(original));
+
+        if (this.isSolvable()) {
+            return this.getInverse();
+        } else {
+            throw RecoverableCondition.newMatrixNotInvertible();
+        }
+    }
+
+    public MatrixStore<Double> invert(final Access2D<?> original, final PhysicalStore<Double> preallocated) throws RecoverableCondition {
+
+        this.decompose(this.wrap(original));
+
+        if (this.isSolvable()) {
+            return this.getInverse(preallocated);
+        } else {
+            throw RecoverableCondition.newMatrixNotInvertible();
+        }
+    }
+
+    public boolean isFullRank() {
+        return this.getRank() == myColDim;
+    }
+
+    /**
+     * @return Always false - only economy sized decompositions are available
+     */
+    public boolean isFullSize() {
+        return false;
+    }
+
+    public PhysicalStore<Double> preallocate(final Structure2D template) {
+        return this.preallocate(template.countRows(), template.countRows());
+    }
+
+    public PhysicalStore<Double> preallocate(final Structure2D templateBody, final Structure2D templateRHS) {
+        return this.preallocate(templateBody.countRows(), templateRHS.countColumns());
+    }
+
+    @Override
+    public void reset() {
+
+        super.reset();
+
+        myBoundaries = null;
+        myNodes = null;
+        myR = null;
+        myRowDim = 0;
+        myColDim = 0;
+    }
+
+    /**
+     * Does nothing - only economy sized decompositions are available
+     */
+    public void setFullSize(final boolean fullSize) {
+        // Only economy size
+    }
+
+    public MatrixStore<Double> solve(final Access2D<?> body, final Access2D<?> rhs) throws RecoverableCondition {
+
+        this.decompose(this.wrap(body));
+
+        if (this.isSolvable()) {
+            return this.getSolution(this.wrap(rhs));
+        } else {
+            throw RecoverableCondition.newEquationSystemNotSolvable();
+        }
+    }
+
+    public MatrixStore<Double> solve(final Access2D<?> body, final Access2D<?> rhs, final PhysicalStore<Double> preallocated) throws RecoverableCondition {
+
+        this.decompose(this.wrap(body));
+
+        if (this.isSolvable()) {
+            return this.getSolution(this.wrap(rhs), preallocated);
+        } else {
+            throw RecoverableCondition.newEquationSystemNotSolvable();
+        }
+    }
+
+    private PrimitiveDenseStore getR(final QRDecomposition.Primitive node) {
+        return PrimitiveDenseStore.FACTORY.copy(node.getR().logical().limits(myColDim, myColDim).get());
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private MatrixStore<Double>[] makeCoefficients(final int length) {
+        return new MatrixStore[length];
+    }
+
+    private PhysicalStore<Double> preallocate(final long numberOfRows, final long numberOfColumns) {
+        return this.allocate(numberOfRows, numberOfColumns);
+    }
+
+    @Override
+    protected boolean checkSolvability() {
+        return (myRowDim >= myColDim) && this.isFullRank();
+    }
+
+    @Override
+    protected double getDimensionalEpsilon() {
+        return Math.max(myRowDim, myColDim) * PrimitiveMath.MACHINE_EPSILON;
+    }
+
+    int getColDim() {
+        return myColDim;
+    }
+
+    int getRowDim() {
+        return myRowDim;
+    }
+
+}
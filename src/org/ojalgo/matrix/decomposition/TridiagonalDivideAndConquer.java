@@ -0,0 +1,460 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+import static org.ojalgo.function.PrimitiveFunction.*;
+
+import java.util.Arrays;
+
+import org.ojalgo.array.blas.GEMM;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.matrix.store.operation.RotateRight;
+
+/**
+ * Cuppen's divide-and-conquer algorithm for the eigenvalues and eigenvectors of a symmetric tridiagonal
+ * matrix. The matrix is torn in two by a rank-one modification, the two halves are solved recursively (in
+ * parallel) and then merged by solving the secular equation of the diagonal-plus-rank-one problem. Small
+ * subproblems are solved using the QL algorithm. The z-vector of each merge is recomputed from the calculated
+ * eigenvalues (Gu & Eisenstat) so that the eigenvectors are numerically orthogonal.
+ *
+ * @author apete
+ */
+final class TridiagonalDivideAndConquer {
+
+    /**
+     * Subproblems of this size, or smaller, are solved using the QL algorithm.
+     */
+    static int THRESHOLD = 32;
+
+    private static final int ITERATIONS = 100;
+
+    /**
+     * @param d The diagonal on input, the (ascending) eigenvalues on output
+     * @param e The off-diagonal - e[i] couples i and i+1 - all zeros on output
+     * @return The eigenvectors, n-by-n, stored column-major
+     */
+    static double[] invoke(final double[] d, final double[] e) {
+
+        final double[] retVal = TridiagonalDivideAndConquer.solve(d, e, 0, d.length);
+
+        Arrays.fill(e, ZERO);
+
+        return retVal;
+    }
+
+    private static double[] leaf(final double[] d, final double[] e, final int first, final int limit) {
+
+        final int size = limit - first;
+
+        final double[] tmpD = new double[size];
+        final double[] tmpE = new double[size];
+        System.arraycopy(d, first, tmpD, 0, size);
+        System.arraycopy(e, first, tmpE, 0, size - 1);
+
+        final double[] retVal = new double[size * size];
+        for (int ij = 0; ij < size; ij++) {
+            retVal[ij + (ij * size)] = ONE;
+        }
+
+        HermitianEvD.tql2(tmpD, tmpE, (low, high, cos, sin) -> RotateRight.invoke(retVal, size, low, high, cos, sin));
+
+        System.arraycopy(tmpD, 0, d, first, size);
+
+        return retVal;
+    }
+
+    /**
+     * The eigenvectors of the merged problem are blockdiag(Q1, Q2) * W, where the columns of W are the
+     * eigenvectors of diag(D1, D2) + rho * z * z<sup>T</sup>.
+     */
+    private static double[] merge(final double[] d, final int first, final int split, final int limit, final double[] q1, final double[] q2,
+            final double beta) {
+
+        final int size = limit - first;
+        final int size1 = split - first;
+        final int size2 = limit - split;
+
+        // z is the last row of Q1 and the first row of Q2, normalised to unit length
+        final double rho = TWO * ABS.invoke(beta);
+        final double tmpSign = beta < ZERO ? -ONE : ONE;
+        final double[] z = new double[size];
+        for (int j = 0; j < size1; j++) {
+            z[j] = q1[(size1 - 1) + (j * size1)] / SQRT_TWO;
+        }
+        for (int j = 0; j < size2; j++) {
+            z[size1 + j] = (tmpSign * q2[j * size2]) / SQRT_TWO;
+        }
+
+        final double[] diag = new double[size];
+        System.arraycopy(d, first, diag, 0, size);
+        final int[] order = TridiagonalDivideAndConquer.sort(diag, size);
+
+        double tmpMaxAbs = rho;
+        for (int i = 0; i < size; i++) {
+            tmpMaxAbs = MAX.invoke(tmpMaxAbs, ABS.invoke(diag[i]));
+        }
+        final double tmpTolerance = EIGHT * MACHINE_EPSILON * tmpMaxAbs;
+
+        // Deflation - small z-components, and (nearly) equal diagonal elements rotated together
+        final double[] basis = new double[size * size];
+        for (int ij = 0; ij < size; ij++) {
+            basis[ij + (ij * size)] = ONE;
+        }
+        final boolean[] rotated = new boolean[size];
+
+        final int[] kept = new int[size];
+        int tmpCountKept = 0;
+        final int[] deflated = new int[size];
+        int tmpCountDeflated = 0;
+
+        int tmpLast = -1;
+        for (int t = 0; t < size; t++) {
+            final int i = order[t];
+            if ((rho * ABS.invoke(z[i])) <= tmpTolerance) {
+                deflated[tmpCountDeflated++] = i;
+            } else if (tmpLast >= 0) {
+                final int j = tmpLast;
+                final double r = HYPOT.invoke(z[i], z[j]);
+                final double c = z[i] / r;
+                final double s = z[j] / r;
+                if (ABS.invoke((diag[i] - diag[j]) * c * s) <= tmpTolerance) {
+                    RotateRight.invoke(basis, size, j, i, c, s);
+                    rotated[i] = rotated[j] = true;
+                    final double tmpDiagI = (c * c * diag[i]) + (s * s * diag[j]);
+                    diag[j] = (c * c * diag[j]) + (s * s * diag[i]);
+                    diag[i] = tmpDiagI;
+                    z[i] = r;
+                    z[j] = ZERO;
+                    deflated[tmpCountDeflated++] = j;
+                } else {
+                    kept[tmpCountKept++] = j;
+                }
+                tmpLast = i;
+            } else {
+                tmpLast = i;
+            }
+        }
+        if (tmpLast >= 0) {
+            kept[tmpCountKept++] = tmpLast;
+        }
+
+        final int tmpK = tmpCountKept;
+        final double[] dk = new double[tmpK];
+        final double[] zk = new double[tmpK];
+        for (int t = 0; t < tmpK; t++) {
+            dk[t] = diag[kept[t]];
+            zk[t] = z[kept[t]];
+        }
+
+        final int[] origin = new int[tmpK];
+        final double[] tau = new double[tmpK];
+        TridiagonalDivideAndConquer.secular(dk, zk, rho, origin, tau);
+
+        final double[] vectors = TridiagonalDivideAndConquer.vectors(dk, zk, rho, origin, tau);
+
+        // All eigenvalues in ascending order, negative source refers to a root of the secular equation
+        final double[] values = new double[size];
+        final int[] source = new int[size];
+        for (int m = 0; m < tmpK; m++) {
+            values[m] = dk[origin[m]] + tau[m];
+            source[m] = -(m + 1);
+        }
+        for (int t = 0; t < tmpCountDeflated; t++) {
+            values[tmpK + t] = diag[deflated[t]];
+            source[tmpK + t] = deflated[t];
+        }
+        final int[] sorted = TridiagonalDivideAndConquer.sort(values, size);
+
+        // Only the columns of W that are not unit vectors need to be multiplied
+        final int[] dense = new int[size];
+        int tmpCountDense = 0;
+        for (int col = 0; col < size; col++) {
+            final int tmpSource = source[sorted[col]];
+            d[first + col] = values[sorted[col]];
+            dense[col] = ((tmpSource >= 0) && !rotated[tmpSource]) ? -1 : tmpCountDense++;
+        }
+
+        final double[] tmpW = new double[size * tmpCountDense];
+        for (int col = 0; col < size; col++) {
+            if (dense[col] >= 0) {
+                final int tmpSource = source[sorted[col]];
+                final int tmpOffset = dense[col] * size;
+                if (tmpSource >= 0) {
+                    System.arraycopy(basis, tmpSource * size, tmpW, tmpOffset, size);
+                } else {
+                    final int m = -(tmpSource + 1);
+                    for (int t = 0; t < tmpK; t++) {
+                        final double tmpValue = vectors[t + (m * tmpK)];
+                        final int tmpRow = kept[t];
+                        if (rotated[tmpRow]) {
+                            final int tmpBasisOffset = tmpRow * size;
+                            for (int i = 0; i < size; i++) {
+                                tmpW[i + tmpOffset] += tmpValue * basis[i + tmpBasisOffset];
+                            }
+                        } else {
+                            tmpW[tmpRow + tmpOffset] += tmpValue;
+                        }
+                    }
+                }
+            }
+        }
+
+        final double[] tmpProduct = new double[size * tmpCountDense];
+        GEMM.invoke(size1, tmpCountDense, size1, ONE, q1, 0, size1, false, tmpW, 0, size, false, ZERO, tmpProduct, 0, size);
+        GEMM.invoke(size2, tmpCountDense, size2, ONE, q2, 0, size2, false, tmpW, size1, size, false, ZERO, tmpProduct, size1, size);
+
+        final double[] retVal = new double[size * size];
+        for (int col = 0; col < size; col++) {
+            if (dense[col] >= 0) {
+                System.arraycopy(tmpProduct, dense[col] * size, retVal, col * size, size);
+            } else {
+                final int tmpSource = source[sorted[col]];
+                if (tmpSource < size1) {
+                    System.arraycopy(q1, tmpSource * size1, retVal, col * size, size1);
+                } else {
+                    System.arraycopy(q2, (tmpSource - size1) * size2, retVal, (col * size) + size1, size2);
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Solves the secular equation 1 + rho * sum(z<sub>j</sub><sup>2</sup> / (d<sub>j</sub> - &lambda;)) = 0
+     * for all its roots. Each root is stored as an offset, tau, from its closest pole, d[origin], to retain
+     * the precision of the differences d<sub>j</sub> - &lambda;.
+     */
+    private static void secular(final double[] dk, final double[] zk, final double rho, final int[] origin, final double[] tau) {
+
+        final int tmpK = dk.length;
+
+        double tmpSumSq = ZERO;
+        for (int j = 0; j < tmpK; j++) {
+            tmpSumSq += zk[j] * zk[j];
+        }
+
+        for (int m = 0; m < tmpK; m++) {
+
+            int tmpOrigin = m;
+            double tmpLower;
+            double tmpUpper;
+
+            if (m < (tmpK - 1)) {
+                final double tmpMid = HALF * (dk[m + 1] - dk[m]);
+                if (TridiagonalDivideAndConquer.secular(dk, zk, rho, m, tmpMid) >= ZERO) {
+                    tmpLower = ZERO;
+                    tmpUpper = tmpMid;
+                } else {
+                    tmpOrigin = m + 1;
+                    tmpLower = -tmpMid;
+                    tmpUpper = ZERO;
+                }
+            } else {
+                tmpLower = ZERO;
+                tmpUpper = rho * tmpSumSq;
+            }
+
+            double tmpTau = HALF * (tmpLower + tmpUpper);
+
+            for (int iter = 0; iter < ITERATIONS; iter++) {
+
+                double psi = ZERO, dpsi = ZERO, phi = ZERO, dphi = ZERO;
+                for (int j = 0; j < tmpK; j++) {
+                    final double tmpDelta = (dk[j] - dk[tmpOrigin]) - tmpTau;
+                    final double tmpTerm = (rho * zk[j] * zk[j]) / tmpDelta;
+                    if (j <= m) {
+                        psi += tmpTerm;
+                        dpsi += tmpTerm / tmpDelta;
+                    } else {
+                        phi += tmpTerm;
+                        dphi += tmpTerm / tmpDelta;
+                    }
+                }
+                final double tmpValue = ONE + psi + phi;
+
+                if (tmpValue < ZERO) {
+                    tmpLower = tmpTau;
+                } else {
+                    tmpUpper = tmpTau;
+                }
+
+                if ((ABS.invoke(tmpValue) <= (EIGHT * MACHINE_EPSILON * tmpK * (ONE + ABS.invoke(psi) + ABS.invoke(phi))))
+                        || ((tmpUpper - tmpLower) <= (MACHINE_EPSILON * MAX.invoke(ABS.invoke(tmpLower), ABS.invoke(tmpUpper))))) {
+                    break;
+                }
+
+                // Approximate psi and phi by (one pole) rational functions, and solve for the root of that
+                final double tmpDeltaM = (dk[m] - dk[tmpOrigin]) - tmpTau;
+                final double tmpB1 = dpsi * tmpDeltaM * tmpDeltaM;
+                double tmpEta;
+
+                if (m < (tmpK - 1)) {
+
+                    final double tmpDeltaM1 = (dk[m + 1] - dk[tmpOrigin]) - tmpTau;
+                    final double tmpB2 = dphi * tmpDeltaM1 * tmpDeltaM1;
+                    final double a = (ONE + psi + phi) - (dpsi * tmpDeltaM) - (dphi * tmpDeltaM1);
+                    final double b = (a * (tmpDeltaM + tmpDeltaM1)) + tmpB1 + tmpB2;
+                    final double c = tmpDeltaM * tmpDeltaM1 * tmpValue;
+                    final double tmpSqrt = SQRT.invoke(MAX.invoke(ZERO, (b * b) - (FOUR * a * c)));
+
+                    final double tmpRoot1, tmpRoot2;
+                    if (b >= ZERO) {
+                        tmpRoot1 = (TWO * c) / (b + tmpSqrt);
+                        tmpRoot2 = (b + tmpSqrt) / (TWO * a);
+                    } else {
+                        tmpRoot1 = (b - tmpSqrt) / (TWO * a);
+                        tmpRoot2 = (TWO * c) / (b - tmpSqrt);
+                    }
+                    final double tmpNext1 = tmpTau + tmpRoot1;
+                    tmpEta = (tmpNext1 > tmpLower) && (tmpNext1 < tmpUpper) ? tmpRoot1 : tmpRoot2;
+
+                } else {
+
+                    tmpEta = tmpDeltaM + (tmpB1 / ((ONE + psi) - (dpsi * tmpDeltaM)));
+                }
+
+                double tmpNext = tmpTau + tmpEta;
+                if (!((tmpNext > tmpLower) && (tmpNext < tmpUpper))) {
+                    tmpNext = HALF * (tmpLower + tmpUpper);
+                }
+                if (tmpNext == tmpTau) {
+                    break;
+                }
+                tmpTau = tmpNext;
+            }
+
+            origin[m] = tmpOrigin;
+            tau[m] = tmpTau;
+        }
+    }
+
+    private static double secular(final double[] dk, final double[] zk, final double rho, final int origin, final double tau) {
+        double retVal = ONE;
+        for (int j = 0; j < dk.length; j++) {
+            retVal += (rho * zk[j] * zk[j]) / ((dk[j] - dk[origin]) - tau);
+        }
+        return retVal;
+    }
+
+    private static double[] solve(final double[] d, final double[] e, final int first, final int limit) {
+
+        final int size = limit - first;
+
+        if (size <= THRESHOLD) {
+            return TridiagonalDivideAndConquer.leaf(d, e, first, limit);
+        }
+
+        final int split = first + (size / 2);
+
+        // Tear the matrix in two: T = diag(T1, T2) + |beta| * u * u'
+        final double beta = e[split - 1];
+        d[split - 1] -= ABS.invoke(beta);
+        d[split] -= ABS.invoke(beta);
+
+        final double[][] halves = new double[2][];
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int firstHalf, final int limitHalf) {
+                for (int h = firstHalf; h < limitHalf; h++) {
+                    halves[h] = h == 0 ? TridiagonalDivideAndConquer.solve(d, e, first, split) : TridiagonalDivideAndConquer.solve(d, e, split, limit);
+                }
+            }
+
+        };
+
+        tmpConquerer.invoke(0, 2, 1);
+
+        return TridiagonalDivideAndConquer.merge(d, first, split, limit, halves[0], halves[1], beta);
+    }
+
+    /**
+     * @return The indices of the first count values, in ascending order of those values
+     */
+    private static int[] sort(final double[] values, final int count) {
+
+        final int[] retVal = new int[count];
+        for (int i = 0; i < count; i++) {
+            retVal[i] = i;
+        }
+
+        // Insertion sort - the values are typically (already) sorted in sections
+        for (int i = 1; i < count; i++) {
+            final int tmpIndex = retVal[i];
+            final double tmpValue = values[tmpIndex];
+            int j = i - 1;
+            while ((j >= 0) && (values[retVal[j]] > tmpValue)) {
+                retVal[j + 1] = retVal[j];
+                j--;
+            }
+            retVal[j + 1] = tmpIndex;
+        }
+
+        return retVal;
+    }
+
+    /**
+     * The eigenvectors of diag(dk) + rho * zk * zk<sup>T</sup>, calculated using a z-vector recomputed from
+     * the roots (L&ouml;wner's theorem) rather than the input zk.
+     */
+    private static double[] vectors(final double[] dk, final double[] zk, final double rho, final int[] origin, final double[] tau) {
+
+        final int tmpK = dk.length;
+
+        final double[] tmpZ = new double[tmpK];
+        for (int i = 0; i < tmpK; i++) {
+            double tmpProduct = ((dk[origin[tmpK - 1]] - dk[i]) + tau[tmpK - 1]) / rho;
+            for (int j = 0; j < i; j++) {
+                tmpProduct *= ((dk[origin[j]] - dk[i]) + tau[j]) / (dk[j] - dk[i]);
+            }
+            for (int j = i; j < (tmpK - 1); j++) {
+                tmpProduct *= ((dk[origin[j]] - dk[i]) + tau[j]) / (dk[j + 1] - dk[i]);
+            }
+            tmpZ[i] = Math.copySign(SQRT.invoke(MAX.invoke(ZERO, tmpProduct)), zk[i]);
+        }
+
+        final double[] retVal = new double[tmpK * tmpK];
+        for (int m = 0; m < tmpK; m++) {
+            final int tmpOffset = m * tmpK;
+            double tmpNorm = ZERO;
+            for (int i = 0; i < tmpK; i++) {
+                final double tmpValue = tmpZ[i] / ((dk[i] - dk[origin[m]]) - tau[m]);
+                retVal[i + tmpOffset] = tmpValue;
+                tmpNorm += tmpValue * tmpValue;
+            }
+            tmpNorm = SQRT.invoke(tmpNorm);
+            for (int i = 0; i < tmpK; i++) {
+                retVal[i + tmpOffset] /= tmpNorm;
+            }
+        }
+
+        return retVal;
+    }
+
+    private TridiagonalDivideAndConquer() {
+        super();
+    }
+
+}
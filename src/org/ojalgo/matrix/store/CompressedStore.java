@@ -0,0 +1,765 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.Arrays;
+
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.access.Access1D;
+import org.ojalgo.access.ElementView2D;
+import org.ojalgo.access.Structure2D;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.matrix.store.operation.MultiplySparse;
+
+/**
+ * An immutable sparse store in compressed sparse row (CSR) or compressed sparse column (CSC) format. The
+ * nonzero elements are kept in three arrays: int pointers (one per row/column plus one), int indices (the
+ * column/row of each element) and double values. Within each row/column the elements are sorted by index.
+ * <p>
+ * Instances are created from a {@link SparseStore} or from (row, column, value) triplets, and can not be
+ * modified. Transposing switches between the two formats without copying anything.
+ *
+ * @author apete
+ */
+public final class CompressedStore extends FactoryStore<Double> {
+
+    public static final class NonzeroView implements ElementView2D<Double, NonzeroView> {
+
+        private int myCursor;
+        private final int myLastCursor;
+        private int mySegment;
+        private final CompressedStore myStore;
+
+        NonzeroView(final CompressedStore store, final int initial, final int last) {
+
+            super();
+
+            myStore = store;
+
+            myCursor = initial;
+            myLastCursor = last;
+
+            mySegment = store.segment(initial + 1);
+        }
+
+        public long column() {
+            return myStore.myRowWise ? myStore.myIndices[myCursor] : mySegment;
+        }
+
+        public double doubleValue() {
+            return myStore.myValues[myCursor];
+        }
+
+        public long estimateSize() {
+            return myLastCursor - myCursor;
+        }
+
+        public Double get() {
+            return myStore.myValues[myCursor];
+        }
+
+        public boolean hasNext() {
+            return myCursor < myLastCursor;
+        }
+
+        public boolean hasPrevious() {
+            return myCursor > 0;
+        }
+
+        public long index() {
+            return Structure2D.index(myStore.countRows(), this.row(), this.column());
+        }
+
+        public NonzeroView next() {
+            myCursor++;
+            while (myStore.myPointers[mySegment + 1] <= myCursor) {
+                mySegment++;
+            }
+            return this;
+        }
+
+        public NonzeroView previous() {
+            myCursor--;
+            while (myStore.myPointers[mySegment] > myCursor) {
+                mySegment--;
+            }
+            return this;
+        }
+
+        public long row() {
+            return myStore.myRowWise ? mySegment : myStore.myIndices[myCursor];
+        }
+
+        public NonzeroView trySplit() {
+
+            final int remaining = myLastCursor - myCursor;
+
+            if (remaining > 1) {
+
+                final int split = myCursor + (remaining / 2);
+
+                final NonzeroView retVal = new NonzeroView(myStore, myCursor, split);
+
+                myCursor = split;
+                mySegment = myStore.segment(split + 1);
+
+                return retVal;
+
+            } else {
+
+                return null;
+            }
+        }
+
+    }
+
+    /**
+     * Splits a range of rows in parts with about the same amount of (cumulative) work, and then processes
+     * those parts in parallel. There are never more parts than workers, so {@link #rows(int, int)} is called
+     * (at most) once per worker and may allocate its work arrays there.
+     */
+    static abstract class RowDivider extends DivideAndConquer {
+
+        private long[] myWork = null;
+        private int myParts = 0;
+
+        @Override
+        protected final void conquer(final int first, final int limit) {
+            this.rows(this.bound(first), this.bound(limit));
+        }
+
+        /**
+         * @param work Cumulative work per row, work[0] == 0 and work[i + 1] > work[i]
+         */
+        final void divide(final long[] work) {
+
+            final int tmpRowDim = work.length - 1;
+            final long tmpTotal = work[tmpRowDim];
+
+            final int tmpWorkers = MultiplySparse.SETUP.workers();
+
+            if ((tmpTotal > MultiplySparse.THRESHOLD) && (tmpWorkers > 1)) {
+
+                myWork = work;
+                myParts = (int) Math.min(tmpRowDim, Math.min(tmpTotal / MultiplySparse.THRESHOLD, tmpWorkers));
+
+                this.invoke(0, myParts, 1);
+
+            } else {
+
+                this.rows(0, tmpRowDim);
+            }
+        }
+
+        abstract void rows(int first, int limit);
+
+        /**
+         * @return The first row at, or after, the start of the part
+         */
+        private int bound(final int part) {
+
+            final long tmpTarget = (myWork[myWork.length - 1] * part) / myParts;
+
+            int tmpLow = 0;
+            int tmpHigh = myWork.length - 1;
+
+            while (tmpLow < tmpHigh) {
+                final int tmpMiddle = (tmpLow + tmpHigh) >>> 1;
+                if (myWork[tmpMiddle] < tmpTarget) {
+                    tmpLow = tmpMiddle + 1;
+                } else {
+                    tmpHigh = tmpMiddle;
+                }
+            }
+
+            return tmpLow;
+        }
+
+    }
+
+    /**
+     * Compressed sparse column (CSC) copy of the nonzero elements of a {@link SparseStore}
+     */
+    public static CompressedStore columns(final SparseStore<Double> source) {
+        return CompressedStore.compress(false, source);
+    }
+
+    /**
+     * Compressed sparse column (CSC) store from (row, column, value) triplets. Duplicate entries are summed.
+     */
+    public static CompressedStore columns(final int rowsCount, final int columnsCount, final int[] rows, final int[] columns, final double[] values) {
+        return CompressedStore.compress(false, rowsCount, columnsCount, rows, columns, values, false);
+    }
+
+    /**
+     * Compressed sparse row (CSR) copy of the nonzero elements of a {@link SparseStore}
+     */
+    public static CompressedStore rows(final SparseStore<Double> source) {
+        return CompressedStore.compress(true, source);
+    }
+
+    /**
+     * Compressed sparse row (CSR) store from (row, column, value) triplets. Duplicate entries are summed.
+     */
+    public static CompressedStore rows(final int rowsCount, final int columnsCount, final int[] rows, final int[] columns, final double[] values) {
+        return CompressedStore.compress(true, rowsCount, columnsCount, rows, columns, values, false);
+    }
+
+    /**
+     * @param ordered true if the triplets are already ordered by column and then row (the order of the
+     *        {@link SparseStore} nonzeros)
+     */
+    private static CompressedStore compress(final boolean rowWise, final int rowsCount, final int columnsCount, final int[] rows, final int[] columns,
+            final double[] values, final boolean ordered) {
+
+        final int tmpLength = values.length;
+        if ((rows.length != tmpLength) || (columns.length != tmpLength)) {
+            throw new ProgrammingError("The triplet arrays must have the same length!");
+        }
+
+        final int tmpSegments = rowWise ? rowsCount : columnsCount;
+        final int[] tmpMajor = rowWise ? rows : columns;
+        final int[] tmpMinor = rowWise ? columns : rows;
+
+        final int[] tmpOrder = new int[tmpLength];
+        for (int e = 0; e < tmpLength; e++) {
+            tmpOrder[e] = e;
+        }
+
+        // Two stable counting sorts, minor then major, give the elements ordered by (major, minor)
+        final int[] tmpSorted;
+        if (!ordered) {
+            tmpSorted = CompressedStore.sort(tmpMajor, tmpSegments, CompressedStore.sort(tmpMinor, rowWise ? columnsCount : rowsCount, tmpOrder));
+        } else if (rowWise) {
+            tmpSorted = CompressedStore.sort(tmpMajor, tmpSegments, tmpOrder);
+        } else {
+            tmpSorted = tmpOrder;
+        }
+
+        final int[] tmpPointers = new int[tmpSegments + 1];
+        final int[] tmpIndices = new int[tmpLength];
+        final double[] tmpValues = new double[tmpLength];
+
+        int tmpCount = 0;
+        for (int q = 0, s = 0; s < tmpSegments; s++) {
+            tmpPointers[s] = tmpCount;
+            for (; (q < tmpLength) && (tmpMajor[tmpSorted[q]] == s); q++) {
+                final int e = tmpSorted[q];
+                if ((tmpCount > tmpPointers[s]) && (tmpIndices[tmpCount - 1] == tmpMinor[e])) {
+                    tmpValues[tmpCount - 1] += values[e];
+                } else {
+                    tmpIndices[tmpCount] = tmpMinor[e];
+                    tmpValues[tmpCount] = values[e];
+                    tmpCount++;
+                }
+            }
+        }
+        tmpPointers[tmpSegments] = tmpCount;
+
+        if (tmpCount < tmpLength) {
+            return new CompressedStore(rowWise, rowsCount, columnsCount, tmpPointers, Arrays.copyOf(tmpIndices, tmpCount), Arrays.copyOf(tmpValues, tmpCount));
+        } else {
+            return new CompressedStore(rowWise, rowsCount, columnsCount, tmpPointers, tmpIndices, tmpValues);
+        }
+    }
+
+    private static CompressedStore compress(final boolean rowWise, final SparseStore<Double> source) {
+
+        final int tmpCapacity = (int) source.nonzeros().estimateSize();
+
+        final int[] tmpRows = new int[tmpCapacity];
+        final int[] tmpColumns = new int[tmpCapacity];
+        final double[] tmpValues = new double[tmpCapacity];
+
+        int tmpCount = 0;
+        for (final ElementView2D<Double, ?> tmpNonzero : source.nonzeros()) {
+            final double tmpValue = tmpNonzero.doubleValue();
+            if (tmpValue != 0.0) {
+                tmpRows[tmpCount] = (int) tmpNonzero.row();
+                tmpColumns[tmpCount] = (int) tmpNonzero.column();
+                tmpValues[tmpCount] = tmpValue;
+                tmpCount++;
+            }
+        }
+
+        return CompressedStore.compress(rowWise, (int) source.countRows(), (int) source.countColumns(), Arrays.copyOf(tmpRows, tmpCount),
+                Arrays.copyOf(tmpColumns, tmpCount), Arrays.copyOf(tmpValues, tmpCount), true);
+    }
+
+    /**
+     * Stable counting sort of order by keys[order[i]]
+     */
+    private static int[] sort(final int[] keys, final int dim, final int[] order) {
+
+        final int[] tmpNext = new int[dim + 1];
+        for (int i = 0; i < order.length; i++) {
+            tmpNext[keys[order[i]] + 1]++;
+        }
+        for (int k = 0; k < dim; k++) {
+            tmpNext[k + 1] += tmpNext[k];
+        }
+
+        final int[] retVal = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            retVal[tmpNext[keys[order[i]]]++] = order[i];
+        }
+        return retVal;
+    }
+
+    static double[] data(final Access1D<?> matrix) {
+        if (matrix instanceof PrimitiveDenseStore) {
+            return ((PrimitiveDenseStore) matrix).data;
+        } else {
+            return matrix.toRawCopy1D();
+        }
+    }
+
+    private transient CompressedStore myConverse = null;
+
+    final int[] myIndices;
+    final int[] myPointers;
+    final boolean myRowWise;
+    final double[] myValues;
+
+    CompressedStore(final boolean rowWise, final int rowsCount, final int columnsCount, final int[] pointers, final int[] indices, final double[] values) {
+
+        super(PrimitiveDenseStore.FACTORY, rowsCount, columnsCount);
+
+        myRowWise = rowWise;
+        myPointers = pointers;
+        myIndices = indices;
+        myValues = values;
+    }
+
+    @Override
+    public MatrixStore<Double> conjugate() {
+        return this.transpose();
+    }
+
+    public int countNonzeros() {
+        return myPointers[myPointers.length - 1];
+    }
+
+    public double doubleValue(final long row, final long col) {
+
+        final int tmpSegment = (int) (myRowWise ? row : col);
+        final int tmpIndex = (int) (myRowWise ? col : row);
+
+        final int tmpPosition = Arrays.binarySearch(myIndices, myPointers[tmpSegment], myPointers[tmpSegment + 1], tmpIndex);
+
+        return tmpPosition >= 0 ? myValues[tmpPosition] : 0.0;
+    }
+
+    @Override
+    public int firstInColumn(final int col) {
+        if (myRowWise) {
+            return super.firstInColumn(col);
+        } else {
+            return myPointers[col] < myPointers[col + 1] ? myIndices[myPointers[col]] : this.getRowDim();
+        }
+    }
+
+    @Override
+    public int firstInRow(final int row) {
+        if (myRowWise) {
+            return myPointers[row] < myPointers[row + 1] ? myIndices[myPointers[row]] : this.getColDim();
+        } else {
+            return super.firstInRow(row);
+        }
+    }
+
+    public Double get(final long row, final long col) {
+        return this.doubleValue(row, col);
+    }
+
+    /**
+     * @return true if this is compressed sparse row (CSR), false if compressed sparse column (CSC)
+     */
+    public boolean isRowWise() {
+        return myRowWise;
+    }
+
+    @Override
+    public int limitOfColumn(final int col) {
+        if (myRowWise) {
+            return super.limitOfColumn(col);
+        } else {
+            return myPointers[col] < myPointers[col + 1] ? myIndices[myPointers[col + 1] - 1] + 1 : 0;
+        }
+    }
+
+    @Override
+    public int limitOfRow(final int row) {
+        if (myRowWise) {
+            return myPointers[row] < myPointers[row + 1] ? myIndices[myPointers[row + 1] - 1] + 1 : 0;
+        } else {
+            return super.limitOfRow(row);
+        }
+    }
+
+    public void multiply(final Access1D<Double> right, final ElementsConsumer<Double> target) {
+
+        final int tmpRowDim = this.getRowDim();
+        final int tmpComplexity = this.getColDim();
+        final int tmpColDim = (int) (right.count() / tmpComplexity);
+
+        final double[] tmpRight = CompressedStore.data(right);
+
+        final PrimitiveDenseStore tmpProduct;
+        if ((target instanceof PrimitiveDenseStore) && (target.countRows() == tmpRowDim) && (target.countColumns() == tmpColDim) && (target != right)) {
+            tmpProduct = (PrimitiveDenseStore) target;
+        } else {
+            tmpProduct = PrimitiveDenseStore.FACTORY.makeZero(tmpRowDim, tmpColDim);
+        }
+        final double[] tmpData = tmpProduct.data;
+
+        if (myRowWise) {
+
+            MultiplySparse.invoke(tmpData, myPointers, myIndices, myValues, tmpRight, tmpColDim);
+
+        } else if (this.isParallel(tmpColDim)) {
+
+            final CompressedStore tmpRows = this.converse();
+            MultiplySparse.invoke(tmpData, tmpRows.myPointers, tmpRows.myIndices, tmpRows.myValues, tmpRight, tmpColDim);
+
+        } else {
+
+            Arrays.fill(tmpData, 0.0);
+            for (int j = 0; j < tmpColDim; j++) {
+                final int tmpOffset = j * tmpRowDim;
+                for (int c = 0; c < tmpComplexity; c++) {
+                    final double tmpScalar = tmpRight[c + (j * tmpComplexity)];
+                    if (tmpScalar != 0.0) {
+                        for (int p = myPointers[c], limit = myPointers[c + 1]; p < limit; p++) {
+                            tmpData[myIndices[p] + tmpOffset] += myValues[p] * tmpScalar;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (tmpProduct != target) {
+            target.fillMatching(tmpProduct);
+        }
+    }
+
+    public MatrixStore<Double> multiply(final double scalar) {
+
+        final double[] tmpValues = new double[myValues.length];
+        for (int p = 0; p < tmpValues.length; p++) {
+            tmpValues[p] = scalar * myValues[p];
+        }
+
+        return new CompressedStore(myRowWise, this.getRowDim(), this.getColDim(), myPointers, myIndices, tmpValues);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public MatrixStore<Double> multiply(final MatrixStore<Double> right) {
+        if (right instanceof CompressedStore) {
+            return this.multiply((CompressedStore) right);
+        } else if (right instanceof SparseStore) {
+            return this.multiply(((SparseStore<Double>) right).compressed());
+        } else {
+            return super.multiply(right);
+        }
+    }
+
+    /**
+     * Sparse-sparse (Gustavson) matrix multiplication. A symbolic pass counts the nonzeros of each row of
+     * the product, so that it can be allocated exactly, and then a numeric pass calculates the values. Both
+     * passes are done in parallel with the rows split by the number of multiplications they require.
+     *
+     * @return The product in CSR format
+     */
+    public CompressedStore multiply(final CompressedStore right) {
+
+        ProgrammingError.throwIfMultiplicationNotPossible(this, right);
+
+        final CompressedStore tmpLeft = this.toRows();
+        final CompressedStore tmpRight = right.toRows();
+
+        final int[] tmpLeftPointers = tmpLeft.myPointers;
+        final int[] tmpLeftIndices = tmpLeft.myIndices;
+        final double[] tmpLeftValues = tmpLeft.myValues;
+        final int[] tmpRightPointers = tmpRight.myPointers;
+        final int[] tmpRightIndices = tmpRight.myIndices;
+        final double[] tmpRightValues = tmpRight.myValues;
+
+        final int tmpRowDim = this.getRowDim();
+        final int tmpColDim = right.getColDim();
+
+        final long[] tmpWork = new long[tmpRowDim + 1];
+        for (int i = 0; i < tmpRowDim; i++) {
+            long tmpCount = 1L;
+            for (int p = tmpLeftPointers[i], limit = tmpLeftPointers[i + 1]; p < limit; p++) {
+                final int k = tmpLeftIndices[p];
+                tmpCount += tmpRightPointers[k + 1] - tmpRightPointers[k];
+            }
+            tmpWork[i + 1] = tmpWork[i] + tmpCount;
+        }
+
+        final int[] tmpPointers = new int[tmpRowDim + 1];
+
+        new RowDivider() {
+
+            @Override
+            void rows(final int first, final int limit) {
+
+                final int[] tmpMarker = new int[tmpColDim];
+                Arrays.fill(tmpMarker, -1);
+
+                for (int i = first; i < limit; i++) {
+                    int tmpCount = 0;
+                    for (int p = tmpLeftPointers[i], limitP = tmpLeftPointers[i + 1]; p < limitP; p++) {
+                        final int k = tmpLeftIndices[p];
+                        for (int q = tmpRightPointers[k], limitQ = tmpRightPointers[k + 1]; q < limitQ; q++) {
+                            final int j = tmpRightIndices[q];
+                            if (tmpMarker[j] != i) {
+                                tmpMarker[j] = i;
+                                tmpCount++;
+                            }
+                        }
+                    }
+                    tmpPointers[i + 1] = tmpCount;
+                }
+            }
+
+        }.divide(tmpWork);
+
+        for (int i = 0; i < tmpRowDim; i++) {
+            tmpPointers[i + 1] += tmpPointers[i];
+        }
+
+        final int[] tmpIndices = new int[tmpPointers[tmpRowDim]];
+        final double[] tmpValues = new double[tmpPointers[tmpRowDim]];
+
+        new RowDivider() {
+
+            @Override
+            void rows(final int first, final int limit) {
+
+                final int[] tmpMarker = new int[tmpColDim];
+                Arrays.fill(tmpMarker, -1);
+                final double[] tmpAccumulator = new double[tmpColDim];
+
+                for (int i = first; i < limit; i++) {
+
+                    int tmpPosition = tmpPointers[i];
+
+                    for (int p = tmpLeftPointers[i], limitP = tmpLeftPointers[i + 1]; p < limitP; p++) {
+                        final int k = tmpLeftIndices[p];
+                        final double tmpValue = tmpLeftValues[p];
+                        for (int q = tmpRightPointers[k], limitQ = tmpRightPointers[k + 1]; q < limitQ; q++) {
+                            final int j = tmpRightIndices[q];
+                            if (tmpMarker[j] != i) {
+                                tmpMarker[j] = i;
+                                tmpIndices[tmpPosition++] = j;
+                                tmpAccumulator[j] = tmpValue * tmpRightValues[q];
+                            } else {
+                                tmpAccumulator[j] += tmpValue * tmpRightValues[q];
+                            }
+                        }
+                    }
+
+                    Arrays.sort(tmpIndices, tmpPointers[i], tmpPosition);
+                    for (int p = tmpPointers[i]; p < tmpPosition; p++) {
+                        tmpValues[p] = tmpAccumulator[tmpIndices[p]];
+                    }
+                }
+            }
+
+        }.divide(tmpWork);
+
+        return new CompressedStore(true, tmpRowDim, tmpColDim, tmpPointers, tmpIndices, tmpValues);
+    }
+
+    public MatrixStore<Double> multiply(final Double scalar) {
+        return this.multiply(scalar.doubleValue());
+    }
+
+    @Override
+    public MatrixStore<Double> negate() {
+        return this.multiply(-1.0);
+    }
+
+    /**
+     * All nonzero elements, row by row (CSR) or column by column (CSC).
+     */
+    public NonzeroView nonzeros() {
+        return new NonzeroView(this, -1, this.countNonzeros() - 1);
+    }
+
+    /**
+     * The nonzero elements of a column, in row order. With a CSR store this is done using a CSC copy that
+     * is created (once) when first needed.
+     */
+    public NonzeroView nonzerosInColumn(final int col) {
+        final CompressedStore tmpColumns = myRowWise ? this.converse() : this;
+        return new NonzeroView(tmpColumns, tmpColumns.myPointers[col] - 1, tmpColumns.myPointers[col + 1] - 1);
+    }
+
+    /**
+     * The nonzero elements of a row, in column order. With a CSC store this is done using a CSR copy that is
+     * created (once) when first needed.
+     */
+    public NonzeroView nonzerosInRow(final int row) {
+        final CompressedStore tmpRows = myRowWise ? this : this.converse();
+        return new NonzeroView(tmpRows, tmpRows.myPointers[row] - 1, tmpRows.myPointers[row + 1] - 1);
+    }
+
+    public ElementsSupplier<Double> premultiply(final Access1D<Double> left) {
+
+        final int tmpComplexity = this.getRowDim();
+        final int tmpColDim = this.getColDim();
+        final int tmpRowDim = (int) (left.count() / tmpComplexity);
+
+        final double[] tmpLeft = CompressedStore.data(left);
+
+        final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.makeZero(tmpRowDim, tmpColDim);
+        final double[] tmpData = retVal.data;
+
+        if (!myRowWise) {
+
+            MultiplySparse.invoke(tmpData, tmpLeft, myPointers, myIndices, myValues);
+
+        } else if (this.isParallel(tmpRowDim)) {
+
+            final CompressedStore tmpColumns = this.converse();
+            MultiplySparse.invoke(tmpData, tmpLeft, tmpColumns.myPointers, tmpColumns.myIndices, tmpColumns.myValues);
+
+        } else {
+
+            for (int c = 0; c < tmpComplexity; c++) {
+                final int tmpLeftOffset = c * tmpRowDim;
+                for (int p = myPointers[c], limit = myPointers[c + 1]; p < limit; p++) {
+                    final double tmpValue = myValues[p];
+                    final int tmpOffset = myIndices[p] * tmpRowDim;
+                    for (int i = 0; i < tmpRowDim; i++) {
+                        tmpData[i + tmpOffset] += tmpValue * tmpLeft[i + tmpLeftOffset];
+                    }
+                }
+            }
+        }
+
+        return retVal;
+    }
+
+    public void supplyTo(final ElementsConsumer<Double> receiver) {
+
+        receiver.reset();
+
+        for (int s = 0, segments = myPointers.length - 1; s < segments; s++) {
+            for (int p = myPointers[s], limit = myPointers[s + 1]; p < limit; p++) {
+                if (myRowWise) {
+                    receiver.set(s, myIndices[p], myValues[p]);
+                } else {
+                    receiver.set(myIndices[p], s, myValues[p]);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return A CSC store with the same elements (may be this instance)
+     */
+    public CompressedStore toColumns() {
+        return myRowWise ? this.converse() : this;
+    }
+
+    /**
+     * @return A CSR store with the same elements (may be this instance)
+     */
+    public CompressedStore toRows() {
+        return myRowWise ? this : this.converse();
+    }
+
+    @Override
+    public CompressedStore transpose() {
+        return new CompressedStore(!myRowWise, this.getColDim(), this.getRowDim(), myPointers, myIndices, myValues);
+    }
+
+    /**
+     * The same matrix in the other format, created once and then kept
+     */
+    private CompressedStore converse() {
+
+        if (myConverse == null) {
+
+            final int tmpSegments = myRowWise ? this.getColDim() : this.getRowDim();
+            final int tmpLength = this.countNonzeros();
+
+            final int[] tmpPointers = new int[tmpSegments + 1];
+            for (int p = 0; p < tmpLength; p++) {
+                tmpPointers[myIndices[p] + 1]++;
+            }
+            for (int s = 0; s < tmpSegments; s++) {
+                tmpPointers[s + 1] += tmpPointers[s];
+            }
+
+            final int[] tmpNext = Arrays.copyOf(tmpPointers, tmpSegments);
+            final int[] tmpIndices = new int[tmpLength];
+            final double[] tmpValues = new double[tmpLength];
+
+            for (int s = 0, segments = myPointers.length - 1; s < segments; s++) {
+                for (int p = myPointers[s], limit = myPointers[s + 1]; p < limit; p++) {
+                    final int q = tmpNext[myIndices[p]]++;
+                    tmpIndices[q] = s;
+                    tmpValues[q] = myValues[p];
+                }
+            }
+
+            myConverse = new CompressedStore(!myRowWise, this.getRowDim(), this.getColDim(), tmpPointers, tmpIndices, tmpValues);
+        }
+
+        return myConverse;
+    }
+
+    /**
+     * Multiplication in the other format, using the parallel {@link MultiplySparse} kernel, requires the
+     * converse layout - only worth creating when the work can actually be split.
+     */
+    private boolean isParallel(final int multiplier) {
+        return (MultiplySparse.SETUP.workers() > 1) && ((((long) this.countNonzeros() + myPointers.length) * multiplier) > MultiplySparse.THRESHOLD);
+    }
+
+    /**
+     * @return The row (CSR) or column (CSC) that the element at position belongs to
+     */
+    int segment(final int position) {
+
+        int retVal = 0;
+        int tmpHigh = myPointers.length - 2;
+
+        while (retVal < tmpHigh) {
+            final int tmpMiddle = (retVal + tmpHigh + 1) >>> 1;
+            if (myPointers[tmpMiddle] <= position) {
+                retVal = tmpMiddle;
+            } else {
+                tmpHigh = tmpMiddle - 1;
+            }
+        }
+
+        return retVal;
+    }
+
+}
@@ -21,11 +21,13 @@
  */
 package org.ojalgo.matrix.store;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
 import org.ojalgo.ProgrammingError;
 import org.ojalgo.access.Access1D;
-import org.ojalgo.concurrent.DaemonPoolExecutor;
+import org.ojalgo.concurrent.ParallelismContext;
 
 /**
  * Logical stores are (intended to be) immutable.
@@ -34,6 +36,27 @@ import org.ojalgo.concurrent.DaemonPoolExecutor;
  */
 abstract class LogicalStore<N extends Number> extends AbstractStore<N> {
 
+    /**
+     * Executes the task asynchronously, in (half of) the {@link ParallelismContext} in effect for the calling
+     * thread, or inline if that context is single-threaded.
+     */
+    private static <T> Future<T> execute(final Callable<T> task) {
+
+        final ParallelismContext tmpContext = ParallelismContext.current();
+
+        if (tmpContext.isSingleThreaded()) {
+            final CompletableFuture<T> retVal = new CompletableFuture<>();
+            try {
+                retVal.complete(task.call());
+            } catch (final Exception exception) {
+                retVal.completeExceptionally(exception);
+            }
+            return retVal;
+        } else {
+            return tmpContext.submit(task, tmpContext.workers() / 2);
+        }
+    }
+
     private MatrixStore<N> myBase;
 
     @SuppressWarnings("unused")
@@ -60,27 +83,30 @@ abstract class LogicalStore<N extends Number> extends AbstractStore<N> {
     }
 
     protected final Future<?> executeMultiply(final Access1D<N> right, final ElementsConsumer<N> target) {
-        return DaemonPoolExecutor.invoke(() -> myBase.multiply(right, target));
+        return LogicalStore.execute(() -> {
+            myBase.multiply(right, target);
+            return null;
+        });
     }
 
     protected final Future<MatrixStore<N>> executeMultiply(final double scalar) {
-        return DaemonPoolExecutor.invoke(() -> myBase.multiply(scalar));
+        return LogicalStore.execute(() -> myBase.multiply(scalar));
     }
 
     protected final Future<MatrixStore<N>> executeMultiply(final MatrixStore<N> right) {
-        return DaemonPoolExecutor.invoke(() -> myBase.multiply(right));
+        return LogicalStore.execute(() -> myBase.multiply(right));
     }
 
     protected final Future<MatrixStore<N>> executeMultiply(final N scalar) {
-        return DaemonPoolExecutor.invoke(() -> myBase.multiply(scalar));
+        return LogicalStore.execute(() -> myBase.multiply(scalar));
     }
 
     protected final Future<N> executeMultiplyBoth(final Access1D<N> leftAndRight) {
-        return DaemonPoolExecutor.invoke(() -> myBase.multiplyBoth(leftAndRight));
+        return LogicalStore.execute(() -> myBase.multiplyBoth(leftAndRight));
     }
 
     protected final Future<ElementsSupplier<N>> executePremultiply(final Access1D<N> left) {
-        return DaemonPoolExecutor.invoke(() -> myBase.premultiply(left));
+        return LogicalStore.execute(() -> myBase.premultiply(left));
     }
 
     protected final MatrixStore<N> getBase() {
@@ -31,6 +31,7 @@ import org.ojalgo.access.Access2D;
 import org.ojalgo.access.ElementView2D;
 import org.ojalgo.access.Structure2D;
 import org.ojalgo.array.SparseArray;
+import org.ojalgo.array.SparseArray.NonzeroView;
 import org.ojalgo.function.BinaryFunction;
 import org.ojalgo.function.NullaryFunction;
 import org.ojalgo.function.UnaryFunction;
@@ -50,10 +51,70 @@ public final class SparseStore<N extends Number> extends FactoryStore<N> impleme
 
     public static interface Factory<N extends Number> {
 
+        /**
+         * For assembling large matrices from (row, column, value) triplets in any order, and from several
+         * threads.
+         */
+        default SparseStore.Loader<N> loader(final long rowsCount, final long columnsCount) {
+            return new SparseStore.Loader<>(this, rowsCount, columnsCount);
+        }
+
         SparseStore<N> make(long rowsCount, long columnsCount);
 
     }
 
+    /**
+     * Collects (row, column, value) triplets, in any order and possibly from several threads, and then
+     * creates the {@link SparseStore} sorting them, and summing duplicates, only once. With
+     * {@link SparseStore#set(long, long, double)} every element not added at the end shifts the
+     * already existing elements.
+     */
+    public static final class Loader<N extends Number> {
+
+        private final long myColumnsCount;
+        private final SparseArray.Loader myElements = new SparseArray.Loader();
+        private final SparseStore.Factory<N> myFactory;
+        private final long myRowsCount;
+
+        Loader(final SparseStore.Factory<N> factory, final long rowsCount, final long columnsCount) {
+
+            super();
+
+            myFactory = factory;
+            myRowsCount = rowsCount;
+            myColumnsCount = columnsCount;
+        }
+
+        /**
+         * Thread safe. Duplicates are summed.
+         */
+        public void add(final long row, final long col, final double value) {
+            if ((row < 0L) || (row >= myRowsCount) || (col < 0L) || (col >= myColumnsCount)) {
+                throw new ArrayIndexOutOfBoundsException("(" + row + ", " + col + ") is not within " + myRowsCount + "x" + myColumnsCount + "!");
+            }
+            myElements.add(Structure2D.index(myRowsCount, row, col), value);
+        }
+
+        /**
+         * Make sure any other threads have finished adding before calling this.
+         */
+        public SparseStore<N> make() {
+
+            final SparseStore<N> retVal = myFactory.make(myRowsCount, myColumnsCount);
+
+            myElements.supplyTo(retVal.myElements);
+
+            final NonzeroView<N> tmpNonzeros = retVal.myElements.nonzeros();
+            while (tmpNonzeros.hasNext()) {
+                final long tmpIndex = tmpNonzeros.next().index();
+                retVal.updateNonZeros((int) (tmpIndex % myRowsCount), (int) (tmpIndex / myRowsCount));
+            }
+
+            return retVal;
+        }
+
+    }
+
     public static final SparseStore.Factory<BigDecimal> BIG = (rowsCount, columnsCount) -> SparseStore.makeBig((int) rowsCount, (int) columnsCount);
 
     public static final SparseStore.Factory<ComplexNumber> COMPLEX = (rowsCount, columnsCount) -> SparseStore.makeComplex((int) rowsCount, (int) columnsCount);
@@ -72,6 +133,11 @@ public final class SparseStore<N extends Number> extends FactoryStore<N> impleme
         return new SparseStore<>(PrimitiveDenseStore.FACTORY, rowsCount, columnsCount);
     }
 
+    /**
+     * Row compressed copy used for (parallel) multiplication, created when needed and discarded as soon as
+     * anything is changed.
+     */
+    private transient CompressedStore myCompressed = null;
     private final SparseArray<N> myElements;
     private final int[] myFirsts;
     private final int[] myLimits;
@@ -224,9 +290,14 @@ public final class SparseStore<N extends Number> extends FactoryStore<N> impleme
         }
     }
 
+    @SuppressWarnings("unchecked")
     public void multiply(final Access1D<N> right, final ElementsConsumer<N> target) {
 
-        if (this.isPrimitive()) {
+        if (this.isPrimitive() && !(target instanceof SparseStore)) {
+
+            this.compressed().multiply((Access1D<Double>) right, (ElementsConsumer<Double>) target);
+
+        } else if (this.isPrimitive()) {
 
             final long structure = this.countColumns();
             final long numberOfColumns = target.countColumns();
@@ -280,11 +351,19 @@ public final class SparseStore<N extends Number> extends FactoryStore<N> impleme
         return retVal;
     }
 
+    @SuppressWarnings("unchecked")
     public MatrixStore<N> multiply(final MatrixStore<N> right) {
         if (right instanceof SparseStore) {
             final SparseStore<N> retVal = new SparseStore<>(this.physical(), this.getRowDim(), (int) right.countColumns());
-            this.multiply(right, retVal);
+            if (this.isPrimitive()) {
+                // Column by column, so that the elements are appended in index order
+                this.compressed().multiply(((SparseStore<Double>) right).compressed()).toColumns().supplyTo((ElementsConsumer<Double>) retVal);
+            } else {
+                this.multiply(right, retVal);
+            }
             return retVal;
+        } else if ((right instanceof CompressedStore) && this.isPrimitive()) {
+            return (MatrixStore<N>) this.compressed().multiply((CompressedStore) right);
         } else {
             return super.multiply(right);
         }
@@ -324,9 +403,13 @@ public final class SparseStore<N extends Number> extends FactoryStore<N> impleme
         return new Access2D.ElementView<>(myElements.nonzeros(), this.countRows());
     }
 
+    @SuppressWarnings("unchecked")
     public ElementsSupplier<N> premultiply(final Access1D<N> left) {
-        // TODO Auto-generated method stub
-        return super.premultiply(left);
+        if (this.isPrimitive()) {
+            return (ElementsSupplier<N>) this.compressed().toColumns().premultiply((Access1D<Double>) left);
+        } else {
+            return super.premultiply(left);
+        }
     }
 
     public ElementsConsumer<N> regionByColumns(final int... columns) {
@@ -350,6 +433,7 @@ public final class SparseStore<N extends Number> extends FactoryStore<N> impleme
     }
 
     public void reset() {
+        myCompressed = null;
         myElements.reset();
         Arrays.fill(myFirsts, this.getColDim());
         Arrays.fill(myLimits, 0);
@@ -376,7 +460,16 @@ public final class SparseStore<N extends Number> extends FactoryStore<N> impleme
         this.updateNonZeros((int) row, (int) col);
     }
 
+    @SuppressWarnings("unchecked")
+    CompressedStore compressed() {
+        if (myCompressed == null) {
+            myCompressed = CompressedStore.rows((SparseStore<Double>) this);
+        }
+        return myCompressed;
+    }
+
     void updateNonZeros(final int row, final int col) {
+        myCompressed = null;
         myFirsts[row] = Math.min(col, myFirsts[row]);
         myLimits[row] = Math.max(col + 1, myLimits[row]);
     }
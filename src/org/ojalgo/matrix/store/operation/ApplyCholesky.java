@@ -30,7 +30,7 @@ public final class ApplyCholesky extends MatrixOperation {
 
     public static final ApplyCholesky SETUP = new ApplyCholesky();
 
-    public static int THRESHOLD = 128;
+    public static int THRESHOLD = MatrixOperation.threshold(ApplyCholesky.class, 128);
 
     public static void invoke(final BigDecimal[] data, final int structure, final int firstColumn, final int columnLimit, final BigDecimal[] multipliers) {
         for (int j = firstColumn; j < columnLimit; j++) {
@@ -44,6 +44,12 @@ public final class ApplyCholesky extends MatrixOperation {
         }
     }
 
+    public static void invoke(final float[] data, final int structure, final int firstColumn, final int columnLimit, final float[] multipliers) {
+        for (int j = firstColumn; j < columnLimit; j++) {
+            AXPY.invoke(data, j * structure, -multipliers[j], multipliers, 0, j, structure);
+        }
+    }
+
     public static <N extends Number & Scalar<N>> void invoke(final N[] data, final int structure, final int firstColumn, final int columnLimit,
             final N[] multipliers) {
         for (int j = firstColumn; j < columnLimit; j++) {
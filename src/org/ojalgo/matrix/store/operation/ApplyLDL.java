@@ -30,7 +30,7 @@ public final class ApplyLDL extends MatrixOperation {
 
     public static final ApplyLDL SETUP = new ApplyLDL();
 
-    public static int THRESHOLD = 256;
+    public static int THRESHOLD = MatrixOperation.threshold(ApplyLDL.class, 256);
 
     public static void invoke(final BigDecimal[] data, final int structure, final int firstColumn, final int columnLimit, final BigDecimal[] multipliers,
             final int iterationPoint) {
@@ -48,6 +48,14 @@ public final class ApplyLDL extends MatrixOperation {
         }
     }
 
+    public static void invoke(final float[] data, final int structure, final int firstColumn, final int columnLimit, final float[] multipliers,
+            final int iterationPoint) {
+        final float tmpDiagVal = data[iterationPoint + (iterationPoint * structure)];
+        for (int j = firstColumn; j < columnLimit; j++) {
+            AXPY.invoke(data, j * structure, -(tmpDiagVal * multipliers[j]), multipliers, 0, j, structure);
+        }
+    }
+
     private ApplyLDL() {
         super();
     }
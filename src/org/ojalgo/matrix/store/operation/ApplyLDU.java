@@ -30,7 +30,7 @@ public final class ApplyLDU extends MatrixOperation {
 
     public static final ApplyLDU SETUP = new ApplyLDU();
 
-    public static int THRESHOLD = 256;
+    public static int THRESHOLD = MatrixOperation.threshold(ApplyLDU.class, 256);
 
     public static void invoke(final BigDecimal[] data, final int structure, final int firstColumn, final int columnLimit, final BigDecimal[] multipliers,
             final int iterationPoint, final boolean hermitian) {
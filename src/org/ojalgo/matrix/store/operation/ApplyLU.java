@@ -30,7 +30,7 @@ public final class ApplyLU extends MatrixOperation {
 
     public static final ApplyLU SETUP = new ApplyLU();
 
-    public static int THRESHOLD = 256;
+    public static int THRESHOLD = MatrixOperation.threshold(ApplyLU.class, 256);
 
     public static void invoke(final BigDecimal[] data, final int structure, final int firstColumn, final int columnLimit, final BigDecimal[] multipliers,
             final int iterationPoint) {
@@ -46,6 +46,13 @@ public final class ApplyLU extends MatrixOperation {
         }
     }
 
+    public static void invoke(final float[] data, final int structure, final int firstColumn, final int columnLimit, final float[] multipliers,
+            final int iterationPoint) {
+        for (int j = firstColumn; j < columnLimit; j++) {
+            AXPY.invoke(data, j * structure, -data[iterationPoint + (j * structure)], multipliers, 0, iterationPoint + 1, structure);
+        }
+    }
+
     private ApplyLU() {
         super();
     }
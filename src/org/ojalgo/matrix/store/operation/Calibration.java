@@ -0,0 +1,330 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store.operation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+
+import org.ojalgo.array.blas.GEMM;
+import org.ojalgo.concurrent.ParallelismContext;
+import org.ojalgo.function.PrimitiveFunction;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.matrix.MatrixUtils;
+import org.ojalgo.matrix.decomposition.Cholesky;
+import org.ojalgo.matrix.decomposition.Hessenberg;
+import org.ojalgo.matrix.decomposition.LDL;
+import org.ojalgo.matrix.decomposition.LU;
+import org.ojalgo.matrix.decomposition.QR;
+import org.ojalgo.matrix.decomposition.Tridiagonal;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.netio.BasicLogger;
+import org.ojalgo.random.Uniform;
+
+/**
+ * Micro-benchmarks the parallelisable matrix operations on the current machine to find the matrix sizes
+ * where parallel execution starts to pay off, and sets the {@link MatrixOperation} thresholds accordingly.
+ * For each operation, and each candidate threshold t (8, 16, 32...), the operation is timed on a 2t-sized
+ * problem executed serially and in parallel (split in chunks of size t). The smallest t where parallel
+ * execution is clearly faster becomes the threshold.
+ * <p>
+ * Run the main method to calibrate and store the result in a profile file that is loaded at startup:
+ * </p>
+ *
+ * <pre>
+ * java -cp ojalgo.jar org.ojalgo.matrix.store.operation.Calibration [profile file] [max dim]
+ * </pre>
+ * <p>
+ * Only operations that are actually executed in parallel on primitive (double) matrices are calibrated, as
+ * well as {@link GEMM} (that the large primitive multiplications delegate to). The others keep their current
+ * thresholds.
+ * </p>
+ *
+ * @author apete
+ */
+public final class Calibration {
+
+    static final class Probe {
+
+        final IntFunction<Runnable> task;
+        final IntSupplier threshold;
+        final IntConsumer update;
+        final String name;
+
+        Probe(final Class<?> operation, final IntSupplier threshold, final IntConsumer update, final IntFunction<Runnable> task) {
+
+            super();
+
+            name = operation.getSimpleName();
+            this.threshold = threshold;
+            this.update = update;
+            this.task = task;
+        }
+
+    }
+
+    /**
+     * The largest matrix dimension used when calibrating (thresholds up to half this size can be found).
+     */
+    public static final int DEFAULT_MAX_DIM = 512;
+
+    private static final double REQUIRED_SPEEDUP = 0.9;
+    private static final int REPETITIONS = 5;
+    private static final int WARMUP = 3;
+
+    /**
+     * @see #calibrate(int)
+     */
+    public static Properties calibrate() {
+        return Calibration.calibrate(DEFAULT_MAX_DIM);
+    }
+
+    /**
+     * Calibrates the thresholds, sets them (as in {@link MatrixOperation#setThresholds(Properties)}) and
+     * returns them. Only meaningful if more than 1 worker is available. May take a few minutes to complete.
+     *
+     * @param maxDim The largest matrix dimension to test with
+     * @return All thresholds, as in {@link MatrixOperation#getThresholds()}
+     */
+    public static Properties calibrate(final int maxDim) {
+
+        if (ParallelismContext.current().isSingleThreaded()) {
+            BasicLogger.debug("Only 1 worker available - nothing to calibrate!");
+        } else {
+            for (final Probe tmpProbe : Calibration.probes()) {
+                final int tmpThreshold = Calibration.calibrate(tmpProbe, maxDim);
+                tmpProbe.update.accept(tmpThreshold);
+                BasicLogger.debug("{} threshold = {}", tmpProbe.name, tmpThreshold);
+            }
+        }
+
+        return MatrixOperation.getThresholds();
+    }
+
+    /**
+     * @param args Optionally the profile file to write (defaults to the file loaded at startup), and the
+     *        max dimension to test with.
+     */
+    public static void main(final String[] args) throws IOException {
+
+        final File tmpProfile;
+        if (args.length > 0) {
+            tmpProfile = new File(args[0]);
+        } else if (System.getProperty(MatrixOperation.PROFILE_PROPERTY) != null) {
+            tmpProfile = new File(System.getProperty(MatrixOperation.PROFILE_PROPERTY));
+        } else {
+            tmpProfile = MatrixOperation.DEFAULT_PROFILE;
+        }
+
+        final int tmpMaxDim = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_DIM;
+
+        Calibration.calibrate(tmpMaxDim);
+
+        MatrixOperation.saveThresholds(tmpProfile);
+
+        BasicLogger.debug("Matrix operation thresholds written to {}", tmpProfile.getAbsolutePath());
+    }
+
+    static int calibrate(final Probe probe, final int maxDim) {
+
+        final int tmpOriginal = probe.threshold.getAsInt();
+
+        int retVal = maxDim;
+
+        try {
+
+            for (int t = 8; (t + t) <= maxDim; t += t) {
+
+                final int tmpDim = t + t;
+                final Runnable tmpTask = probe.task.apply(tmpDim);
+
+                probe.update.accept(tmpDim);
+                final long tmpSerial = Calibration.time(tmpTask);
+
+                probe.update.accept(t);
+                final long tmpParallel = Calibration.time(tmpTask);
+
+                if (tmpParallel < (REQUIRED_SPEEDUP * tmpSerial)) {
+                    retVal = t;
+                    break;
+                }
+            }
+
+        } finally {
+            probe.update.accept(tmpOriginal);
+        }
+
+        return retVal;
+    }
+
+    static List<Probe> probes() {
+
+        final List<Probe> retVal = new ArrayList<>();
+
+        retVal.add(new Probe(AggregateAll.class, () -> AggregateAll.THRESHOLD, t -> AggregateAll.THRESHOLD = t, dim -> {
+            final PrimitiveDenseStore tmpMatrix = Calibration.random(dim, dim);
+            return () -> tmpMatrix.aggregateAll(Aggregator.SUM);
+        }));
+
+        retVal.add(new Probe(ApplyCholesky.class, () -> ApplyCholesky.THRESHOLD, t -> ApplyCholesky.THRESHOLD = t, dim -> {
+            final PrimitiveDenseStore tmpMatrix = MatrixUtils.makeSPD(dim);
+            final Cholesky<Double> tmpDecomposition = Cholesky.PRIMITIVE.make(tmpMatrix);
+            return () -> tmpDecomposition.decompose(tmpMatrix);
+        }));
+
+        retVal.add(new Probe(ApplyLDL.class, () -> ApplyLDL.THRESHOLD, t -> ApplyLDL.THRESHOLD = t, dim -> {
+            final PrimitiveDenseStore tmpMatrix = MatrixUtils.makeSPD(dim);
+            final LDL<Double> tmpDecomposition = LDL.PRIMITIVE.make(tmpMatrix);
+            return () -> tmpDecomposition.decompose(tmpMatrix);
+        }));
+
+        retVal.add(new Probe(ApplyLU.class, () -> ApplyLU.THRESHOLD, t -> ApplyLU.THRESHOLD = t, dim -> {
+            final PrimitiveDenseStore tmpMatrix = Calibration.random(dim, dim);
+            final LU<Double> tmpDecomposition = LU.PRIMITIVE.make(tmpMatrix);
+            return () -> tmpDecomposition.decompose(tmpMatrix);
+        }));
+
+        retVal.add(new Probe(FillMatchingDual.class, () -> FillMatchingDual.THRESHOLD, t -> FillMatchingDual.THRESHOLD = t, dim -> {
+            final PrimitiveDenseStore tmpLeft = Calibration.random(dim, dim);
+            final PrimitiveDenseStore tmpRight = Calibration.random(dim, dim);
+            final PrimitiveDenseStore tmpTarget = PrimitiveDenseStore.FACTORY.makeZero(dim, dim);
+            return () -> tmpTarget.fillMatching(tmpLeft, PrimitiveFunction.MULTIPLY, tmpRight);
+        }));
+
+        retVal.add(new Probe(FillMatchingSingle.class, () -> FillMatchingSingle.THRESHOLD, t -> FillMatchingSingle.THRESHOLD = t, dim -> {
+            final PrimitiveDenseStore tmpMatrix = Calibration.random(dim, dim);
+            return () -> PrimitiveDenseStore.FACTORY.transpose(tmpMatrix);
+        }));
+
+        retVal.add(new Probe(GEMM.class, () -> GEMM.THRESHOLD, t -> GEMM.THRESHOLD = t, dim -> {
+            final double[] tmpLeft = Calibration.random(dim, dim).data;
+            final double[] tmpRight = Calibration.random(dim, dim).data;
+            final double[] tmpProduct = new double[dim * dim];
+            return () -> GEMM.invoke(tmpProduct, dim, dim, dim, tmpLeft, tmpRight);
+        }));
+
+        retVal.add(new Probe(HermitianRank2Update.class, () -> HermitianRank2Update.THRESHOLD, t -> HermitianRank2Update.THRESHOLD = t, dim -> {
+            final PrimitiveDenseStore tmpMatrix = MatrixUtils.makeSPD(dim);
+            final Tridiagonal<Double> tmpDecomposition = Tridiagonal.PRIMITIVE.make(tmpMatrix);
+            return () -> tmpDecomposition.decompose(tmpMatrix);
+        }));
+
+        retVal.add(new Probe(HouseholderLeft.class, () -> HouseholderLeft.THRESHOLD, t -> HouseholderLeft.THRESHOLD = t, dim -> {
+            final PrimitiveDenseStore tmpMatrix = Calibration.random(dim, dim);
+            final QR<Double> tmpDecomposition = QR.PRIMITIVE.make(tmpMatrix);
+            return () -> tmpDecomposition.decompose(tmpMatrix);
+        }));
+
+        retVal.add(new Probe(HouseholderRight.class, () -> HouseholderRight.THRESHOLD, t -> HouseholderRight.THRESHOLD = t, dim -> {
+            final PrimitiveDenseStore tmpMatrix = Calibration.random(dim, dim);
+            final Hessenberg<Double> tmpDecomposition = Hessenberg.PRIMITIVE.make(tmpMatrix);
+            return () -> tmpDecomposition.decompose(tmpMatrix);
+        }));
+
+        retVal.add(new Probe(ModifyAll.class, () -> ModifyAll.THRESHOLD, t -> ModifyAll.THRESHOLD = t, dim -> {
+            final PrimitiveDenseStore tmpMatrix = Calibration.random(dim, dim);
+            return () -> tmpMatrix.modifyAll(PrimitiveFunction.SQRT1PX2);
+        }));
+
+        retVal.add(new Probe(MultiplyBoth.class, () -> MultiplyBoth.THRESHOLD, t -> MultiplyBoth.THRESHOLD = t, dim -> {
+            final MatrixStore<Double> tmpLeft = Calibration.random(dim, dim).transpose();
+            final MatrixStore<Double> tmpRight = Calibration.random(dim, dim).transpose();
+            return () -> PrimitiveDenseStore.FACTORY.makeZero(dim, dim).fillByMultiplying(tmpLeft, tmpRight);
+        }));
+
+        retVal.add(new Probe(MultiplyHermitianAndVector.class, () -> MultiplyHermitianAndVector.THRESHOLD, t -> MultiplyHermitianAndVector.THRESHOLD = t,
+                dim -> {
+                    final PrimitiveDenseStore tmpMatrix = MatrixUtils.makeSPD(dim);
+                    final Tridiagonal<Double> tmpDecomposition = Tridiagonal.PRIMITIVE.make(tmpMatrix);
+                    return () -> tmpDecomposition.decompose(tmpMatrix);
+                }));
+
+        retVal.add(new Probe(MultiplyLeft.class, () -> MultiplyLeft.THRESHOLD, t -> MultiplyLeft.THRESHOLD = t, dim -> {
+            final MatrixStore<Double> tmpLeft = Calibration.random(dim, dim).transpose();
+            final PrimitiveDenseStore tmpRight = Calibration.random(dim, dim);
+            return () -> PrimitiveDenseStore.FACTORY.makeZero(dim, dim).fillByMultiplying(tmpLeft, tmpRight);
+        }));
+
+        retVal.add(new Probe(MultiplyNeither.class, () -> MultiplyNeither.THRESHOLD, t -> MultiplyNeither.THRESHOLD = t, dim -> {
+            // With a larger common dimension the product would be calculated by GEMM
+            final int tmpComplexity = Math.min(dim, GEMM.THRESHOLD);
+            final PrimitiveDenseStore tmpLeft = Calibration.random(dim, tmpComplexity);
+            final PrimitiveDenseStore tmpRight = Calibration.random(tmpComplexity, dim);
+            return () -> PrimitiveDenseStore.FACTORY.makeZero(dim, dim).fillByMultiplying(tmpLeft, tmpRight);
+        }));
+
+        retVal.add(new Probe(MultiplyRight.class, () -> MultiplyRight.THRESHOLD, t -> MultiplyRight.THRESHOLD = t, dim -> {
+            final PrimitiveDenseStore tmpLeft = Calibration.random(dim, dim);
+            final MatrixStore<Double> tmpRight = Calibration.random(dim, dim).transpose();
+            return () -> PrimitiveDenseStore.FACTORY.makeZero(dim, dim).fillByMultiplying(tmpLeft, tmpRight);
+        }));
+
+        retVal.add(new Probe(SubstituteBackwards.class, () -> SubstituteBackwards.THRESHOLD, t -> SubstituteBackwards.THRESHOLD = t, dim -> {
+            final MatrixStore<Double> tmpBody = Calibration.random(dim, dim).logical().triangular(true, false).get();
+            final PrimitiveDenseStore tmpRHS = Calibration.random(dim, dim);
+            return () -> tmpRHS.copy().substituteBackwards(tmpBody, false, false, false);
+        }));
+
+        retVal.add(new Probe(SubstituteForwards.class, () -> SubstituteForwards.THRESHOLD, t -> SubstituteForwards.THRESHOLD = t, dim -> {
+            final MatrixStore<Double> tmpBody = Calibration.random(dim, dim).logical().triangular(false, true).get();
+            final PrimitiveDenseStore tmpRHS = Calibration.random(dim, dim);
+            return () -> tmpRHS.copy().substituteForwards(tmpBody, true, false, false);
+        }));
+
+        return retVal;
+    }
+
+    static PrimitiveDenseStore random(final int rows, final int columns) {
+        return PrimitiveDenseStore.FACTORY.makeFilled(rows, columns, new Uniform());
+    }
+
+    /**
+     * @return The fastest of a number of executions (after warmup), in nanoseconds
+     */
+    static long time(final Runnable task) {
+
+        for (int w = 0; w < WARMUP; w++) {
+            task.run();
+        }
+
+        long retVal = Long.MAX_VALUE;
+
+        for (int r = 0; r < REPETITIONS; r++) {
+            final long tmpStart = System.nanoTime();
+            task.run();
+            retVal = Math.min(retVal, System.nanoTime() - tmpStart);
+        }
+
+        return retVal;
+    }
+
+    private Calibration() {
+        super();
+    }
+
+}
@@ -31,7 +31,7 @@ public final class FillMatchingSingle extends MatrixOperation {
 
     public static final FillMatchingSingle SETUP = new FillMatchingSingle();
 
-    public static int THRESHOLD = 256;
+    public static int THRESHOLD = MatrixOperation.threshold(FillMatchingSingle.class, 256);
 
     public static void conjugate(final BigDecimal[] data, final int structure, final int firstColumn, final int limitColumn, final Access2D<?> source) {
         FillMatchingSingle.transpose(data, structure, firstColumn, limitColumn, source);
@@ -70,6 +70,15 @@ public final class FillMatchingSingle extends MatrixOperation {
         }
     }
 
+    public static void copy(final float[] data, final int structure, final int firstColumn, final int limitColumn, final Access2D<? extends Number> source) {
+        int index = structure * firstColumn;
+        for (int j = firstColumn; j < limitColumn; j++) {
+            for (int i = 0; i < structure; i++) {
+                data[index++] = (float) source.doubleValue(i, j);
+            }
+        }
+    }
+
     public static <N extends Number & Scalar<N>> void copy(final N[] data, final int structure, final int firstColumn, final int limitColumn,
             final Access2D<?> source, final Scalar.Factory<N> scalar) {
         int index = structure * firstColumn;
@@ -98,6 +107,15 @@ public final class FillMatchingSingle extends MatrixOperation {
         }
     }
 
+    public static void transpose(final float[] data, final int structure, final int firstColumn, final int limitColumn, final Access2D<?> source) {
+        int index = structure * firstColumn;
+        for (int j = firstColumn; j < limitColumn; j++) {
+            for (int i = 0; i < structure; i++) {
+                data[index++] = (float) source.doubleValue(j, i);
+            }
+        }
+    }
+
     public static <N extends Number & Scalar<N>> void transpose(final N[] data, final int structure, final int firstColumn, final int limitColumn,
             final Access2D<?> source, final Scalar.Factory<N> scalar) {
         int index = structure * firstColumn;
@@ -37,7 +37,7 @@ public final class GenerateApplyAndCopyHouseholderColumn extends MatrixOperation
 
     public static final GenerateApplyAndCopyHouseholderColumn SETUP = new GenerateApplyAndCopyHouseholderColumn();
 
-    public static int THRESHOLD = 128;
+    public static int THRESHOLD = MatrixOperation.threshold(GenerateApplyAndCopyHouseholderColumn.class, 128);
 
     public static boolean invoke(final BigDecimal[] data, final int structure, final int row, final int col, final Householder.Big destination) {
 
@@ -186,6 +186,56 @@ public final class GenerateApplyAndCopyHouseholderColumn extends MatrixOperation
         return retVal;
     }
 
+    public static boolean invoke(final float[] data, final int structure, final int row, final int col, final Householder.Primitive destination) {
+
+        final int tmpColBase = col * structure;
+
+        final double[] tmpVector = destination.vector;
+        destination.first = row;
+
+        double tmpNormInf = PrimitiveMath.ZERO; // Copy column and calculate its infinity-norm.
+        for (int i = row; i < structure; i++) {
+            tmpNormInf = PrimitiveFunction.MAX.invoke(tmpNormInf, PrimitiveFunction.ABS.invoke(tmpVector[i] = data[i + tmpColBase]));
+        }
+
+        boolean retVal = tmpNormInf != PrimitiveMath.ZERO;
+        double tmpVal;
+        double tmpNorm2 = PrimitiveMath.ZERO;
+
+        if (retVal) {
+            for (int i = row + 1; i < structure; i++) {
+                tmpVal = tmpVector[i] /= tmpNormInf;
+                tmpNorm2 += tmpVal * tmpVal;
+            }
+            retVal = !PrimitiveScalar.isSmall(PrimitiveMath.ONE, tmpNorm2);
+        }
+
+        if (retVal) {
+
+            double tmpScale = tmpVector[row] / tmpNormInf;
+            tmpNorm2 += tmpScale * tmpScale;
+            tmpNorm2 = PrimitiveFunction.SQRT.invoke(tmpNorm2); // 2-norm of the vector to transform (scaled by inf-norm)
+
+            if (tmpScale <= PrimitiveMath.ZERO) {
+                data[(row + tmpColBase)] = (float) (tmpNorm2 * tmpNormInf);
+                tmpScale -= tmpNorm2;
+            } else {
+                data[(row + tmpColBase)] = (float) (-tmpNorm2 * tmpNormInf);
+                tmpScale += tmpNorm2;
+            }
+
+            tmpVector[row] = PrimitiveMath.ONE;
+
+            for (int i = row + 1; i < structure; i++) {
+                tmpVector[i] = data[i + tmpColBase] = (float) (tmpVector[i] / tmpScale);
+            }
+
+            destination.beta = PrimitiveFunction.ABS.invoke(tmpScale) / tmpNorm2;
+        }
+
+        return retVal;
+    }
+
     private GenerateApplyAndCopyHouseholderColumn() {
         super();
     }
@@ -37,7 +37,7 @@ public final class GenerateApplyAndCopyHouseholderRow extends MatrixOperation {
 
     public static final GenerateApplyAndCopyHouseholderRow SETUP = new GenerateApplyAndCopyHouseholderRow();
 
-    public static int THRESHOLD = 128;
+    public static int THRESHOLD = MatrixOperation.threshold(GenerateApplyAndCopyHouseholderRow.class, 128);
 
     public static boolean invoke(final BigDecimal[] data, final int structure, final int row, final int col, final Householder.Big destination) {
 
@@ -240,6 +240,57 @@ public final class GenerateApplyAndCopyHouseholderRow extends MatrixOperation {
         return retVal;
     }
 
+    public static boolean invoke(final float[] data, final int structure, final int row, final int col, final Householder.Primitive destination) {
+
+        final int tmpColDim = data.length / structure;
+
+        final double[] tmpVector = destination.vector;
+        destination.first = col;
+
+        double tmpNormInf = PrimitiveMath.ZERO; // Copy row and calculate its infinity-norm.
+        for (int j = col; j < tmpColDim; j++) {
+            tmpNormInf = PrimitiveFunction.MAX.invoke(tmpNormInf, PrimitiveFunction.ABS.invoke(tmpVector[j] = data[row + (j * structure)]));
+        }
+
+        boolean retVal = tmpNormInf != PrimitiveMath.ZERO;
+        double tmpVal;
+        double tmpNorm2 = PrimitiveMath.ZERO;
+
+        if (retVal) {
+            for (int j = col + 1; j < tmpColDim; j++) {
+                tmpVal = tmpVector[j] /= tmpNormInf;
+                tmpNorm2 += tmpVal * tmpVal;
+            }
+            final double value = tmpNorm2;
+            retVal = !PrimitiveScalar.isSmall(PrimitiveMath.ONE, value);
+        }
+
+        if (retVal) {
+
+            double tmpScale = tmpVector[col] / tmpNormInf;
+            tmpNorm2 += tmpScale * tmpScale;
+            tmpNorm2 = PrimitiveFunction.SQRT.invoke(tmpNorm2); // 2-norm of the vector to transform (scaled by inf-norm)
+
+            if (tmpScale <= PrimitiveMath.ZERO) {
+                data[(row + (col * structure))] = (float) (tmpNorm2 * tmpNormInf);
+                tmpScale -= tmpNorm2;
+            } else {
+                data[(row + (col * structure))] = (float) (-tmpNorm2 * tmpNormInf);
+                tmpScale += tmpNorm2;
+            }
+
+            tmpVector[col] = PrimitiveMath.ONE;
+
+            for (int j = col + 1; j < tmpColDim; j++) {
+                tmpVector[j] = data[row + (j * structure)] = (float) (tmpVector[j] / tmpScale);
+            }
+
+            destination.beta = PrimitiveFunction.ABS.invoke(tmpScale) / tmpNorm2;
+        }
+
+        return retVal;
+    }
+
     private GenerateApplyAndCopyHouseholderRow() {
         super();
     }
@@ -36,7 +36,7 @@ public final class HermitianRank2Update extends MatrixOperation {
 
     public static final HermitianRank2Update SETUP = new HermitianRank2Update();
 
-    public static int THRESHOLD = 256;
+    public static int THRESHOLD = MatrixOperation.threshold(HermitianRank2Update.class, 256);
 
     public static void invoke(final BigDecimal[] data, final int firstColumn, final int columnLimit, final BigDecimal[] vector1, final BigDecimal[] vector2) {
 
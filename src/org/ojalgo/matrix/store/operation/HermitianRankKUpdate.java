@@ -0,0 +1,96 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store.operation;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import org.ojalgo.array.blas.GEMM;
+import org.ojalgo.concurrent.DivideAndConquer;
+
+/**
+ * [A] -= [P][P]<sup>T</sup> <br>
+ * The trailing update of a blocked Cholesky decomposition. [P] is the panel of (already factorised)
+ * columns, below the diagonal, and [A] the square part of the matrix to the right of, and below, that panel.
+ * Only the lower triangular part of [A] is referenced and needs to be correct - the upper part of the
+ * diagonal blocks is overwritten.
+ *
+ * @author apete
+ */
+public final class HermitianRankKUpdate extends MatrixOperation {
+
+    /**
+     * The width of the column panels of the blocked Cholesky decomposition. Fixed - unlike {@link #THRESHOLD} it
+     * is not changed by calibration.
+     */
+    public static final int BLOCK = 64;
+
+    public static final HermitianRankKUpdate SETUP = new HermitianRankKUpdate();
+
+    /**
+     * The min number of trailing columns handed to each worker.
+     */
+    public static int THRESHOLD = MatrixOperation.threshold(HermitianRankKUpdate.class, 64);
+
+    /**
+     * @param data The (square) matrix elements
+     * @param structure The number of rows (and columns)
+     * @param panelColumn The first column of the panel
+     * @param panelLimit The column after the last column of the panel (the first trailing column)
+     */
+    public static void invoke(final double[] data, final int structure, final int panelColumn, final int panelLimit) {
+
+        if ((structure - panelLimit) > THRESHOLD) {
+
+            final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    HermitianRankKUpdate.invoke(data, structure, first, limit, panelColumn, panelLimit);
+                }
+            };
+
+            tmpConquerer.invoke(panelLimit, structure, THRESHOLD);
+
+        } else {
+
+            HermitianRankKUpdate.invoke(data, structure, panelLimit, structure, panelColumn, panelLimit);
+        }
+    }
+
+    static void invoke(final double[] data, final int structure, final int firstColumn, final int columnLimit, final int panelColumn, final int panelLimit) {
+
+        final int tmpPanelOffset = firstColumn + (panelColumn * structure);
+
+        GEMM.invoke(structure - firstColumn, columnLimit - firstColumn, panelLimit - panelColumn, NEG, data, tmpPanelOffset, structure, false, data,
+                tmpPanelOffset, structure, true, ONE, data, firstColumn + (firstColumn * structure), structure);
+    }
+
+    private HermitianRankKUpdate() {
+        super();
+    }
+
+    @Override
+    public int threshold() {
+        return THRESHOLD;
+    }
+
+}
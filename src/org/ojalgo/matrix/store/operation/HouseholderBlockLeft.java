@@ -0,0 +1,211 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store.operation;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import org.ojalgo.array.blas.GEMM;
+import org.ojalgo.concurrent.DivideAndConquer;
+
+/**
+ * Applies a block of Householder reflectors, [H] = [H<sub>1</sub>][H<sub>2</sub>]...[H<sub>k</sub>] =
+ * [I] - [V][T][V]<sup>T</sup> (the compact WY representation), from the left. The reflectors [V] are
+ * stored below the diagonal of a panel of columns (as done by {@link GenerateApplyAndCopyHouseholderColumn})
+ * with an implicit 1 on the diagonal, and [T] is upper triangular.
+ *
+ * @author apete
+ */
+public final class HouseholderBlockLeft extends MatrixOperation {
+
+    public static final HouseholderBlockLeft SETUP = new HouseholderBlockLeft();
+
+    /**
+     * The width of the column panels of a blocked decomposition, as well as the min number of columns handed
+     * to each worker.
+     */
+    public static int THRESHOLD = MatrixOperation.threshold(HouseholderBlockLeft.class, 64);
+
+    /**
+     * @param target The elements of the matrix to transform
+     * @param structure The number of rows of the target as well as of the reflectors matrix
+     * @param firstColumn The first column of target to transform
+     * @param columnLimit The column after the last column to transform
+     * @param reflectors The elements of the matrix containing the reflectors
+     * @param panelColumn The column (and row) of the first reflector
+     * @param panelLimit The column after the last reflector
+     * @param factorT The (panelLimit - panelColumn) square upper triangular [T]
+     * @param transpose true to apply [H]<sup>T</sup> = [H<sub>k</sub>]...[H<sub>1</sub>], false to apply
+     *        [H]
+     */
+    public static void invoke(final double[] target, final int structure, final int firstColumn, final int columnLimit, final double[] reflectors,
+            final int panelColumn, final int panelLimit, final double[] factorT, final boolean transpose) {
+
+        if ((columnLimit - firstColumn) > THRESHOLD) {
+
+            final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    HouseholderBlockLeft.invoke(target, structure, first, limit, reflectors, panelColumn, panelLimit, factorT, transpose,
+                            new double[(panelLimit - panelColumn) * (limit - first)]);
+                }
+            };
+
+            tmpConquerer.invoke(firstColumn, columnLimit, THRESHOLD);
+
+        } else if (firstColumn < columnLimit) {
+
+            HouseholderBlockLeft.invoke(target, structure, firstColumn, columnLimit, reflectors, panelColumn, panelLimit, factorT, transpose,
+                    new double[(panelLimit - panelColumn) * (columnLimit - firstColumn)]);
+        }
+    }
+
+    /**
+     * Calculates [T] for the reflectors in the panel, so that [H<sub>1</sub>]...[H<sub>k</sub>] = [I] -
+     * [V][T][V]<sup>T</sup>.
+     *
+     * @param reflectors The elements of the matrix containing the reflectors
+     * @param structure The number of rows
+     * @param panelColumn The column (and row) of the first reflector
+     * @param panelLimit The column after the last reflector
+     * @param betas The reflectors' beta values (0.0 for reflectors that were not generated)
+     * @return The upper triangular [T]
+     */
+    public static double[] makeFactorT(final double[] reflectors, final int structure, final int panelColumn, final int panelLimit, final double[] betas) {
+
+        final int tmpSize = panelLimit - panelColumn;
+
+        final double[] retVal = new double[tmpSize * tmpSize];
+        final double[] tmpWork = new double[tmpSize];
+
+        for (int p = 0; p < tmpSize; p++) {
+
+            final double tmpBeta = betas[panelColumn + p];
+
+            if (tmpBeta != ZERO) {
+
+                final int tmpRow = panelColumn + p;
+                final int tmpColumn = tmpRow * structure;
+
+                // [V]^T v for the previous reflectors
+                for (int q = 0; q < p; q++) {
+                    final int tmpOther = (panelColumn + q) * structure;
+                    double tmpVal = reflectors[tmpRow + tmpOther];
+                    for (int i = tmpRow + 1; i < structure; i++) {
+                        tmpVal += reflectors[i + tmpOther] * reflectors[i + tmpColumn];
+                    }
+                    tmpWork[q] = tmpVal;
+                }
+
+                // -beta [T] [V]^T v
+                for (int q = 0; q < p; q++) {
+                    double tmpVal = ZERO;
+                    for (int r = q; r < p; r++) {
+                        tmpVal += retVal[q + (r * tmpSize)] * tmpWork[r];
+                    }
+                    retVal[q + (p * tmpSize)] = -tmpBeta * tmpVal;
+                }
+
+                retVal[p + (p * tmpSize)] = tmpBeta;
+            }
+        }
+
+        return retVal;
+    }
+
+    static void invoke(final double[] target, final int structure, final int firstColumn, final int columnLimit, final double[] reflectors,
+            final int panelColumn, final int panelLimit, final double[] factorT, final boolean transpose, final double[] work) {
+
+        final int tmpSize = panelLimit - panelColumn;
+        final int tmpCount = columnLimit - firstColumn;
+        final int tmpRows = structure - panelLimit;
+
+        // [W] = [V]^T [C], first the unit lower triangular part of [V] ...
+        for (int j = 0; j < tmpCount; j++) {
+            final int tmpTarget = (firstColumn + j) * structure;
+            for (int p = 0; p < tmpSize; p++) {
+                final int tmpReflector = (panelColumn + p) * structure;
+                double tmpVal = target[panelColumn + p + tmpTarget];
+                for (int i = panelColumn + p + 1; i < panelLimit; i++) {
+                    tmpVal += reflectors[i + tmpReflector] * target[i + tmpTarget];
+                }
+                work[p + (j * tmpSize)] = tmpVal;
+            }
+        }
+        // ... and then the rectangular part below the panel
+        if (tmpRows > 0) {
+            GEMM.invoke(tmpSize, tmpCount, tmpRows, ONE, reflectors, panelLimit + (panelColumn * structure), structure, true, target,
+                    panelLimit + (firstColumn * structure), structure, false, ONE, work, 0, tmpSize);
+        }
+
+        // [W] = [T]^T [W] or [W] = [T] [W]
+        for (int j = 0; j < tmpCount; j++) {
+            final int tmpWork = j * tmpSize;
+            if (transpose) {
+                for (int p = tmpSize - 1; p >= 0; p--) {
+                    double tmpVal = ZERO;
+                    for (int q = 0; q <= p; q++) {
+                        tmpVal += factorT[q + (p * tmpSize)] * work[q + tmpWork];
+                    }
+                    work[p + tmpWork] = tmpVal;
+                }
+            } else {
+                for (int p = 0; p < tmpSize; p++) {
+                    double tmpVal = ZERO;
+                    for (int q = p; q < tmpSize; q++) {
+                        tmpVal += factorT[p + (q * tmpSize)] * work[q + tmpWork];
+                    }
+                    work[p + tmpWork] = tmpVal;
+                }
+            }
+        }
+
+        // [C] -= [V] [W], first the rectangular part below the panel ...
+        if (tmpRows > 0) {
+            GEMM.invoke(tmpRows, tmpCount, tmpSize, NEG, reflectors, panelLimit + (panelColumn * structure), structure, false, work, 0, tmpSize, false, ONE,
+                    target, panelLimit + (firstColumn * structure), structure);
+        }
+        // ... and then the unit lower triangular part
+        for (int j = 0; j < tmpCount; j++) {
+            final int tmpTarget = (firstColumn + j) * structure;
+            final int tmpWork = j * tmpSize;
+            for (int p = 0; p < tmpSize; p++) {
+                final int tmpReflector = (panelColumn + p) * structure;
+                final double tmpVal = work[p + tmpWork];
+                target[panelColumn + p + tmpTarget] -= tmpVal;
+                for (int i = panelColumn + p + 1; i < panelLimit; i++) {
+                    target[i + tmpTarget] -= reflectors[i + tmpReflector] * tmpVal;
+                }
+            }
+        }
+    }
+
+    private HouseholderBlockLeft() {
+        super();
+    }
+
+    @Override
+    public int threshold() {
+        return THRESHOLD;
+    }
+
+}
@@ -35,7 +35,7 @@ public final class HouseholderLeft extends MatrixOperation {
 
     public static final HouseholderLeft SETUP = new HouseholderLeft();
 
-    public static int THRESHOLD = 128;
+    public static int THRESHOLD = MatrixOperation.threshold(HouseholderLeft.class, 128);
 
     public static void invoke(final BigDecimal[] data, final int structure, final int first, final int limit, final Householder.Big householder) {
 
@@ -97,6 +97,20 @@ public final class HouseholderLeft extends MatrixOperation {
         }
     }
 
+    public static void invoke(final float[] data, final int structure, final int first, final int limit, final Householder.Primitive householder) {
+
+        final double[] tmpHouseholderVector = householder.vector;
+        final int tmpFirstNonZero = householder.first;
+        final double tmpBeta = householder.beta;
+
+        double tmpScale;
+        for (int j = first; j < limit; j++) {
+            tmpScale = DOT.invoke(data, j * structure, tmpHouseholderVector, 0, tmpFirstNonZero, structure);
+            tmpScale *= tmpBeta;
+            AXPY.invoke(data, j * structure, -tmpScale, tmpHouseholderVector, 0, tmpFirstNonZero, structure);
+        }
+    }
+
     private HouseholderLeft() {
         super();
     }
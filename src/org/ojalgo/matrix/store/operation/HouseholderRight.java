@@ -35,7 +35,7 @@ public final class HouseholderRight extends MatrixOperation {
 
     public static final HouseholderRight SETUP = new HouseholderRight();
 
-    public static int THRESHOLD = 512;
+    public static int THRESHOLD = MatrixOperation.threshold(HouseholderRight.class, 512);
 
     public static void invoke(final BigDecimal[] data, final int first, final int limit, final int tmpColDim, final Householder.Big householder) {
 
@@ -104,6 +104,21 @@ public final class HouseholderRight extends MatrixOperation {
         }
     }
 
+    public static void invoke(final float[] data, final int structure, final int firstRow, final int rowLimit, final int numberOfColumns,
+            final Householder.Primitive householder, final float[] work) {
+
+        final double[] vector = householder.vector;
+        final int firstNonZero = householder.first;
+        final double beta = householder.beta;
+
+        for (int j = firstNonZero; j < numberOfColumns; j++) {
+            AXPY.invoke(work, 0, (float) (beta * vector[j]), data, j * structure, firstRow, rowLimit);
+        }
+        for (int j = firstNonZero; j < numberOfColumns; j++) {
+            AXPY.invoke(data, j * structure, (float) -vector[j], work, 0, firstRow, rowLimit);
+        }
+    }
+
     private static void invoke2old(final double[] data, final int first, final int limit, final int tmpColDim, final Householder.Primitive householder) {
 
         final double[] tmpHouseholderVector = householder.vector;
@@ -21,14 +21,109 @@
  */
 package org.ojalgo.matrix.store.operation;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
 import org.ojalgo.OjAlgoUtils;
 import org.ojalgo.array.blas.AXPY;
+import org.ojalgo.array.blas.GEMM;
+import org.ojalgo.concurrent.ParallelismContext;
+import org.ojalgo.netio.BasicLogger;
 
 /**
+ * The matrix size thresholds, above which the various operations are executed in parallel, can be read from
+ * a profile file at startup. The file is a {@link Properties} file with the operations' simple class names as
+ * keys. It is looked for at the path given by the system property {@value #PROFILE_PROPERTY}, and if that
+ * is not set at {@link #DEFAULT_PROFILE}. Operations not specified in the profile keep their default values.
+ * The profile also covers {@link GEMM}, the blocked matrix multiplication used for large products.
+ * Use {@link Calibration} to generate a profile for the current machine.
+ *
  * @author apete
  */
 public abstract class MatrixOperation {
 
+    /**
+     * <code>${user.home}/.ojalgo/operation-thresholds.properties</code>
+     */
+    public static final File DEFAULT_PROFILE = new File(new File(System.getProperty("user.home"), ".ojalgo"), "operation-thresholds.properties");
+    public static final String PROFILE_PROPERTY = "org.ojalgo.matrix.store.operation.profile";
+
+    private static final Properties PROFILE = MatrixOperation.readProfile();
+
+    static {
+        // GEMM (in org.ojalgo.array.blas) does not know about the profile
+        GEMM.THRESHOLD = MatrixOperation.threshold(PROFILE, GEMM.class, GEMM.THRESHOLD);
+    }
+
+    /**
+     * @return The current thresholds of all matrix size operations
+     */
+    public static Properties getThresholds() {
+
+        final Properties retVal = new Properties();
+
+        retVal.setProperty(AggregateAll.class.getSimpleName(), Integer.toString(AggregateAll.THRESHOLD));
+        retVal.setProperty(ApplyCholesky.class.getSimpleName(), Integer.toString(ApplyCholesky.THRESHOLD));
+        retVal.setProperty(ApplyLDL.class.getSimpleName(), Integer.toString(ApplyLDL.THRESHOLD));
+        retVal.setProperty(ApplyLDU.class.getSimpleName(), Integer.toString(ApplyLDU.THRESHOLD));
+        retVal.setProperty(ApplyLU.class.getSimpleName(), Integer.toString(ApplyLU.THRESHOLD));
+        retVal.setProperty(FillMatchingDual.class.getSimpleName(), Integer.toString(FillMatchingDual.THRESHOLD));
+        retVal.setProperty(FillMatchingSingle.class.getSimpleName(), Integer.toString(FillMatchingSingle.THRESHOLD));
+        retVal.setProperty(GEMM.class.getSimpleName(), Integer.toString(GEMM.THRESHOLD));
+        retVal.setProperty(GenerateApplyAndCopyHouseholderColumn.class.getSimpleName(), Integer.toString(GenerateApplyAndCopyHouseholderColumn.THRESHOLD));
+        retVal.setProperty(GenerateApplyAndCopyHouseholderRow.class.getSimpleName(), Integer.toString(GenerateApplyAndCopyHouseholderRow.THRESHOLD));
+        retVal.setProperty(HermitianRank2Update.class.getSimpleName(), Integer.toString(HermitianRank2Update.THRESHOLD));
+        retVal.setProperty(HermitianRankKUpdate.class.getSimpleName(), Integer.toString(HermitianRankKUpdate.THRESHOLD));
+        retVal.setProperty(HouseholderBlockLeft.class.getSimpleName(), Integer.toString(HouseholderBlockLeft.THRESHOLD));
+        retVal.setProperty(HouseholderLeft.class.getSimpleName(), Integer.toString(HouseholderLeft.THRESHOLD));
+        retVal.setProperty(HouseholderRight.class.getSimpleName(), Integer.toString(HouseholderRight.THRESHOLD));
+        retVal.setProperty(ModifyAll.class.getSimpleName(), Integer.toString(ModifyAll.THRESHOLD));
+        retVal.setProperty(MultiplyBoth.class.getSimpleName(), Integer.toString(MultiplyBoth.THRESHOLD));
+        retVal.setProperty(MultiplyHermitianAndVector.class.getSimpleName(), Integer.toString(MultiplyHermitianAndVector.THRESHOLD));
+        retVal.setProperty(MultiplyLeft.class.getSimpleName(), Integer.toString(MultiplyLeft.THRESHOLD));
+        retVal.setProperty(MultiplyNeither.class.getSimpleName(), Integer.toString(MultiplyNeither.THRESHOLD));
+        retVal.setProperty(MultiplyRight.class.getSimpleName(), Integer.toString(MultiplyRight.THRESHOLD));
+        retVal.setProperty(MultiplySparse.class.getSimpleName(), Integer.toString(MultiplySparse.THRESHOLD));
+        retVal.setProperty(RotateLeft.class.getSimpleName(), Integer.toString(RotateLeft.THRESHOLD));
+        retVal.setProperty(RotateRight.class.getSimpleName(), Integer.toString(RotateRight.THRESHOLD));
+        retVal.setProperty(SchurComplementUpdate.class.getSimpleName(), Integer.toString(SchurComplementUpdate.THRESHOLD));
+        retVal.setProperty(SubstituteBackwards.class.getSimpleName(), Integer.toString(SubstituteBackwards.THRESHOLD));
+        retVal.setProperty(SubstituteForwards.class.getSimpleName(), Integer.toString(SubstituteForwards.THRESHOLD));
+
+        return retVal;
+    }
+
+    /**
+     * Reads a profile file and sets the thresholds it specifies.
+     */
+    public static void loadThresholds(final File profile) throws IOException {
+        try (InputStream tmpInput = new FileInputStream(profile)) {
+            final Properties tmpThresholds = new Properties();
+            tmpThresholds.load(tmpInput);
+            MatrixOperation.setThresholds(tmpThresholds);
+        }
+    }
+
+    /**
+     * Writes the current thresholds to a profile file, that can be loaded at startup.
+     */
+    public static void saveThresholds(final File profile) throws IOException {
+
+        final File tmpDirectory = profile.getAbsoluteFile().getParentFile();
+        if ((tmpDirectory != null) && !tmpDirectory.exists() && !tmpDirectory.mkdirs()) {
+            throw new IOException("Failed to create " + tmpDirectory);
+        }
+
+        try (OutputStream tmpOutput = new FileOutputStream(profile)) {
+            MatrixOperation.getThresholds().store(tmpOutput, OjAlgoUtils.ENVIRONMENT.toString());
+        }
+    }
+
     /**
      * Sets all matrix size operation thresholds to precisly this value.
      *
@@ -51,9 +146,12 @@ public abstract class MatrixOperation {
         ApplyLU.THRESHOLD = Math.min(maxValue, ApplyLU.THRESHOLD);
         FillMatchingDual.THRESHOLD = Math.min(maxValue, FillMatchingDual.THRESHOLD);
         FillMatchingSingle.THRESHOLD = Math.min(maxValue, FillMatchingSingle.THRESHOLD);
+        GEMM.THRESHOLD = Math.min(maxValue, GEMM.THRESHOLD);
         GenerateApplyAndCopyHouseholderColumn.THRESHOLD = Math.min(maxValue, GenerateApplyAndCopyHouseholderColumn.THRESHOLD);
         GenerateApplyAndCopyHouseholderRow.THRESHOLD = Math.min(maxValue, GenerateApplyAndCopyHouseholderRow.THRESHOLD);
         HermitianRank2Update.THRESHOLD = Math.min(maxValue, HermitianRank2Update.THRESHOLD);
+        HermitianRankKUpdate.THRESHOLD = Math.min(maxValue, HermitianRankKUpdate.THRESHOLD);
+        HouseholderBlockLeft.THRESHOLD = Math.min(maxValue, HouseholderBlockLeft.THRESHOLD);
         HouseholderLeft.THRESHOLD = Math.min(maxValue, HouseholderLeft.THRESHOLD);
         HouseholderRight.THRESHOLD = Math.min(maxValue, HouseholderRight.THRESHOLD);
         AXPY.THRESHOLD = Math.min(maxValue, AXPY.THRESHOLD);
@@ -62,8 +160,10 @@ public abstract class MatrixOperation {
         MultiplyHermitianAndVector.THRESHOLD = Math.min(maxValue, MultiplyHermitianAndVector.THRESHOLD);
         MultiplyLeft.THRESHOLD = Math.min(maxValue, MultiplyLeft.THRESHOLD);
         MultiplyRight.THRESHOLD = Math.min(maxValue, MultiplyRight.THRESHOLD);
+        MultiplySparse.THRESHOLD = Math.min(maxValue, MultiplySparse.THRESHOLD);
         RotateLeft.THRESHOLD = Math.min(maxValue, RotateLeft.THRESHOLD);
         RotateRight.THRESHOLD = Math.min(maxValue, RotateRight.THRESHOLD);
+        SchurComplementUpdate.THRESHOLD = Math.min(maxValue, SchurComplementUpdate.THRESHOLD);
         SubstituteBackwards.THRESHOLD = Math.min(maxValue, SubstituteBackwards.THRESHOLD);
         SubstituteForwards.THRESHOLD = Math.min(maxValue, SubstituteForwards.THRESHOLD);
     }
@@ -80,9 +180,12 @@ public abstract class MatrixOperation {
         ApplyLU.THRESHOLD = Math.max(minValue, ApplyLU.THRESHOLD);
         FillMatchingDual.THRESHOLD = Math.max(minValue, FillMatchingDual.THRESHOLD);
         FillMatchingSingle.THRESHOLD = Math.max(minValue, FillMatchingSingle.THRESHOLD);
+        GEMM.THRESHOLD = Math.max(minValue, GEMM.THRESHOLD);
         GenerateApplyAndCopyHouseholderColumn.THRESHOLD = Math.max(minValue, GenerateApplyAndCopyHouseholderColumn.THRESHOLD);
         GenerateApplyAndCopyHouseholderRow.THRESHOLD = Math.max(minValue, GenerateApplyAndCopyHouseholderRow.THRESHOLD);
         HermitianRank2Update.THRESHOLD = Math.max(minValue, HermitianRank2Update.THRESHOLD);
+        HermitianRankKUpdate.THRESHOLD = Math.max(minValue, HermitianRankKUpdate.THRESHOLD);
+        HouseholderBlockLeft.THRESHOLD = Math.max(minValue, HouseholderBlockLeft.THRESHOLD);
         HouseholderLeft.THRESHOLD = Math.max(minValue, HouseholderLeft.THRESHOLD);
         HouseholderRight.THRESHOLD = Math.max(minValue, HouseholderRight.THRESHOLD);
         AXPY.THRESHOLD = Math.max(minValue, AXPY.THRESHOLD);
@@ -91,12 +194,94 @@ public abstract class MatrixOperation {
         MultiplyHermitianAndVector.THRESHOLD = Math.max(minValue, MultiplyHermitianAndVector.THRESHOLD);
         MultiplyLeft.THRESHOLD = Math.max(minValue, MultiplyLeft.THRESHOLD);
         MultiplyRight.THRESHOLD = Math.max(minValue, MultiplyRight.THRESHOLD);
+        MultiplySparse.THRESHOLD = Math.max(minValue, MultiplySparse.THRESHOLD);
         RotateLeft.THRESHOLD = Math.max(minValue, RotateLeft.THRESHOLD);
         RotateRight.THRESHOLD = Math.max(minValue, RotateRight.THRESHOLD);
+        SchurComplementUpdate.THRESHOLD = Math.max(minValue, SchurComplementUpdate.THRESHOLD);
         SubstituteBackwards.THRESHOLD = Math.max(minValue, SubstituteBackwards.THRESHOLD);
         SubstituteForwards.THRESHOLD = Math.max(minValue, SubstituteForwards.THRESHOLD);
     }
 
+    /**
+     * Sets the thresholds specified (keyed by the operations' simple class names). Operations not specified
+     * are unchanged.
+     */
+    public static void setThresholds(final Properties thresholds) {
+        AggregateAll.THRESHOLD = MatrixOperation.threshold(thresholds, AggregateAll.class, AggregateAll.THRESHOLD);
+        ApplyCholesky.THRESHOLD = MatrixOperation.threshold(thresholds, ApplyCholesky.class, ApplyCholesky.THRESHOLD);
+        ApplyLDL.THRESHOLD = MatrixOperation.threshold(thresholds, ApplyLDL.class, ApplyLDL.THRESHOLD);
+        ApplyLDU.THRESHOLD = MatrixOperation.threshold(thresholds, ApplyLDU.class, ApplyLDU.THRESHOLD);
+        ApplyLU.THRESHOLD = MatrixOperation.threshold(thresholds, ApplyLU.class, ApplyLU.THRESHOLD);
+        FillMatchingDual.THRESHOLD = MatrixOperation.threshold(thresholds, FillMatchingDual.class, FillMatchingDual.THRESHOLD);
+        FillMatchingSingle.THRESHOLD = MatrixOperation.threshold(thresholds, FillMatchingSingle.class, FillMatchingSingle.THRESHOLD);
+        GEMM.THRESHOLD = MatrixOperation.threshold(thresholds, GEMM.class, GEMM.THRESHOLD);
+        GenerateApplyAndCopyHouseholderColumn.THRESHOLD = MatrixOperation.threshold(thresholds, GenerateApplyAndCopyHouseholderColumn.class, GenerateApplyAndCopyHouseholderColumn.THRESHOLD);
+        GenerateApplyAndCopyHouseholderRow.THRESHOLD = MatrixOperation.threshold(thresholds, GenerateApplyAndCopyHouseholderRow.class, GenerateApplyAndCopyHouseholderRow.THRESHOLD);
+        HermitianRank2Update.THRESHOLD = MatrixOperation.threshold(thresholds, HermitianRank2Update.class, HermitianRank2Update.THRESHOLD);
+        HermitianRankKUpdate.THRESHOLD = MatrixOperation.threshold(thresholds, HermitianRankKUpdate.class, HermitianRankKUpdate.THRESHOLD);
+        HouseholderBlockLeft.THRESHOLD = MatrixOperation.threshold(thresholds, HouseholderBlockLeft.class, HouseholderBlockLeft.THRESHOLD);
+        HouseholderLeft.THRESHOLD = MatrixOperation.threshold(thresholds, HouseholderLeft.class, HouseholderLeft.THRESHOLD);
+        HouseholderRight.THRESHOLD = MatrixOperation.threshold(thresholds, HouseholderRight.class, HouseholderRight.THRESHOLD);
+        ModifyAll.THRESHOLD = MatrixOperation.threshold(thresholds, ModifyAll.class, ModifyAll.THRESHOLD);
+        MultiplyBoth.THRESHOLD = MatrixOperation.threshold(thresholds, MultiplyBoth.class, MultiplyBoth.THRESHOLD);
+        MultiplyHermitianAndVector.THRESHOLD = MatrixOperation.threshold(thresholds, MultiplyHermitianAndVector.class, MultiplyHermitianAndVector.THRESHOLD);
+        MultiplyLeft.THRESHOLD = MatrixOperation.threshold(thresholds, MultiplyLeft.class, MultiplyLeft.THRESHOLD);
+        MultiplyNeither.THRESHOLD = MatrixOperation.threshold(thresholds, MultiplyNeither.class, MultiplyNeither.THRESHOLD);
+        MultiplyRight.THRESHOLD = MatrixOperation.threshold(thresholds, MultiplyRight.class, MultiplyRight.THRESHOLD);
+        MultiplySparse.THRESHOLD = MatrixOperation.threshold(thresholds, MultiplySparse.class, MultiplySparse.THRESHOLD);
+        RotateLeft.THRESHOLD = MatrixOperation.threshold(thresholds, RotateLeft.class, RotateLeft.THRESHOLD);
+        RotateRight.THRESHOLD = MatrixOperation.threshold(thresholds, RotateRight.class, RotateRight.THRESHOLD);
+        SchurComplementUpdate.THRESHOLD = MatrixOperation.threshold(thresholds, SchurComplementUpdate.class, SchurComplementUpdate.THRESHOLD);
+        SubstituteBackwards.THRESHOLD = MatrixOperation.threshold(thresholds, SubstituteBackwards.class, SubstituteBackwards.THRESHOLD);
+        SubstituteForwards.THRESHOLD = MatrixOperation.threshold(thresholds, SubstituteForwards.class, SubstituteForwards.THRESHOLD);
+    }
+
+    static Properties readProfile() {
+
+        final Properties retVal = new Properties();
+
+        final String tmpPath = System.getProperty(PROFILE_PROPERTY);
+        final File tmpProfile = tmpPath != null ? new File(tmpPath) : DEFAULT_PROFILE;
+
+        if (tmpProfile.isFile()) {
+            try (InputStream tmpInput = new FileInputStream(tmpProfile)) {
+                retVal.load(tmpInput);
+            } catch (final IOException exception) {
+                BasicLogger.error("Failed to read matrix operation thresholds from {}: {}", tmpProfile, exception.getMessage());
+            }
+        } else if (tmpPath != null) {
+            BasicLogger.error("Matrix operation thresholds profile {} not found!", tmpProfile);
+        }
+
+        return retVal;
+    }
+
+    /**
+     * Used to initialise the operations' thresholds - the value from the profile read at startup, if any,
+     * otherwise the default.
+     */
+    static int threshold(final Class<? extends MatrixOperation> operation, final int defaultValue) {
+        return MatrixOperation.threshold(PROFILE, operation, defaultValue);
+    }
+
+    static int threshold(final Properties thresholds, final Class<?> operation, final int defaultValue) {
+
+        final String tmpValue = thresholds.getProperty(operation.getSimpleName());
+
+        if (tmpValue != null) {
+            try {
+                final int retVal = Integer.parseInt(tmpValue.trim());
+                if (retVal >= 1) {
+                    return retVal;
+                }
+            } catch (final NumberFormatException exception) {
+                BasicLogger.error("Invalid threshold {} for {}", tmpValue, operation.getSimpleName());
+            }
+        }
+
+        return defaultValue;
+    }
+
     protected MatrixOperation() {
         super();
     }
@@ -104,7 +289,7 @@ public abstract class MatrixOperation {
     public abstract int threshold();
 
     public int workers() {
-        return OjAlgoUtils.ENVIRONMENT.threads;
+        return ParallelismContext.current().workers();
     }
 
 }
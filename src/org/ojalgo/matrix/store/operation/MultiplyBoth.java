@@ -43,7 +43,7 @@ public final class MultiplyBoth extends MatrixOperation {
 
     public static final MultiplyBoth SETUP = new MultiplyBoth();
 
-    public static int THRESHOLD = 16;
+    public static int THRESHOLD = MatrixOperation.threshold(MultiplyBoth.class, 16);
 
     static final BigMultiplyBoth BIG = (product, left, complexity, right) -> MultiplyBoth.invokeBig(product, 0, ((int) left.count()) / complexity, left,
             complexity, right);
@@ -39,7 +39,7 @@ public final class MultiplyHermitianAndVector extends MatrixOperation {
 
     public static final MultiplyHermitianAndVector SETUP = new MultiplyHermitianAndVector();
 
-    public static int THRESHOLD = 256;
+    public static int THRESHOLD = MatrixOperation.threshold(MultiplyHermitianAndVector.class, 256);
 
     public static void invoke(final BigDecimal[] productMatrix, final int firstRow, final int rowLimit, final BigDecimal[] hermitianMatrix,
             final BigDecimal[] rightVector, final int firstColumn) {
@@ -39,7 +39,7 @@ public final class MultiplyLeft extends MatrixOperation {
 
     public static final MultiplyLeft SETUP = new MultiplyLeft();
 
-    public static int THRESHOLD = 32;
+    public static int THRESHOLD = MatrixOperation.threshold(MultiplyLeft.class, 32);
 
     static final BigMultiplyLeft BIG = (product, left, complexity, right) -> {
 
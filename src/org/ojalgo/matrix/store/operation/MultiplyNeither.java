@@ -25,11 +25,13 @@ import java.math.BigDecimal;
 import java.util.Arrays;
 
 import org.ojalgo.array.blas.AXPY;
+import org.ojalgo.array.blas.GEMM;
 import org.ojalgo.concurrent.DivideAndConquer;
 import org.ojalgo.constant.BigMath;
 import org.ojalgo.constant.PrimitiveMath;
 import org.ojalgo.matrix.store.BigDenseStore.BigMultiplyNeither;
 import org.ojalgo.matrix.store.GenericDenseStore.GenericMultiplyNeither;
+import org.ojalgo.matrix.store.Primitive32DenseStore.Primitive32MultiplyNeither;
 import org.ojalgo.matrix.store.PrimitiveDenseStore.PrimitiveMultiplyNeither;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.scalar.Scalar;
@@ -38,7 +40,7 @@ public final class MultiplyNeither extends MatrixOperation {
 
     public static final MultiplyNeither SETUP = new MultiplyNeither();
 
-    public static int THRESHOLD = 32;
+    public static int THRESHOLD = MatrixOperation.threshold(MultiplyNeither.class, 32);
 
     static final BigMultiplyNeither BIG = (product, left, complexity, right) -> {
 
@@ -69,6 +71,28 @@ public final class MultiplyNeither extends MatrixOperation {
         MultiplyNeither.invoke(product, 0, right.length / complexity, left, complexity, right);
     };
 
+    static final Primitive32MultiplyNeither PRIMITIVE32 = (product, left, complexity, right) -> {
+
+        Arrays.fill(product, 0F);
+
+        MultiplyNeither.invoke(product, 0, right.length / complexity, left, complexity, right);
+    };
+
+    static final Primitive32MultiplyNeither PRIMITIVE32_MT = (product, left, complexity, right) -> {
+
+        Arrays.fill(product, 0F);
+
+        final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+            @Override
+            public void conquer(final int first, final int limit) {
+                MultiplyNeither.invoke(product, first, limit, left, complexity, right);
+            }
+        };
+
+        tmpConquerer.invoke(0, right.length / complexity, THRESHOLD);
+    };
+
     static final PrimitiveMultiplyNeither PRIMITIVE_0XN = (product, left, complexity, right) -> {
 
         final int tmpRowDim = 10;
@@ -561,6 +585,15 @@ public final class MultiplyNeither extends MatrixOperation {
         }
     };
 
+    static final PrimitiveMultiplyNeither PRIMITIVE_BLOCKED = (product, left, complexity, right) -> {
+
+        if (complexity > GEMM.THRESHOLD) {
+            GEMM.invoke(product, left.length / complexity, right.length / complexity, complexity, left, right);
+        } else {
+            MultiplyNeither.PRIMITIVE_MT.invoke(product, left, complexity, right);
+        }
+    };
+
     static final PrimitiveMultiplyNeither PRIMITIVE_MT = (product, left, complexity, right) -> {
 
         Arrays.fill(product, 0.0);
@@ -615,7 +648,9 @@ public final class MultiplyNeither extends MatrixOperation {
     }
 
     public static PrimitiveMultiplyNeither getPrimitive(final long rows, final long columns) {
-        if (rows > THRESHOLD) {
+        if ((rows > GEMM.THRESHOLD) && (columns > GEMM.THRESHOLD)) {
+            return PRIMITIVE_BLOCKED;
+        } else if (rows > THRESHOLD) {
             return PRIMITIVE_MT;
         } else if (rows == 10) {
             return PRIMITIVE_0XN;
@@ -642,6 +677,14 @@ public final class MultiplyNeither extends MatrixOperation {
         }
     }
 
+    public static Primitive32MultiplyNeither getPrimitive32(final long rows, final long columns) {
+        if (rows > THRESHOLD) {
+            return PRIMITIVE32_MT;
+        } else {
+            return PRIMITIVE32;
+        }
+    }
+
     static void invoke(final BigDecimal[] product, final int firstColumn, final int columnLimit, final BigDecimal[] left, final int complexity,
             final BigDecimal[] right) {
 
@@ -671,6 +714,20 @@ public final class MultiplyNeither extends MatrixOperation {
         }
     }
 
+    static void invoke(final float[] product, final int firstColumn, final int columnLimit, final float[] left, final int complexity, final float[] right) {
+
+        final int structure = left.length / complexity;
+
+        final float[] leftColumn = new float[structure];
+        for (int c = 0; c < complexity; c++) {
+            System.arraycopy(left, c * structure, leftColumn, 0, structure);
+
+            for (int j = firstColumn; j < columnLimit; j++) {
+                AXPY.invoke(product, j * structure, right[c + (j * complexity)], leftColumn, 0, 0, structure);
+            }
+        }
+    }
+
     static <N extends Number & Scalar<N>> void invoke(final N[] product, final int firstColumn, final int columnLimit, final N[] left, final int complexity,
             final N[] right, final Scalar.Factory<N> scalar) {
 
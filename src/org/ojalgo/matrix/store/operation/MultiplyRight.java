@@ -39,7 +39,7 @@ public final class MultiplyRight extends MatrixOperation {
 
     public static final MultiplyRight SETUP = new MultiplyRight();
 
-    public static int THRESHOLD = 32;
+    public static int THRESHOLD = MatrixOperation.threshold(MultiplyRight.class, 32);
 
     static final BigMultiplyRight BIG = (product, left, complexity, right) -> {
 
@@ -0,0 +1,184 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store.operation;
+
+import org.ojalgo.concurrent.DivideAndConquer;
+
+/**
+ * Sparse-dense matrix multiplication with the sparse matrix in compressed (CSR/CSC) form - pointers, indices
+ * and values. The work is split in contiguous ranges of rows/columns of the product, where each row/column
+ * weighs its number of nonzeros (plus one), so that the parallel tasks get about the same number of
+ * nonzeros regardless of how they are distributed. The threshold is in these units.
+ *
+ * @author apete
+ */
+public final class MultiplySparse extends MatrixOperation {
+
+    public static final MultiplySparse SETUP = new MultiplySparse();
+
+    public static int THRESHOLD = MatrixOperation.threshold(MultiplySparse.class, 8192);
+
+    /**
+     * [product] = [left][CSC] where the compressed matrix has one segment per column of the product.
+     */
+    public static void invoke(final double[] product, final double[] left, final int[] pointers, final int[] indices, final double[] values) {
+
+        final int tmpSegments = pointers.length - 1;
+        final int tmpRowDim = tmpSegments != 0 ? product.length / tmpSegments : 0;
+
+        if (tmpRowDim == 0) {
+            return;
+        }
+
+        final int tmpWork = pointers[tmpSegments] + tmpSegments;
+        final int tmpThreshold = Math.max(1, THRESHOLD / tmpRowDim);
+
+        if (tmpWork > tmpThreshold) {
+
+            final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                @Override
+                public void conquer(final int first, final int limit) {
+                    MultiplySparse.invoke(product, tmpRowDim, left, pointers, indices, values, MultiplySparse.segment(pointers, first),
+                            MultiplySparse.segment(pointers, limit));
+                }
+            };
+
+            tmpConquerer.invoke(0, tmpWork, tmpThreshold);
+
+        } else {
+
+            MultiplySparse.invoke(product, tmpRowDim, left, pointers, indices, values, 0, tmpSegments);
+        }
+    }
+
+    /**
+     * [product] = [CSR][right] where the compressed matrix has one segment per row of the product.
+     */
+    public static void invoke(final double[] product, final int[] pointers, final int[] indices, final double[] values, final double[] right,
+            final int columns) {
+
+        final int tmpSegments = pointers.length - 1;
+
+        if ((tmpSegments == 0) || (columns == 0)) {
+            return;
+        }
+
+        final int tmpComplexity = right.length / columns;
+
+        final int tmpWork = pointers[tmpSegments] + tmpSegments;
+        final int tmpThreshold = Math.max(1, THRESHOLD / columns);
+
+        if (tmpWork > tmpThreshold) {
+
+            final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                @Override
+                public void conquer(final int first, final int limit) {
+                    MultiplySparse.invoke(product, tmpSegments, pointers, indices, values, right, tmpComplexity, columns,
+                            MultiplySparse.segment(pointers, first), MultiplySparse.segment(pointers, limit));
+                }
+            };
+
+            tmpConquerer.invoke(0, tmpWork, tmpThreshold);
+
+        } else {
+
+            MultiplySparse.invoke(product, tmpSegments, pointers, indices, values, right, tmpComplexity, columns, 0, tmpSegments);
+        }
+    }
+
+    static void invoke(final double[] product, final int rowDim, final double[] left, final int[] pointers, final int[] indices, final double[] values,
+            final int first, final int limit) {
+
+        for (int s = first; s < limit; s++) {
+
+            final int tmpOffset = s * rowDim;
+
+            for (int i = 0; i < rowDim; i++) {
+                product[tmpOffset + i] = 0.0;
+            }
+
+            for (int p = pointers[s], last = pointers[s + 1]; p < last; p++) {
+
+                final double tmpValue = values[p];
+                final int tmpLeftOffset = indices[p] * rowDim;
+
+                for (int i = 0; i < rowDim; i++) {
+                    product[tmpOffset + i] += tmpValue * left[tmpLeftOffset + i];
+                }
+            }
+        }
+    }
+
+    static void invoke(final double[] product, final int rowDim, final int[] pointers, final int[] indices, final double[] values, final double[] right,
+            final int complexity, final int columns, final int first, final int limit) {
+
+        for (int s = first; s < limit; s++) {
+
+            final int tmpFirst = pointers[s];
+            final int tmpLast = pointers[s + 1];
+
+            for (int j = 0; j < columns; j++) {
+
+                final int tmpOffset = j * complexity;
+
+                double tmpSum = 0.0;
+                for (int p = tmpFirst; p < tmpLast; p++) {
+                    tmpSum += values[p] * right[indices[p] + tmpOffset];
+                }
+                product[s + (j * rowDim)] = tmpSum;
+            }
+        }
+    }
+
+    /**
+     * The segments weigh (number of nonzeros + 1) each. Returns the first segment starting at, or after,
+     * the work index.
+     */
+    static int segment(final int[] pointers, final int work) {
+
+        int tmpLow = 0;
+        int tmpHigh = pointers.length - 1;
+
+        while (tmpLow < tmpHigh) {
+            final int tmpMiddle = (tmpLow + tmpHigh) >>> 1;
+            if ((pointers[tmpMiddle] + tmpMiddle) < work) {
+                tmpLow = tmpMiddle + 1;
+            } else {
+                tmpHigh = tmpMiddle;
+            }
+        }
+
+        return tmpLow;
+    }
+
+    private MultiplySparse() {
+        super();
+    }
+
+    @Override
+    public int threshold() {
+        return THRESHOLD;
+    }
+
+}
@@ -30,7 +30,7 @@ public final class RotateLeft extends MatrixOperation {
 
     public static final RotateLeft SETUP = new RotateLeft();
 
-    public static int THRESHOLD = 128;
+    public static int THRESHOLD = MatrixOperation.threshold(RotateLeft.class, 128);
 
     public static void invoke(final BigDecimal[] data, final int structure, final int rowA, final int rowB, final BigDecimal cos, final BigDecimal sin) {
 
@@ -74,6 +74,27 @@ public final class RotateLeft extends MatrixOperation {
         }
     }
 
+    public static void invoke(final float[] data, final int structure, final int rowA, final int rowB, final double cos, final double sin) {
+
+        double oldA;
+        double oldB;
+
+        int indexA = rowA;
+        int indexB = rowB;
+
+        for (int j = 0, lim = data.length / structure; j < lim; j++) {
+
+            oldA = data[indexA];
+            oldB = data[indexB];
+
+            data[indexA] = (float) ((cos * oldA) + (sin * oldB));
+            data[indexB] = (float) ((cos * oldB) - (sin * oldA));
+
+            indexA += structure;
+            indexB += structure;
+        }
+    }
+
     private RotateLeft() {
         super();
     }
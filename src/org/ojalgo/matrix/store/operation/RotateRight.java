@@ -30,7 +30,7 @@ public final class RotateRight extends MatrixOperation {
 
     public static final RotateRight SETUP = new RotateRight();
 
-    public static int THRESHOLD = 128;
+    public static int THRESHOLD = MatrixOperation.threshold(RotateRight.class, 128);
 
     public static void invoke(final BigDecimal[] data, final int structure, final int colA, final int colB, final BigDecimal cos, final BigDecimal sin) {
 
@@ -74,6 +74,27 @@ public final class RotateRight extends MatrixOperation {
         }
     }
 
+    public static void invoke(final float[] data, final int structure, final int colA, final int colB, final double cos, final double sin) {
+
+        double oldA;
+        double oldB;
+
+        int indexA = colA * structure;
+        int indexB = colB * structure;
+
+        for (int i = 0; i < structure; i++) {
+
+            oldA = data[indexA];
+            oldB = data[indexB];
+
+            data[indexA] = (float) ((cos * oldA) - (sin * oldB));
+            data[indexB] = (float) ((cos * oldB) + (sin * oldA));
+
+            indexA++;
+            indexB++;
+        }
+    }
+
     public static <N extends Number & Scalar<N>> void invoke(final N[] data, final int structure, final int colA, final int colB, final N cos, final N sin) {
 
         N oldA;
@@ -0,0 +1,132 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store.operation;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+
+import org.ojalgo.array.blas.GEMM;
+import org.ojalgo.concurrent.DivideAndConquer;
+
+/**
+ * The trailing update of a blocked LU decomposition, with partial pivoting. With the panel [L11 L21]
+ * already factorised, the (deferred) row exchanges of that panel are applied to the other columns, then
+ * [U12] = [L11]<sup>-1</sup>[A12] and finally [A22] -= [L21][U12]. [L11] is unit lower triangular.
+ *
+ * @author apete
+ */
+public final class SchurComplementUpdate extends MatrixOperation {
+
+    /**
+     * The width of the column panels of the blocked LU decomposition. Fixed - unlike {@link #THRESHOLD} it
+     * is not changed by calibration.
+     */
+    public static final int BLOCK = 64;
+
+    public static final SchurComplementUpdate SETUP = new SchurComplementUpdate();
+
+    /**
+     * The min number of trailing columns handed to each worker.
+     */
+    public static int THRESHOLD = MatrixOperation.threshold(SchurComplementUpdate.class, 64);
+
+    /**
+     * @param data The matrix elements
+     * @param structure The number of rows
+     * @param columns The number of columns
+     * @param panelColumn The first column (and row) of the panel
+     * @param panelLimit The column after the last column of the panel
+     * @param pivots For each row in the panel, the row it was exchanged with - pivots[i] is the index of the
+     *        row exchanged with row i (if no exchange pivots[i] == i)
+     */
+    public static void invoke(final double[] data, final int structure, final int columns, final int panelColumn, final int panelLimit,
+            final int[] pivots) {
+
+        SchurComplementUpdate.exchange(data, structure, 0, panelColumn, panelColumn, panelLimit, pivots);
+
+        if ((columns - panelLimit) > THRESHOLD) {
+
+            final DivideAndConquer tmpConquerer = new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    SchurComplementUpdate.invoke(data, structure, first, limit, panelColumn, panelLimit, pivots);
+                }
+            };
+
+            tmpConquerer.invoke(panelLimit, columns, THRESHOLD);
+
+        } else {
+
+            SchurComplementUpdate.invoke(data, structure, panelLimit, columns, panelColumn, panelLimit, pivots);
+        }
+    }
+
+    static void exchange(final double[] data, final int structure, final int firstColumn, final int columnLimit, final int panelColumn,
+            final int panelLimit, final int[] pivots) {
+
+        for (int i = panelColumn; i < panelLimit; i++) {
+            final int tmpOther = pivots[i];
+            if (tmpOther != i) {
+                for (int j = firstColumn; j < columnLimit; j++) {
+                    final int tmpIndex = j * structure;
+                    final double tmpVal = data[i + tmpIndex];
+                    data[i + tmpIndex] = data[tmpOther + tmpIndex];
+                    data[tmpOther + tmpIndex] = tmpVal;
+                }
+            }
+        }
+    }
+
+    static void invoke(final double[] data, final int structure, final int firstColumn, final int columnLimit, final int panelColumn, final int panelLimit,
+            final int[] pivots) {
+
+        SchurComplementUpdate.exchange(data, structure, firstColumn, columnLimit, panelColumn, panelLimit, pivots);
+
+        // [U12] = [L11]^-1 [A12]
+        for (int j = firstColumn; j < columnLimit; j++) {
+            final int tmpColumn = j * structure;
+            for (int p = panelColumn; p < panelLimit; p++) {
+                final double tmpVal = data[p + tmpColumn];
+                if (tmpVal != ZERO) {
+                    final int tmpPanel = p * structure;
+                    for (int i = p + 1; i < panelLimit; i++) {
+                        data[i + tmpColumn] -= data[i + tmpPanel] * tmpVal;
+                    }
+                }
+            }
+        }
+
+        // [A22] -= [L21][U12]
+        GEMM.invoke(structure - panelLimit, columnLimit - firstColumn, panelLimit - panelColumn, NEG, data, panelLimit + (panelColumn * structure), structure,
+                false, data, panelColumn + (firstColumn * structure), structure, false, ONE, data, panelLimit + (firstColumn * structure), structure);
+    }
+
+    private SchurComplementUpdate() {
+        super();
+    }
+
+    @Override
+    public int threshold() {
+        return THRESHOLD;
+    }
+
+}
@@ -34,7 +34,7 @@ public final class SubstituteBackwards extends MatrixOperation {
 
     public static final SubstituteBackwards SETUP = new SubstituteBackwards();
 
-    public static int THRESHOLD = 64;
+    public static int THRESHOLD = MatrixOperation.threshold(SubstituteBackwards.class, 64);
 
     public static void invoke(final BigDecimal[] data, final int structure, final int first, final int limit, final Access2D<BigDecimal> body,
             final boolean unitDiagonal, final boolean conjugated, final boolean hermitian) {
@@ -103,6 +103,39 @@ public final class SubstituteBackwards extends MatrixOperation {
         }
     }
 
+    public static void invoke(final float[] data, final int structure, final int first, final int limit, final Access2D<Double> body,
+            final boolean unitDiagonal, final boolean conjugated, final boolean hermitian) {
+
+        final int tmpDiagDim = (int) Math.min(body.countRows(), body.countColumns());
+        final double[] tmpBodyRow = new double[tmpDiagDim];
+        double tmpVal;
+        int tmpColBaseIndex;
+
+        final int tmpFirstRow = hermitian ? first : 0;
+        for (int i = tmpDiagDim - 1; i >= tmpFirstRow; i--) {
+
+            for (int j = i; j < tmpDiagDim; j++) {
+                tmpBodyRow[j] = conjugated ? body.doubleValue(j, i) : body.doubleValue(i, j);
+            }
+
+            final int tmpColumnLimit = hermitian ? Math.min(i + 1, limit) : limit;
+            for (int s = first; s < tmpColumnLimit; s++) {
+                tmpColBaseIndex = s * structure;
+
+                tmpVal = PrimitiveMath.ZERO;
+                for (int j = i + 1; j < tmpDiagDim; j++) {
+                    tmpVal += tmpBodyRow[j] * data[j + tmpColBaseIndex];
+                }
+                tmpVal = data[i + tmpColBaseIndex] - tmpVal;
+                if (!unitDiagonal) {
+                    tmpVal /= tmpBodyRow[i];
+                }
+
+                data[i + tmpColBaseIndex] = (float) tmpVal;
+            }
+        }
+    }
+
     public static <N extends Number & Scalar<N>> void invoke(final N[] data, final int structure, final int first, final int limit, final Access2D<N> body,
             final boolean unitDiagonal, final boolean conjugated, final boolean hermitian, final Scalar.Factory<N> scalar) {
 
@@ -33,7 +33,7 @@ public final class SubstituteForwards extends MatrixOperation {
 
     public static final SubstituteForwards SETUP = new SubstituteForwards();
 
-    public static int THRESHOLD = 64;
+    public static int THRESHOLD = MatrixOperation.threshold(SubstituteForwards.class, 64);
 
     public static void invoke(final BigDecimal[] data, final int structure, final int first, final int limit, final Access2D<BigDecimal> body,
             final boolean unitDiagonal, final boolean conjugated, final boolean identity) {
@@ -107,6 +107,42 @@ public final class SubstituteForwards extends MatrixOperation {
         }
     }
 
+    public static void invoke(final float[] data, final int structure, final int first, final int limit, final Access2D<Double> body,
+            final boolean unitDiagonal, final boolean conjugated, final boolean identity) {
+
+        final int tmpDiagDim = (int) Math.min(body.countRows(), body.countColumns());
+        final double[] tmpBodyRow = new double[tmpDiagDim];
+        double tmpVal;
+        int tmpColBaseIndex;
+
+        for (int i = 0; i < tmpDiagDim; i++) {
+
+            for (int j = 0; j <= i; j++) {
+                tmpBodyRow[j] = conjugated ? body.doubleValue(j, i) : body.doubleValue(i, j);
+            }
+
+            for (int s = first; s < limit; s++) {
+                tmpColBaseIndex = s * structure;
+
+                tmpVal = PrimitiveMath.ZERO;
+                for (int j = identity ? s : 0; j < i; j++) {
+                    tmpVal += tmpBodyRow[j] * data[j + tmpColBaseIndex];
+                }
+                if (identity) {
+                    tmpVal = i == s ? PrimitiveMath.ONE - tmpVal : -tmpVal;
+                } else {
+                    tmpVal = data[i + tmpColBaseIndex] - tmpVal;
+                }
+
+                if (!unitDiagonal) {
+                    tmpVal /= tmpBodyRow[i];
+                }
+
+                data[i + tmpColBaseIndex] = (float) tmpVal;
+            }
+        }
+    }
+
     public static <N extends Number & Scalar<N>> void invoke(final N[] data, final int structure, final int first, final int limit, final Access2D<N> body,
             final boolean unitDiagonal, final boolean conjugated, final boolean identity, final Scalar.Factory<N> scalar) {
 
@@ -0,0 +1,331 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.task;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.ojalgo.RecoverableCondition;
+import org.ojalgo.access.Access2D;
+import org.ojalgo.access.Structure2D;
+import org.ojalgo.matrix.decomposition.MatrixDecomposition;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
+
+/**
+ * An opt-in cache of factorisations (decompositions) to use when the same body is solved for many times with
+ * different right hand sides. It is a {@link SolverTask.Factory} that wraps another one - the tasks it makes
+ * look up the factorisation of the body in the cache, and only factorise (and cache) it if it is not already
+ * there. Repeated solves are then O(n<sup>2</sup>) rather than O(n<sup>3</sup>).
+ * <p>
+ * Bodies are identified either by store identity, or by a fingerprint of their contents (verified against a
+ * copy of the body on each hit). With identity keys, a body that is modified after it was factorised must be
+ * explicitly {@link #invalidate(Access2D)}:ed. The cache is bounded, the least recently used factorisation is
+ * evicted, and it is safe to use from multiple threads. Tasks the wrapped factory makes that are not
+ * {@link MatrixDecomposition.Solver}:s (the small fixed size solvers) are used as is, and not cached.
+ *
+ * @author apete
+ */
+public final class FactorisationCache<N extends Number> extends SolverTask.Factory<N> {
+
+    private static final class CachedFactorisation<N extends Number> {
+
+        final PhysicalStore<N> body;
+        final boolean solvable;
+        final MatrixDecomposition.Solver<N> solver;
+
+        CachedFactorisation(final MatrixDecomposition.Solver<N> solver, final boolean solvable, final PhysicalStore<N> body) {
+            super();
+            this.solver = solver;
+            this.solvable = solvable;
+            this.body = body;
+        }
+
+    }
+
+    private static final class Key {
+
+        final Object body;
+        final long fingerprint;
+        final boolean positiveDefinite;
+        final boolean symmetric;
+
+        Key(final Object body, final long fingerprint, final boolean symmetric, final boolean positiveDefinite) {
+            super();
+            this.body = body;
+            this.fingerprint = fingerprint;
+            this.symmetric = symmetric;
+            this.positiveDefinite = positiveDefinite;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return (body == other.body) && (fingerprint == other.fingerprint) && (symmetric == other.symmetric)
+                    && (positiveDefinite == other.positiveDefinite);
+        }
+
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            int result = 1;
+            result = (prime * result) + System.identityHashCode(body);
+            result = (prime * result) + (int) (fingerprint ^ (fingerprint >>> 32));
+            result = (prime * result) + (symmetric ? 1231 : 1237);
+            result = (prime * result) + (positiveDefinite ? 1231 : 1237);
+            return result;
+        }
+
+    }
+
+    final class Task implements SolverTask<N> {
+
+        private final boolean myPositiveDefinite;
+        private final boolean mySymmetric;
+
+        Task(final boolean symmetric, final boolean positiveDefinite) {
+            super();
+            mySymmetric = symmetric;
+            myPositiveDefinite = positiveDefinite;
+        }
+
+        public PhysicalStore<N> preallocate(final Structure2D templateBody, final Structure2D templateRHS) {
+            return myDelegate.make(templateBody, templateRHS, mySymmetric, myPositiveDefinite).preallocate(templateBody, templateRHS);
+        }
+
+        public MatrixStore<N> solve(final Access2D<?> body, final Access2D<?> rhs, final PhysicalStore<N> preallocated) throws RecoverableCondition {
+
+            final Key tmpKey = FactorisationCache.this.key(body, mySymmetric, myPositiveDefinite);
+
+            CachedFactorisation<N> tmpEntry = FactorisationCache.this.get(tmpKey, body);
+
+            if (tmpEntry == null) {
+
+                final SolverTask<N> tmpTask = myDelegate.make(body, rhs, mySymmetric, myPositiveDefinite);
+
+                if (!(tmpTask instanceof MatrixDecomposition.Solver)) {
+                    return tmpTask.solve(body, rhs, preallocated);
+                }
+
+                final MatrixDecomposition.Solver<N> tmpSolver = (MatrixDecomposition.Solver<N>) tmpTask;
+                final boolean tmpSolvable = tmpSolver.compute(preallocated.physical().builder().makeWrapper(body));
+                final PhysicalStore<N> tmpBody = myContentKeys ? preallocated.physical().copy(body) : null;
+
+                tmpEntry = new CachedFactorisation<>(tmpSolver, tmpSolvable, tmpBody);
+                FactorisationCache.this.put(tmpKey, tmpEntry);
+            }
+
+            if (!tmpEntry.solvable) {
+                throw RecoverableCondition.newEquationSystemNotSolvable();
+            }
+
+            // The decompositions are not thread safe
+            synchronized (tmpEntry) {
+                return tmpEntry.solver.getSolution(preallocated.physical().builder().makeWrapper(rhs), preallocated);
+            }
+        }
+
+    }
+
+    /**
+     * A fingerprint of the dimensions and the element values (as double)
+     */
+    static long fingerprint(final Access2D<?> body) {
+
+        final long tmpRows = body.countRows();
+        final long tmpColumns = body.countColumns();
+
+        long retVal = (31L * tmpRows) + tmpColumns;
+        for (long j = 0L; j < tmpColumns; j++) {
+            for (long i = 0L; i < tmpRows; i++) {
+                retVal = (31L * retVal) + Double.doubleToLongBits(body.doubleValue(i, j));
+            }
+        }
+        return retVal;
+    }
+
+    private static boolean isSame(final Access2D<?> cached, final Access2D<?> body) {
+
+        final long tmpRows = body.countRows();
+        final long tmpColumns = body.countColumns();
+
+        if ((cached.countRows() != tmpRows) || (cached.countColumns() != tmpColumns)) {
+            return false;
+        }
+
+        for (long j = 0L; j < tmpColumns; j++) {
+            for (long i = 0L; i < tmpRows; i++) {
+                if (Double.doubleToLongBits(cached.doubleValue(i, j)) != Double.doubleToLongBits(body.doubleValue(i, j))) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private final int myCapacity;
+    private final boolean myContentKeys;
+    private final SolverTask.Factory<N> myDelegate;
+    private final LinkedHashMap<Key, CachedFactorisation<N>> myEntries;
+    private long myHits = 0L;
+    private long myMisses = 0L;
+
+    /**
+     * Bodies are identified by store identity.
+     *
+     * @param delegate The factory that makes the (uncached) tasks
+     * @param capacity The max number of cached factorisations
+     */
+    public FactorisationCache(final SolverTask.Factory<N> delegate, final int capacity) {
+        this(delegate, capacity, false);
+    }
+
+    /**
+     * @param delegate The factory that makes the (uncached) tasks
+     * @param capacity The max number of cached factorisations
+     * @param contentKeys If true bodies are identified by their contents rather than by identity. Each solve
+     *        then requires O(n<sup>2</sup>) work to calculate the fingerprint, and a copy of each cached
+     *        body is kept.
+     */
+    public FactorisationCache(final SolverTask.Factory<N> delegate, final int capacity, final boolean contentKeys) {
+
+        super();
+
+        myDelegate = delegate;
+        myCapacity = capacity;
+        myContentKeys = contentKeys;
+
+        myEntries = new LinkedHashMap<Key, CachedFactorisation<N>>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, CachedFactorisation<N>> eldest) {
+                return this.size() > myCapacity;
+            }
+
+        };
+    }
+
+    /**
+     * Removes all cached factorisations.
+     */
+    public void clear() {
+        synchronized (myEntries) {
+            myEntries.clear();
+        }
+    }
+
+    /**
+     * @return The number of solves that reused a cached factorisation
+     */
+    public long countHits() {
+        synchronized (myEntries) {
+            return myHits;
+        }
+    }
+
+    /**
+     * @return The number of solves that did not find a cached factorisation
+     */
+    public long countMisses() {
+        synchronized (myEntries) {
+            return myMisses;
+        }
+    }
+
+    /**
+     * Removes any cached factorisation of this body. Must be called if a body (identified by identity) is
+     * modified.
+     */
+    public void invalidate(final Access2D<?> body) {
+        final long tmpFingerprint = myContentKeys ? FactorisationCache.fingerprint(body) : 0L;
+        synchronized (myEntries) {
+            for (final Iterator<Key> tmpIterator = myEntries.keySet().iterator(); tmpIterator.hasNext();) {
+                final Key tmpKey = tmpIterator.next();
+                if (myContentKeys ? (tmpKey.fingerprint == tmpFingerprint) : (tmpKey.body == body)) {
+                    tmpIterator.remove();
+                }
+            }
+        }
+    }
+
+    @Override
+    public SolverTask<N> make(final Structure2D templateBody, final Structure2D templateRHS, final boolean symmetric, final boolean positiveDefinite) {
+        return new Task(symmetric, positiveDefinite);
+    }
+
+    /**
+     * @return The number of cached factorisations
+     */
+    public int size() {
+        synchronized (myEntries) {
+            return myEntries.size();
+        }
+    }
+
+    CachedFactorisation<N> get(final Key key, final Access2D<?> body) {
+
+        CachedFactorisation<N> retVal;
+        synchronized (myEntries) {
+            retVal = myEntries.get(key);
+        }
+
+        // The cached body is never modified, and comparing it is O(n^2) - not done while holding the lock
+        if ((retVal != null) && (retVal.body != null) && !FactorisationCache.isSame(retVal.body, body)) {
+            retVal = null;
+        }
+
+        synchronized (myEntries) {
+            if (retVal != null) {
+                myHits++;
+            } else {
+                myMisses++;
+            }
+        }
+
+        return retVal;
+    }
+
+    Key key(final Access2D<?> body, final boolean symmetric, final boolean positiveDefinite) {
+        if (myContentKeys) {
+            return new Key(null, FactorisationCache.fingerprint(body), symmetric, positiveDefinite);
+        } else {
+            return new Key(body, 0L, symmetric, positiveDefinite);
+        }
+    }
+
+    void put(final Key key, final CachedFactorisation<N> entry) {
+        synchronized (myEntries) {
+            myEntries.put(key, entry);
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.task;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+import static org.ojalgo.function.PrimitiveFunction.*;
+
+import org.ojalgo.RecoverableCondition;
+import org.ojalgo.access.Access2D;
+import org.ojalgo.access.Structure2D;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.matrix.decomposition.Cholesky;
+import org.ojalgo.matrix.decomposition.LU;
+import org.ojalgo.matrix.decomposition.MatrixDecomposition;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
+import org.ojalgo.matrix.store.Primitive32DenseStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * Solves square equation systems by factorising the body in single precision (using
+ * {@link Primitive32DenseStore}), and then iteratively refining the solution - the residual is calculated
+ * in double precision and the correction is solved for using the single precision factorisation. Once the
+ * correction is small, relative to the solution, according to the {@link NumberContext} accuracy, the
+ * refinement stops. If the single precision factorisation fails, or the refinement does not converge
+ * quickly enough, the system is solved again using a full double precision factorisation.
+ *
+ * @author apete
+ */
+public final class MixedPrecisionSolver implements SolverTask<Double> {
+
+    public static final NumberContext ACCURACY = new NumberContext(12, 14);
+
+    /**
+     * The maximum number of refinement iterations before falling back to double precision.
+     */
+    public static int ITERATIONS = 10;
+
+    private final NumberContext myAccuracy;
+    private final boolean mySPD;
+
+    public MixedPrecisionSolver(final boolean spd) {
+        this(spd, ACCURACY);
+    }
+
+    public MixedPrecisionSolver(final boolean spd, final NumberContext accuracy) {
+
+        super();
+
+        mySPD = spd;
+        myAccuracy = accuracy;
+    }
+
+    public PhysicalStore<Double> preallocate(final Structure2D templateBody, final Structure2D templateRHS) {
+        return PrimitiveDenseStore.FACTORY.makeZero(templateBody.countColumns(), templateRHS.countColumns());
+    }
+
+    public MatrixStore<Double> solve(final Access2D<?> body, final Access2D<?> rhs, final PhysicalStore<Double> preallocated) throws RecoverableCondition {
+
+        final MatrixDecomposition.Solver<Double> tmpSingle = mySPD ? Cholesky.PRIMITIVE32.make(body) : LU.PRIMITIVE32.make(body);
+
+        if (!tmpSingle.compute(Primitive32DenseStore.FACTORY.copy(body))) {
+            return this.fallback(body, rhs, preallocated);
+        }
+
+        final PrimitiveDenseStore tmpBody = PrimitiveDenseStore.FACTORY.copy(body);
+        final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.copy(rhs);
+        final PrimitiveDenseStore tmpResidual = PrimitiveDenseStore.FACTORY.makeZero(tmpRHS.countRows(), tmpRHS.countColumns());
+
+        preallocated.fillMatching(tmpSingle.getSolution(Primitive32DenseStore.FACTORY.copy(tmpRHS)));
+
+        double tmpPrevious = Double.POSITIVE_INFINITY;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+
+            tmpResidual.fillByMultiplying(tmpBody, preallocated);
+            tmpResidual.modifyMatching(tmpRHS, SUBTRACT);
+
+            final MatrixStore<Double> tmpCorrection = tmpSingle.getSolution(Primitive32DenseStore.FACTORY.copy(tmpResidual));
+            preallocated.modifyMatching(ADD, tmpCorrection);
+
+            final double tmpSize = tmpCorrection.aggregateAll(Aggregator.LARGEST).doubleValue();
+            final double tmpSolution = preallocated.aggregateAll(Aggregator.LARGEST).doubleValue();
+
+            if (myAccuracy.isSmall(tmpSolution, tmpSize)) {
+                return preallocated;
+            } else if (!(tmpSize < (HALF * tmpPrevious))) {
+                break; // Stalled (or diverging) - the body is too ill-conditioned for single precision
+            }
+
+            tmpPrevious = tmpSize;
+        }
+
+        return this.fallback(body, rhs, preallocated);
+    }
+
+    private MatrixStore<Double> fallback(final Access2D<?> body, final Access2D<?> rhs, final PhysicalStore<Double> preallocated)
+            throws RecoverableCondition {
+        if (mySPD) {
+            return Cholesky.PRIMITIVE.make(body).solve(body, rhs, preallocated);
+        } else {
+            return LU.PRIMITIVE.make(body).solve(body, rhs, preallocated);
+        }
+    }
+
+}
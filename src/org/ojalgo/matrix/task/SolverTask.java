@@ -170,7 +170,7 @@ public interface SolverTask<N extends Number> extends MatrixTask<N> {
                 if (tmpVectorRHS && (tmpColDim <= 5)) {
                     return AbstractSolver.LEAST_SQUARES;
                 } else {
-                    return QR.PRIMITIVE.make(templateBody);
+                    return QR.PRIMITIVE_TALL.make(templateBody);
                 }
 
             } else {
@@ -181,6 +181,24 @@ public interface SolverTask<N extends Number> extends MatrixTask<N> {
 
     };
 
+    /**
+     * Same as {@link #PRIMITIVE} except that square systems (larger than 5x5) are solved using a
+     * {@link MixedPrecisionSolver} - single precision factorisation and double precision iterative
+     * refinement.
+     */
+    public static final Factory<Double> PRIMITIVE_MIXED = new Factory<Double>() {
+
+        @Override
+        public SolverTask<Double> make(final Structure2D templateBody, final Structure2D templateRHS, final boolean symmetric, final boolean positiveDefinite) {
+            if (templateBody.isSquare() && (templateBody.countColumns() > 5L)) {
+                return new MixedPrecisionSolver(symmetric && positiveDefinite);
+            } else {
+                return PRIMITIVE.make(templateBody, templateRHS, symmetric, positiveDefinite);
+            }
+        }
+
+    };
+
     public static final Factory<Quaternion> QUATERNION = new Factory<Quaternion>() {
 
         @Override
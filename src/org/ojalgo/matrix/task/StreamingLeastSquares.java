@@ -0,0 +1,308 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.task;
+
+import static org.ojalgo.constant.PrimitiveMath.*;
+import static org.ojalgo.function.PrimitiveFunction.*;
+
+import org.ojalgo.RecoverableCondition;
+import org.ojalgo.access.Access1D;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.scalar.PrimitiveScalar;
+
+/**
+ * Least squares, min ||[A][x]-[b]||<sup>2</sup> + ridge*||[x]||<sup>2</sup>, with the rows of [A] and [b]
+ * added one at the time. Each row is rotated into an upper triangular [R] (Givens rotations) together with
+ * the corresponding part of [Q]<sup>T</sup>[b], and the part of [b] that can't be explained is accumulated as
+ * the residual sum of squares. Memory use is O(n<sup>2</sup>), regardless of the number of rows, and there's
+ * never any need to form [A].
+ * <p>
+ * An instance is not thread safe. To ingest rows from several threads use one instance per thread, and then
+ * {@link #merge(StreamingLeastSquares)} them.
+ * </p>
+ *
+ * @author apete
+ */
+public final class StreamingLeastSquares implements MatrixTask<Double> {
+
+    private long myCount = 0L;
+    private final int myDim;
+    private final double[] myQtb;
+    private final double[] myR;
+    private double myResidualSS = ZERO;
+    private final double myRidge;
+    /**
+     * The row being rotated in to [R] - reused, an instance is not thread safe anyway
+     */
+    private final double[] myWork;
+
+    /**
+     * @param numberOfVariables The number of columns in [A]
+     */
+    public StreamingLeastSquares(final int numberOfVariables) {
+        this(numberOfVariables, ZERO);
+    }
+
+    /**
+     * @param numberOfVariables The number of columns in [A]
+     * @param ridge The (Tikhonov) regularisation parameter, must not be negative. It is only used when the
+     *        solution is calculated - the accumulated data does not depend on it.
+     */
+    public StreamingLeastSquares(final int numberOfVariables, final double ridge) {
+
+        super();
+
+        if (ridge < ZERO) {
+            throw new IllegalArgumentException("The ridge parameter must not be negative!");
+        }
+
+        myDim = numberOfVariables;
+        myRidge = ridge;
+
+        myR = new double[numberOfVariables * numberOfVariables];
+        myQtb = new double[numberOfVariables];
+        myWork = new double[numberOfVariables];
+    }
+
+    /**
+     * Add one row of [A] and the corresponding element of [b].
+     */
+    public void add(final Access1D<?> row, final double response) {
+        this.add(row, response, ONE);
+    }
+
+    /**
+     * Add one row of [A] and the corresponding element of [b], with a weight. Equivalent to adding the row
+     * and response both multiplied by the square root of the weight.
+     */
+    public void add(final Access1D<?> row, final double response, final double weight) {
+
+        final double tmpScale = SQRT.invoke(weight);
+
+        final double[] tmpRow = myWork;
+        for (int j = 0; j < myDim; j++) {
+            tmpRow[j] = tmpScale * row.doubleValue(j);
+        }
+
+        myResidualSS += StreamingLeastSquares.rotate(myR, myQtb, myDim, tmpRow, tmpScale * response);
+        myCount++;
+    }
+
+    /**
+     * @return The number of rows added (including those added via {@link #merge(StreamingLeastSquares)})
+     */
+    public long count() {
+        return myCount;
+    }
+
+    /**
+     * The covariance matrix of the solution, s<sup>2</sup>([A]<sup>T</sup>[A] + ridge*[I])<sup>-1</sup>,
+     * where s<sup>2</sup> is the residual sum of squares divided by the degrees of freedom (number of rows
+     * minus number of variables).
+     */
+    public MatrixStore<Double> getCovariance() throws RecoverableCondition {
+
+        final MatrixStore<Double> tmpSolution = this.getSolution();
+
+        final double tmpResidualNorm = this.getResidualNorm(tmpSolution);
+        final long tmpDegreesOfFreedom = Math.max(1L, myCount - myDim);
+
+        final PrimitiveDenseStore tmpR = this.makeFactor(new double[myDim]);
+        final PrimitiveDenseStore tmpInverse = PrimitiveDenseStore.FACTORY.makeEye(myDim, myDim);
+        tmpInverse.substituteBackwards(tmpR, false, false, false);
+
+        final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.makeZero(myDim, myDim);
+        retVal.fillByMultiplying(tmpInverse, tmpInverse.transpose());
+        retVal.modifyAll(MULTIPLY.second((tmpResidualNorm * tmpResidualNorm) / tmpDegreesOfFreedom));
+
+        return retVal;
+    }
+
+    /**
+     * @return The norm of the residual, ||[A][x]-[b]||, for the solution [x]
+     */
+    public double getResidualNorm() throws RecoverableCondition {
+        return this.getResidualNorm(this.getSolution());
+    }
+
+    /**
+     * @return The norm of the residual, ||[A][x]-[b]||, for any [x] - calculated from the accumulated data
+     *         without access to [A] or [b]
+     */
+    public double getResidualNorm(final Access1D<?> solution) {
+
+        // ||Ax-b||^2 = ||Rx-Q'b||^2 + (the accumulated residual sum of squares)
+        double retVal = myResidualSS;
+
+        for (int i = 0; i < myDim; i++) {
+            double tmpVal = -myQtb[i];
+            for (int j = i; j < myDim; j++) {
+                tmpVal += myR[i + (j * myDim)] * solution.doubleValue(j);
+            }
+            retVal += tmpVal * tmpVal;
+        }
+
+        return SQRT.invoke(retVal);
+    }
+
+    /**
+     * @return The solution [x]
+     * @throws RecoverableCondition If there is no ridge and [A] does not have full column rank
+     */
+    public MatrixStore<Double> getSolution() throws RecoverableCondition {
+
+        final double[] tmpQtb = new double[myDim];
+        final PrimitiveDenseStore tmpR = this.makeFactor(tmpQtb);
+
+        final double tmpLargest = tmpR.aggregateDiagonal(0L, 0L, Aggregator.LARGEST).doubleValue();
+        for (int ij = 0; ij < myDim; ij++) {
+            if ((tmpLargest == ZERO) || PrimitiveScalar.isSmall(tmpLargest, tmpR.doubleValue(ij, ij))) {
+                throw RecoverableCondition.newEquationSystemNotSolvable();
+            }
+        }
+
+        final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.columns(tmpQtb);
+
+        retVal.substituteBackwards(tmpR, false, false, false);
+
+        return retVal;
+    }
+
+    /**
+     * Merge the rows accumulated by another instance in to this one. The other instance is not modified.
+     */
+    public void merge(final StreamingLeastSquares other) {
+
+        if (other.myDim != myDim) {
+            throw new IllegalArgumentException("Different number of variables!");
+        }
+
+        final double[] tmpRow = myWork;
+        for (int i = 0; i < myDim; i++) {
+            for (int j = 0; j < myDim; j++) {
+                tmpRow[j] = other.myR[i + (j * myDim)];
+            }
+            myResidualSS += StreamingLeastSquares.rotate(myR, myQtb, myDim, tmpRow, other.myQtb[i]);
+        }
+
+        myResidualSS += other.myResidualSS;
+        myCount += other.myCount;
+    }
+
+    /**
+     * Clear all accumulated data
+     */
+    public void reset() {
+        for (int i = 0; i < myR.length; i++) {
+            myR[i] = ZERO;
+        }
+        for (int i = 0; i < myDim; i++) {
+            myQtb[i] = ZERO;
+        }
+        myResidualSS = ZERO;
+        myCount = 0L;
+    }
+
+    /**
+     * Copies [R] and [Q]<sup>T</sup>[b], and adds the ridge (if any) to the copies.
+     *
+     * @param qtb Will be overwritten with (the copy of) [Q]<sup>T</sup>[b]
+     * @return [R]
+     */
+    private PrimitiveDenseStore makeFactor(final double[] qtb) {
+
+        final double[] tmpR = myR.clone();
+        System.arraycopy(myQtb, 0, qtb, 0, myDim);
+
+        if (myRidge > ZERO) {
+            StreamingLeastSquares.addRidge(tmpR, qtb, myDim, myRidge);
+        }
+
+        final PrimitiveDenseStore retVal = PrimitiveDenseStore.FACTORY.makeZero(myDim, myDim);
+        for (int j = 0; j < myDim; j++) {
+            for (int i = 0; i <= j; i++) {
+                retVal.set(i, j, tmpR[i + (j * myDim)]);
+            }
+        }
+        return retVal;
+    }
+
+    /**
+     * Rotates the rows sqrt(ridge)*[I] (with 0.0 responses) in to [R] and [Q]<sup>T</sup>[b]
+     */
+    private static void addRidge(final double[] factor, final double[] qtb, final int dim, final double ridge) {
+
+        final double tmpSqrt = SQRT.invoke(ridge);
+
+        final double[] tmpRow = new double[dim];
+        for (int i = 0; i < dim; i++) {
+            for (int j = 0; j < dim; j++) {
+                tmpRow[j] = ZERO;
+            }
+            tmpRow[i] = tmpSqrt;
+            StreamingLeastSquares.rotate(factor, qtb, dim, tmpRow, ZERO);
+        }
+    }
+
+    /**
+     * Rotates the row (and response) in to [R] (and [Q]<sup>T</sup>[b]) using Givens rotations.
+     *
+     * @param row Will be overwritten
+     * @return The square of what remains of the response - its contribution to the residual sum of squares
+     */
+    private static double rotate(final double[] factor, final double[] qtb, final int dim, final double[] row, final double response) {
+
+        double tmpResponse = response;
+
+        for (int i = 0; i < dim; i++) {
+
+            final double tmpVal = row[i];
+
+            if (tmpVal != ZERO) {
+
+                final int tmpDiagonal = i + (i * dim);
+
+                final double tmpHypot = HYPOT.invoke(factor[tmpDiagonal], tmpVal);
+                final double tmpCos = factor[tmpDiagonal] / tmpHypot;
+                final double tmpSin = tmpVal / tmpHypot;
+
+                factor[tmpDiagonal] = tmpHypot;
+
+                for (int j = i + 1; j < dim; j++) {
+                    final int tmpIndex = i + (j * dim);
+                    final double tmpRij = factor[tmpIndex];
+                    factor[tmpIndex] = (tmpCos * tmpRij) + (tmpSin * row[j]);
+                    row[j] = (tmpCos * row[j]) - (tmpSin * tmpRij);
+                }
+
+                final double tmpQtb = qtb[i];
+                qtb[i] = (tmpCos * tmpQtb) + (tmpSin * tmpResponse);
+                tmpResponse = (tmpCos * tmpResponse) - (tmpSin * tmpQtb);
+            }
+        }
+
+        return tmpResponse * tmpResponse;
+    }
+
+}
@@ -27,8 +27,9 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.ojalgo.concurrent.DaemonPoolExecutor;
+import org.ojalgo.concurrent.ParallelismContext;
 import org.ojalgo.constant.PrimitiveMath;
 import org.ojalgo.function.PrimitiveFunction;
 import org.ojalgo.matrix.store.MatrixStore;
@@ -54,15 +55,21 @@ public final class NewIntegerSolver extends IntegerSolver {
 
             NodeKey tmpNodeKey = null;
 
-            while (normal && NewIntegerSolver.this.isStillNodesToTry() && ((tmpNodeKey = NewIntegerSolver.this.getNextNode()) != null)) {
-                NewIntegerSolver.this.compute(tmpNodeKey);
+            try {
+                while (normal && NewIntegerSolver.this.isStillNodesToTry() && ((tmpNodeKey = NewIntegerSolver.this.getNextNode()) != null)) {
+                    NewIntegerSolver.this.compute(tmpNodeKey);
+                }
+            } finally {
+                myActiveWorkers.decrementAndGet();
             }
 
             return normal;
         }
     }
 
+    private final AtomicInteger myActiveWorkers = new AtomicInteger();
     private final PriorityBlockingQueue<NodeKey> myNodesToTry = new PriorityBlockingQueue<>();
+    private ParallelismContext myParallelism = ParallelismContext.current();
 
     boolean normal = true;
 
@@ -80,6 +87,8 @@ public final class NewIntegerSolver extends IntegerSolver {
 
         this.resetIterationsCount();
 
+        myParallelism = ParallelismContext.current();
+
         this.setup();
 
         //     final boolean tmpNormalExit = DaemonPoolExecutor.INSTANCE.invoke(tmpTask);
@@ -244,9 +253,7 @@ public final class NewIntegerSolver extends IntegerSolver {
                     this.add(tmpLowerBranchTask);
                     this.add(tmpUpperBranchTask);
 
-                    if (DaemonPoolExecutor.isDaemonAvailable()) {
-                        DaemonPoolExecutor.invoke(new NodeWorker());
-                    }
+                    this.startAdditionalWorker();
 
                     normal &= true;
 
@@ -419,12 +426,43 @@ public final class NewIntegerSolver extends IntegerSolver {
             NewIntegerSolver.this.add(new NodeKey(tmpIntegerModel));
         }
 
-        final Future<Boolean> tmpFuture = DaemonPoolExecutor.invoke(new NodeWorker());
+        myActiveWorkers.incrementAndGet();
 
-        try {
-            normal = normal && tmpFuture.get();
-        } catch (InterruptedException | ExecutionException anException) {
-            normal &= false;
+        if (myParallelism.isSingleThreaded()) {
+
+            try {
+                normal = normal && new NodeWorker().call();
+            } catch (final Exception exception) {
+                normal &= false;
+            }
+
+        } else {
+
+            final Future<Boolean> tmpFuture = myParallelism.submit(new NodeWorker(), 1);
+
+            try {
+                normal = normal && tmpFuture.get();
+            } catch (InterruptedException | ExecutionException anException) {
+                normal &= false;
+            }
+        }
+    }
+
+    /**
+     * Start another (asynchronous) node worker, unless the {@link ParallelismContext} in effect when solving
+     * started already has as many workers running as it allows.
+     */
+    void startAdditionalWorker() {
+
+        final int tmpLimit = myParallelism.workers();
+
+        int tmpActive;
+        while ((tmpActive = myActiveWorkers.get()) < tmpLimit) {
+            if (myActiveWorkers.compareAndSet(tmpActive, tmpActive + 1)) {
+                // There may be as many node workers as the context allows, each gets a single worker share
+                myParallelism.submit(new NodeWorker(), 1);
+                return;
+            }
         }
     }
 
@@ -0,0 +1,125 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.ojalgo.TestUtils;
+
+/**
+ * @author apete
+ */
+public class SparseArrayTest {
+
+    @Test
+    public void testLoader() {
+
+        for (final long tmpCount : new long[] { 1_000L, 1_000_000_000L, Long.MAX_VALUE }) {
+
+            final Random tmpRandom = new Random(tmpCount);
+
+            final int tmpSize = 5_000;
+            final long[] tmpIndices = new long[tmpSize];
+            final double[] tmpValues = new double[tmpSize];
+            for (int i = 0; i < tmpSize; i++) {
+                // Plenty of duplicates
+                tmpIndices[i] = i < (tmpSize / 2) ? Math.abs(tmpRandom.nextLong() % tmpCount) : tmpIndices[tmpRandom.nextInt(tmpSize / 2)];
+                tmpValues[i] = tmpRandom.nextInt(100) - 50;
+            }
+
+            final SparseArray<Double> tmpExpected = SparseArray.factory(Primitive64Array.FACTORY, tmpCount).make();
+            for (int i = 0; i < tmpSize; i++) {
+                tmpExpected.add(tmpIndices[i], tmpValues[i]);
+            }
+
+            final SparseArray.Loader tmpLoader = new SparseArray.Loader();
+            IntStream.range(0, tmpSize).parallel().forEach(i -> tmpLoader.add(tmpIndices[i], tmpValues[i]));
+
+            final SparseArray<Double> tmpPrimitive = SparseArray.factory(Primitive64Array.FACTORY, tmpCount).make();
+            tmpPrimitive.set(3L, 3.0);
+            tmpLoader.supplyTo(tmpPrimitive);
+
+            final SparseArray<BigDecimal> tmpBig = SparseArray.factory(BigArray.FACTORY, tmpCount).make();
+            tmpLoader.supplyTo(tmpBig);
+
+            final SparseArray.NonzeroView<Double> tmpNonzeros = tmpExpected.nonzeros();
+            int tmpNonzeroCount = 0;
+            while (tmpNonzeros.hasNext()) {
+                tmpNonzeros.next();
+                if (tmpNonzeros.doubleValue() != 0.0) {
+                    TestUtils.assertEquals(tmpNonzeros.doubleValue(), tmpPrimitive.doubleValue(tmpNonzeros.index()));
+                    TestUtils.assertEquals(tmpNonzeros.doubleValue(), tmpBig.doubleValue(tmpNonzeros.index()));
+                    tmpNonzeroCount++;
+                }
+            }
+
+            TestUtils.assertEquals(tmpNonzeroCount, tmpPrimitive.countNonzeros());
+            TestUtils.assertEquals(tmpNonzeroCount, tmpBig.countNonzeros());
+
+            long tmpPrevious = -1L;
+            for (final SparseArray.NonzeroView<Double> tmpNonzero : tmpPrimitive.nonzeros()) {
+                TestUtils.assertTrue(tmpNonzero.index() > tmpPrevious);
+                tmpPrevious = tmpNonzero.index();
+            }
+
+            // Still possible to change afterwards
+            tmpPrimitive.set(tmpCount - 1L, 7.0);
+            TestUtils.assertEquals(7.0, tmpPrimitive.doubleValue(tmpCount - 1L));
+        }
+    }
+
+    @Test
+    public void testLoaderOutOfBounds() {
+
+        final SparseArray.Loader tmpLoader = new SparseArray.Loader();
+
+        try {
+            tmpLoader.add(-1L, 1.0);
+            TestUtils.fail();
+        } catch (final ArrayIndexOutOfBoundsException exception) {
+            // Expected
+        }
+
+        tmpLoader.add(5L, 1.0);
+        tmpLoader.add(10L, 2.0);
+
+        final SparseArray<Double> tmpTooShort = SparseArray.factory(Primitive64Array.FACTORY, 10L).make();
+        tmpTooShort.set(3L, 3.0);
+        try {
+            tmpLoader.supplyTo(tmpTooShort);
+            TestUtils.fail();
+        } catch (final ArrayIndexOutOfBoundsException exception) {
+            // Expected, and the array is unchanged
+            TestUtils.assertEquals(3.0, tmpTooShort.doubleValue(3L));
+            TestUtils.assertEquals(1, tmpTooShort.countNonzeros());
+        }
+
+        final SparseArray<Double> tmpLongEnough = SparseArray.factory(Primitive64Array.FACTORY, 11L).make();
+        tmpLoader.supplyTo(tmpLongEnough);
+        TestUtils.assertEquals(2.0, tmpLongEnough.doubleValue(10L));
+        TestUtils.assertEquals(2, tmpLongEnough.countNonzeros());
+    }
+
+}
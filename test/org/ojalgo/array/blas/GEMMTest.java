@@ -0,0 +1,93 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.array.blas;
+
+import org.junit.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.random.Uniform;
+
+/**
+ * @author apete
+ */
+public class GEMMTest {
+
+    @Test
+    public void testAlphaBetaAndSubmatrices() {
+
+        final PrimitiveDenseStore tmpA = PrimitiveDenseStore.FACTORY.makeFilled(20, 30, new Uniform());
+        final PrimitiveDenseStore tmpB = PrimitiveDenseStore.FACTORY.makeFilled(30, 40, new Uniform());
+        final PrimitiveDenseStore tmpC = PrimitiveDenseStore.FACTORY.makeFilled(20, 40, new Uniform());
+
+        // The 10x15 block of C at (5,20) := 2 * A(5:15,3:28) * B(3:28,20:35) - C(5:15,20:35)
+        final MatrixStore<Double> tmpSubA = tmpA.logical().offsets(5, 3).limits(10, 25).get();
+        final MatrixStore<Double> tmpSubB = tmpB.logical().offsets(3, 20).limits(25, 15).get();
+        final MatrixStore<Double> tmpSubC = tmpC.logical().offsets(5, 20).limits(10, 15).get();
+        final MatrixStore<Double> tmpExpected = tmpSubA.multiply(tmpSubB).multiply(2.0).subtract(tmpSubC).copy();
+
+        GEMM.invoke(10, 15, 25, 2.0, tmpA.data, 5 + (3 * 20), 20, false, tmpB.data, 3 + (20 * 30), 30, false, -1.0, tmpC.data, 5 + (20 * 20), 20);
+
+        TestUtils.assertEquals(tmpExpected, tmpC.logical().offsets(5, 20).limits(10, 15).get());
+    }
+
+    @Test
+    public void testMultiply() {
+
+        for (final int tmpDim : new int[] { 1, 3, 7, 65, 130, 301 }) {
+
+            final PrimitiveDenseStore tmpLeft = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, tmpDim + 3, new Uniform());
+            final PrimitiveDenseStore tmpRight = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim + 3, tmpDim + 5, new Uniform());
+
+            final PrimitiveDenseStore tmpExpected = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, tmpDim + 5);
+            for (int j = 0; j < (tmpDim + 5); j++) {
+                for (int c = 0; c < (tmpDim + 3); c++) {
+                    for (int i = 0; i < tmpDim; i++) {
+                        tmpExpected.add(i, j, tmpLeft.doubleValue(i, c) * tmpRight.doubleValue(c, j));
+                    }
+                }
+            }
+
+            final PrimitiveDenseStore tmpActual = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, tmpDim + 5);
+            GEMM.invoke(tmpActual.data, tmpDim, tmpDim + 5, tmpDim + 3, tmpLeft.data, tmpRight.data);
+
+            TestUtils.assertEquals(tmpExpected, tmpActual);
+        }
+    }
+
+    @Test
+    public void testTransposed() {
+
+        final int m = 67, n = 45, k = 300;
+
+        final PrimitiveDenseStore tmpA = PrimitiveDenseStore.FACTORY.makeFilled(k, m, new Uniform());
+        final PrimitiveDenseStore tmpB = PrimitiveDenseStore.FACTORY.makeFilled(n, k, new Uniform());
+
+        final MatrixStore<Double> tmpExpected = tmpA.transpose().multiply(tmpB.transpose());
+
+        final PrimitiveDenseStore tmpActual = PrimitiveDenseStore.FACTORY.makeZero(m, n);
+        GEMM.invoke(m, n, k, 1.0, tmpA.data, 0, k, true, tmpB.data, 0, n, true, 0.0, tmpActual.data, 0, m);
+
+        TestUtils.assertEquals(tmpExpected, tmpActual);
+    }
+
+}
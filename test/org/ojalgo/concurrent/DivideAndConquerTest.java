@@ -0,0 +1,125 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.concurrent;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.After;
+import org.junit.Test;
+import org.ojalgo.OjAlgoUtils;
+import org.ojalgo.TestUtils;
+
+/**
+ * @author apete
+ */
+public class DivideAndConquerTest {
+
+    static final class Counter extends DivideAndConquer {
+
+        final AtomicIntegerArray visits;
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        Counter(final int size) {
+            super();
+            visits = new AtomicIntegerArray(size);
+        }
+
+        @Override
+        protected void conquer(final int first, final int limit) {
+            threads.add(Thread.currentThread());
+            for (int i = first; i < limit; i++) {
+                visits.incrementAndGet(i);
+            }
+        }
+
+    }
+
+    @After
+    public void restoreParallelism() {
+        DivideAndConquer.setParallelism(OjAlgoUtils.ENVIRONMENT.threads);
+    }
+
+    @Test
+    public void testEachIndexConqueredOnce() {
+
+        DivideAndConquer.setParallelism(4);
+
+        final Counter tmpCounter = new Counter(1000);
+        tmpCounter.invoke(0, 1000, 8);
+
+        for (int i = 0; i < 1000; i++) {
+            TestUtils.assertEquals(1, tmpCounter.visits.get(i));
+        }
+
+        TestUtils.assertTrue(tmpCounter.threads.size() <= 4 + 1);
+    }
+
+    @Test
+    public void testNestedInvocation() {
+
+        DivideAndConquer.setParallelism(3);
+
+        final Counter tmpInner = new Counter(100 * 100);
+
+        final DivideAndConquer tmpOuter = new DivideAndConquer() {
+
+            @Override
+            protected void conquer(final int first, final int limit) {
+                for (int j = first; j < limit; j++) {
+                    final int tmpOffset = j * 100;
+                    new DivideAndConquer() {
+
+                        @Override
+                        protected void conquer(final int first, final int limit) {
+                            tmpInner.conquer(tmpOffset + first, tmpOffset + limit);
+                        }
+
+                    }.invoke(0, 100, 4);
+                }
+            }
+
+        };
+
+        tmpOuter.invoke(0, 100, 4);
+
+        for (int i = 0; i < (100 * 100); i++) {
+            TestUtils.assertEquals(1, tmpInner.visits.get(i));
+        }
+
+        TestUtils.assertTrue(tmpInner.threads.size() <= 3 + 1);
+    }
+
+    @Test
+    public void testSingleThreaded() {
+
+        DivideAndConquer.setParallelism(1);
+
+        final Counter tmpCounter = new Counter(100);
+        tmpCounter.invoke(0, 100, 1);
+
+        TestUtils.assertEquals(1, tmpCounter.threads.size());
+        TestUtils.assertTrue(tmpCounter.threads.contains(Thread.currentThread()));
+    }
+
+}
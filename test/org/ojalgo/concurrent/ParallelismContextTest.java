@@ -0,0 +1,160 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.concurrent;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ojalgo.OjAlgoUtils;
+import org.ojalgo.TestUtils;
+import org.ojalgo.concurrent.DivideAndConquerTest.Counter;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.random.Uniform;
+
+/**
+ * @author apete
+ */
+public class ParallelismContextTest {
+
+    @Before
+    public void increaseParallelism() {
+        DivideAndConquer.setParallelism(8);
+    }
+
+    @After
+    public void restoreParallelism() {
+        DivideAndConquer.setParallelism(OjAlgoUtils.ENVIRONMENT.threads);
+    }
+
+    @Test
+    public void testLimit() {
+
+        try (ParallelismContext tmpContext = ParallelismContext.limit(2)) {
+
+            TestUtils.assertTrue(tmpContext == ParallelismContext.current());
+            TestUtils.assertEquals(2, ParallelismContext.current().workers());
+
+            final Counter tmpCounter = new Counter(1000);
+            tmpCounter.invoke(0, 1000, 1);
+
+            TestUtils.assertTrue(tmpCounter.threads.size() <= 2);
+        }
+
+        TestUtils.assertEquals(8, ParallelismContext.current().workers());
+    }
+
+    @Test
+    public void testNestedCanOnlyRestrict() {
+
+        try (ParallelismContext tmpOuter = ParallelismContext.limit(3)) {
+
+            try (ParallelismContext tmpInner = ParallelismContext.limit(6)) {
+                TestUtils.assertEquals(3, tmpInner.workers());
+            }
+
+            try (ParallelismContext tmpInner = ParallelismContext.single()) {
+                TestUtils.assertTrue(tmpInner.isSingleThreaded());
+            }
+
+            TestUtils.assertEquals(tmpOuter, ParallelismContext.current());
+        }
+    }
+
+    @Test
+    public void testPropagatedToWorkers() {
+
+        final AtomicInteger tmpActive = new AtomicInteger();
+        final AtomicInteger tmpMaxActive = new AtomicInteger();
+
+        try (ParallelismContext tmpContext = ParallelismContext.limit(2)) {
+
+            TestUtils.assertEquals(2, tmpContext.workers());
+
+            new DivideAndConquer() {
+
+                @Override
+                protected void conquer(final int first, final int limit) {
+                    TestUtils.assertTrue(ParallelismContext.current().workers() <= 2);
+                    for (int j = first; j < limit; j++) {
+                        new DivideAndConquer() {
+
+                            @Override
+                            protected void conquer(final int first, final int limit) {
+                                tmpMaxActive.accumulateAndGet(tmpActive.incrementAndGet(), Math::max);
+                                Thread.yield();
+                                tmpActive.decrementAndGet();
+                            }
+
+                        }.invoke(0, 100, 1);
+                    }
+                }
+
+            }.invoke(0, 10, 1);
+        }
+
+        TestUtils.assertTrue(tmpMaxActive.get() <= 2);
+    }
+
+    @Test
+    public void testSingleThreadedMultiply() {
+
+        final PrimitiveDenseStore tmpLeft = PrimitiveDenseStore.FACTORY.makeFilled(200, 100, new Uniform());
+        final PrimitiveDenseStore tmpRight = PrimitiveDenseStore.FACTORY.makeFilled(100, 300, new Uniform());
+
+        final PrimitiveDenseStore tmpExpected = PrimitiveDenseStore.FACTORY.makeZero(200, 300);
+        tmpExpected.fillByMultiplying(tmpLeft, tmpRight);
+
+        final PrimitiveDenseStore tmpActual = PrimitiveDenseStore.FACTORY.makeZero(200, 300);
+        try (ParallelismContext tmpContext = ParallelismContext.single()) {
+            TestUtils.assertTrue(tmpContext.isSingleThreaded());
+            tmpActual.fillByMultiplying(tmpLeft, tmpRight);
+        }
+
+        TestUtils.assertEquals(tmpExpected, tmpActual);
+    }
+
+    @Test
+    public void testUsingPool() {
+
+        final ForkJoinPool tmpPool = new ForkJoinPool(3);
+
+        try (ParallelismContext tmpContext = ParallelismContext.using(tmpPool)) {
+
+            TestUtils.assertEquals(3, tmpContext.workers());
+            TestUtils.assertTrue(tmpPool == tmpContext.pool());
+
+            final Counter tmpCounter = new Counter(1000);
+            tmpCounter.invoke(0, 1000, 1);
+
+            for (final Thread tmpThread : tmpCounter.threads) {
+                TestUtils.assertTrue((tmpThread == Thread.currentThread()) || tmpThread.getName().startsWith("ForkJoinPool"));
+            }
+
+        } finally {
+            tmpPool.shutdown();
+        }
+    }
+
+}
@@ -1,5 +1,10 @@
 package org.ojalgo.machine;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
 import org.junit.Test;
 import org.ojalgo.TestUtils;
 
@@ -11,6 +16,65 @@ public class TestHardware {
         TestUtils.assertTrue(Hardware.X86_64__04_1_L3.compareTo(Hardware.X86_64__04_1_L2) > 0);
     }
 
+    @Test
+    public void testCountCpus() {
+        TestUtils.assertEquals(1, Hardware.countCpus("0"));
+        TestUtils.assertEquals(4, Hardware.countCpus("0-3"));
+        TestUtils.assertEquals(2, Hardware.countCpus("0,16"));
+        TestUtils.assertEquals(6, Hardware.countCpus("0-1,8-11\n"));
+    }
+
+    /**
+     * 2 x 8 cores x 2 threads: 48K L1 data (and 32K instruction) per core, 2M L2 per core and 30M L3 per
+     * processor
+     */
+    @Test
+    public void testDetect() throws IOException {
+
+        final File tmpCache = Files.createTempDirectory("cache").toFile();
+
+        final Hardware tmpHardware;
+        try {
+
+            this.writeCache(tmpCache, 0, 1, "Data", "48K", "0,16");
+            this.writeCache(tmpCache, 1, 1, "Instruction", "32K", "0,16");
+            this.writeCache(tmpCache, 2, 2, "Unified", "2048K", "0,16");
+            this.writeCache(tmpCache, 3, 3, "Unified", "30M", "0-7,16-23");
+
+            tmpHardware = Hardware.detect(tmpCache, "x86_64", 64L * 1024L * 1024L * 1024L, 32);
+
+        } finally {
+            this.delete(tmpCache);
+        }
+
+        this.doTest(tmpHardware, 32, 16, 2);
+
+        TestUtils.assertTrue(tmpHardware.isL3Specified());
+        TestUtils.assertEquals(30L * 1024L * 1024L, tmpHardware.cache);
+        TestUtils.assertEquals(2048L * 1024L, tmpHardware.cacheL2);
+        TestUtils.assertEquals(48L * 1024L, tmpHardware.cacheL1);
+    }
+
+    @Test
+    public void testDetectNothing() throws IOException {
+
+        final File tmpEmpty = Files.createTempDirectory("cache").toFile();
+
+        try {
+            TestUtils.assertTrue(Hardware.detect(tmpEmpty, "x86_64", 1024L, 1) == null);
+            TestUtils.assertTrue(Hardware.detect(new File(tmpEmpty, "missing"), "x86_64", 1024L, 1) == null);
+        } finally {
+            this.delete(tmpEmpty);
+        }
+    }
+
+    @Test
+    public void testParseSize() {
+        TestUtils.assertEquals(32L * 1024L, Hardware.parseSize("32K"));
+        TestUtils.assertEquals(12L * 1024L * 1024L, Hardware.parseSize("12M\n"));
+        TestUtils.assertEquals(512L, Hardware.parseSize("512"));
+    }
+
     @Test
     public void testPPC__01() {
 
@@ -131,6 +195,26 @@ public class TestHardware {
         this.doTest(tmpHardware, tmpThreads, tmpCores, tmpUnits);
     }
 
+    private void writeCache(final File cache, final int index, final int level, final String type, final String size, final String shared)
+            throws IOException {
+        final File tmpIndex = new File(cache, "index" + index);
+        tmpIndex.mkdir();
+        Files.write(new File(tmpIndex, "level").toPath(), (level + "\n").getBytes(StandardCharsets.US_ASCII));
+        Files.write(new File(tmpIndex, "type").toPath(), (type + "\n").getBytes(StandardCharsets.US_ASCII));
+        Files.write(new File(tmpIndex, "size").toPath(), (size + "\n").getBytes(StandardCharsets.US_ASCII));
+        Files.write(new File(tmpIndex, "shared_cpu_list").toPath(), (shared + "\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void delete(final File file) {
+        final File[] tmpChildren = file.listFiles();
+        if (tmpChildren != null) {
+            for (final File tmpChild : tmpChildren) {
+                this.delete(tmpChild);
+            }
+        }
+        file.delete();
+    }
+
     private void doTest(final Hardware hardware, final int threads, final int cores, final int units) {
         TestUtils.assertEquals("threads", threads, hardware.threads);
         TestUtils.assertEquals("cores", cores, hardware.cores);
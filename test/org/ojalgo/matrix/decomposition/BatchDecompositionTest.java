@@ -0,0 +1,172 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import org.junit.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.MatrixUtils;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * @author apete
+ */
+public class BatchDecompositionTest {
+
+    private static final NumberContext ACCURACY = new NumberContext(10, 10);
+
+    @Test
+    public void testCholesky() {
+
+        final int tmpThreshold = BatchDecomposition.THRESHOLD;
+
+        try {
+
+            BatchDecomposition.THRESHOLD = 4;
+
+            for (int dim = 1; dim <= 7; dim++) {
+
+                final int tmpCount = 37;
+                final PrimitiveDenseStore[] tmpMatrices = new PrimitiveDenseStore[tmpCount];
+                for (int m = 0; m < tmpCount; m++) {
+                    tmpMatrices[m] = MatrixUtils.makeSPD(dim);
+                }
+                // Not positive definite
+                tmpMatrices[5].set(0, 0, -tmpMatrices[5].doubleValue(0, 0));
+
+                final double[] tmpData = BatchDecompositionTest.pack(tmpMatrices);
+                final boolean[] tmpSPD = new boolean[tmpCount];
+                BatchDecomposition.cholesky(dim, tmpCount, tmpData, tmpSPD);
+
+                final PrimitiveDenseStore[] tmpRHS = BatchDecompositionTest.makeRHS(dim, tmpCount, 3);
+                final double[] tmpSolutions = BatchDecompositionTest.pack(tmpRHS);
+                BatchDecomposition.solveCholesky(dim, tmpCount, tmpData, 3, tmpSolutions);
+
+                for (int m = 0; m < tmpCount; m++) {
+
+                    final Cholesky<Double> tmpExpected = Cholesky.PRIMITIVE.make();
+                    tmpExpected.decompose(tmpMatrices[m]);
+
+                    TestUtils.assertEquals(tmpExpected.isSPD(), tmpSPD[m]);
+
+                    if (tmpSPD[m]) {
+                        final MatrixStore<Double> tmpL = tmpExpected.getL();
+                        for (int j = 0; j < dim; j++) {
+                            for (int i = j; i < dim; i++) {
+                                TestUtils.assertEquals(tmpL.doubleValue(i, j), tmpData[BatchDecomposition.index(dim, tmpCount, i, j, m)], ACCURACY);
+                            }
+                        }
+                        BatchDecompositionTest.assertSolution(tmpMatrices[m], tmpRHS[m], tmpSolutions, tmpCount, m);
+                    }
+                }
+            }
+
+        } finally {
+            BatchDecomposition.THRESHOLD = tmpThreshold;
+        }
+    }
+
+    @Test
+    public void testLU() {
+
+        final int tmpThreshold = BatchDecomposition.THRESHOLD;
+
+        try {
+
+            BatchDecomposition.THRESHOLD = 4;
+
+            for (int dim = 1; dim <= 7; dim++) {
+
+                final int tmpCount = 37;
+                final PrimitiveDenseStore[] tmpMatrices = new PrimitiveDenseStore[tmpCount];
+                for (int m = 0; m < tmpCount; m++) {
+                    tmpMatrices[m] = PrimitiveDenseStore.FACTORY.makeFilled(dim, dim, new Uniform(-1, 2));
+                }
+                // Singular
+                tmpMatrices[7] = PrimitiveDenseStore.FACTORY.makeZero(dim, dim);
+
+                final double[] tmpData = BatchDecompositionTest.pack(tmpMatrices);
+                final int[] tmpPivots = new int[dim * tmpCount];
+                final boolean[] tmpNonsingular = new boolean[tmpCount];
+                BatchDecomposition.lu(dim, tmpCount, tmpData, tmpPivots, tmpNonsingular);
+
+                final PrimitiveDenseStore[] tmpRHS = BatchDecompositionTest.makeRHS(dim, tmpCount, 2);
+                final double[] tmpSolutions = BatchDecompositionTest.pack(tmpRHS);
+                BatchDecomposition.solveLU(dim, tmpCount, tmpData, tmpPivots, 2, tmpSolutions);
+
+                for (int m = 0; m < tmpCount; m++) {
+                    TestUtils.assertEquals(m != 7, tmpNonsingular[m]);
+                    if (tmpNonsingular[m]) {
+                        BatchDecompositionTest.assertSolution(tmpMatrices[m], tmpRHS[m], tmpSolutions, tmpCount, m);
+                    }
+                }
+            }
+
+        } finally {
+            BatchDecomposition.THRESHOLD = tmpThreshold;
+        }
+    }
+
+    private static void assertSolution(final PrimitiveDenseStore matrix, final PrimitiveDenseStore rhs, final double[] solutions, final int count,
+            final int m) {
+
+        final int tmpDim = (int) rhs.countRows();
+        final int tmpColumns = (int) rhs.countColumns();
+
+        final PrimitiveDenseStore tmpSolution = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, tmpColumns);
+        for (int j = 0; j < tmpColumns; j++) {
+            for (int i = 0; i < tmpDim; i++) {
+                tmpSolution.set(i, j, solutions[BatchDecomposition.index(tmpDim, count, i, j, m)]);
+            }
+        }
+
+        TestUtils.assertEquals(rhs, matrix.multiply(tmpSolution), ACCURACY);
+    }
+
+    private static PrimitiveDenseStore[] makeRHS(final int dim, final int count, final int columns) {
+        final PrimitiveDenseStore[] retVal = new PrimitiveDenseStore[count];
+        for (int m = 0; m < count; m++) {
+            retVal[m] = PrimitiveDenseStore.FACTORY.makeFilled(dim, columns, new Uniform());
+        }
+        return retVal;
+    }
+
+    private static double[] pack(final PrimitiveDenseStore[] matrices) {
+
+        final int tmpCount = matrices.length;
+        final int tmpRows = (int) matrices[0].countRows();
+        final int tmpColumns = (int) matrices[0].countColumns();
+
+        final double[] retVal = new double[tmpRows * tmpColumns * tmpCount];
+        for (int m = 0; m < tmpCount; m++) {
+            for (int j = 0; j < tmpColumns; j++) {
+                for (int i = 0; i < tmpRows; i++) {
+                    retVal[BatchDecomposition.index(tmpRows, tmpCount, i, j, m)] = matrices[m].doubleValue(i, j);
+                }
+            }
+        }
+        return retVal;
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import static org.ojalgo.function.PrimitiveFunction.*;
+
+import org.junit.Test;
+import org.ojalgo.RecoverableCondition;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.MatrixUtils;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.random.Uniform;
+
+/**
+ * @author apete
+ */
+public class CholeskyTest {
+
+    @Test
+    public void testAddAndRemoveRowAndColumn() {
+
+        final int tmpDim = 9;
+
+        final PrimitiveDenseStore tmpBig = MatrixUtils.makeSPD(tmpDim + 1);
+
+        for (int index = 0; index <= tmpDim; index++) {
+
+            final int tmpIndex = index;
+            final PrimitiveDenseStore tmpSmall = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, tmpDim);
+            for (int j = 0; j < tmpDim; j++) {
+                for (int i = 0; i < tmpDim; i++) {
+                    tmpSmall.set(i, j, tmpBig.doubleValue(i < tmpIndex ? i : i + 1, j < tmpIndex ? j : j + 1));
+                }
+            }
+
+            final Cholesky.Updatable<Double> tmpUpdatable = Cholesky.makeUpdatable();
+            TestUtils.assertTrue(tmpUpdatable.decompose(tmpSmall));
+
+            TestUtils.assertTrue(tmpUpdatable.addRowAndColumn(tmpIndex, tmpBig.sliceColumn(0L, tmpIndex)));
+            this.doCompare(tmpBig, tmpUpdatable);
+
+            tmpUpdatable.removeRowAndColumn(tmpIndex);
+            this.doCompare(tmpSmall, tmpUpdatable);
+        }
+    }
+
+    @Test
+    public void testBlocked() {
+
+        final int tmpDim = CholeskyDecomposition.BLOCKED + 67;
+
+        final PrimitiveDenseStore tmpSPD = MatrixUtils.makeSPD(tmpDim);
+        final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, 2, new Uniform());
+
+        final Cholesky<Double> tmpBlocked = Cholesky.PRIMITIVE.make(tmpSPD);
+        TestUtils.assertTrue(tmpBlocked.decompose(tmpSPD));
+        TestUtils.assertTrue(tmpBlocked.isSPD());
+
+        final RawCholesky tmpRaw = new RawCholesky();
+        TestUtils.assertTrue(tmpRaw.decompose(tmpSPD));
+
+        TestUtils.assertEquals(tmpRaw.getL(), tmpBlocked.getL());
+        TestUtils.assertEquals(tmpSPD, tmpBlocked.reconstruct());
+
+        final MatrixStore<Double> tmpSolution = tmpBlocked.getSolution(tmpRHS);
+        TestUtils.assertEquals(tmpRHS, tmpSPD.multiply(tmpSolution));
+    }
+
+    @Test
+    public void testBlockedNotPositiveDefinite() {
+
+        final int tmpDim = CholeskyDecomposition.BLOCKED + 67;
+
+        final PrimitiveDenseStore tmpMatrix = MatrixUtils.makeSPD(tmpDim);
+        // Negative definite in the lower right corner - discovered after several trailing updates
+        tmpMatrix.set(tmpDim - 1, tmpDim - 1, -tmpMatrix.doubleValue(tmpDim - 1, tmpDim - 1));
+
+        final Cholesky<Double> tmpBlocked = Cholesky.PRIMITIVE.make(tmpMatrix);
+        tmpBlocked.decompose(tmpMatrix);
+
+        TestUtils.assertFalse(tmpBlocked.isSPD());
+        TestUtils.assertFalse(tmpBlocked.isSolvable());
+    }
+
+    @Test
+    public void testConditionEstimate() throws RecoverableCondition {
+
+        final PrimitiveDenseStore tmpMatrix = MatrixUtils.makeSPD(30);
+        tmpMatrix.set(0, 0, tmpMatrix.doubleValue(0, 0) * 1000.0);
+
+        final double tmpExpected = MatrixDecompositionTests.norm1(tmpMatrix) * MatrixDecompositionTests.norm1(new RawLU().invert(tmpMatrix));
+
+        for (final Cholesky<Double> tmpDecomposition : MatrixDecompositionTests.getCholeskyPrimitive()) {
+            tmpDecomposition.decompose(tmpMatrix);
+            MatrixDecompositionTests.assertConditionEstimate(tmpExpected, tmpDecomposition.estimateCondition());
+        }
+    }
+
+    @Test
+    public void testDowndateNotPositiveDefinite() {
+
+        final int tmpDim = 9;
+
+        final PrimitiveDenseStore tmpMatrix = MatrixUtils.makeSPD(tmpDim);
+
+        final Cholesky.Updatable<Double> tmpUpdatable = Cholesky.makeUpdatable();
+        TestUtils.assertTrue(tmpUpdatable.decompose(tmpMatrix));
+
+        final PrimitiveDenseStore tmpVector = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, 1);
+        tmpVector.set(3, SQRT.invoke(tmpMatrix.doubleValue(3, 3)));
+
+        // Zero on the diagonal - not positive definite
+        TestUtils.assertFalse(tmpUpdatable.downdate(tmpVector));
+        this.doCompare(tmpMatrix, tmpUpdatable);
+
+        // Inserting a row/column that makes it indefinite
+        final PrimitiveDenseStore tmpColumn = PrimitiveDenseStore.FACTORY.makeZero(tmpDim + 1, 1);
+        tmpColumn.fillMatching(tmpMatrix.sliceColumn(0L, 4L));
+        tmpColumn.set(tmpDim, tmpColumn.doubleValue(4) / 2.0);
+        TestUtils.assertFalse(tmpUpdatable.addRowAndColumn(tmpDim, tmpColumn));
+        this.doCompare(tmpMatrix, tmpUpdatable);
+    }
+
+    @Test
+    public void testUpdateAndDowndate() {
+
+        final int tmpDim = 9;
+
+        final PrimitiveDenseStore tmpMatrix = MatrixUtils.makeSPD(tmpDim);
+        final PrimitiveDenseStore tmpVector = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, 1, new Uniform(-1, 2));
+
+        final Cholesky.Updatable<Double> tmpUpdatable = Cholesky.makeUpdatable();
+        TestUtils.assertTrue(tmpUpdatable.decompose(tmpMatrix));
+
+        final MatrixStore<Double> tmpUpdated = tmpMatrix.add(tmpVector.multiply(tmpVector.transpose()));
+
+        tmpUpdatable.update(tmpVector);
+        this.doCompare(tmpUpdated, tmpUpdatable);
+
+        TestUtils.assertTrue(tmpUpdatable.downdate(tmpVector));
+        this.doCompare(tmpMatrix, tmpUpdatable);
+    }
+
+    private void doCompare(final MatrixStore<Double> expected, final Cholesky<Double> actual) {
+
+        final RawCholesky tmpRaw = new RawCholesky();
+        TestUtils.assertTrue(tmpRaw.decompose(expected));
+
+        TestUtils.assertTrue(actual.isSPD());
+        TestUtils.assertTrue(actual.isSolvable());
+        TestUtils.assertEquals(tmpRaw.getL(), actual.getL());
+        TestUtils.assertEquals(expected, actual.reconstruct());
+    }
+
+}
@@ -39,7 +39,9 @@ import org.ojalgo.matrix.store.ComplexDenseStore;
 import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.SparseStore;
 import org.ojalgo.netio.BasicLogger;
+import org.ojalgo.random.Normal;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.type.context.NumberContext;
 
@@ -61,6 +63,47 @@ public class EigenvalueTest {
         TestUtils.minimiseAllBranchLimits();
     }
 
+    @Test
+    public void testDivideAndConquer() {
+
+        final int tmpThreshold = TridiagonalDivideAndConquer.THRESHOLD;
+
+        try {
+
+            TridiagonalDivideAndConquer.THRESHOLD = 2;
+
+            final int tmpDim = 67;
+
+            final PhysicalStore<Double> tmpRandom = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, tmpDim, new Normal());
+            this.doTestDivideAndConquer(tmpRandom.add(tmpRandom.transpose()));
+
+            // Only 3 distinct eigenvalues - most of them are deflated
+            final QR<Double> tmpQR = QR.PRIMITIVE.make();
+            tmpQR.decompose(tmpRandom);
+            final PhysicalStore<Double> tmpDiagonal = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, tmpDim);
+            for (int ij = 0; ij < tmpDim; ij++) {
+                tmpDiagonal.set(ij, ij, ij % 3);
+            }
+            this.doTestDivideAndConquer(tmpQR.getQ().multiply(tmpDiagonal).multiply(tmpQR.getQ().transpose()));
+
+            // 1D Laplacian - already tridiagonal
+            final PhysicalStore<Double> tmpLaplacian = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, tmpDim);
+            for (int i = 0; i < tmpDim; i++) {
+                tmpLaplacian.set(i, i, TWO);
+                if (i > 0) {
+                    tmpLaplacian.set(i, i - 1, NEG);
+                    tmpLaplacian.set(i - 1, i, NEG);
+                }
+            }
+            this.doTestDivideAndConquer(tmpLaplacian);
+
+            this.doTestDivideAndConquer(PrimitiveDenseStore.FACTORY.makeEye(tmpDim, tmpDim));
+
+        } finally {
+            TridiagonalDivideAndConquer.THRESHOLD = tmpThreshold;
+        }
+    }
+
     @Test
     public void testP20050125Case() {
 
@@ -141,6 +184,61 @@ public class EigenvalueTest {
         TestUtils.assertEquals(tmpExpectedDiagonal, tmpEigenvaluesOnly, accuracyContext);
     }
 
+    @Test
+    public void testPartialDense() {
+
+        final int tmpDim = 150;
+        final int tmpPairs = 6;
+
+        final PrimitiveDenseStore tmpMatrix = MatrixUtils.makeSPD(tmpDim);
+
+        final Eigenvalue<Double> tmpFull = new RawEigenvalue.Symmetric();
+        TestUtils.assertTrue(tmpFull.decompose(tmpMatrix));
+
+        final Eigenvalue<Double> tmpPartial = Eigenvalue.makePartial(tmpPairs);
+        TestUtils.assertTrue(tmpPartial.decompose(tmpMatrix));
+
+        final Array1D<ComplexNumber> tmpExpected = tmpFull.getEigenvalues();
+        tmpExpected.sortDescending();
+        final Array1D<ComplexNumber> tmpActual = tmpPartial.getEigenvalues();
+
+        TestUtils.assertEquals(tmpPairs, tmpActual.count());
+        for (int i = 0; i < tmpPairs; i++) {
+            TestUtils.assertEquals(tmpExpected.doubleValue(i), tmpActual.doubleValue(i), new NumberContext(10, 10));
+        }
+
+        TestUtils.assertEquals(tmpMatrix.multiply(tmpPartial.getV()), tmpPartial.getV().multiply(tmpPartial.getD()), new NumberContext(8, 8));
+        TestUtils.assertEquals(PrimitiveDenseStore.FACTORY.makeEye(tmpPairs, tmpPairs), tmpPartial.getV().transpose().multiply(tmpPartial.getV()));
+    }
+
+    @Test
+    public void testPartialSparse() {
+
+        final int tmpDim = 300;
+        final int tmpPairs = 4;
+
+        // 1D Laplacian - eigenvalues 2 - 2cos(j*PI/(n+1))
+        final SparseStore<Double> tmpMatrix = SparseStore.PRIMITIVE.make(tmpDim, tmpDim);
+        for (int i = 0; i < tmpDim; i++) {
+            tmpMatrix.set(i, i, TWO);
+            if (i > 0) {
+                tmpMatrix.set(i, i - 1, NEG);
+                tmpMatrix.set(i - 1, i, NEG);
+            }
+        }
+
+        final Eigenvalue<Double> tmpPartial = Eigenvalue.makePartial(tmpPairs);
+        TestUtils.assertTrue(tmpPartial.decompose(tmpMatrix));
+
+        final Array1D<ComplexNumber> tmpActual = tmpPartial.getEigenvalues();
+        for (int i = 0; i < tmpPairs; i++) {
+            final double tmpExpected = TWO - (TWO * COS.invoke(((tmpDim - i) * PI) / (tmpDim + 1)));
+            TestUtils.assertEquals(tmpExpected, tmpActual.doubleValue(i), new NumberContext(10, 10));
+        }
+
+        TestUtils.assertEquals(tmpMatrix.multiply(tmpPartial.getV()), tmpPartial.getV().multiply(tmpPartial.getD()), new NumberContext(8, 8));
+    }
+
     @Test
     public void testPaulsMathNote() {
 
@@ -287,4 +385,33 @@ public class EigenvalueTest {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private void doTestDivideAndConquer(final MatrixStore<Double> matrix) {
+
+        final int tmpDim = (int) matrix.countRows();
+
+        final Eigenvalue<Double> tmpExpected = new RawEigenvalue.Symmetric();
+        TestUtils.assertTrue(tmpExpected.decompose(matrix));
+        final Array1D<ComplexNumber> tmpExpectedValues = tmpExpected.getEigenvalues();
+        tmpExpectedValues.sortAscending();
+
+        final Eigenvalue<Double>[] tmpDecomps = (Eigenvalue<Double>[]) new Eigenvalue<?>[] { new HermitianEvD.DivideAndConquerPrimitive(),
+                new RawEigenvalue.Symmetric(true) };
+
+        for (final Eigenvalue<Double> tmpDecomp : tmpDecomps) {
+
+            TestUtils.assertTrue(tmpDecomp.decompose(matrix));
+
+            final Array1D<ComplexNumber> tmpActualValues = tmpDecomp.getEigenvalues();
+            tmpActualValues.sortAscending();
+            for (int i = 0; i < tmpDim; i++) {
+                TestUtils.assertEquals(tmpExpectedValues.doubleValue(i), tmpActualValues.doubleValue(i), new NumberContext(10, 10));
+            }
+
+            final MatrixStore<Double> tmpV = tmpDecomp.getV();
+            TestUtils.assertEquals(matrix.multiply(tmpV), tmpV.multiply(tmpDecomp.getD()), new NumberContext(10, 10));
+            TestUtils.assertEquals(PrimitiveDenseStore.FACTORY.makeEye(tmpDim, tmpDim), tmpV.transpose().multiply(tmpV), new NumberContext(12, 12));
+        }
+    }
+
 }
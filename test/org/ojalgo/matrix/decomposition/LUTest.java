@@ -25,13 +25,17 @@ import java.math.BigDecimal;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.ojalgo.RecoverableCondition;
 import org.ojalgo.TestUtils;
 import org.ojalgo.matrix.RationalMatrix;
 import org.ojalgo.matrix.P20061119Case;
 import org.ojalgo.matrix.store.BigDenseStore;
 import org.ojalgo.matrix.store.ComplexDenseStore;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
 import org.ojalgo.netio.BasicLogger;
+import org.ojalgo.random.Normal;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.type.context.NumberContext;
 
@@ -45,6 +49,84 @@ public class LUTest {
         TestUtils.minimiseAllBranchLimits();
     }
 
+    private static void doTestBlocked(final PhysicalStore<Double> matrix, final boolean compareFactors) {
+
+        final int tmpBlocked = LUDecomposition.BLOCKED;
+
+        try {
+
+            final LU<Double> tmpBlockedLU = LU.PRIMITIVE.make(matrix);
+            TestUtils.assertTrue(tmpBlockedLU.decompose(matrix));
+
+            LUDecomposition.BLOCKED = Integer.MAX_VALUE;
+
+            final LU<Double> tmpUnblockedLU = LU.PRIMITIVE.make(matrix);
+            TestUtils.assertTrue(tmpUnblockedLU.decompose(matrix));
+
+            if (compareFactors) {
+                TestUtils.assertEquals(tmpUnblockedLU.getPivotOrder(), tmpBlockedLU.getPivotOrder());
+                TestUtils.assertEquals(tmpUnblockedLU.getL(), tmpBlockedLU.getL());
+                TestUtils.assertEquals(tmpUnblockedLU.getU(), tmpBlockedLU.getU());
+            }
+            TestUtils.assertEquals(tmpUnblockedLU.getRank(), tmpBlockedLU.getRank());
+
+            final MatrixStore<Double> tmpPivoted = matrix.logical().row(tmpBlockedLU.getPivotOrder()).get();
+            TestUtils.assertEquals(tmpPivoted, tmpBlockedLU.getL().multiply(tmpBlockedLU.getU()));
+
+        } finally {
+            LUDecomposition.BLOCKED = tmpBlocked;
+        }
+    }
+
+    @Test
+    public void testBlocked() {
+
+        final int tmpDim = LUDecomposition.BLOCKED + 45;
+
+        LUTest.doTestBlocked(PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, tmpDim, new Normal()), true);
+        LUTest.doTestBlocked(PrimitiveDenseStore.FACTORY.makeFilled(tmpDim + 30, tmpDim, new Normal()), true);
+        LUTest.doTestBlocked(PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, tmpDim + 30, new Normal()), true);
+
+        // Singular - a column of zeros and two equal columns. The last pivots are chosen among rounding errors, and may differ.
+        final PrimitiveDenseStore tmpSingular = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, tmpDim, new Normal());
+        tmpSingular.fillColumn(0, 7, 0.0);
+        tmpSingular.fillColumn(0, tmpDim - 3, tmpSingular.logical().column(11).get());
+        LUTest.doTestBlocked(tmpSingular, false);
+    }
+
+    @Test
+    public void testConditionEstimate() throws RecoverableCondition {
+
+        final int tmpDim = 40;
+
+        final PrimitiveDenseStore tmpRandom = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, tmpDim, new Normal());
+        final PrimitiveDenseStore tmpHilbert = PrimitiveDenseStore.FACTORY.makeZero(8, 8);
+        for (int j = 0; j < 8; j++) {
+            for (int i = 0; i < 8; i++) {
+                tmpHilbert.set(i, j, 1.0 / (i + j + 1));
+            }
+        }
+
+        for (final PrimitiveDenseStore tmpMatrix : new PrimitiveDenseStore[] { tmpRandom, tmpHilbert }) {
+
+            final double tmpExpected = MatrixDecompositionTests.norm1(tmpMatrix)
+                    * MatrixDecompositionTests.norm1(new RawLU().invert(tmpMatrix));
+
+            for (final LU<Double> tmpDecomposition : MatrixDecompositionTests.getLUPrimitive()) {
+                tmpDecomposition.decompose(tmpMatrix);
+                MatrixDecompositionTests.assertConditionEstimate(tmpExpected, tmpDecomposition.estimateCondition());
+            }
+
+            final LU<BigDecimal> tmpBig = LU.BIG.make();
+            tmpBig.decompose(BigDenseStore.FACTORY.copy(tmpMatrix));
+            MatrixDecompositionTests.assertConditionEstimate(tmpExpected, tmpBig.estimateCondition());
+        }
+
+        final LU<Double> tmpSingular = LU.PRIMITIVE.make();
+        tmpSingular.decompose(PrimitiveDenseStore.FACTORY.makeZero(tmpDim, tmpDim));
+        TestUtils.assertTrue(Double.isInfinite(tmpSingular.estimateCondition()));
+    }
+
     @Test
     public void testP20061119Case() {
 
@@ -23,6 +23,7 @@ package org.ojalgo.matrix.decomposition;
 
 import org.junit.Before;
 import org.ojalgo.TestUtils;
+import org.ojalgo.access.Access2D;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -38,6 +39,14 @@ public abstract class MatrixDecompositionTests {
 
     static final boolean DEBUG = false;
 
+    /**
+     * The estimate is a lower bound, and should be within an order of magnitude
+     */
+    public static void assertConditionEstimate(final double expected, final double estimate) {
+        TestUtils.assertTrue(estimate + " > " + expected, estimate <= (expected * (1.0 + 1E-8)));
+        TestUtils.assertTrue(estimate + " << " + expected, estimate >= (expected / 10.0));
+    }
+
     public static List<MatrixDecomposition<Double>> getAllPrimitive() {
 
         final List<MatrixDecomposition<Double>> retVal = new ArrayList<>();
@@ -66,7 +75,7 @@ public abstract class MatrixDecompositionTests {
 
     @SuppressWarnings("unchecked")
     public static final Cholesky<Double>[] getCholeskyPrimitive() {
-        return (Cholesky<Double>[]) new Cholesky<?>[] { new CholeskyDecomposition.Primitive(), new RawCholesky() };
+        return (Cholesky<Double>[]) new Cholesky<?>[] { new CholeskyDecomposition.Primitive(), new RawCholesky(), new SparseCholesky() };
     }
 
     public static final Eigenvalue<?>[] getEigenvalueAllDynamic() {
@@ -95,7 +104,7 @@ public abstract class MatrixDecompositionTests {
     @SuppressWarnings("unchecked")
     public static Eigenvalue<Double>[] getEigenvaluePrimitiveSymmetric() {
         return (Eigenvalue<Double>[]) new Eigenvalue<?>[]{new HermitianEvD.DeferredPrimitive(), new HermitianEvD.SimultaneousPrimitive(),
-                new RawEigenvalue.Symmetric()};
+                new HermitianEvD.DivideAndConquerPrimitive(), new RawEigenvalue.Symmetric(), new RawEigenvalue.Symmetric(true)};
     }
 
     public static final Hessenberg<?>[] getHessenbergAll() {
@@ -160,4 +169,19 @@ public abstract class MatrixDecompositionTests {
         TestUtils.minimiseAllBranchLimits();
     }
 
+    /**
+     * Max absolute column sum
+     */
+    public static double norm1(final Access2D<?> matrix) {
+        double retVal = 0.0;
+        for (long j = 0L; j < matrix.countColumns(); j++) {
+            double tmpSum = 0.0;
+            for (long i = 0L; i < matrix.countRows(); i++) {
+                tmpSum += Math.abs(matrix.doubleValue(i, j));
+            }
+            retVal = Math.max(retVal, tmpSum);
+        }
+        return retVal;
+    }
+
 }
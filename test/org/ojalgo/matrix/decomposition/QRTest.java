@@ -38,6 +38,7 @@ import org.ojalgo.matrix.store.PrimitiveDenseStore;
 import org.ojalgo.matrix.store.operation.MatrixOperation;
 import org.ojalgo.matrix.transformation.Householder;
 import org.ojalgo.netio.BasicLogger;
+import org.ojalgo.random.Normal;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.type.context.NumberContext;
 
@@ -57,11 +58,182 @@ public class QRTest {
         return tmpBase.multiply(tmpBase.conjugate());
     }
 
+    private static void doTestUpdatable(final PhysicalStore<Double> matrix) {
+
+        final QR.Updatable<Double> tmpUpdatable = QR.makeUpdatable();
+        TestUtils.assertTrue(tmpUpdatable.decompose(matrix));
+
+        PhysicalStore<Double> tmpExpected = matrix.copy();
+
+        final PhysicalStore<Double> tmpU = PrimitiveDenseStore.FACTORY.makeFilled(tmpExpected.countRows(), 1, new Normal());
+        final PhysicalStore<Double> tmpV = PrimitiveDenseStore.FACTORY.makeFilled(tmpExpected.countColumns(), 1, new Normal());
+        tmpUpdatable.update(tmpU, tmpV);
+        tmpExpected = tmpExpected.add(tmpU.multiply(tmpV.transpose())).copy();
+        QRTest.doCompare(tmpExpected, tmpUpdatable);
+
+        final PhysicalStore<Double> tmpColumn = PrimitiveDenseStore.FACTORY.makeFilled(tmpExpected.countRows(), 1, new Normal());
+        tmpUpdatable.addColumn(1, tmpColumn);
+        tmpExpected = QRTest.insert(tmpExpected.transpose(), 1, tmpColumn).transpose().copy();
+        QRTest.doCompare(tmpExpected, tmpUpdatable);
+
+        tmpUpdatable.removeColumn(0);
+        tmpExpected = QRTest.remove(tmpExpected.transpose(), 0).transpose().copy();
+        QRTest.doCompare(tmpExpected, tmpUpdatable);
+
+        final PhysicalStore<Double> tmpRow = PrimitiveDenseStore.FACTORY.makeFilled(tmpExpected.countColumns(), 1, new Normal());
+        tmpUpdatable.addRow(2, tmpRow);
+        tmpExpected = QRTest.insert(tmpExpected, 2, tmpRow);
+        QRTest.doCompare(tmpExpected, tmpUpdatable);
+
+        final int tmpLast = (int) tmpExpected.countRows() - 1;
+        tmpUpdatable.removeRow(tmpLast);
+        tmpExpected = QRTest.remove(tmpExpected, tmpLast);
+        QRTest.doCompare(tmpExpected, tmpUpdatable);
+
+        tmpUpdatable.removeRow(0);
+        tmpExpected = QRTest.remove(tmpExpected, 0);
+        QRTest.doCompare(tmpExpected, tmpUpdatable);
+
+        // A column already in the span of [Q]
+        final PhysicalStore<Double> tmpDuplicate = PrimitiveDenseStore.FACTORY.copy(tmpExpected.logical().column(0).get());
+        tmpUpdatable.addColumn(0, tmpDuplicate);
+        tmpExpected = QRTest.insert(tmpExpected.transpose(), 0, tmpDuplicate).transpose().copy();
+        TestUtils.assertEquals(tmpExpected, tmpUpdatable.reconstruct());
+
+        // Only a thin [Q] is kept, the full size one is formed when asked for
+        final long tmpRows = tmpExpected.countRows();
+        TestUtils.assertEquals(Math.min(tmpRows, tmpExpected.countColumns()), ((QRDecomposition<Double>) tmpUpdatable).getUpdatableQ().countColumns());
+        if (tmpRows > tmpExpected.countColumns()) {
+            final MatrixStore<Double> tmpThinQ = tmpUpdatable.getQ();
+            tmpUpdatable.setFullSize(true);
+            final MatrixStore<Double> tmpFullQ = tmpUpdatable.getQ();
+            TestUtils.assertEquals(PrimitiveDenseStore.FACTORY.makeEye(tmpRows, tmpRows), tmpFullQ.transpose().multiply(tmpFullQ));
+            TestUtils.assertEquals(tmpThinQ, tmpFullQ.logical().limits((int) tmpRows, (int) tmpThinQ.countColumns()).get());
+        }
+    }
+
+    private static void doCompare(final PhysicalStore<Double> expected, final QR<Double> actual) {
+
+        final MatrixStore<Double> tmpQ = actual.getQ();
+        final MatrixStore<Double> tmpR = actual.getR();
+
+        TestUtils.assertEquals(expected, actual.reconstruct());
+        TestUtils.assertEquals(PrimitiveDenseStore.FACTORY.makeEye(tmpQ.countColumns(), tmpQ.countColumns()), tmpQ.transpose().multiply(tmpQ));
+        for (int j = 0; j < tmpR.countColumns(); j++) {
+            for (int i = j + 1; i < tmpR.countRows(); i++) {
+                TestUtils.assertEquals(0.0, tmpR.doubleValue(i, j));
+            }
+        }
+
+        if (expected.countRows() > expected.countColumns()) {
+
+            final PhysicalStore<Double> tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(expected.countRows(), 2, new Normal());
+
+            final QR<Double> tmpFresh = QR.PRIMITIVE.make(expected);
+            TestUtils.assertTrue(tmpFresh.decompose(expected));
+
+            TestUtils.assertTrue(actual.isSolvable());
+            TestUtils.assertEquals(tmpFresh.getSolution(tmpRHS), actual.getSolution(tmpRHS));
+        }
+    }
+
+    private static PhysicalStore<Double> insert(final MatrixStore<Double> matrix, final int index, final PhysicalStore<Double> row) {
+
+        final PhysicalStore<Double> retVal = PrimitiveDenseStore.FACTORY.makeZero(matrix.countRows() + 1L, matrix.countColumns());
+
+        for (int j = 0; j < matrix.countColumns(); j++) {
+            for (int i = 0; i < matrix.countRows(); i++) {
+                retVal.set(i < index ? i : i + 1, j, matrix.doubleValue(i, j));
+            }
+            retVal.set(index, j, row.doubleValue(j));
+        }
+
+        return retVal;
+    }
+
+    private static PhysicalStore<Double> remove(final MatrixStore<Double> matrix, final int index) {
+
+        final PhysicalStore<Double> retVal = PrimitiveDenseStore.FACTORY.makeZero(matrix.countRows() - 1L, matrix.countColumns());
+
+        for (int j = 0; j < matrix.countColumns(); j++) {
+            for (int i = 0; i < retVal.countRows(); i++) {
+                retVal.set(i, j, matrix.doubleValue(i < index ? i : i + 1, j));
+            }
+        }
+
+        return retVal;
+    }
+
+    private static void doTestBlocked(final PhysicalStore<Double> matrix, final boolean fullSize) {
+
+        final PhysicalStore<Double> tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(matrix.countRows(), 3, new Normal());
+
+        final int tmpBlocked = QRDecomposition.BLOCKED;
+
+        try {
+
+            final QR<Double> tmpBlockedQR = QR.PRIMITIVE.make(matrix);
+            tmpBlockedQR.setFullSize(fullSize);
+            TestUtils.assertTrue(tmpBlockedQR.decompose(matrix));
+
+            QRDecomposition.BLOCKED = Integer.MAX_VALUE;
+
+            final QR<Double> tmpUnblockedQR = QR.PRIMITIVE.make(matrix);
+            tmpUnblockedQR.setFullSize(fullSize);
+            TestUtils.assertTrue(tmpUnblockedQR.decompose(matrix));
+
+            TestUtils.assertEquals(tmpUnblockedQR.getR(), tmpBlockedQR.getR());
+            TestUtils.assertEquals(tmpUnblockedQR.getQ(), tmpBlockedQR.getQ());
+            if (!fullSize) {
+                TestUtils.assertEquals(matrix, tmpBlockedQR.reconstruct());
+            }
+
+            if (tmpBlockedQR.isSolvable()) {
+                TestUtils.assertEquals(tmpUnblockedQR.getSolution(tmpRHS), tmpBlockedQR.getSolution(tmpRHS));
+            }
+
+        } finally {
+            QRDecomposition.BLOCKED = tmpBlocked;
+        }
+    }
+
+    @Test
+    public void testBlocked() {
+
+        final int tmpDim = QRDecomposition.BLOCKED + 37;
+
+        QRTest.doTestBlocked(PrimitiveDenseStore.FACTORY.makeFilled(tmpDim + 200, tmpDim, new Normal()), false);
+        QRTest.doTestBlocked(PrimitiveDenseStore.FACTORY.makeFilled(tmpDim + 50, tmpDim, new Normal()), true);
+        QRTest.doTestBlocked(PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, tmpDim, new Normal()), false);
+        QRTest.doTestBlocked(PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, tmpDim + 50, new Normal()), true);
+
+        // Rank deficient - a column of zeros
+        final PrimitiveDenseStore tmpDeficient = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim + 20, tmpDim, new Normal());
+        tmpDeficient.fillColumn(0, 5, 0.0);
+        QRTest.doTestBlocked(tmpDeficient, false);
+    }
+
     @Before
     public void minimiseAllBranchLimits() {
         TestUtils.minimiseAllBranchLimits();
     }
 
+    @Test
+    public void testConditionEstimate() throws RecoverableCondition {
+
+        final PrimitiveDenseStore tmpMatrix = PrimitiveDenseStore.FACTORY.makeFilled(50, 30, new Normal());
+
+        for (final QR<Double> tmpDecomposition : MatrixDecompositionTests.getQRPrimitive()) {
+
+            tmpDecomposition.decompose(tmpMatrix);
+
+            final MatrixStore<Double> tmpR = tmpDecomposition.getR().logical().limits(30, 30).get();
+            final double tmpExpected = MatrixDecompositionTests.norm1(tmpR) * MatrixDecompositionTests.norm1(new RawLU().invert(tmpR));
+
+            MatrixDecompositionTests.assertConditionEstimate(tmpExpected, tmpDecomposition.estimateCondition());
+        }
+    }
+
     @Test
     public void testDiagonalCase() {
 
@@ -229,4 +401,16 @@ public class QRTest {
         TestUtils.assertEquals(PrimitiveDenseStore.FACTORY.copy(tmpOriginal), tmpPrimitiveDecomp, new NumberContext(7, 14));
     }
 
+    @Test
+    public void testUpdatable() {
+
+        QRTest.doTestUpdatable(PrimitiveDenseStore.FACTORY.makeFilled(9, 5, new Normal()));
+        QRTest.doTestUpdatable(PrimitiveDenseStore.FACTORY.makeFilled(6, 6, new Normal()));
+        QRTest.doTestUpdatable(PrimitiveDenseStore.FACTORY.makeFilled(4, 7, new Normal()));
+
+        // Starting from the blocked algorithm
+        final int tmpDim = QRDecomposition.BLOCKED + 9;
+        QRTest.doTestUpdatable(PrimitiveDenseStore.FACTORY.makeFilled(tmpDim + 20, tmpDim, new Normal()));
+    }
+
 }
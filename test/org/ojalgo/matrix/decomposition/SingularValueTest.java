@@ -39,6 +39,7 @@ import org.ojalgo.matrix.store.MatrixStore;
 import org.ojalgo.matrix.store.PhysicalStore;
 import org.ojalgo.matrix.store.PrimitiveDenseStore;
 import org.ojalgo.netio.BasicLogger;
+import org.ojalgo.random.Normal;
 import org.ojalgo.scalar.ComplexNumber;
 import org.ojalgo.type.context.NumberContext;
 
@@ -250,6 +251,53 @@ public class SingularValueTest {
         this.testRecreation(tmpOriginal);
     }
 
+    @Test
+    public void testTruncated() {
+
+        final int tmpRank = 6;
+
+        // Singular values decaying from 2^10 and down, 300x120
+        final PhysicalStore<Double> tmpLeft = PrimitiveDenseStore.FACTORY.makeFilled(300, 40, new Normal());
+        final PhysicalStore<Double> tmpRight = PrimitiveDenseStore.FACTORY.makeFilled(40, 120, new Normal());
+        for (int i = 0; i < 40; i++) {
+            final double tmpScale = PrimitiveFunction.POW.invoke(2.0, 10 - i);
+            for (int j = 0; j < 120; j++) {
+                tmpRight.set(i, j, tmpScale * tmpRight.doubleValue(i, j));
+            }
+        }
+        final PhysicalStore<Double> tmpMatrix = PrimitiveDenseStore.FACTORY.copy(tmpLeft.multiply(tmpRight));
+
+        final SingularValue<Double> tmpFull = new RawSingularValue();
+        TestUtils.assertTrue(tmpFull.decompose(tmpMatrix));
+
+        final SingularValue<Double> tmpTruncated = SingularValue.makeTruncated(tmpRank);
+        TestUtils.assertTrue(tmpTruncated.decompose(tmpMatrix));
+
+        final Array1D<Double> tmpExpected = tmpFull.getSingularValues();
+        final Array1D<Double> tmpActual = tmpTruncated.getSingularValues();
+        TestUtils.assertEquals(tmpRank, tmpActual.count());
+        for (int i = 0; i < tmpRank; i++) {
+            TestUtils.assertEquals(tmpExpected.doubleValue(i), tmpActual.doubleValue(i), CNTXT_REAL_VALUES);
+        }
+
+        final MatrixStore<Double> tmpQ1 = tmpTruncated.getQ1();
+        final MatrixStore<Double> tmpQ2 = tmpTruncated.getQ2();
+        TestUtils.assertEquals(300, tmpQ1.countRows());
+        TestUtils.assertEquals(120, tmpQ2.countRows());
+        TestUtils.assertEquals(PrimitiveDenseStore.FACTORY.makeEye(tmpRank, tmpRank), tmpQ1.transpose().multiply(tmpQ1), CNTXT_REAL_VALUES);
+        TestUtils.assertEquals(PrimitiveDenseStore.FACTORY.makeEye(tmpRank, tmpRank), tmpQ2.transpose().multiply(tmpQ2), CNTXT_REAL_VALUES);
+        TestUtils.assertEquals(tmpMatrix.multiply(tmpQ2), tmpQ1.multiply(tmpTruncated.getD()), CNTXT_REAL_DECOMP);
+
+        // The rank-k approximation is as good as that from the full decomposition
+        final MatrixStore<Double> tmpApproximation = tmpFull.getQ1().logical().limits(300, tmpRank).get()
+                .multiply(tmpFull.getD().logical().limits(tmpRank, tmpRank).get()).multiply(tmpFull.getQ2().logical().limits(120, tmpRank).get().transpose());
+        TestUtils.assertEquals(tmpApproximation, tmpTruncated.reconstruct(), CNTXT_REAL_DECOMP);
+
+        // Least squares solution using the truncated pseudoinverse
+        final PhysicalStore<Double> tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(300, 2, new Normal());
+        TestUtils.assertEquals(tmpTruncated.getInverse().multiply(tmpRHS), tmpTruncated.getSolution(tmpRHS), CNTXT_REAL_DECOMP);
+    }
+
     private void doTestTypes(final BasicMatrix original) {
 
         final PhysicalStore<BigDecimal> tmpBigStore = BigDenseStore.FACTORY.copy(original);
@@ -0,0 +1,177 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.CompressedStore;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.store.SparseStore;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * @author apete
+ */
+public class SparseCholeskyTest {
+
+    private static final NumberContext PRECISION = new NumberContext(10, 10);
+
+    /**
+     * The 5-point Laplacian of a size x size grid, with scaled diagonal
+     */
+    static SparseStore<Double> makeLaplacian(final int size, final double diagonal) {
+
+        final int tmpDim = size * size;
+
+        final SparseStore.Loader<Double> retVal = SparseStore.PRIMITIVE.loader(tmpDim, tmpDim);
+
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                final int ij = x + (y * size);
+                retVal.add(ij, ij, diagonal);
+                if (x > 0) {
+                    retVal.add(ij, ij - 1, -1.0);
+                    retVal.add(ij - 1, ij, -1.0);
+                }
+                if (y > 0) {
+                    retVal.add(ij, ij - size, -1.0);
+                    retVal.add(ij - size, ij, -1.0);
+                }
+            }
+        }
+
+        return retVal.make();
+    }
+
+    static SparseStore<Double> makeRandom(final int dim, final int offDiagonal, final long seed) {
+
+        final Random tmpRandom = new Random(seed);
+
+        final double[] tmpDiagonal = new double[dim];
+
+        final SparseStore.Loader<Double> retVal = SparseStore.PRIMITIVE.loader(dim, dim);
+
+        for (int k = 0; k < offDiagonal; k++) {
+            final int i = tmpRandom.nextInt(dim);
+            final int j = tmpRandom.nextInt(dim);
+            if (i != j) {
+                final double tmpValue = tmpRandom.nextGaussian();
+                retVal.add(i, j, tmpValue);
+                retVal.add(j, i, tmpValue);
+                tmpDiagonal[i] += Math.abs(tmpValue);
+                tmpDiagonal[j] += Math.abs(tmpValue);
+            }
+        }
+
+        for (int i = 0; i < dim; i++) {
+            retVal.add(i, i, tmpDiagonal[i] + 1.0);
+        }
+
+        return retVal.make();
+    }
+
+    @Test
+    public void testCompareDense() {
+
+        final SparseStore<Double> tmpSparse = SparseCholeskyTest.makeRandom(200, 600, 42L);
+        final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.copy(tmpSparse);
+        final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(200, 3, new Uniform());
+
+        final Cholesky<Double> tmpExpected = new RawCholesky();
+        TestUtils.assertTrue(tmpExpected.decompose(tmpDense));
+
+        // Only explicitly asked for, [L] is the factor of the permuted matrix
+        TestUtils.assertFalse(Cholesky.PRIMITIVE.make(tmpSparse) instanceof SparseCholesky);
+
+        final Cholesky<Double> tmpActual = Cholesky.SPARSE.make(tmpSparse);
+        TestUtils.assertTrue(tmpActual.decompose(tmpSparse));
+        TestUtils.assertTrue(tmpActual.isSPD());
+        TestUtils.assertTrue(tmpActual.isSolvable());
+
+        TestUtils.assertEquals(tmpExpected.getSolution(tmpRHS), tmpActual.getSolution(tmpRHS), PRECISION);
+        TestUtils.assertEquals(tmpExpected.getDeterminant() / tmpActual.getDeterminant(), 1.0, PRECISION);
+        TestUtils.assertEquals(tmpExpected.getInverse(), tmpActual.getInverse(), PRECISION);
+        TestUtils.assertEquals(tmpDense, tmpActual.reconstruct(), PRECISION);
+
+        final double tmpCondition = MatrixDecompositionTests.norm1(tmpDense) * MatrixDecompositionTests.norm1(tmpExpected.getInverse());
+        MatrixDecompositionTests.assertConditionEstimate(tmpCondition, tmpActual.estimateCondition());
+    }
+
+    @Test
+    public void testFillReducingOrder() {
+
+        final int tmpSize = 30;
+        final SparseStore<Double> tmpLaplacian = SparseCholeskyTest.makeLaplacian(tmpSize, 4.0);
+
+        final SparseCholesky tmpDecomposition = new SparseCholesky();
+        TestUtils.assertTrue(tmpDecomposition.decompose(tmpLaplacian));
+        TestUtils.assertTrue(tmpDecomposition.isSolvable());
+
+        // With the natural order [L] is banded, (almost) every element within the band is nonzero
+        final int tmpDim = tmpSize * tmpSize;
+        final long tmpBanded = (tmpDim * (tmpSize + 1L)) - ((tmpSize * (tmpSize + 1L)) / 2L);
+        final int tmpOrdered = ((CompressedStore) tmpDecomposition.getL()).countNonzeros();
+        TestUtils.assertTrue(tmpOrdered + " vs " + tmpBanded, (2L * tmpOrdered) < tmpBanded);
+
+        final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, 1, new Uniform());
+        final MatrixStore<Double> tmpSolution = tmpDecomposition.getSolution(tmpRHS);
+        TestUtils.assertEquals(tmpRHS, tmpLaplacian.multiply(tmpSolution), PRECISION);
+    }
+
+    @Test
+    public void testNotPositiveDefinite() {
+
+        final SparseStore<Double> tmpMatrix = SparseCholeskyTest.makeLaplacian(5, 4.0);
+        tmpMatrix.set(7, 7, -1.0);
+
+        final Cholesky<Double> tmpDecomposition = Cholesky.SPARSE.make(tmpMatrix);
+        tmpDecomposition.decompose(tmpMatrix);
+
+        TestUtils.assertFalse(tmpDecomposition.isSPD());
+        TestUtils.assertFalse(tmpDecomposition.isSolvable());
+        TestUtils.assertTrue(Double.isInfinite(tmpDecomposition.estimateCondition()));
+    }
+
+    @Test
+    public void testSamePattern() {
+
+        final SparseCholesky tmpDecomposition = new SparseCholesky();
+
+        TestUtils.assertTrue(tmpDecomposition.decompose(SparseCholeskyTest.makeLaplacian(10, 4.0)));
+        final int[] tmpOrder = tmpDecomposition.getOrder();
+
+        final SparseStore<Double> tmpMatrix = SparseCholeskyTest.makeLaplacian(10, 5.0);
+        TestUtils.assertTrue(tmpDecomposition.decompose(tmpMatrix));
+        TestUtils.assertTrue(tmpOrder == tmpDecomposition.getOrder());
+        TestUtils.assertEquals(tmpMatrix, tmpDecomposition.reconstruct(), PRECISION);
+
+        final SparseStore<Double> tmpOther = SparseCholeskyTest.makeLaplacian(9, 4.0);
+        TestUtils.assertTrue(tmpDecomposition.decompose(tmpOther));
+        TestUtils.assertTrue(tmpOrder != tmpDecomposition.getOrder());
+        TestUtils.assertEquals(tmpOther, tmpDecomposition.reconstruct(), PRECISION);
+    }
+
+}
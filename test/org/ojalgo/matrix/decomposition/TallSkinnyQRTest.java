@@ -0,0 +1,103 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.decomposition;
+
+import org.junit.Test;
+import org.ojalgo.RecoverableCondition;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.matrix.task.SolverTask;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * @author apete
+ */
+public class TallSkinnyQRTest {
+
+    private static final int COLUMNS = 200;
+    private static final NumberContext PRECISION = new NumberContext(10, 8);
+
+    /**
+     * 3 row blocks - the reduction tree has one pass-through node
+     */
+    private static PrimitiveDenseStore makeTall() {
+        return PrimitiveDenseStore.FACTORY.makeFilled((3 * TallSkinnyQR.blockRows(COLUMNS)) + 17, COLUMNS, new Normal());
+    }
+
+    @Test
+    public void testFactory() {
+
+        final PrimitiveDenseStore tmpTall = TallSkinnyQRTest.makeTall();
+        final PrimitiveDenseStore tmpSquare = PrimitiveDenseStore.FACTORY.makeZero(COLUMNS, COLUMNS);
+
+        TestUtils.assertTrue(QR.PRIMITIVE_TALL.make(tmpTall) instanceof TallSkinnyQR);
+        TestUtils.assertFalse(QR.PRIMITIVE_TALL.make(tmpSquare) instanceof TallSkinnyQR);
+
+        TestUtils.assertTrue(SolverTask.PRIMITIVE.make(tmpTall, PrimitiveDenseStore.FACTORY.makeZero(tmpTall.countRows(), 2)) instanceof TallSkinnyQR);
+    }
+
+    @Test
+    public void testQR() {
+
+        final PrimitiveDenseStore tmpMatrix = TallSkinnyQRTest.makeTall();
+
+        final QR<Double> tmpDecomposition = QR.PRIMITIVE_TALL.make(tmpMatrix);
+        TestUtils.assertTrue(tmpDecomposition.decompose(tmpMatrix));
+        TestUtils.assertEquals(COLUMNS, tmpDecomposition.getRank());
+
+        final MatrixStore<Double> tmpQ = tmpDecomposition.getQ();
+        final MatrixStore<Double> tmpR = tmpDecomposition.getR();
+
+        TestUtils.assertEquals(COLUMNS, tmpQ.countColumns());
+        TestUtils.assertEquals(COLUMNS, tmpR.countRows());
+
+        TestUtils.assertEquals(PrimitiveDenseStore.FACTORY.makeEye(COLUMNS, COLUMNS), tmpQ.transpose().multiply(tmpQ), PRECISION);
+        TestUtils.assertEquals(tmpMatrix, tmpDecomposition.reconstruct(), PRECISION);
+
+        // R is unique up to the signs of its rows
+        final QR<Double> tmpReference = QR.PRIMITIVE.make(tmpMatrix);
+        tmpReference.decompose(tmpMatrix);
+        final MatrixStore<Double> tmpExpected = tmpReference.getR().logical().limits(COLUMNS, COLUMNS).get();
+        for (int i = 0; i < COLUMNS; i++) {
+            final double tmpSign = Math.signum(tmpExpected.doubleValue(i, i) * tmpR.doubleValue(i, i));
+            for (int j = i; j < COLUMNS; j++) {
+                TestUtils.assertEquals(tmpExpected.doubleValue(i, j), tmpSign * tmpR.doubleValue(i, j), PRECISION);
+            }
+        }
+    }
+
+    @Test
+    public void testLeastSquares() throws RecoverableCondition {
+
+        final PrimitiveDenseStore tmpBody = TallSkinnyQRTest.makeTall();
+        final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(tmpBody.countRows(), 3, new Normal());
+
+        final MatrixStore<Double> tmpExpected = QR.PRIMITIVE.make(tmpBody).solve(tmpBody, tmpRHS);
+        final MatrixStore<Double> tmpActual = QR.PRIMITIVE_TALL.make(tmpBody).solve(tmpBody, tmpRHS);
+
+        TestUtils.assertEquals(COLUMNS, tmpActual.countRows());
+        TestUtils.assertEquals(tmpExpected, tmpActual, PRECISION);
+    }
+
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.ojalgo.ProgrammingError;
+import org.ojalgo.TestUtils;
+import org.ojalgo.concurrent.DivideAndConquer;
+import org.ojalgo.function.aggregator.Aggregator;
+import org.ojalgo.matrix.store.operation.MultiplySparse;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * @author apete
+ */
+public class CompressedStoreTest extends AbstractMatrixStoreTest {
+
+    private static final NumberContext PRECISION = new NumberContext(12, 12);
+
+    private static SparseStore<Double> random(final int rows, final int columns, final double density) {
+
+        final Random tmpRandom = new Random();
+
+        final SparseStore<Double> retVal = SparseStore.PRIMITIVE.make(rows, columns);
+        for (int j = 0; j < columns; j++) {
+            for (int i = 0; i < rows; i++) {
+                if (tmpRandom.nextDouble() < density) {
+                    retVal.set(i, j, tmpRandom.nextGaussian());
+                }
+            }
+        }
+        return retVal;
+    }
+
+    @Test
+    public void testIteration() {
+
+        final SparseStore<Double> tmpSparse = CompressedStoreTest.random(23, 31, 0.2);
+        final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.copy(tmpSparse);
+
+        for (final CompressedStore tmpCompressed : new CompressedStore[] { CompressedStore.rows(tmpSparse), CompressedStore.columns(tmpSparse) }) {
+
+            int tmpCount = 0;
+            for (final CompressedStore.NonzeroView tmpNonzero : tmpCompressed.nonzeros()) {
+                TestUtils.assertEquals(tmpDense.doubleValue(tmpNonzero.row(), tmpNonzero.column()), tmpNonzero.doubleValue());
+                TestUtils.assertEquals(tmpNonzero.row(), tmpNonzero.index() % 23L);
+                tmpCount++;
+            }
+            TestUtils.assertEquals(tmpCompressed.countNonzeros(), tmpCount);
+
+            for (int i = 0; i < 23; i++) {
+                double tmpSum = 0.0;
+                long tmpPrevious = -1L;
+                for (final CompressedStore.NonzeroView tmpNonzero : tmpCompressed.nonzerosInRow(i)) {
+                    TestUtils.assertEquals(i, tmpNonzero.row());
+                    TestUtils.assertTrue(tmpNonzero.column() > tmpPrevious);
+                    tmpPrevious = tmpNonzero.column();
+                    tmpSum += tmpNonzero.doubleValue();
+                }
+                TestUtils.assertEquals(tmpDense.aggregateRow(i, 0, Aggregator.SUM).doubleValue(), tmpSum, PRECISION);
+                TestUtils.assertTrue(tmpCompressed.firstInRow(i) <= tmpSparse.firstInRow(i));
+            }
+
+            for (int j = 0; j < 31; j++) {
+                double tmpSum = 0.0;
+                for (final CompressedStore.NonzeroView tmpNonzero : tmpCompressed.nonzerosInColumn(j)) {
+                    TestUtils.assertEquals(j, tmpNonzero.column());
+                    tmpSum += tmpNonzero.doubleValue();
+                }
+                TestUtils.assertEquals(tmpDense.aggregateColumn(0, j, Aggregator.SUM).doubleValue(), tmpSum,
+                        PRECISION);
+            }
+        }
+    }
+
+    @Test
+    public void testMultiply() {
+
+        final SparseStore<Double> tmpSparse = CompressedStoreTest.random(40, 30, 0.1);
+        final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.copy(tmpSparse);
+
+        final PrimitiveDenseStore tmpRight = PrimitiveDenseStore.FACTORY.makeFilled(30, 7, new Normal());
+        final PrimitiveDenseStore tmpLeft = PrimitiveDenseStore.FACTORY.makeFilled(5, 40, new Normal());
+
+        final MatrixStore<Double> tmpExpected = tmpDense.multiply(tmpRight);
+        final MatrixStore<Double> tmpExpectedPre = tmpLeft.multiply(tmpDense);
+
+        for (final CompressedStore tmpCompressed : new CompressedStore[] { CompressedStore.rows(tmpSparse), CompressedStore.columns(tmpSparse) }) {
+
+            TestUtils.assertEquals(tmpDense, tmpCompressed, PRECISION);
+            TestUtils.assertEquals(tmpDense.transpose(), tmpCompressed.transpose(), PRECISION);
+
+            TestUtils.assertEquals(tmpExpected, tmpCompressed.multiply(tmpRight), PRECISION);
+            TestUtils.assertEquals(tmpExpected, tmpCompressed.multiply(tmpRight.logical().get()), PRECISION);
+            TestUtils.assertEquals(tmpExpectedPre, tmpCompressed.premultiply(tmpLeft).get(), PRECISION);
+            TestUtils.assertEquals(tmpExpectedPre.transpose(), tmpCompressed.transpose().multiply(tmpLeft.transpose()), PRECISION);
+
+            final SparseStore<Double> tmpProduct = SparseStore.PRIMITIVE.make(40, 7);
+            tmpCompressed.multiply(tmpRight, tmpProduct);
+            TestUtils.assertEquals(tmpExpected, tmpProduct, PRECISION);
+
+            TestUtils.assertEquals(tmpDense.multiply(-2.5), tmpCompressed.multiply(-2.5), PRECISION);
+        }
+    }
+
+    @Test
+    public void testParallelMultiply() {
+
+        final int tmpParallelism = DivideAndConquer.getParallelism();
+        final int tmpThreshold = MultiplySparse.THRESHOLD;
+
+        try {
+
+            DivideAndConquer.setParallelism(4);
+            MultiplySparse.THRESHOLD = 16;
+
+            // Skewed - one full row and column, and some empty rows and columns at the end
+            final SparseStore<Double> tmpSparse = CompressedStoreTest.random(200, 150, 0.02);
+            for (int j = 0; j < 140; j++) {
+                tmpSparse.set(7, j, 1.0 + j);
+            }
+            for (int i = 0; i < 190; i++) {
+                tmpSparse.set(i, 3, 1.0 - i);
+            }
+            for (int j = 0; j < 150; j++) {
+                for (int i = 190; i < 200; i++) {
+                    tmpSparse.set(i, j, 0.0);
+                }
+            }
+            final PrimitiveDenseStore tmpDense = PrimitiveDenseStore.FACTORY.copy(tmpSparse);
+
+            for (final int tmpColumns : new int[] { 1, 3 }) {
+
+                final PrimitiveDenseStore tmpRight = PrimitiveDenseStore.FACTORY.makeFilled(150, tmpColumns, new Normal());
+                final PrimitiveDenseStore tmpLeft = PrimitiveDenseStore.FACTORY.makeFilled(tmpColumns, 200, new Normal());
+
+                final MatrixStore<Double> tmpExpected = tmpDense.multiply(tmpRight);
+                final MatrixStore<Double> tmpExpectedPre = tmpLeft.multiply(tmpDense);
+
+                TestUtils.assertEquals(tmpExpected, tmpSparse.multiply(tmpRight), PRECISION);
+                TestUtils.assertEquals(tmpExpectedPre, tmpSparse.premultiply(tmpLeft).get(), PRECISION);
+
+                for (final CompressedStore tmpCompressed : new CompressedStore[] { CompressedStore.rows(tmpSparse), CompressedStore.columns(tmpSparse) }) {
+
+                    final PrimitiveDenseStore tmpProduct = PrimitiveDenseStore.FACTORY.makeFilled(200, tmpColumns, new Normal());
+                    tmpCompressed.multiply(tmpRight, tmpProduct);
+                    TestUtils.assertEquals(tmpExpected, tmpProduct, PRECISION);
+
+                    TestUtils.assertEquals(tmpExpectedPre, tmpCompressed.premultiply(tmpLeft).get(), PRECISION);
+                }
+            }
+
+            // SparseStore keeps a compressed copy that must be discarded when changed
+            final PrimitiveDenseStore tmpVector = PrimitiveDenseStore.FACTORY.makeFilled(150, 1, new Normal());
+            tmpSparse.multiply(tmpVector);
+            tmpSparse.set(199, 149, 3.0);
+            tmpDense.set(199, 149, 3.0);
+            TestUtils.assertEquals(tmpDense.multiply(tmpVector), tmpSparse.multiply(tmpVector), PRECISION);
+
+        } finally {
+
+            DivideAndConquer.setParallelism(tmpParallelism);
+            MultiplySparse.THRESHOLD = tmpThreshold;
+        }
+    }
+
+    @Test
+    public void testSparseProduct() {
+
+        final int tmpParallelism = DivideAndConquer.getParallelism();
+        final int tmpThreshold = MultiplySparse.THRESHOLD;
+
+        try {
+
+            for (final int tmpWorkers : new int[] { 1, 4 }) {
+
+                DivideAndConquer.setParallelism(tmpWorkers);
+                MultiplySparse.THRESHOLD = tmpWorkers == 1 ? tmpThreshold : 8;
+
+                final SparseStore<Double> tmpLeft = CompressedStoreTest.random(60, 40, 0.05);
+                final SparseStore<Double> tmpRight = CompressedStoreTest.random(40, 50, 0.05);
+                for (int j = 0; j < 50; j++) {
+                    tmpRight.set(11, j, j + 1.0);
+                }
+
+                final PrimitiveDenseStore tmpDenseLeft = PrimitiveDenseStore.FACTORY.copy(tmpLeft);
+                final PrimitiveDenseStore tmpDenseRight = PrimitiveDenseStore.FACTORY.copy(tmpRight);
+                final MatrixStore<Double> tmpExpected = tmpDenseLeft.multiply(tmpDenseRight);
+
+                int tmpNonzeros = 0;
+                for (int j = 0; j < 50; j++) {
+                    for (int i = 0; i < 60; i++) {
+                        if (tmpExpected.doubleValue(i, j) != 0.0) {
+                            tmpNonzeros++;
+                        }
+                    }
+                }
+
+                for (final CompressedStore tmpCompressed : new CompressedStore[] { CompressedStore.rows(tmpLeft), CompressedStore.columns(tmpLeft) }) {
+
+                    final CompressedStore tmpProduct = tmpCompressed.multiply(CompressedStore.columns(tmpRight));
+                    TestUtils.assertTrue(tmpProduct.isRowWise());
+                    TestUtils.assertEquals(tmpNonzeros, tmpProduct.countNonzeros());
+                    TestUtils.assertEquals(tmpExpected, tmpProduct, PRECISION);
+
+                    for (int i = 0; i < 60; i++) {
+                        long tmpPrevious = -1L;
+                        for (final CompressedStore.NonzeroView tmpNonzero : tmpProduct.nonzerosInRow(i)) {
+                            TestUtils.assertTrue(tmpNonzero.column() > tmpPrevious);
+                            tmpPrevious = tmpNonzero.column();
+                        }
+                    }
+
+                    TestUtils.assertEquals(tmpExpected, tmpCompressed.multiply((MatrixStore<Double>) tmpRight), PRECISION);
+                }
+
+                final MatrixStore<Double> tmpSparseProduct = tmpLeft.multiply(tmpRight);
+                TestUtils.assertTrue(tmpSparseProduct instanceof SparseStore);
+                TestUtils.assertEquals(tmpExpected, tmpSparseProduct, PRECISION);
+
+                // [A]^T[A]
+                final CompressedStore tmpCSR = CompressedStore.rows(tmpLeft);
+                TestUtils.assertEquals(tmpDenseLeft.transpose().multiply(tmpDenseLeft), tmpCSR.transpose().multiply(tmpCSR), PRECISION);
+
+                try {
+                    tmpCSR.multiply(tmpCSR);
+                    TestUtils.fail();
+                } catch (final ProgrammingError error) {
+                    // 60x40 * 60x40 is not possible
+                }
+            }
+
+        } finally {
+
+            DivideAndConquer.setParallelism(tmpParallelism);
+            MultiplySparse.THRESHOLD = tmpThreshold;
+        }
+    }
+
+    @Test
+    public void testTriplets() {
+
+        final int[] tmpRows = { 2, 0, 2, 1, 2, 0 };
+        final int[] tmpColumns = { 1, 3, 0, 1, 1, 0 };
+        final double[] tmpValues = { 1.0, 2.0, 3.0, 4.0, 5.0, 6.0 };
+
+        final PrimitiveDenseStore tmpExpected = PrimitiveDenseStore.FACTORY.rows(new double[][] { { 6.0, 0.0, 0.0, 2.0 }, { 0.0, 4.0, 0.0, 0.0 }, { 3.0, 6.0, 0.0, 0.0 } });
+
+        final CompressedStore tmpCSR = CompressedStore.rows(3, 4, tmpRows, tmpColumns, tmpValues);
+        final CompressedStore tmpCSC = CompressedStore.columns(3, 4, tmpRows, tmpColumns, tmpValues);
+
+        TestUtils.assertTrue(tmpCSR.isRowWise());
+        TestUtils.assertFalse(tmpCSC.isRowWise());
+
+        TestUtils.assertEquals(5, tmpCSR.countNonzeros());
+        TestUtils.assertEquals(5, tmpCSC.countNonzeros());
+
+        TestUtils.assertEquals(tmpExpected, tmpCSR);
+        TestUtils.assertEquals(tmpExpected, tmpCSC);
+        TestUtils.assertEquals(tmpExpected, tmpCSR.toColumns());
+        TestUtils.assertEquals(tmpExpected, tmpCSC.toRows());
+        TestUtils.assertEquals(tmpExpected, tmpCSR.copy());
+
+        TestUtils.assertEquals(0, tmpCSR.firstInRow(0));
+        TestUtils.assertEquals(4, tmpCSR.limitOfRow(0));
+        TestUtils.assertEquals(1, tmpCSR.firstInRow(1));
+        TestUtils.assertEquals(2, tmpCSR.limitOfRow(1));
+        TestUtils.assertEquals(3, tmpCSC.firstInColumn(2));
+        TestUtils.assertEquals(0, tmpCSC.limitOfColumn(2));
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import org.junit.Test;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.MatrixUtils;
+import org.ojalgo.matrix.decomposition.Cholesky;
+import org.ojalgo.matrix.decomposition.LU;
+import org.ojalgo.matrix.decomposition.QR;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * @author apete
+ */
+public class Primitive32DenseStoreTest extends AbstractMatrixStoreTest {
+
+    private static final NumberContext SINGLE = new NumberContext(5, 4);
+
+    private static PrimitiveDenseStore random(final int rows, final int columns) {
+        return PrimitiveDenseStore.FACTORY.makeFilled(rows, columns, new Normal());
+    }
+
+    @Test
+    public void testCholesky() {
+
+        final PrimitiveDenseStore tmpSPD = MatrixUtils.makeSPD(50);
+        final Primitive32DenseStore tmpMatrix = Primitive32DenseStore.FACTORY.copy(tmpSPD);
+        final MatrixStore<Double> tmpRHS = Primitive32DenseStore.FACTORY.copy(Primitive32DenseStoreTest.random(50, 3));
+
+        final Cholesky<Double> tmpDecomposition = Cholesky.make(tmpMatrix);
+        TestUtils.assertTrue(tmpDecomposition.decompose(tmpMatrix));
+        TestUtils.assertTrue(tmpDecomposition.isSPD());
+
+        TestUtils.assertEquals(tmpSPD, tmpDecomposition.reconstruct(), SINGLE);
+
+        final MatrixStore<Double> tmpSolution = tmpDecomposition.getSolution(tmpRHS);
+        TestUtils.assertEquals(tmpRHS, tmpSPD.multiply(tmpSolution), SINGLE);
+    }
+
+    @Test
+    public void testCopyAndTranspose() {
+
+        final PrimitiveDenseStore tmpOriginal = Primitive32DenseStoreTest.random(37, 23);
+
+        final Primitive32DenseStore tmpCopy = Primitive32DenseStore.FACTORY.copy(tmpOriginal);
+        TestUtils.assertEquals(tmpOriginal, tmpCopy, SINGLE);
+        TestUtils.assertEquals(tmpOriginal.count(), tmpCopy.data.length);
+
+        final Primitive32DenseStore tmpTransposed = Primitive32DenseStore.FACTORY.transpose(tmpOriginal);
+        TestUtils.assertEquals(tmpOriginal.transpose(), tmpTransposed, SINGLE);
+
+        final Primitive32DenseStore tmpFilled = Primitive32DenseStore.FACTORY.makeZero(23, 37);
+        tmpCopy.transpose().supplyTo(tmpFilled);
+        TestUtils.assertEquals(tmpTransposed, tmpFilled);
+    }
+
+    @Test
+    public void testLU() {
+
+        final PrimitiveDenseStore tmpOriginal = Primitive32DenseStoreTest.random(40, 40);
+        final Primitive32DenseStore tmpMatrix = Primitive32DenseStore.FACTORY.copy(tmpOriginal);
+
+        final LU<Double> tmpDecomposition = LU.PRIMITIVE32.make(tmpMatrix);
+        TestUtils.assertTrue(tmpDecomposition.decompose(tmpMatrix));
+
+        final MatrixStore<Double> tmpPivoted = tmpOriginal.logical().row(tmpDecomposition.getPivotOrder()).get();
+        TestUtils.assertEquals(tmpPivoted, tmpDecomposition.getL().multiply(tmpDecomposition.getU()), SINGLE);
+
+        final MatrixStore<Double> tmpInverse = tmpDecomposition.getInverse();
+        TestUtils.assertEquals(PrimitiveDenseStore.FACTORY.makeEye(40, 40), tmpOriginal.multiply(tmpInverse), new NumberContext(4, 3));
+    }
+
+    @Test
+    public void testMultiply() {
+
+        final PrimitiveDenseStore tmpLeft = Primitive32DenseStoreTest.random(45, 30);
+        final PrimitiveDenseStore tmpRight = Primitive32DenseStoreTest.random(30, 55);
+        final MatrixStore<Double> tmpExpected = tmpLeft.multiply(tmpRight);
+
+        final Primitive32DenseStore tmpLeft32 = Primitive32DenseStore.FACTORY.copy(tmpLeft);
+        final Primitive32DenseStore tmpRight32 = Primitive32DenseStore.FACTORY.copy(tmpRight);
+
+        TestUtils.assertEquals(tmpExpected, tmpLeft32.multiply(tmpRight32), SINGLE);
+        TestUtils.assertEquals(tmpExpected, tmpLeft32.multiply(tmpRight), SINGLE);
+
+        final Primitive32DenseStore tmpProduct = Primitive32DenseStore.FACTORY.makeZero(45, 55);
+        tmpProduct.fillByMultiplying(tmpLeft32, tmpRight32);
+        TestUtils.assertEquals(tmpExpected, tmpProduct, SINGLE);
+        tmpProduct.fillByMultiplying(tmpLeft, tmpRight32);
+        TestUtils.assertEquals(tmpExpected, tmpProduct, SINGLE);
+    }
+
+    @Test
+    public void testQR() {
+
+        final PrimitiveDenseStore tmpOriginal = Primitive32DenseStoreTest.random(60, 20);
+        final Primitive32DenseStore tmpMatrix = Primitive32DenseStore.FACTORY.copy(tmpOriginal);
+
+        final QR<Double> tmpDecomposition = QR.PRIMITIVE32.make(tmpMatrix);
+        TestUtils.assertTrue(tmpDecomposition.decompose(tmpMatrix));
+
+        TestUtils.assertEquals(tmpOriginal, tmpDecomposition.reconstruct(), SINGLE);
+
+        final MatrixStore<Double> tmpQ = tmpDecomposition.getQ();
+        TestUtils.assertEquals(PrimitiveDenseStore.FACTORY.makeEye(20, 20), tmpQ.transpose().multiply(tmpQ), SINGLE);
+    }
+
+}
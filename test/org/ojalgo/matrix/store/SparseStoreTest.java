@@ -0,0 +1,84 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.ojalgo.TestUtils;
+
+/**
+ * @author apete
+ */
+public class SparseStoreTest extends AbstractMatrixStoreTest {
+
+    @Test
+    public void testLoader() {
+
+        final int tmpRowsCount = 300;
+        final int tmpColumnsCount = 200;
+        final int tmpSize = 10_000;
+
+        final Random tmpRandom = new Random(123L);
+        final int[] tmpRows = new int[tmpSize];
+        final int[] tmpColumns = new int[tmpSize];
+        final double[] tmpValues = new double[tmpSize];
+        for (int i = 0; i < tmpSize; i++) {
+            tmpRows[i] = tmpRandom.nextInt(tmpRowsCount);
+            tmpColumns[i] = tmpRandom.nextInt(tmpColumnsCount);
+            tmpValues[i] = tmpRandom.nextGaussian();
+        }
+
+        final SparseStore<Double> tmpExpected = SparseStore.PRIMITIVE.make(tmpRowsCount, tmpColumnsCount);
+        for (int i = 0; i < tmpSize; i++) {
+            tmpExpected.add(tmpRows[i], tmpColumns[i], tmpValues[i]);
+        }
+
+        final SparseStore.Loader<Double> tmpLoader = SparseStore.PRIMITIVE.loader(tmpRowsCount, tmpColumnsCount);
+        IntStream.range(0, tmpSize).parallel().forEach(i -> tmpLoader.add(tmpRows[i], tmpColumns[i], tmpValues[i]));
+        final SparseStore<Double> tmpActual = tmpLoader.make();
+
+        TestUtils.assertEquals(tmpExpected, tmpActual);
+        TestUtils.assertEquals(tmpExpected.nonzeros().estimateSize(), tmpActual.nonzeros().estimateSize());
+
+        for (int i = 0; i < tmpRowsCount; i++) {
+            TestUtils.assertEquals(tmpExpected.firstInRow(i), tmpActual.firstInRow(i));
+            TestUtils.assertEquals(tmpExpected.limitOfRow(i), tmpActual.limitOfRow(i));
+        }
+
+        final SparseStore<Double> tmpEmpty = SparseStore.PRIMITIVE.loader(tmpRowsCount, tmpColumnsCount).make();
+        TestUtils.assertEquals(0L, tmpEmpty.nonzeros().estimateSize());
+
+        // (300, 0) would otherwise alias (0, 1)
+        for (final long[] tmpOutside : new long[][] { { tmpRowsCount, 0L }, { 0L, tmpColumnsCount }, { -1L, 0L }, { 0L, -1L } }) {
+            try {
+                tmpLoader.add(tmpOutside[0], tmpOutside[1], 1.0);
+                TestUtils.fail();
+            } catch (final ArrayIndexOutOfBoundsException exception) {
+                // Expected
+            }
+        }
+        TestUtils.assertEquals(tmpExpected, tmpLoader.make());
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.store.operation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ojalgo.OjAlgoUtils;
+import org.ojalgo.TestUtils;
+import org.ojalgo.array.blas.GEMM;
+import org.ojalgo.concurrent.DivideAndConquer;
+
+/**
+ * @author apete
+ */
+public class CalibrationTest {
+
+    private Properties myOriginal;
+
+    @Before
+    public void rememberThresholds() {
+        myOriginal = MatrixOperation.getThresholds();
+        DivideAndConquer.setParallelism(2);
+    }
+
+    @After
+    public void restoreThresholds() {
+        MatrixOperation.setThresholds(myOriginal);
+        DivideAndConquer.setParallelism(OjAlgoUtils.ENVIRONMENT.threads);
+    }
+
+    @Test
+    public void testCalibrate() {
+
+        final Properties tmpCalibrated = Calibration.calibrate(64);
+
+        TestUtils.assertEquals(myOriginal.size(), tmpCalibrated.size());
+
+        for (final String tmpKey : tmpCalibrated.stringPropertyNames()) {
+            final int tmpValue = Integer.parseInt(tmpCalibrated.getProperty(tmpKey));
+            TestUtils.assertTrue(tmpKey, tmpValue >= 1);
+        }
+
+        TestUtils.assertTrue(MultiplyNeither.THRESHOLD <= 64);
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+
+        final File tmpProfile = File.createTempFile("thresholds", ".properties");
+        tmpProfile.deleteOnExit();
+
+        MultiplyNeither.THRESHOLD = 48;
+        ApplyLU.THRESHOLD = 96;
+        GEMM.THRESHOLD = 80;
+
+        MatrixOperation.saveThresholds(tmpProfile);
+
+        MatrixOperation.setAllOperationThresholds(7);
+        TestUtils.assertEquals(7, ApplyLU.THRESHOLD);
+        TestUtils.assertEquals(7, GEMM.THRESHOLD);
+
+        MatrixOperation.loadThresholds(tmpProfile);
+
+        TestUtils.assertEquals(48, MultiplyNeither.THRESHOLD);
+        TestUtils.assertEquals(96, ApplyLU.THRESHOLD);
+        TestUtils.assertEquals(80, GEMM.THRESHOLD);
+    }
+
+    @Test
+    public void testUnspecifiedOrInvalidUnchanged() {
+
+        final int tmpAggregateAll = AggregateAll.THRESHOLD;
+        final int tmpModifyAll = ModifyAll.THRESHOLD;
+
+        final Properties tmpPartial = new Properties();
+        tmpPartial.setProperty("ModifyAll", "-5");
+        tmpPartial.setProperty("RotateLeft", "333");
+
+        MatrixOperation.setThresholds(tmpPartial);
+
+        TestUtils.assertEquals(tmpAggregateAll, AggregateAll.THRESHOLD);
+        TestUtils.assertEquals(tmpModifyAll, ModifyAll.THRESHOLD);
+        TestUtils.assertEquals(333, RotateLeft.THRESHOLD);
+    }
+
+}
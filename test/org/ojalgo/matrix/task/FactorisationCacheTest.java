@@ -0,0 +1,114 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.task;
+
+import org.junit.Test;
+import org.ojalgo.RecoverableCondition;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.MatrixUtils;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.random.Normal;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * @author apete
+ */
+public class FactorisationCacheTest extends AbstractMatrixDecompositionTaskTest {
+
+    private static final NumberContext ACCURACY = new NumberContext(10, 10);
+
+    @Test
+    public void testContentKeys() throws RecoverableCondition {
+
+        final FactorisationCache<Double> tmpCache = new FactorisationCache<>(SolverTask.PRIMITIVE, 4, true);
+
+        final PrimitiveDenseStore tmpBody = PrimitiveDenseStore.FACTORY.makeFilled(20, 20, new Normal());
+        final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(20, 3, new Uniform());
+
+        tmpCache.make(tmpBody, tmpRHS).solve(tmpBody, tmpRHS);
+
+        // Another instance with the same contents
+        final PrimitiveDenseStore tmpCopy = tmpBody.copy();
+        final MatrixStore<Double> tmpSolution = tmpCache.make(tmpCopy, tmpRHS).solve(tmpCopy, tmpRHS);
+        TestUtils.assertEquals(1L, tmpCache.countHits());
+        TestUtils.assertEquals(tmpRHS, tmpBody.multiply(tmpSolution), ACCURACY);
+
+        // Modified contents - not the same body
+        tmpCopy.set(3, 4, tmpCopy.doubleValue(3, 4) + 1.0);
+        final MatrixStore<Double> tmpModified = tmpCache.make(tmpCopy, tmpRHS).solve(tmpCopy, tmpRHS);
+        TestUtils.assertEquals(1L, tmpCache.countHits());
+        TestUtils.assertEquals(tmpRHS, tmpCopy.multiply(tmpModified), ACCURACY);
+        TestUtils.assertEquals(2, tmpCache.size());
+
+        tmpCache.invalidate(tmpBody);
+        TestUtils.assertEquals(1, tmpCache.size());
+    }
+
+    @Test
+    public void testIdentityKeys() throws RecoverableCondition {
+
+        final FactorisationCache<Double> tmpCache = new FactorisationCache<>(SolverTask.PRIMITIVE, 2);
+
+        final PrimitiveDenseStore tmpGeneral = PrimitiveDenseStore.FACTORY.makeFilled(9, 9, new Normal());
+        final PrimitiveDenseStore tmpSPD = MatrixUtils.makeSPD(9);
+        final PrimitiveDenseStore tmpTall = PrimitiveDenseStore.FACTORY.makeFilled(12, 9, new Normal());
+
+        for (int i = 0; i < 5; i++) {
+
+            final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(9, 2, new Uniform());
+
+            final MatrixStore<Double> tmpActual = tmpCache.make(tmpGeneral, tmpRHS).solve(tmpGeneral, tmpRHS);
+            TestUtils.assertEquals(tmpRHS, tmpGeneral.multiply(tmpActual), ACCURACY);
+
+            final MatrixStore<Double> tmpActualSPD = tmpCache.make(tmpSPD, tmpRHS, true, true).solve(tmpSPD, tmpRHS);
+            TestUtils.assertEquals(tmpRHS, tmpSPD.multiply(tmpActualSPD), ACCURACY);
+        }
+
+        TestUtils.assertEquals(2, tmpCache.size());
+        TestUtils.assertEquals(2L, tmpCache.countMisses());
+        TestUtils.assertEquals(8L, tmpCache.countHits());
+
+        // Least recently used is evicted
+        final PrimitiveDenseStore tmpTallRHS = PrimitiveDenseStore.FACTORY.makeFilled(12, 2, new Uniform());
+        final MatrixStore<Double> tmpLeastSquares = tmpCache.make(tmpTall, tmpTallRHS).solve(tmpTall, tmpTallRHS);
+        TestUtils.assertEquals(SolverTask.PRIMITIVE.make(tmpTall, tmpTallRHS).solve(tmpTall, tmpTallRHS), tmpLeastSquares, ACCURACY);
+        TestUtils.assertEquals(2, tmpCache.size());
+
+        final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(9, 1, new Uniform());
+        tmpCache.make(tmpSPD, tmpRHS, true, true).solve(tmpSPD, tmpRHS);
+        TestUtils.assertEquals(9L, tmpCache.countHits());
+        tmpCache.make(tmpGeneral, tmpRHS).solve(tmpGeneral, tmpRHS);
+        TestUtils.assertEquals(9L, tmpCache.countHits());
+
+        // Modified in place - has to be invalidated
+        tmpSPD.set(0, 0, tmpSPD.doubleValue(0, 0) + 1.0);
+        tmpCache.invalidate(tmpSPD);
+        final MatrixStore<Double> tmpModified = tmpCache.make(tmpSPD, tmpRHS, true, true).solve(tmpSPD, tmpRHS);
+        TestUtils.assertEquals(tmpRHS, tmpSPD.multiply(tmpModified), ACCURACY);
+
+        tmpCache.clear();
+        TestUtils.assertEquals(0, tmpCache.size());
+    }
+
+}
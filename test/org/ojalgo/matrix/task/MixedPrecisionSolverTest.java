@@ -0,0 +1,101 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.task;
+
+import org.junit.Test;
+import org.ojalgo.RecoverableCondition;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.MatrixUtils;
+import org.ojalgo.matrix.decomposition.Cholesky;
+import org.ojalgo.matrix.decomposition.LU;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.random.Normal;
+import org.ojalgo.random.Uniform;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * @author apete
+ */
+public class MixedPrecisionSolverTest extends AbstractMatrixDecompositionTaskTest {
+
+    private static final NumberContext DOUBLE = new NumberContext(10, 10);
+
+    @Test
+    public void testFactory() {
+
+        final MatrixStore<Double> tmpLarge = MatrixUtils.makeSPD(10);
+        final MatrixStore<Double> tmpSmall = MatrixUtils.makeSPD(3);
+
+        TestUtils.assertTrue(SolverTask.PRIMITIVE_MIXED.make(tmpLarge, tmpLarge) instanceof MixedPrecisionSolver);
+        TestUtils.assertFalse(SolverTask.PRIMITIVE_MIXED.make(tmpSmall, tmpSmall) instanceof MixedPrecisionSolver);
+    }
+
+    @Test
+    public void testGeneral() throws RecoverableCondition {
+
+        final PrimitiveDenseStore tmpBody = PrimitiveDenseStore.FACTORY.makeFilled(80, 80, new Normal());
+        final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(80, 2, new Uniform());
+
+        final MatrixStore<Double> tmpExpected = LU.PRIMITIVE.make(tmpBody).solve(tmpBody, tmpRHS);
+        final MatrixStore<Double> tmpActual = new MixedPrecisionSolver(false).solve(tmpBody, tmpRHS);
+
+        TestUtils.assertEquals(tmpExpected, tmpActual, DOUBLE);
+        TestUtils.assertEquals(tmpRHS, tmpBody.multiply(tmpActual), DOUBLE);
+    }
+
+    /**
+     * A Hilbert matrix is too ill-conditioned for a single precision factorisation - has to fall back to
+     * double precision.
+     */
+    @Test
+    public void testIllConditioned() throws RecoverableCondition {
+
+        final int tmpDim = 10;
+
+        final PrimitiveDenseStore tmpBody = PrimitiveDenseStore.FACTORY.makeZero(tmpDim, tmpDim);
+        for (int j = 0; j < tmpDim; j++) {
+            for (int i = 0; i < tmpDim; i++) {
+                tmpBody.set(i, j, 1.0 / (i + j + 1));
+            }
+        }
+        final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(tmpDim, 1, new Uniform());
+
+        final MatrixStore<Double> tmpExpected = Cholesky.PRIMITIVE.make(tmpBody).solve(tmpBody, tmpRHS);
+        final MatrixStore<Double> tmpActual = new MixedPrecisionSolver(true).solve(tmpBody, tmpRHS);
+
+        TestUtils.assertEquals(tmpExpected, tmpActual);
+    }
+
+    @Test
+    public void testSPD() throws RecoverableCondition {
+
+        final PrimitiveDenseStore tmpBody = MatrixUtils.makeSPD(100);
+        final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(100, 1, new Uniform());
+
+        final MatrixStore<Double> tmpExpected = Cholesky.PRIMITIVE.make(tmpBody).solve(tmpBody, tmpRHS);
+        final MatrixStore<Double> tmpActual = SolverTask.PRIMITIVE_MIXED.make(tmpBody, tmpRHS, true, true).solve(tmpBody, tmpRHS);
+
+        TestUtils.assertEquals(tmpExpected, tmpActual, DOUBLE);
+    }
+
+}
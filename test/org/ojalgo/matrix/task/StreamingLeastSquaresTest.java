@@ -0,0 +1,138 @@
+/*
+ * Copyright 1997-2018 Optimatika
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.ojalgo.matrix.task;
+
+import org.junit.Test;
+import org.ojalgo.RecoverableCondition;
+import org.ojalgo.TestUtils;
+import org.ojalgo.matrix.decomposition.QR;
+import org.ojalgo.matrix.store.MatrixStore;
+import org.ojalgo.matrix.store.PrimitiveDenseStore;
+import org.ojalgo.random.Normal;
+import org.ojalgo.type.context.NumberContext;
+
+/**
+ * @author apete
+ */
+public class StreamingLeastSquaresTest {
+
+    private static final NumberContext PRECISION = new NumberContext(10, 10);
+
+    private static StreamingLeastSquares accumulate(final StreamingLeastSquares accumulator, final PrimitiveDenseStore body,
+            final PrimitiveDenseStore rhs, final int first, final int limit) {
+        for (int i = first; i < limit; i++) {
+            accumulator.add(body.sliceRow(i, 0), rhs.doubleValue(i, 0));
+        }
+        return accumulator;
+    }
+
+    @Test
+    public void testCovarianceAndResidual() throws RecoverableCondition {
+
+        final PrimitiveDenseStore tmpBody = PrimitiveDenseStore.FACTORY.makeFilled(200, 7, new Normal());
+        final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(200, 1, new Normal());
+
+        final StreamingLeastSquares tmpAccumulator = StreamingLeastSquaresTest.accumulate(new StreamingLeastSquares(7), tmpBody, tmpRHS, 0, 200);
+        final MatrixStore<Double> tmpSolution = tmpAccumulator.getSolution();
+
+        final double tmpResidualNorm = tmpBody.multiply(tmpSolution).subtract(tmpRHS).norm();
+        TestUtils.assertEquals(tmpResidualNorm, tmpAccumulator.getResidualNorm(), PRECISION);
+
+        final MatrixStore<Double> tmpNormal = tmpBody.transpose().multiply(tmpBody);
+        final MatrixStore<Double> tmpExpected = QR.PRIMITIVE.make(tmpNormal).invert(tmpNormal).multiply((tmpResidualNorm * tmpResidualNorm) / (200 - 7));
+        TestUtils.assertEquals(tmpExpected, tmpAccumulator.getCovariance(), PRECISION);
+    }
+
+    @Test
+    public void testMerge() throws RecoverableCondition {
+
+        final PrimitiveDenseStore tmpBody = PrimitiveDenseStore.FACTORY.makeFilled(300, 10, new Normal());
+        final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(300, 1, new Normal());
+
+        final StreamingLeastSquares tmpAll = StreamingLeastSquaresTest.accumulate(new StreamingLeastSquares(10), tmpBody, tmpRHS, 0, 300);
+
+        final StreamingLeastSquares tmpFirst = StreamingLeastSquaresTest.accumulate(new StreamingLeastSquares(10), tmpBody, tmpRHS, 0, 120);
+        final StreamingLeastSquares tmpSecond = StreamingLeastSquaresTest.accumulate(new StreamingLeastSquares(10), tmpBody, tmpRHS, 120, 300);
+        tmpFirst.merge(tmpSecond);
+
+        TestUtils.assertEquals(300L, tmpFirst.count());
+        TestUtils.assertEquals(tmpAll.getSolution(), tmpFirst.getSolution(), PRECISION);
+        TestUtils.assertEquals(tmpAll.getResidualNorm(), tmpFirst.getResidualNorm(), PRECISION);
+    }
+
+    @Test
+    public void testNotSolvable() {
+
+        final StreamingLeastSquares tmpAccumulator = new StreamingLeastSquares(3);
+        tmpAccumulator.add(PrimitiveDenseStore.FACTORY.columns(new double[] { 1.0, 2.0, 3.0 }), 1.0);
+        tmpAccumulator.add(PrimitiveDenseStore.FACTORY.columns(new double[] { 2.0, 4.0, 6.0 }), 2.0);
+
+        try {
+            tmpAccumulator.getSolution();
+            TestUtils.fail();
+        } catch (final RecoverableCondition expected) {
+            // Expected
+        }
+
+        // With a ridge it's always solvable
+        final StreamingLeastSquares tmpRidge = new StreamingLeastSquares(3, 0.1);
+        tmpRidge.add(PrimitiveDenseStore.FACTORY.columns(new double[] { 1.0, 2.0, 3.0 }), 1.0);
+        tmpRidge.add(PrimitiveDenseStore.FACTORY.columns(new double[] { 2.0, 4.0, 6.0 }), 2.0);
+        try {
+            TestUtils.assertEquals(3L, tmpRidge.getSolution().count());
+        } catch (final RecoverableCondition cause) {
+            TestUtils.fail(cause.getMessage());
+        }
+    }
+
+    @Test
+    public void testRidge() throws RecoverableCondition {
+
+        final double tmpRidge = 2.5;
+
+        final PrimitiveDenseStore tmpBody = PrimitiveDenseStore.FACTORY.makeFilled(100, 6, new Normal());
+        final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(100, 1, new Normal());
+
+        final StreamingLeastSquares tmpAccumulator = StreamingLeastSquaresTest.accumulate(new StreamingLeastSquares(6, tmpRidge), tmpBody, tmpRHS, 0,
+                100);
+
+        final MatrixStore<Double> tmpRegularised = tmpBody.transpose().multiply(tmpBody).add(PrimitiveDenseStore.FACTORY.makeEye(6, 6).multiply(tmpRidge));
+        final MatrixStore<Double> tmpExpected = QR.PRIMITIVE.make(tmpRegularised).solve(tmpRegularised, tmpBody.transpose().multiply(tmpRHS));
+
+        TestUtils.assertEquals(tmpExpected, tmpAccumulator.getSolution(), PRECISION);
+    }
+
+    @Test
+    public void testSolution() throws RecoverableCondition {
+
+        final PrimitiveDenseStore tmpBody = PrimitiveDenseStore.FACTORY.makeFilled(500, 12, new Normal());
+        final PrimitiveDenseStore tmpRHS = PrimitiveDenseStore.FACTORY.makeFilled(500, 1, new Normal());
+
+        final MatrixStore<Double> tmpExpected = QR.PRIMITIVE.make(tmpBody).solve(tmpBody, tmpRHS);
+
+        final StreamingLeastSquares tmpAccumulator = StreamingLeastSquaresTest.accumulate(new StreamingLeastSquares(12), tmpBody, tmpRHS, 0, 500);
+
+        TestUtils.assertEquals(500L, tmpAccumulator.count());
+        TestUtils.assertEquals(tmpExpected, tmpAccumulator.getSolution(), PRECISION);
+    }
+
+}